@@ -0,0 +1,123 @@
+package com.SpringBootStarters.MarketPlace.Benchmarks;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import com.SpringBootStarters.MarketPlace.Entities.Customer;
+import com.SpringBootStarters.MarketPlace.Entities.Product;
+import com.SpringBootStarters.MarketPlace.Repositories.CustomerOrderStatsRepository;
+import com.SpringBootStarters.MarketPlace.Repositories.CustomerRepository;
+import com.SpringBootStarters.MarketPlace.Repositories.ProductRepository;
+import com.SpringBootStarters.MarketPlace.Services.BestSellerTracker;
+import com.SpringBootStarters.MarketPlace.Services.InventoryService;
+import com.SpringBootStarters.MarketPlace.Services.ProductCatalog;
+import com.SpringBootStarters.MarketPlace.Services.ProductSearchIndex;
+import com.SpringBootStarters.MarketPlace.Services.RetryPolicy;
+import com.SpringBootStarters.MarketPlace.Utils.Money;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Builds the in-memory repositories and sample data shared by the benchmarks.
+ */
+final class Fixtures {
+	private Fixtures() {
+	}
+
+	static InMemoryRepository<Product> products(int count) {
+		InMemoryRepository<Product> products = new InMemoryRepository<>(Product::getId, Product::setId);
+		for (int i = 0; i < count; i++)
+			products.put(new Product(0L, "Product " + i, BigDecimal.valueOf(1000 + i * 37L, Money.SCALE)));
+		return products;
+	}
+
+	static InMemoryRepository<Customer> customers() {
+		InMemoryRepository<Customer> customers = new InMemoryRepository<>(Customer::getId, Customer::setId);
+		customers.put(new Customer("John", "Doe", "doe@example.com", 25));
+		return customers;
+	}
+
+	static ProductCatalog catalog(InMemoryRepository<Product> products) {
+		return new ProductCatalog(products.as(ProductRepository.class), new ConcurrentMapCacheManager(ProductCatalog.PRODUCTS_CACHE));
+	}
+
+	static CustomerRepository customerRepository(InMemoryRepository<Customer> customers) {
+		return customers
+			.with("findByEmail", args -> Optional.empty())
+			.as(CustomerRepository.class);
+	}
+
+	/**
+	 * An aggregates repository that discards the deltas, the benchmarks
+	 * measure the service and not the upsert.
+	 */
+	static CustomerOrderStatsRepository customerOrderStatsRepository() {
+		return new CustomerOrderStatsRepository(null) {
+			@Override
+			public void apply(List<Delta> deltas) {
+			}
+		};
+	}
+
+	static BestSellerTracker bestSellerTracker() {
+		return new BestSellerTracker(null, Clock.systemUTC(), Duration.ofMinutes(5), Duration.ofDays(1), 1000);
+	}
+
+	/**
+	 * A search index that starts empty, it is only loaded from the database
+	 * when Spring initializes it.
+	 */
+	static ProductSearchIndex productSearchIndex() {
+		return new ProductSearchIndex(null, null);
+	}
+
+	/**
+	 * A transaction manager whose transactions do nothing, the in-memory
+	 * repositories have nothing to commit.
+	 */
+	static PlatformTransactionManager transactionManager() {
+		return new PlatformTransactionManager() {
+			@Override
+			public TransactionStatus getTransaction(TransactionDefinition definition) {
+				return new SimpleTransactionStatus();
+			}
+
+			@Override
+			public void commit(TransactionStatus status) {
+			}
+
+			@Override
+			public void rollback(TransactionStatus status) {
+			}
+		};
+	}
+
+	static RetryPolicy retryPolicy() {
+		return new RetryPolicy(1, Duration.ZERO, Duration.ZERO, new SimpleMeterRegistry());
+	}
+
+	/**
+	 * An inventory that is never started, so it tracks no product and
+	 * reserves nothing.
+	 */
+	static InventoryService inventoryService() {
+		return new InventoryService(null, transactionManager(), new SimpleMeterRegistry(), "benchmark", 8080, 1, 100, Duration.ofSeconds(1), Duration.ofMinutes(1));
+	}
+
+	static List<Long> ids(int count) {
+		List<Long> ids = new ArrayList<>(count);
+		for (long id = 1; id <= count; id++)
+			ids.add(id);
+		return ids;
+	}
+}
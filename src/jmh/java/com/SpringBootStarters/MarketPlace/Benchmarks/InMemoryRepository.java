@@ -0,0 +1,102 @@
+package com.SpringBootStarters.MarketPlace.Benchmarks;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.ObjLongConsumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * A map-backed stand-in for a Spring Data repository, so the services can be
+ * benchmarked without a database. The CRUD methods the services use are
+ * implemented here, derived queries are registered with {@link #with}, and any
+ * other method throws UnsupportedOperationException.
+ * @param <T> The entity type
+ */
+public final class InMemoryRepository<T> implements InvocationHandler {
+	private final Map<Long, T> rows = new HashMap<>();
+	private final Map<String, Function<Object[], Object>> queries = new HashMap<>();
+	private final ToLongFunction<T> idOf;
+	private final ObjLongConsumer<T> assignId;
+	private long nextId = 1;
+
+	public InMemoryRepository(ToLongFunction<T> idOf, ObjLongConsumer<T> assignId) {
+		this.idOf = idOf;
+		this.assignId = assignId;
+	}
+
+	/**
+	 * Registers the implementation of a repository method, it overrides the built-in CRUD methods.
+	 * @param method The name of the method
+	 * @param query The implementation, called with the method arguments
+	 * @return This repository
+	 */
+	public InMemoryRepository<T> with(String method, Function<Object[], Object> query) {
+		this.queries.put(method, query);
+		return this;
+	}
+
+	/**
+	 * Stores a row, assigning it an id if it has none.
+	 * @param row The row to store
+	 * @return The stored row
+	 */
+	public T put(T row) {
+		if (this.idOf.applyAsLong(row) == 0)
+			this.assignId.accept(row, this.nextId++);
+		this.rows.put(this.idOf.applyAsLong(row), row);
+		return row;
+	}
+
+	/**
+	 * Creates a proxy implementing the repository interface on top of this store.
+	 * @param type The repository interface
+	 * @return The repository
+	 */
+	public <R> R as(Class<R> type) {
+		return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, this));
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public Object invoke(Object proxy, Method method, Object[] args) {
+		Function<Object[], Object> query = this.queries.get(method.getName());
+		if (query != null)
+			return query.apply(args);
+		switch (method.getName()) {
+			case "findById":
+				return Optional.ofNullable(this.rows.get((Long) args[0]));
+			case "existsById":
+				return this.rows.containsKey((Long) args[0]);
+			case "findAllById":
+				List<T> found = new ArrayList<>();
+				for (Long id : (Iterable<Long>) args[0]) {
+					T row = this.rows.get(id);
+					if (row != null)
+						found.add(row);
+				}
+				return found;
+			case "save":
+				return put((T) args[0]);
+			case "deleteById":
+				this.rows.remove((Long) args[0]);
+				return null;
+			case "count":
+				return (long) this.rows.size();
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			case "equals":
+				return proxy == args[0];
+			case "toString":
+				return "InMemoryRepository" + this.rows.keySet();
+			default:
+				throw new UnsupportedOperationException(method.getName() + " is not supported by the in-memory repository");
+		}
+	}
+}
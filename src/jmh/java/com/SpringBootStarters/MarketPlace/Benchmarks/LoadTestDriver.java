@@ -0,0 +1,79 @@
+package com.SpringBootStarters.MarketPlace.Benchmarks;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A closed-loop HTTP load generator, used to compare the latency of the
+ * running application between thread modes. Each of the concurrent clients
+ * sends requests back to back until the total is reached, then the latency
+ * percentiles and the status codes are printed.
+ * It only depends on the JDK, so it can be launched from source:
+ * java LoadTestDriver.java http://localhost:8080/api/v1/orders 500 20000
+ */
+public final class LoadTestDriver {
+	private LoadTestDriver() {
+	}
+
+	public static void main(String[] args) throws Exception {
+		if (args.length != 3) {
+			System.err.println("Usage: LoadTestDriver <url> <concurrency> <requests>");
+			System.exit(1);
+		}
+		URI uri = URI.create(args[0]);
+		int concurrency = Integer.parseInt(args[1]);
+		int total = Integer.parseInt(args[2]);
+		HttpClient client = HttpClient.newBuilder()
+			.executor(Executors.newVirtualThreadPerTaskExecutor())
+			.connectTimeout(Duration.ofSeconds(10))
+			.build();
+		HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(60)).GET().build();
+
+		long[] latencies = new long[total];
+		AtomicInteger next = new AtomicInteger();
+		Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+		long start = System.nanoTime();
+		try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (int c = 0; c < concurrency; c++) {
+				clients.submit(() -> {
+					int i;
+					while ((i = next.getAndIncrement()) < total) {
+						long sent = System.nanoTime();
+						int status;
+						try {
+							status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+						} catch (Exception e) {
+							status = -1;
+						}
+						latencies[i] = System.nanoTime() - sent;
+						statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+					}
+					return null;
+				});
+			}
+		}
+		double seconds = (System.nanoTime() - start) / 1e9;
+
+		Arrays.sort(latencies);
+		System.out.printf("requests=%d concurrency=%d throughput=%.0f req/s%n", total, concurrency, total / seconds);
+		System.out.printf("p50=%.1f ms p90=%.1f ms p99=%.1f ms max=%.1f ms%n",
+			percentile(latencies, 50), percentile(latencies, 90), percentile(latencies, 99), latencies[total - 1] / 1e6);
+		System.out.println("statuses=" + new TreeMap<>(statuses) + " (-1 = I/O error or timeout)");
+	}
+
+	private static double percentile(long[] sorted, double percentile) {
+		int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+		return sorted[Math.max(index, 0)] / 1e6;
+	}
+}
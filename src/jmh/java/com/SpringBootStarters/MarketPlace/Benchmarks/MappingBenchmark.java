@@ -0,0 +1,90 @@
+package com.SpringBootStarters.MarketPlace.Benchmarks;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.SpringBootStarters.MarketPlace.DTOs.CustomerDto;
+import com.SpringBootStarters.MarketPlace.DTOs.ProductDto;
+import com.SpringBootStarters.MarketPlace.Entities.Customer;
+import com.SpringBootStarters.MarketPlace.Entities.Product;
+import com.SpringBootStarters.MarketPlace.Mappers.CustomerMapper;
+import com.SpringBootStarters.MarketPlace.Mappers.ProductMapper;
+import com.SpringBootStarters.MarketPlace.Repositories.ProductRepository;
+import com.SpringBootStarters.MarketPlace.Services.CustomerService;
+import com.SpringBootStarters.MarketPlace.Services.ProductService;
+
+/**
+ * Compares the reflective ModelMapper mapping with the handwritten mappers,
+ * alone and through the update paths of the customer and product services.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MappingBenchmark {
+	private ModelMapper modelMapper;
+	private CustomerMapper customerMapper;
+	private ProductMapper productMapper;
+	private CustomerService customerService;
+	private ProductService productService;
+	private CustomerDto customerDto;
+	private ProductDto productDto;
+
+	@Setup
+	public void setUp() {
+		modelMapper = new ModelMapper();
+		customerMapper = new CustomerMapper();
+		productMapper = new ProductMapper();
+		InMemoryRepository<Product> products = Fixtures.products(1);
+		products.with("findByProductName", args -> Optional.empty());
+		customerService = new CustomerService(Fixtures.customerRepository(Fixtures.customers()), customerMapper, null);
+		productService = new ProductService(products.as(ProductRepository.class), Fixtures.catalog(products), productMapper, Fixtures.productSearchIndex(), null);
+		customerDto = new CustomerDto("Jane", "Roe", "roe@example.com", 31);
+		productDto = new ProductDto("Nike Air Jordan 1 Low", BigDecimal.valueOf(1500));
+	}
+
+	@Benchmark
+	public Customer modelMapperNewCustomer() {
+		return modelMapper.map(customerDto, Customer.class);
+	}
+
+	@Benchmark
+	public Customer mapperNewCustomer() {
+		return customerMapper.toEntity(customerDto);
+	}
+
+	@Benchmark
+	public Product modelMapperNewProduct() {
+		return modelMapper.map(productDto, Product.class);
+	}
+
+	@Benchmark
+	public Product mapperNewProduct() {
+		return productMapper.toEntity(productDto);
+	}
+
+	@Benchmark
+	public Customer updateCustomer() {
+		return customerService.updateCustomer(1L, customerDto);
+	}
+
+	@Benchmark
+	public Product updateProduct() {
+		return productService.updateProduct(1L, productDto);
+	}
+}
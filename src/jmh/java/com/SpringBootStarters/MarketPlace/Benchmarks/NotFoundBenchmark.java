@@ -0,0 +1,56 @@
+package com.SpringBootStarters.MarketPlace.Benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.SpringBootStarters.MarketPlace.Entities.Product;
+import com.SpringBootStarters.MarketPlace.Mappers.ProductMapper;
+import com.SpringBootStarters.MarketPlace.Repositories.ProductRepository;
+import com.SpringBootStarters.MarketPlace.Services.ProductService;
+
+import jakarta.persistence.EntityNotFoundException;
+
+/**
+ * Compares a product lookup that succeeds with one that ends in an
+ * EntityNotFoundException, to show what the exception path costs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NotFoundBenchmark {
+	private ProductService productService;
+
+	@Setup
+	public void setUp() {
+		InMemoryRepository<Product> products = Fixtures.products(1);
+		productService = new ProductService(products.as(ProductRepository.class), Fixtures.catalog(products), new ProductMapper(), Fixtures.productSearchIndex(), null);
+		productService.getProduct(1L);
+	}
+
+	@Benchmark
+	public Product found() {
+		return productService.getProduct(1L);
+	}
+
+	@Benchmark
+	public Object notFound() {
+		try {
+			return productService.getProduct(-1L);
+		} catch (EntityNotFoundException e) {
+			return e;
+		}
+	}
+}
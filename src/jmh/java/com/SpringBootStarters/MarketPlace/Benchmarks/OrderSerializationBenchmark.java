@@ -0,0 +1,70 @@
+package com.SpringBootStarters.MarketPlace.Benchmarks;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.SpringBootStarters.MarketPlace.DTOs.OrderViewDto;
+import com.SpringBootStarters.MarketPlace.Entities.Customer;
+import com.SpringBootStarters.MarketPlace.Entities.Orders;
+import com.SpringBootStarters.MarketPlace.Entities.Product;
+import com.SpringBootStarters.MarketPlace.Utils.Money;
+import com.SpringBootStarters.MarketPlace.Utils.ResponseFields;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Measures the JSON serialization of an order with N products, using an
+ * ObjectMapper configured like the one of the application: the entity, as
+ * written before the response views, then its full and summary views.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderSerializationBenchmark {
+	@Param({ "1", "10", "100" })
+	private int productCount;
+
+	private ObjectMapper objectMapper;
+	private Orders order;
+
+	@Setup
+	public void setUp() {
+		objectMapper = Jackson2ObjectMapperBuilder.json().filters(ResponseFields.filterProvider()).build();
+		order = new Orders();
+		order.setId(1L);
+		order.setCustomer(new Customer(1L, "John", "Doe", "doe@example.com", 25));
+		for (int i = 0; i < productCount; i++)
+			order.getProducts().add(new Product(i + 1, "Product " + i, BigDecimal.valueOf(1000 + i * 37L, Money.SCALE)));
+	}
+
+	@Benchmark
+	public byte[] serializeOrder() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(order);
+	}
+
+	@Benchmark
+	public byte[] serializeFullView() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(OrderViewDto.of(order, OrderViewDto.FULL));
+	}
+
+	@Benchmark
+	public byte[] serializeSummaryView() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(OrderViewDto.of(order, ResponseFields.of(ResponseFields.SUMMARY, null, OrderViewDto.SUMMARY, OrderViewDto.ALL)));
+	}
+}
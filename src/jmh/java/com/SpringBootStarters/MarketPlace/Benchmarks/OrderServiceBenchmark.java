@@ -0,0 +1,57 @@
+package com.SpringBootStarters.MarketPlace.Benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.SpringBootStarters.MarketPlace.DTOs.OrderDto;
+import com.SpringBootStarters.MarketPlace.Entities.Orders;
+import com.SpringBootStarters.MarketPlace.Repositories.OrderRepository;
+import com.SpringBootStarters.MarketPlace.Services.OrderService;
+
+/**
+ * Measures OrderService.createOrder with in-memory repositories and a warm
+ * product catalog, so the cost is the product lookups and the order total.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderServiceBenchmark {
+	@Param({ "1", "10", "100" })
+	private int productCount;
+
+	private OrderService orderService;
+	private OrderDto orderDto;
+
+	@Setup
+	public void setUp() {
+		// Saved orders are not kept, so the store doesn't grow during the run
+		OrderRepository orderRepository = new InMemoryRepository<Orders>(Orders::getId, Orders::setId)
+			.with("save", args -> args[0])
+			.as(OrderRepository.class);
+		// createOrder doesn't use the order line repository
+		orderService = new OrderService(orderRepository, Fixtures.customerRepository(Fixtures.customers()), Fixtures.catalog(Fixtures.products(productCount)), null, Fixtures.customerOrderStatsRepository(), Fixtures.bestSellerTracker(), null, Fixtures.transactionManager(), Fixtures.retryPolicy(), Fixtures.inventoryService());
+		List<Long> productIds = Fixtures.ids(productCount);
+		orderDto = new OrderDto(productIds);
+		orderService.createOrder(1L, orderDto);
+	}
+
+	@Benchmark
+	public Orders createOrder() {
+		return orderService.createOrder(1L, orderDto);
+	}
+}
@@ -0,0 +1,69 @@
+package com.SpringBootStarters.MarketPlace.Benchmarks;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.SpringBootStarters.MarketPlace.Entities.OrderLine;
+import com.SpringBootStarters.MarketPlace.Entities.Product;
+import com.SpringBootStarters.MarketPlace.Utils.Money;
+
+/**
+ * Compares the order total computed by adding BigDecimal product prices with
+ * the total computed from the minor-unit price snapshots of the order lines.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderTotalBenchmark {
+	@Param({ "3", "30" })
+	private int lineCount;
+
+	private List<Product> products;
+	private List<OrderLine> lines;
+
+	@Setup
+	public void setUp() {
+		Random random = new Random(42);
+		products = new ArrayList<>(lineCount);
+		lines = new ArrayList<>(lineCount);
+		for (int i = 0; i < lineCount; i++) {
+			Product product = new Product(i + 1, "Product " + i, BigDecimal.valueOf(random.nextInt(1_000_000) + 1, Money.SCALE));
+			products.add(product);
+			lines.add(OrderLine.of(product));
+		}
+	}
+
+	@Benchmark
+	public BigDecimal bigDecimalTotal() {
+		BigDecimal totalAmount = BigDecimal.ZERO;
+		for (Product product : products)
+			totalAmount = totalAmount.add(product.getPrice());
+		return totalAmount;
+	}
+
+	@Benchmark
+	public BigDecimal minorUnitTotal() {
+		long totalAmount = 0;
+		for (OrderLine line : lines)
+			totalAmount = Money.add(totalAmount, line.getTotalMinor());
+		return Money.toDecimal(totalAmount);
+	}
+}
@@ -0,0 +1,83 @@
+package com.SpringBootStarters.MarketPlace.Benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.SpringBootStarters.MarketPlace.Utils.TrigramIndex;
+
+/**
+ * Compares a product name search in the trigram index with the scan a
+ * LIKE '%query%' query performs, over 2 million synthetic names. The scan
+ * runs in memory, so it is a lower bound of what the database does;
+ * MarketPlaceProductSearchTests logs the timings of the actual LIKE query.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ProductSearchBenchmark {
+	private static final String[] BRANDS = { "Nike", "Adidas", "Puma", "Reebok", "Asics", "Salomon", "Patagonia", "Columbia", "Vans", "Converse" };
+	private static final String[] COLORS = { "Red", "Blue", "Black", "White", "Green", "Grey", "Navy", "Olive", "Sand", "Crème" };
+	private static final String[] ITEMS = { "Running Shoe", "Wool Scarf", "Rain Jacket", "Cotton Shirt", "Trail Boot", "Fleece Hoodie", "Beanie", "Backpack", "Sock Pack", "Cap" };
+	private static final int LIMIT = 20;
+
+	@Param({ "2000000" })
+	private int products;
+
+	/**
+	 * A selective query, a common word pair and a two letters autocompletion.
+	 */
+	@Param({ "jacket 12345", "wool scarf", "pa" })
+	private String query;
+
+	private TrigramIndex index;
+	private String[] names;
+
+	@Setup
+	public void setUp() {
+		Random random = new Random(42);
+		index = new TrigramIndex();
+		names = new String[products];
+		for (int i = 0; i < products; i++) {
+			String name = BRANDS[random.nextInt(BRANDS.length)] + " " + COLORS[random.nextInt(COLORS.length)] + " " + ITEMS[random.nextInt(ITEMS.length)] + " " + i;
+			index.put(i, name);
+			names[i] = TrigramIndex.normalize(name);
+		}
+	}
+
+	@Benchmark
+	public List<TrigramIndex.Match> index() {
+		return index.search(query, LIMIT, false);
+	}
+
+	/**
+	 * The LIKE baseline: every name is tested, as a query ranking its matches
+	 * must, and the first matches are kept.
+	 */
+	@Benchmark
+	public List<Integer> scan() {
+		String key = TrigramIndex.normalize(query);
+		List<Integer> matches = new ArrayList<>(LIMIT);
+		for (int i = 0; i < names.length; i++) {
+			if (names[i].contains(key) && matches.size() < LIMIT)
+				matches.add(i);
+		}
+		return matches;
+	}
+}
@@ -0,0 +1,132 @@
+package com.SpringBootStarters.MarketPlace.Config;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Limits the number of API requests processed at the same time to the size
+ * of the connection pool. With virtual threads the server accepts any number
+ * of concurrent requests, so without this limit a slow database makes them
+ * all queue inside Hikari until they time out. A request waits at most
+ * marketplace.admission.timeout for a permit and is then rejected with 503.
+ * Asynchronous requests, like the order export, keep their permit until
+ * they complete.
+ */
+@Component
+public class AdmissionControlFilter extends OncePerRequestFilter {
+	private static final Logger logger = LoggerFactory.getLogger(AdmissionControlFilter.class);
+	private static final String API_PATH = "/api/";
+
+	private final Semaphore permits;
+	private final int permitCount;
+	private final Duration timeout;
+	private final Counter rejected;
+
+	public AdmissionControlFilter(
+			@Value("${marketplace.admission.permits:${spring.datasource.hikari.maximum-pool-size:10}}") int permits,
+			@Value("${marketplace.admission.timeout:2s}") Duration timeout,
+			MeterRegistry meterRegistry) {
+		if (permits < 1)
+			throw new IllegalArgumentException("Admission permits must be a positive number");
+		this.permits = new Semaphore(permits, true);
+		this.permitCount = permits;
+		this.timeout = timeout;
+		this.rejected = Counter.builder("marketplace.admission.rejected")
+			.description("API requests rejected because no permit was available in time")
+			.register(meterRegistry);
+		Gauge.builder("marketplace.admission.in.flight", this.permits, semaphore -> this.permitCount - semaphore.availablePermits())
+			.description("API requests currently holding a permit")
+			.register(meterRegistry);
+	}
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		return !request.getRequestURI().startsWith(request.getContextPath() + API_PATH);
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+		if (!acquire()) {
+			this.rejected.increment();
+			logger.warn("Rejected " + request.getMethod() + " " + request.getRequestURI() + ", no permit available after " + this.timeout.toMillis() + " ms");
+			response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+			response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Server is busy, retry later");
+			return;
+		}
+		AtomicBoolean held = new AtomicBoolean(true);
+		try {
+			filterChain.doFilter(request, response);
+		} finally {
+			if (request.isAsyncStarted())
+				request.getAsyncContext().addListener(new ReleasingListener(held));
+			else
+				release(held);
+		}
+	}
+
+	private boolean acquire() {
+		try {
+			return this.permits.tryAcquire(this.timeout.toNanos(), TimeUnit.NANOSECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	private void release(AtomicBoolean held) {
+		if (held.compareAndSet(true, false))
+			this.permits.release();
+	}
+
+	/**
+	 * Releases the permit of an asynchronous request once it ends.
+	 */
+	private final class ReleasingListener implements AsyncListener {
+		private final AtomicBoolean held;
+
+		private ReleasingListener(AtomicBoolean held) {
+			this.held = held;
+		}
+
+		@Override
+		public void onComplete(AsyncEvent event) {
+			release(this.held);
+		}
+
+		@Override
+		public void onTimeout(AsyncEvent event) {
+			release(this.held);
+		}
+
+		@Override
+		public void onError(AsyncEvent event) {
+			release(this.held);
+		}
+
+		@Override
+		public void onStartAsync(AsyncEvent event) {
+			event.getAsyncContext().addListener(this);
+		}
+	}
+}
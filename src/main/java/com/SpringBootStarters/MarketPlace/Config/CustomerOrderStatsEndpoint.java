@@ -0,0 +1,28 @@
+package com.SpringBootStarters.MarketPlace.Config;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import com.SpringBootStarters.MarketPlace.Services.CustomerOrderStatsService;
+import com.SpringBootStarters.MarketPlace.Services.CustomerOrderStatsService.RebuildResult;
+
+/**
+ * Management endpoint to rebuild the customer order aggregates from the
+ * orders, exposed as POST /admin/orderstats. Used after orders are changed
+ * outside the application or to check that the aggregates have not drifted.
+ */
+@Component
+@Endpoint(id = "orderstats")
+public class CustomerOrderStatsEndpoint {
+	private final CustomerOrderStatsService customerOrderStatsService;
+
+	public CustomerOrderStatsEndpoint(CustomerOrderStatsService customerOrderStatsService) {
+		this.customerOrderStatsService = customerOrderStatsService;
+	}
+
+	@WriteOperation
+	public RebuildResult rebuild() {
+		return this.customerOrderStatsService.rebuild();
+	}
+}
@@ -0,0 +1,87 @@
+package com.SpringBootStarters.MarketPlace.Config;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseCookie;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Lets a client read its own writes when reads go to replicas that may lag
+ * behind. An API request that may write, anything but GET, HEAD and
+ * OPTIONS, runs pinned to the primary and sets a cookie pinning the next
+ * requests of the client for marketplace.datasource.read-your-writes-window.
+ * Does nothing when no replica is configured.
+ */
+@Component
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+	public static final String COOKIE = "marketplace-primary-until";
+	private static final String API_PATH = "/api/";
+
+	private final boolean enabled;
+	private final Duration window;
+
+	public ReadYourWritesFilter(
+			@Value("${marketplace.datasource.replica-urls:}") List<String> replicaUrls,
+			@Value("${marketplace.datasource.read-your-writes-window:5s}") Duration window) {
+		this.enabled = replicaUrls.stream().anyMatch(url -> !url.isBlank());
+		this.window = window;
+	}
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		return !this.enabled || !request.getRequestURI().startsWith(request.getContextPath() + API_PATH);
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+		long now = System.currentTimeMillis();
+		boolean writes = !HttpMethod.GET.matches(request.getMethod()) && !HttpMethod.HEAD.matches(request.getMethod()) && !HttpMethod.OPTIONS.matches(request.getMethod());
+		if (writes) {
+			// Set before the handler runs, a streamed response can't take headers afterwards
+			ResponseCookie cookie = ResponseCookie.from(COOKIE, Long.toString(now + this.window.toMillis()))
+				.path("/")
+				.httpOnly(true)
+				.maxAge(this.window.plusMillis(999).toSeconds())
+				.build();
+			response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+		}
+		if (!writes && !pinnedByCookie(request, now)) {
+			filterChain.doFilter(request, response);
+			return;
+		}
+		ReplicaRoutingDataSource.pin();
+		try {
+			filterChain.doFilter(request, response);
+		} finally {
+			ReplicaRoutingDataSource.unpin();
+		}
+	}
+
+	private static boolean pinnedByCookie(HttpServletRequest request, long now) {
+		Cookie[] cookies = request.getCookies();
+		if (cookies == null)
+			return false;
+		for (Cookie cookie : cookies) {
+			if (COOKIE.equals(cookie.getName())) {
+				try {
+					return Long.parseLong(cookie.getValue()) > now;
+				} catch (NumberFormatException e) {
+					return false;
+				}
+			}
+		}
+		return false;
+	}
+}
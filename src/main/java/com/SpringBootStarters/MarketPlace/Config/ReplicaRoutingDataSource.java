@@ -0,0 +1,194 @@
+package com.SpringBootStarters.MarketPlace.Config;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Sends the connections of read-only transactions to the replicas, in
+ * turn, and every other connection to the primary. The connection is only
+ * taken when the first statement runs, once the transaction is known to
+ * be read-only. A replica that fails to give a connection is ejected for
+ * the ejection period and then tried again; when no replica is available
+ * the primary serves the reads. A thread pinned to the primary, because
+ * its client wrote recently, reads from the primary as well.
+ */
+public class ReplicaRoutingDataSource extends LazyConnectionDataSourceProxy implements Closeable {
+	private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+	private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+	private final DataSource primary;
+	private final List<Replica> replicas;
+	private final long ejectionNanos;
+	private final AtomicInteger next = new AtomicInteger();
+	private final Counter ejections;
+
+	public ReplicaRoutingDataSource(DataSource primary, List<Replica> replicas, Duration ejection, MeterRegistry meterRegistry) {
+		this.primary = primary;
+		this.replicas = List.copyOf(replicas);
+		this.ejectionNanos = ejection.toNanos();
+		this.ejections = Counter.builder("marketplace.datasource.replica.ejections")
+			.description("Replicas ejected after failing to give a connection")
+			.register(meterRegistry);
+		Gauge.builder("marketplace.datasource.replicas.available", this, routing -> routing.availableReplicas())
+			.description("Replicas currently serving reads")
+			.register(meterRegistry);
+		setTargetDataSource(new Router());
+		// Set up front so that no connection is taken to read them
+		setDefaultAutoCommit(true);
+		setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+	}
+
+	/**
+	 * Sends the reads of the current thread to the primary until unpin is called.
+	 */
+	public static void pin() {
+		PINNED.set(Boolean.TRUE);
+	}
+
+	public static void unpin() {
+		PINNED.remove();
+	}
+
+	/**
+	 * Runs reads whose results outlive the request, like the loads that fill
+	 * a cache, on the primary, so a lagging replica can't put a row older
+	 * than the last write in the cache. Keeps the thread pinned if it was.
+	 * @param reads The reads
+	 * @return The result of the reads
+	 */
+	public static <T> T readFromPrimary(Supplier<T> reads) {
+		if (PINNED.get() != null)
+			return reads.get();
+		pin();
+		try {
+			return reads.get();
+		} finally {
+			unpin();
+		}
+	}
+
+	/**
+	 * Closes the primary and replica pools.
+	 */
+	@Override
+	public void close() {
+		closeQuietly(this.primary);
+		for (Replica replica : this.replicas)
+			closeQuietly(replica.dataSource());
+	}
+
+	private Connection route() throws SQLException {
+		if (TransactionSynchronizationManager.isCurrentTransactionReadOnly() && PINNED.get() == null) {
+			int start = this.next.getAndIncrement();
+			for (int i = 0; i < this.replicas.size(); i++) {
+				Replica replica = this.replicas.get(Math.floorMod(start + i, this.replicas.size()));
+				if (!replica.isAvailable())
+					continue;
+				try {
+					return replica.dataSource().getConnection();
+				} catch (SQLException e) {
+					replica.eject(System.nanoTime() + this.ejectionNanos);
+					this.ejections.increment();
+					logger.warn("Ejected replica " + replica.name() + " for " + Duration.ofNanos(this.ejectionNanos).toSeconds() + " s: " + e.getMessage());
+				}
+			}
+		}
+		return this.primary.getConnection();
+	}
+
+	private int availableReplicas() {
+		int available = 0;
+		for (Replica replica : this.replicas) {
+			if (replica.isAvailable())
+				available++;
+		}
+		return available;
+	}
+
+	private static void closeQuietly(DataSource dataSource) {
+		if (dataSource instanceof AutoCloseable closeable) {
+			try {
+				closeable.close();
+			} catch (Exception e) {
+				logger.warn("Could not close a data source: " + e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * A replica and the time until which it is ejected.
+	 */
+	public static final class Replica {
+		private final String name;
+		private final DataSource dataSource;
+		private volatile long ejectedUntil;
+		private volatile boolean ejected;
+
+		public Replica(String name, DataSource dataSource) {
+			this.name = name;
+			this.dataSource = dataSource;
+		}
+
+		public String name() {
+			return this.name;
+		}
+
+		public DataSource dataSource() {
+			return this.dataSource;
+		}
+
+		private boolean isAvailable() {
+			return !this.ejected || System.nanoTime() - this.ejectedUntil >= 0;
+		}
+
+		private void eject(long until) {
+			this.ejectedUntil = until;
+			this.ejected = true;
+		}
+	}
+
+	/**
+	 * Picks the data source when the lazy connection is first used. Pool
+	 * metadata, like the Hikari pool of the health check, is the primary's.
+	 */
+	private final class Router extends AbstractDataSource {
+		@Override
+		public Connection getConnection() throws SQLException {
+			return route();
+		}
+
+		@Override
+		public Connection getConnection(String username, String password) throws SQLException {
+			return ReplicaRoutingDataSource.this.primary.getConnection(username, password);
+		}
+
+		@Override
+		public <T> T unwrap(Class<T> iface) throws SQLException {
+			if (iface.isInstance(this))
+				return iface.cast(this);
+			return ReplicaRoutingDataSource.this.primary.unwrap(iface);
+		}
+
+		@Override
+		public boolean isWrapperFor(Class<?> iface) throws SQLException {
+			return iface.isInstance(this) || ReplicaRoutingDataSource.this.primary.isWrapperFor(iface);
+		}
+	}
+}
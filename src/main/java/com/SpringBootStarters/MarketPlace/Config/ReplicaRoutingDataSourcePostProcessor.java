@@ -0,0 +1,83 @@
+package com.SpringBootStarters.MarketPlace.Config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Puts the primary data source behind a ReplicaRoutingDataSource when
+ * marketplace.datasource.replica-urls lists replicas. Each replica gets a
+ * Hikari pool named replica-1, replica-2..., with the credentials of the
+ * primary, whose hikaricp metrics are published next to the primary's.
+ * Runs before the SQL statistics proxy, so it counts the statements of
+ * every pool.
+ */
+@Component
+public class ReplicaRoutingDataSourcePostProcessor implements BeanPostProcessor, Ordered {
+	private final List<String> replicaUrls;
+	private final String username;
+	private final String password;
+	private final int poolSize;
+	private final Duration connectionTimeout;
+	private final Duration ejection;
+	private final ObjectProvider<MeterRegistry> meterRegistry;
+
+	public ReplicaRoutingDataSourcePostProcessor(
+			@Value("${marketplace.datasource.replica-urls:}") List<String> replicaUrls,
+			@Value("${spring.datasource.username:}") String username,
+			@Value("${spring.datasource.password:}") String password,
+			@Value("${marketplace.datasource.replica-pool-size:${spring.datasource.hikari.maximum-pool-size:10}}") int poolSize,
+			@Value("${marketplace.datasource.replica-connection-timeout:1s}") Duration connectionTimeout,
+			@Value("${marketplace.datasource.replica-ejection:30s}") Duration ejection,
+			ObjectProvider<MeterRegistry> meterRegistry) {
+		this.replicaUrls = replicaUrls.stream().map(String::trim).filter(url -> !url.isEmpty()).toList();
+		this.username = username;
+		this.password = password;
+		this.poolSize = poolSize;
+		this.connectionTimeout = connectionTimeout;
+		this.ejection = ejection;
+		this.meterRegistry = meterRegistry;
+	}
+
+	@Override
+	public Object postProcessAfterInitialization(Object bean, String beanName) {
+		if (this.replicaUrls.isEmpty() || !(bean instanceof HikariDataSource primary))
+			return bean;
+		MeterRegistry registry = this.meterRegistry.getObject();
+		List<ReplicaRoutingDataSource.Replica> replicas = new ArrayList<>(this.replicaUrls.size());
+		for (int i = 0; i < this.replicaUrls.size(); i++) {
+			HikariConfig config = new HikariConfig();
+			config.setPoolName("replica-" + (i + 1));
+			config.setJdbcUrl(this.replicaUrls.get(i));
+			config.setUsername(this.username);
+			config.setPassword(this.password);
+			config.setMaximumPoolSize(this.poolSize);
+			config.setConnectionTimeout(this.connectionTimeout.toMillis());
+			config.setReadOnly(true);
+			// A replica that is down at startup is ejected on first use instead of failing the startup
+			config.setInitializationFailTimeout(-1);
+			config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+			replicas.add(new ReplicaRoutingDataSource.Replica(config.getPoolName(), new HikariDataSource(config)));
+		}
+		return new ReplicaRoutingDataSource(primary, replicas, this.ejection, registry);
+	}
+
+	@Override
+	public int getOrder() {
+		return Ordered.HIGHEST_PRECEDENCE;
+	}
+}
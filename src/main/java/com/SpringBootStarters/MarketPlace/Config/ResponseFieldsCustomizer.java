@@ -0,0 +1,19 @@
+package com.SpringBootStarters.MarketPlace.Config;
+
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Component;
+
+import com.SpringBootStarters.MarketPlace.Utils.ResponseFields;
+
+/**
+ * Registers the property filter of the response DTOs on the application
+ * ObjectMapper, so they are written with only their selected fields.
+ */
+@Component
+public class ResponseFieldsCustomizer implements Jackson2ObjectMapperBuilderCustomizer {
+	@Override
+	public void customize(Jackson2ObjectMapperBuilder builder) {
+		builder.filters(ResponseFields.filterProvider());
+	}
+}
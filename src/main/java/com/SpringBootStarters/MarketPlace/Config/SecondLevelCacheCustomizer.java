@@ -0,0 +1,92 @@
+package com.SpringBootStarters.MarketPlace.Config;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.OptionalLong;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.jcache.MissingCacheStrategy;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import com.SpringBootStarters.MarketPlace.Entities.Customer;
+import com.SpringBootStarters.MarketPlace.Entities.Product;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Creates the regions of the Hibernate second-level cache in a Caffeine
+ * JCache manager and hands it to Hibernate. The customer, product and query
+ * results regions are bounded by marketplace.cache.*.maximum-size and
+ * marketplace.cache.*.time-to-live; the update timestamps region never
+ * evicts, or cached queries could outlive the writes that invalidate them.
+ * Every region publishes the cache.* metrics tagged cache.manager=hibernate
+ * and its hit ratio as marketplace.cache.region.hit.ratio.
+ */
+@Component
+public class SecondLevelCacheCustomizer implements HibernatePropertiesCustomizer, DisposableBean {
+	public static final String QUERY_RESULTS_REGION = RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME;
+	public static final String UPDATE_TIMESTAMPS_REGION = RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME;
+	private static final String CACHE_MANAGER_NAME = "hibernate";
+
+	private final CacheManager cacheManager;
+
+	public SecondLevelCacheCustomizer(
+			@Value("${marketplace.cache.customer.maximum-size:10000}") long customerMaximumSize,
+			@Value("${marketplace.cache.customer.time-to-live:10m}") Duration customerTimeToLive,
+			@Value("${marketplace.cache.product.maximum-size:10000}") long productMaximumSize,
+			@Value("${marketplace.cache.product.time-to-live:10m}") Duration productTimeToLive,
+			@Value("${marketplace.cache.query.maximum-size:10000}") long queryMaximumSize,
+			@Value("${marketplace.cache.query.time-to-live:10m}") Duration queryTimeToLive,
+			MeterRegistry meterRegistry) {
+		// A provider of its own, so every application context gets its own regions
+		this.cacheManager = new CaffeineCachingProvider().getCacheManager();
+		createRegion(Customer.CACHE_REGION, bounded(customerMaximumSize, customerTimeToLive), meterRegistry);
+		createRegion(Product.CACHE_REGION, bounded(productMaximumSize, productTimeToLive), meterRegistry);
+		createRegion(QUERY_RESULTS_REGION, bounded(queryMaximumSize, queryTimeToLive), meterRegistry);
+		createRegion(UPDATE_TIMESTAMPS_REGION, new CaffeineConfiguration<>(), meterRegistry);
+	}
+
+	@Override
+	public void customize(Map<String, Object> hibernateProperties) {
+		hibernateProperties.put(ConfigSettings.CACHE_MANAGER, this.cacheManager);
+		hibernateProperties.put(ConfigSettings.MISSING_CACHE_STRATEGY, MissingCacheStrategy.FAIL.getExternalRepresentation());
+	}
+
+	@Override
+	public void destroy() {
+		this.cacheManager.close();
+	}
+
+	private void createRegion(String name, CaffeineConfiguration<Object, Object> configuration, MeterRegistry meterRegistry) {
+		configuration.setStoreByValue(false);
+		configuration.setNativeStatisticsEnabled(true);
+		Cache<Object, Object> region = this.cacheManager.createCache(name, configuration);
+		com.github.benmanes.caffeine.cache.Cache<?, ?> cache = region.unwrap(com.github.benmanes.caffeine.cache.Cache.class);
+		CaffeineCacheMetrics.monitor(meterRegistry, cache, name, Tags.of("cache.manager", CACHE_MANAGER_NAME));
+		Gauge.builder("marketplace.cache.region.hit.ratio", cache, c -> c.stats().hitRate())
+			.description("Share of the lookups of a second-level cache region that were hits")
+			.tag("region", name)
+			.register(meterRegistry);
+	}
+
+	private static CaffeineConfiguration<Object, Object> bounded(long maximumSize, Duration timeToLive) {
+		if (maximumSize < 1 || timeToLive.isNegative() || timeToLive.isZero())
+			throw new IllegalArgumentException("Cache regions must have a positive maximum size and time to live");
+		CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+		configuration.setMaximumSize(OptionalLong.of(maximumSize));
+		configuration.setExpireAfterWrite(OptionalLong.of(timeToLive.toNanos()));
+		return configuration;
+	}
+}
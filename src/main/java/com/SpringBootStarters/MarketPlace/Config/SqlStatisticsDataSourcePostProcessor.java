@@ -0,0 +1,64 @@
+package com.SpringBootStarters.MarketPlace.Config;
+
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import com.SpringBootStarters.MarketPlace.Utils.SqlStatistics;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ResultSetProxyLogic;
+import net.ttddyy.dsproxy.proxy.ResultSetProxyLogicFactory;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
+/**
+ * Wraps the data sources in a proxy that feeds the statements executed and
+ * the rows read to the SqlStatistics of the current request, for Hibernate
+ * and JdbcTemplate alike. Only result sets are proxied beyond the
+ * statements, and only their next method is looked at.
+ */
+@Component
+public class SqlStatisticsDataSourcePostProcessor implements BeanPostProcessor {
+	private static final QueryExecutionListener LISTENER = new QueryExecutionListener() {
+		@Override
+		public void beforeQuery(ExecutionInfo execution, List<QueryInfo> queries) {
+			SqlStatistics statistics = SqlStatistics.current();
+			if (statistics != null)
+				statistics.statementStarted();
+		}
+
+		@Override
+		public void afterQuery(ExecutionInfo execution, List<QueryInfo> queries) {
+			SqlStatistics statistics = SqlStatistics.current();
+			if (statistics != null)
+				statistics.statementFinished(queries.isEmpty() ? "" : queries.get(0).getQuery());
+		}
+	};
+
+	private static final ResultSetProxyLogicFactory COUNTING_ROWS = (resultSet, connectionInfo, proxyConfig) -> {
+		ResultSetProxyLogic logic = ResultSetProxyLogicFactory.DEFAULT.create(resultSet, connectionInfo, proxyConfig);
+		return (proxy, method, args) -> {
+			Object result = logic.invoke(proxy, method, args);
+			if (result == Boolean.TRUE && method.getName().equals("next"))
+				SqlStatistics.rowFetched();
+			return result;
+		};
+	};
+
+	@Override
+	public Object postProcessAfterInitialization(Object bean, String beanName) {
+		if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+			return ProxyDataSourceBuilder.create(beanName, dataSource)
+				.listener(LISTENER)
+				.proxyResultSet(COUNTING_ROWS)
+				.build();
+		}
+		return bean;
+	}
+}
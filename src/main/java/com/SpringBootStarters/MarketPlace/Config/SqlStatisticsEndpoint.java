@@ -0,0 +1,30 @@
+package com.SpringBootStarters.MarketPlace.Config;
+
+import java.util.Map;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import com.SpringBootStarters.MarketPlace.Config.SqlStatisticsFilter.EndpointSqlStatistics;
+
+/**
+ * Management endpoint showing the SQL totals of every controller method
+ * since the application started, exposed as GET /admin/sql. Controller
+ * methods with a high statementsPerRequest or a repeatedStatement are the
+ * ones to look at for N+1 queries.
+ */
+@Component
+@Endpoint(id = "sql")
+public class SqlStatisticsEndpoint {
+	private final SqlStatisticsFilter sqlStatisticsFilter;
+
+	public SqlStatisticsEndpoint(SqlStatisticsFilter sqlStatisticsFilter) {
+		this.sqlStatisticsFilter = sqlStatisticsFilter;
+	}
+
+	@ReadOperation
+	public Map<String, EndpointSqlStatistics> statistics() {
+		return this.sqlStatisticsFilter.getStatistics();
+	}
+}
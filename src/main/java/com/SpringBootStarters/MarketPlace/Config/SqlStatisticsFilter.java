@@ -0,0 +1,170 @@
+package com.SpringBootStarters.MarketPlace.Config;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.SpringBootStarters.MarketPlace.Utils.SqlStatistics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Counts the SQL statements, rows and database time of every API request
+ * and publishes them as histograms tagged with the controller method that
+ * served it. A request running more than marketplace.sql.statement-budget
+ * statements, or the same statement marketplace.sql.repeat-threshold times,
+ * which is how an N+1 query shows up, is logged with a warning. The totals
+ * per controller method are shown by GET /admin/sql.
+ */
+@Component
+public class SqlStatisticsFilter extends OncePerRequestFilter {
+	private static final Logger logger = LoggerFactory.getLogger(SqlStatisticsFilter.class);
+	private static final String API_PATH = "/api/";
+	private static final String UNMAPPED = "unmapped";
+
+	private final int statementBudget;
+	private final int repeatThreshold;
+	private final MeterRegistry meterRegistry;
+	private final Map<String, HandlerTotals> totals = new ConcurrentHashMap<>();
+
+	public SqlStatisticsFilter(
+			@Value("${marketplace.sql.statement-budget:20}") int statementBudget,
+			@Value("${marketplace.sql.repeat-threshold:10}") int repeatThreshold,
+			MeterRegistry meterRegistry) {
+		if (statementBudget < 1 || repeatThreshold < 2)
+			throw new IllegalArgumentException("SQL statement budget must be positive and the repeat threshold at least 2");
+		this.statementBudget = statementBudget;
+		this.repeatThreshold = repeatThreshold;
+		this.meterRegistry = meterRegistry;
+	}
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		return !request.getRequestURI().startsWith(request.getContextPath() + API_PATH);
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+		SqlStatistics statistics = SqlStatistics.begin();
+		try {
+			filterChain.doFilter(request, response);
+		} finally {
+			SqlStatistics.end();
+			record(handlerName(request), statistics, request);
+		}
+	}
+
+	/**
+	 * @return The totals of every controller method that served a request, by name
+	 */
+	public Map<String, EndpointSqlStatistics> getStatistics() {
+		Map<String, EndpointSqlStatistics> statistics = new TreeMap<>();
+		this.totals.forEach((handler, handlerTotals) -> statistics.put(handler, handlerTotals.snapshot()));
+		return statistics;
+	}
+
+	private void record(String handler, SqlStatistics statistics, HttpServletRequest request) {
+		HandlerTotals handlerTotals = this.totals.computeIfAbsent(handler, HandlerTotals::new);
+		handlerTotals.add(statistics);
+		if (statistics.getStatements() > this.statementBudget) {
+			handlerTotals.overBudget.increment();
+			handlerTotals.overBudgetCounter.increment();
+			logger.warn(request.getMethod() + " " + request.getRequestURI() + " (" + handler + ") ran " + statistics.getStatements()
+					+ " SQL statements, over the budget of " + this.statementBudget);
+		}
+		Map.Entry<String, Integer> repeated = statistics.getMostRepeated();
+		if (repeated != null && repeated.getValue() >= this.repeatThreshold) {
+			handlerTotals.repeatedStatement = repeated.getKey();
+			logger.warn("Possible N+1 query in " + handler + ", the same statement ran " + repeated.getValue() + " times: " + repeated.getKey());
+		}
+	}
+
+	private static String handlerName(HttpServletRequest request) {
+		if (request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE) instanceof HandlerMethod handlerMethod)
+			return handlerMethod.getBeanType().getSimpleName() + "." + handlerMethod.getMethod().getName();
+		return UNMAPPED;
+	}
+
+	/**
+	 * The SQL totals of the requests served by a controller method.
+	 */
+	public record EndpointSqlStatistics(long requests, long statements, long maxStatements, double statementsPerRequest, long rows, double databaseMillis, long overBudget, String repeatedStatement) {
+	}
+
+	private final class HandlerTotals {
+		private final LongAdder requests = new LongAdder();
+		private final LongAdder statements = new LongAdder();
+		private final LongAccumulator maxStatements = new LongAccumulator(Math::max, 0);
+		private final LongAdder rows = new LongAdder();
+		private final LongAdder nanos = new LongAdder();
+		private final LongAdder overBudget = new LongAdder();
+		private final DistributionSummary statementsSummary;
+		private final DistributionSummary rowsSummary;
+		private final Timer timer;
+		private final Counter overBudgetCounter;
+		private volatile String repeatedStatement;
+
+		private HandlerTotals(String handler) {
+			MeterRegistry registry = SqlStatisticsFilter.this.meterRegistry;
+			this.statementsSummary = DistributionSummary.builder("marketplace.sql.statements")
+				.description("SQL statements executed per request")
+				.baseUnit("statements")
+				.tag("handler", handler)
+				.publishPercentileHistogram()
+				.register(registry);
+			this.rowsSummary = DistributionSummary.builder("marketplace.sql.rows")
+				.description("Rows fetched per request")
+				.baseUnit("rows")
+				.tag("handler", handler)
+				.publishPercentileHistogram()
+				.register(registry);
+			this.timer = Timer.builder("marketplace.sql.time")
+				.description("Time spent executing SQL statements per request")
+				.tag("handler", handler)
+				.publishPercentileHistogram()
+				.register(registry);
+			this.overBudgetCounter = Counter.builder("marketplace.sql.budget.exceeded")
+				.description("Requests that ran more SQL statements than the budget")
+				.tag("handler", handler)
+				.register(registry);
+		}
+
+		private void add(SqlStatistics statistics) {
+			this.requests.increment();
+			this.statements.add(statistics.getStatements());
+			this.maxStatements.accumulate(statistics.getStatements());
+			this.rows.add(statistics.getRows());
+			this.nanos.add(statistics.getTime().toNanos());
+			this.statementsSummary.record(statistics.getStatements());
+			this.rowsSummary.record(statistics.getRows());
+			this.timer.record(statistics.getTime().toNanos(), TimeUnit.NANOSECONDS);
+		}
+
+		private EndpointSqlStatistics snapshot() {
+			long requestCount = this.requests.sum();
+			long statementCount = this.statements.sum();
+			return new EndpointSqlStatistics(requestCount, statementCount, this.maxStatements.get(),
+					requestCount == 0 ? 0 : (double) statementCount / requestCount, this.rows.sum(),
+					this.nanos.sum() / 1e6, this.overBudget.sum(), this.repeatedStatement);
+		}
+	}
+}
@@ -1,7 +1,5 @@
 package com.SpringBootStarters.MarketPlace.Controllers;
 
-import java.util.List;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
@@ -14,11 +12,21 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import com.SpringBootStarters.MarketPlace.DTOs.CursorPage;
 import com.SpringBootStarters.MarketPlace.DTOs.CustomerDto;
+import com.SpringBootStarters.MarketPlace.DTOs.CustomerOrderStatsDto;
+import com.SpringBootStarters.MarketPlace.DTOs.CustomerViewDto;
 import com.SpringBootStarters.MarketPlace.Entities.Customer;
+import com.SpringBootStarters.MarketPlace.Repositories.EntityVersion;
+import com.SpringBootStarters.MarketPlace.Services.CustomerOrderStatsService;
 import com.SpringBootStarters.MarketPlace.Services.CustomerService;
+import com.SpringBootStarters.MarketPlace.Utils.ETags;
+import com.SpringBootStarters.MarketPlace.Utils.PageCursor;
+import com.SpringBootStarters.MarketPlace.Utils.ResponseFields;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -33,36 +41,65 @@ import jakarta.validation.constraints.Positive;
 public class CustomerController {
 	private static final Logger logger = LoggerFactory.getLogger(CustomerController.class);
 	private final CustomerService customerService;
+	private final CustomerOrderStatsService customerOrderStatsService;
 
-	public CustomerController(CustomerService customerService) {
+	public CustomerController(CustomerService customerService, CustomerOrderStatsService customerOrderStatsService) {
 		this.customerService = customerService;
+		this.customerOrderStatsService = customerOrderStatsService;
 	}
 
 	/**
-	 * Retrieves a list of customers.
-	 * @return The list of customers
+	 * Retrieves a page of customers.
+	 * @param cursor The cursor returned with the previous page
+	 * @param size The maximum number of customers to return
+	 * @param view The properties to write, summary or full
+	 * @param fields The comma separated properties to write, instead of a view
+	 * @return The page of customers
 	 */
 	@GetMapping("/")
-	@Operation(summary = "Get all customers", description = "Get all customers data from the database", responses = {
-			@ApiResponse(responseCode = "200", description = "The list of customers")
+	@Operation(summary = "Get a page of customers", description = "Get a page of customers data from the database, use the returned cursor to read the next page", responses = {
+			@ApiResponse(responseCode = "200", description = "The page of customers")
 	})
-	public ResponseEntity<List<Customer>> getCustomers() {
-		logger.info("Getting all customers");
-		return ResponseEntity.ok(this.customerService.getCustomers());
+	public ResponseEntity<CursorPage<CustomerViewDto>> getCustomers(@RequestParam(name = "cursor", required = false) String cursor, @RequestParam(name = "size", defaultValue = PageCursor.DEFAULT_PAGE_SIZE) @Positive(message = "Size must be a positive number") int size, @RequestParam(name = "view", required = false) String view, @RequestParam(name = "fields", required = false) String fields) {
+		logger.info("Getting a page of customers");
+		ResponseFields selected = customerFields(view, fields);
+		return ETags.okPage(this.customerService.getCustomers(cursor, size), EntityVersion::of, customer -> CustomerViewDto.of(customer, selected));
 	}
 
 	/**
 	 * Get customer by id
 	 * @param id The customer id
+	 * @param view The properties to write, summary or full
+	 * @param fields The comma separated properties to write, instead of a view
+	 * @param request The request, answered with 304 when its If-None-Match or If-Modified-Since is current
 	 * @return The customer instance
 	 */
 	@GetMapping("/{id}")
 	@Operation(summary = "Get customer by id", description = "Get customer data from the database", responses = {
-			@ApiResponse(responseCode = "200", description = "The customer")
+			@ApiResponse(responseCode = "200", description = "The customer"),
+			@ApiResponse(responseCode = "304", description = "The customer did not change since the version in If-None-Match")
 	})
-	public ResponseEntity<Customer> getCustomer(@PathVariable("id") @Positive(message = "Id must be a positive number") long id) {
+	public ResponseEntity<CustomerViewDto> getCustomer(@PathVariable("id") @Positive(message = "Id must be a positive number") long id, @RequestParam(name = "view", required = false) String view, @RequestParam(name = "fields", required = false) String fields, WebRequest request) {
 		logger.info("Getting customer by id");
-		return ResponseEntity.ok(this.customerService.getCustomer(id));
+		ResponseFields selected = customerFields(view, fields);
+		if (ETags.notModified(request, this.customerService.getCustomerVersion(id)))
+			return null;
+		Customer customer = this.customerService.getCustomer(id);
+		return ETags.ok(CustomerViewDto.of(customer, selected), EntityVersion.of(customer));
+	}
+
+	/**
+	 * Get the order aggregates of a customer
+	 * @param id The customer id
+	 * @return The order count, lifetime spend, first and last order dates and average basket
+	 */
+	@GetMapping("/{id}/stats")
+	@Operation(summary = "Get the order statistics of a customer", description = "Get the order count, lifetime spend, first and last order dates and average basket of a customer without loading its orders", responses = {
+			@ApiResponse(responseCode = "200", description = "The order statistics of the customer")
+	})
+	public ResponseEntity<CustomerOrderStatsDto> getCustomerStats(@PathVariable("id") @Positive(message = "Id must be a positive number") long id) {
+		logger.info("Getting the order statistics of a customer");
+		return ResponseEntity.ok(this.customerOrderStatsService.getStats(id));
 	}
 
 	/**
@@ -74,9 +111,9 @@ public class CustomerController {
 	@Operation(summary = "Create a new customer", description = "Create a new customer in the database", responses = {
 			@ApiResponse(responseCode = "201", description = "The new created customer")
 	})
-	public ResponseEntity<Customer> createCustomer(@RequestBody @Valid CustomerDto customerDto) {
+	public ResponseEntity<CustomerViewDto> createCustomer(@RequestBody @Valid CustomerDto customerDto) {
 		logger.info("Creating a new customer");
-		return ResponseEntity.status(HttpStatus.CREATED).body(this.customerService.createCustomer(customerDto));
+		return ResponseEntity.status(HttpStatus.CREATED).body(CustomerViewDto.of(this.customerService.createCustomer(customerDto), CustomerViewDto.FULL));
 	}
 
 	/**
@@ -89,9 +126,9 @@ public class CustomerController {
 	@Operation(summary = "Update a customer", description = "Update a customer in the database", responses = {
 			@ApiResponse(responseCode = "200", description = "The updated customer")
 	})
-	public ResponseEntity<Customer> updateCustomer(@PathVariable("id") @Positive(message = "Id must be a positive number") long id, @RequestBody @Valid CustomerDto customerDto) {
+	public ResponseEntity<CustomerViewDto> updateCustomer(@PathVariable("id") @Positive(message = "Id must be a positive number") long id, @RequestBody @Valid CustomerDto customerDto) {
 		logger.info("Update customer by id");
-		return ResponseEntity.ok(this.customerService.updateCustomer(id, customerDto));
+		return ResponseEntity.ok(CustomerViewDto.of(this.customerService.updateCustomer(id, customerDto), CustomerViewDto.FULL));
 	}
 
 	/**
@@ -107,4 +144,8 @@ public class CustomerController {
 		this.customerService.deleteCustomer(id);
 		return ResponseEntity.ok().build();
 	}
+
+	private static ResponseFields customerFields(String view, String fields) {
+		return ResponseFields.of(view, fields, CustomerViewDto.SUMMARY, CustomerViewDto.ALL);
+	}
 }
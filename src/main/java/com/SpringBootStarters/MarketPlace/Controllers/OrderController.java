@@ -1,10 +1,15 @@
 package com.SpringBootStarters.MarketPlace.Controllers;
 
+import java.net.URI;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.actuate.autoconfigure.observation.ObservationProperties.Http;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
@@ -15,11 +20,27 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.SpringBootStarters.MarketPlace.DTOs.BulkOrderDto;
+import com.SpringBootStarters.MarketPlace.DTOs.BulkOrderResultDto;
+import com.SpringBootStarters.MarketPlace.DTOs.CursorPage;
 import com.SpringBootStarters.MarketPlace.DTOs.OrderDto;
+import com.SpringBootStarters.MarketPlace.DTOs.OrderExportFilter;
+import com.SpringBootStarters.MarketPlace.DTOs.OrderIntakeStatusDto;
+import com.SpringBootStarters.MarketPlace.DTOs.OrderViewDto;
 import com.SpringBootStarters.MarketPlace.Entities.Orders;
+import com.SpringBootStarters.MarketPlace.Repositories.EntityVersion;
+import com.SpringBootStarters.MarketPlace.Services.OrderBulkService;
+import com.SpringBootStarters.MarketPlace.Services.OrderExportService;
+import com.SpringBootStarters.MarketPlace.Services.OrderIntakeService;
 import com.SpringBootStarters.MarketPlace.Services.OrderService;
+import com.SpringBootStarters.MarketPlace.Utils.ETags;
+import com.SpringBootStarters.MarketPlace.Utils.PageCursor;
+import com.SpringBootStarters.MarketPlace.Utils.ResponseFields;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -33,66 +54,129 @@ import jakarta.validation.constraints.Positive;
 @Validated
 public class OrderController {
 	private static final Logger logger = LoggerFactory.getLogger(OrderController.class);
+	private static final String NDJSON = "application/x-ndjson";
+	private static final String INTAKE_PATH = "/api/v1/orders/intake/";
 	private final OrderService orderService;
+	private final OrderExportService orderExportService;
+	private final OrderBulkService orderBulkService;
+	private final OrderIntakeService orderIntakeService;
 
-	public OrderController(OrderService orderService) {
+	public OrderController(OrderService orderService, OrderExportService orderExportService, OrderBulkService orderBulkService, OrderIntakeService orderIntakeService) {
 		this.orderService = orderService;
+		this.orderExportService = orderExportService;
+		this.orderBulkService = orderBulkService;
+		this.orderIntakeService = orderIntakeService;
 	}
 
 	/**
-	 * Retrieves a list of orders from the database.
-	 * @return List of orders
+	 * Retrieves a page of orders from the database.
+	 * @param cursor The cursor returned with the previous page
+	 * @param size The maximum number of orders to return
+	 * @param sort The sort key, either "id" or "date"
+	 * @param view The properties to write, summary or full
+	 * @param fields The comma separated properties to write, instead of a view
+	 * @return Page of orders
 	 */
 	@GetMapping("/")
-	@Operation(summary = "Get a list of orders", description = "Get a list of all the orders from the database", responses = {
-			@ApiResponse(responseCode = "200", description = "List of all orders")
+	@Operation(summary = "Get a page of orders", description = "Get a page of orders sorted by id or date from the database, use the returned cursor to read the next page. view=summary or fields= leave out the customer and products, which are then not loaded", responses = {
+			@ApiResponse(responseCode = "200", description = "Page of orders")
 	})
-	public ResponseEntity<List<Orders>> getOrders() {
-		logger.info("Getting all orders");
-		return ResponseEntity.ok(this.orderService.getOrders());
+	public ResponseEntity<CursorPage<OrderViewDto>> getOrders(@RequestParam(name = "cursor", required = false) String cursor, @RequestParam(name = "size", defaultValue = PageCursor.DEFAULT_PAGE_SIZE) @Positive(message = "Size must be a positive number") int size, @RequestParam(name = "sort", defaultValue = "id") String sort, @RequestParam(name = "view", required = false) String view, @RequestParam(name = "fields", required = false) String fields) {
+		logger.info("Getting a page of orders");
+		ResponseFields selected = orderFields(view, fields);
+		return okPage(this.orderService.getOrders(cursor, size, sort, selected.includes(OrderViewDto.PRODUCTS)), selected);
 	}
 
 	/**
 	 * Retrieves an order from the database based on its id.
 	 * @param id The id of the order to retrieve.
+	 * @param view The properties to write, summary or full
+	 * @param fields The comma separated properties to write, instead of a view
+	 * @param request The request, answered with 304 when its If-None-Match or If-Modified-Since is current
 	 * @return An Optional containing the order if found, or an empty Optional if
 	 *         not found.
 	 */
 	@GetMapping("/{id}")
 	@Operation(summary = "Get order by its id", description = "Get order using its id from the database", responses = {
-			@ApiResponse(responseCode = "200", description = "Order data returned")
+			@ApiResponse(responseCode = "200", description = "Order data returned"),
+			@ApiResponse(responseCode = "304", description = "The order, its customer and its products did not change since the version in If-None-Match")
 	})
-	public ResponseEntity<Orders> getOrder(@PathVariable("id") @Positive(message = "Id must be a positive number") long id) {
+	public ResponseEntity<OrderViewDto> getOrder(@PathVariable("id") @Positive(message = "Id must be a positive number") long id, @RequestParam(name = "view", required = false) String view, @RequestParam(name = "fields", required = false) String fields, WebRequest request) {
 		logger.info("Getting a single order by its id");
-		return ResponseEntity.ok(this.orderService.getOrder(id));
+		ResponseFields selected = orderFields(view, fields);
+		EntityVersion version = this.orderService.getOrderVersion(id);
+		if (ETags.notModified(request, version))
+			return null;
+		// Versions only grow, so the version read first never tags a newer order than the one written
+		Orders order = this.orderService.getOrder(id, selected.includes(OrderViewDto.CUSTOMER), selected.includes(OrderViewDto.PRODUCTS));
+		return ETags.ok(OrderViewDto.of(order, selected), version);
 	}
 
 	/**
-	 * Retrieves a list of orders by product id.
+	 * Retrieves a page of orders by product id.
 	 * @param id The id of the product
-	 * @return A list of orders
+	 * @param cursor The cursor returned with the previous page
+	 * @param size The maximum number of orders to return
+	 * @param view The properties to write, summary or full
+	 * @param fields The comma separated properties to write, instead of a view
+	 * @return A page of orders
 	 */
 	@GetMapping("/product/{id}")
-	@Operation(summary = "Get orders by product id", description = "Get a list of orders by product id", responses = {
-			@ApiResponse(responseCode = "200", description = "List of orders")
+	@Operation(summary = "Get orders by product id", description = "Get a page of orders by product id", responses = {
+			@ApiResponse(responseCode = "200", description = "Page of orders")
 	})
-	public ResponseEntity<List<Orders>> getOrdersByProductId(@PathVariable("id") @Positive(message = "Id must be a positive number") long id) {
-		logger.info("Getting a list of orders by product id");
-		return ResponseEntity.ok(this.orderService.getOrdersByProductId(id));
+	public ResponseEntity<CursorPage<OrderViewDto>> getOrdersByProductId(@PathVariable("id") @Positive(message = "Id must be a positive number") long id, @RequestParam(name = "cursor", required = false) String cursor, @RequestParam(name = "size", defaultValue = PageCursor.DEFAULT_PAGE_SIZE) @Positive(message = "Size must be a positive number") int size, @RequestParam(name = "view", required = false) String view, @RequestParam(name = "fields", required = false) String fields) {
+		logger.info("Getting a page of orders by product id");
+		ResponseFields selected = orderFields(view, fields);
+		return okPage(this.orderService.getOrdersByProductId(id, cursor, size, selected.includes(OrderViewDto.PRODUCTS)), selected);
 	}
 
 	/**
-	 * Retrieves a list of orders by customer id.
+	 * Retrieves a page of orders by customer id.
 	 * @param id The id of the customer
-	 * @return A list of orders
+	 * @param cursor The cursor returned with the previous page
+	 * @param size The maximum number of orders to return
+	 * @param view The properties to write, summary or full
+	 * @param fields The comma separated properties to write, instead of a view
+	 * @return A page of orders
 	 */
 	@GetMapping("/customer/{id}")
-	@Operation(summary = "Get orders by customer id", description = "Get a list of orders by customer id", responses = {
-			@ApiResponse(responseCode = "200", description = "List of orders")
+	@Operation(summary = "Get orders by customer id", description = "Get a page of orders by customer id", responses = {
+			@ApiResponse(responseCode = "200", description = "Page of orders")
 	})
-	public ResponseEntity<List<Orders>> getOrdersByCustomerId(@PathVariable("id") @Positive(message = "Id must be a positive number") long id) {
-		logger.info("Getting a list of orders by customer id");
-		return ResponseEntity.ok(this.orderService.getOrdersByCustomerId(id));
+	public ResponseEntity<CursorPage<OrderViewDto>> getOrdersByCustomerId(@PathVariable("id") @Positive(message = "Id must be a positive number") long id, @RequestParam(name = "cursor", required = false) String cursor, @RequestParam(name = "size", defaultValue = PageCursor.DEFAULT_PAGE_SIZE) @Positive(message = "Size must be a positive number") int size, @RequestParam(name = "view", required = false) String view, @RequestParam(name = "fields", required = false) String fields) {
+		logger.info("Getting a page of orders by customer id");
+		ResponseFields selected = orderFields(view, fields);
+		return okPage(this.orderService.getOrdersByCustomerId(id, cursor, size, selected.includes(OrderViewDto.PRODUCTS)), selected);
+	}
+
+	/**
+	 * Streams the orders matching the filters as newline-delimited JSON.
+	 * @param customerId The id of the customer whose orders are exported, all customers if missing
+	 * @param from The inclusive lower bound of the order date
+	 * @param to The exclusive upper bound of the order date
+	 * @param gzip Whether the response body is gzip compressed
+	 * @return The streamed orders
+	 */
+	@GetMapping(value = "/export", produces = NDJSON)
+	@Operation(summary = "Export orders", description = "Stream the orders matching the filters as newline-delimited JSON, optionally gzip compressed", responses = {
+			@ApiResponse(responseCode = "200", description = "Orders streamed successfully")
+	})
+	public ResponseEntity<StreamingResponseBody> exportOrders(
+			@RequestParam(name = "customerId", required = false) @Positive(message = "Customer id must be a positive number") Long customerId,
+			@RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+			@RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+			@RequestParam(name = "gzip", defaultValue = "false") boolean gzip) {
+		logger.info("Exporting orders");
+		OrderExportFilter filter = new OrderExportFilter(customerId, from, to);
+		ResponseEntity.BodyBuilder response = ResponseEntity.ok().header(HttpHeaders.CONTENT_TYPE, NDJSON);
+		if (!gzip)
+			return response.body(out -> this.orderExportService.exportOrders(filter, out));
+		return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(out -> {
+			GZIPOutputStream gzipOut = new GZIPOutputStream(out, 64 * 1024);
+			this.orderExportService.exportOrders(filter, gzipOut);
+			gzipOut.finish();
+		});
 	}
 
 	/**
@@ -105,9 +189,55 @@ public class OrderController {
 	@Operation(summary = "Create new order for a certain customer", description = "Create a new order for a customer and save it in the database", responses = {
 			@ApiResponse(responseCode = "201", description = "Order created successfully")
 	})
-	public ResponseEntity<Orders> createOrder(@PathVariable("id") @Positive(message = "Id must be a positive number") long id, @RequestBody @Valid OrderDto orderDto) {
+	public ResponseEntity<OrderViewDto> createOrder(@PathVariable("id") @Positive(message = "Id must be a positive number") long id, @RequestBody @Valid OrderDto orderDto) {
 		logger.info("Create new order for customer with id: " + id);
-		return ResponseEntity.status(HttpStatus.CREATED).body(this.orderService.createOrder(id, orderDto));
+		return ResponseEntity.status(HttpStatus.CREATED).body(OrderViewDto.of(this.orderService.createOrder(id, orderDto), OrderViewDto.FULL));
+	}
+
+	/**
+	 * Creates many orders in one request.
+	 * @param orders The orders to create
+	 * @return One result per order, failed orders carry their error
+	 */
+	@PostMapping("/bulk")
+	@Operation(summary = "Create orders in bulk", description = "Create many orders in one request, each order is reported as created or failed", responses = {
+			@ApiResponse(responseCode = "200", description = "Per-order results")
+	})
+	public ResponseEntity<List<BulkOrderResultDto>> createOrders(@RequestBody List<BulkOrderDto> orders) {
+		logger.info("Creating orders in bulk");
+		return ResponseEntity.ok(this.orderBulkService.createOrders(orders));
+	}
+
+	/**
+	 * Queues an order for asynchronous creation.
+	 * @param id The id of the customer
+	 * @param orderDto The order data
+	 * @return The queued status, the Location header points to the status endpoint
+	 */
+	@PostMapping("/intake/{id}")
+	@Operation(summary = "Submit an order for asynchronous creation", description = "Validate an order and queue it, it is created in the background with other orders in one transaction", responses = {
+			@ApiResponse(responseCode = "202", description = "Order accepted, follow the Location header for its status"),
+			@ApiResponse(responseCode = "429", description = "The intake queue is full")
+	})
+	public ResponseEntity<OrderIntakeStatusDto> submitOrder(@PathVariable("id") @Positive(message = "Id must be a positive number") long id, @RequestBody @Valid OrderDto orderDto) {
+		logger.info("Queue new order for customer with id: " + id);
+		OrderIntakeStatusDto status = this.orderIntakeService.submit(id, orderDto);
+		return ResponseEntity.accepted().location(URI.create(INTAKE_PATH + status.getTicket())).body(status);
+	}
+
+	/**
+	 * Retrieves the status of an order submitted to the asynchronous intake.
+	 * @param ticket The ticket returned when the order was accepted
+	 * @return The status of the order
+	 */
+	@GetMapping("/intake/{ticket}")
+	@Operation(summary = "Get the status of a submitted order", description = "Get whether an order submitted for asynchronous creation is queued, created or failed", responses = {
+			@ApiResponse(responseCode = "200", description = "Status of the order"),
+			@ApiResponse(responseCode = "404", description = "Unknown or expired ticket")
+	})
+	public ResponseEntity<OrderIntakeStatusDto> getIntakeStatus(@PathVariable("ticket") String ticket) {
+		logger.info("Getting the status of a submitted order");
+		return ResponseEntity.ok(this.orderIntakeService.getStatus(ticket));
 	}
 
 	/**
@@ -120,9 +250,39 @@ public class OrderController {
 	@Operation(summary = "Update an order", description = "Update an order by id from the database", responses = {
 			@ApiResponse(responseCode = "200", description = "Order updated successfully")
 	})
-	public ResponseEntity<Orders> updateOrders(@PathVariable("id") @Positive(message = "Id must be a positive number") long id, @RequestBody @Valid OrderDto orderDto) {
+	public ResponseEntity<OrderViewDto> updateOrders(@PathVariable("id") @Positive(message = "Id must be a positive number") long id, @RequestBody @Valid OrderDto orderDto) {
 		logger.info("Adding new products to an exsiting order");
-		return ResponseEntity.ok(this.orderService.updateOrder(id, orderDto));
+		return ResponseEntity.ok(OrderViewDto.of(this.orderService.updateOrder(id, orderDto), OrderViewDto.FULL));
+	}
+
+	/**
+	 * Add products to an order, only the new products are written.
+	 * @param id The id of the order
+	 * @param orderDto The order dto containing the products to add
+	 * @return The updated order
+	 */
+	@PostMapping("/addProducts/{id}")
+	@Operation(summary = "Add products to an order", description = "Add products to an order, products already in the order are ignored", responses = {
+			@ApiResponse(responseCode = "200", description = "Products added successfully")
+	})
+	public ResponseEntity<OrderViewDto> addProducts(@PathVariable("id") @Positive(message = "Id must be a positive number") long id, @RequestBody @Valid OrderDto orderDto) {
+		logger.info("Adding products to an existing order");
+		return ResponseEntity.ok(OrderViewDto.of(this.orderService.addProducts(id, orderDto), OrderViewDto.FULL));
+	}
+
+	/**
+	 * Remove products from an order, only the removed products are written.
+	 * @param id The id of the order
+	 * @param orderDto The order dto containing the products to remove
+	 * @return The updated order
+	 */
+	@PostMapping("/removeProducts/{id}")
+	@Operation(summary = "Remove products from an order", description = "Remove products from an order, products that are not in the order are ignored", responses = {
+			@ApiResponse(responseCode = "200", description = "Products removed successfully")
+	})
+	public ResponseEntity<OrderViewDto> removeProducts(@PathVariable("id") @Positive(message = "Id must be a positive number") long id, @RequestBody @Valid OrderDto orderDto) {
+		logger.info("Removing products from an existing order");
+		return ResponseEntity.ok(OrderViewDto.of(this.orderService.removeProducts(id, orderDto), OrderViewDto.FULL));
 	}
 
 	/**
@@ -138,4 +298,18 @@ public class OrderController {
 		this.orderService.deleteOrder(id);
 		return ResponseEntity.ok().build();
 	}
+
+	private static ResponseFields orderFields(String view, String fields) {
+		return ResponseFields.of(view, fields, OrderViewDto.SUMMARY, OrderViewDto.ALL);
+	}
+
+	/**
+	 * Tags a page with the versions of the rows it writes, the customer and
+	 * the products of an order only count when they are written.
+	 */
+	private static ResponseEntity<CursorPage<OrderViewDto>> okPage(CursorPage<Orders> page, ResponseFields selected) {
+		boolean withCustomer = selected.includes(OrderViewDto.CUSTOMER);
+		boolean withProducts = selected.includes(OrderViewDto.PRODUCTS);
+		return ETags.okPage(page, order -> EntityVersion.of(order, withCustomer, withProducts), order -> OrderViewDto.of(order, selected));
+	}
 }
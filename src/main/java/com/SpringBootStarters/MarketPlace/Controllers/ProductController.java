@@ -1,9 +1,18 @@
 package com.SpringBootStarters.MarketPlace.Controllers;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
@@ -14,15 +23,35 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import com.SpringBootStarters.MarketPlace.DTOs.CursorPage;
+import com.SpringBootStarters.MarketPlace.DTOs.InventoryDto;
 import com.SpringBootStarters.MarketPlace.DTOs.ProductDto;
+import com.SpringBootStarters.MarketPlace.DTOs.ProductImportResultDto;
+import com.SpringBootStarters.MarketPlace.DTOs.ProductSalesDto;
+import com.SpringBootStarters.MarketPlace.DTOs.ProductSearchHitDto;
+import com.SpringBootStarters.MarketPlace.DTOs.ProductViewDto;
+import com.SpringBootStarters.MarketPlace.DTOs.RepricingDto;
+import com.SpringBootStarters.MarketPlace.DTOs.RepricingResultDto;
+import com.SpringBootStarters.MarketPlace.DTOs.RestockDto;
 import com.SpringBootStarters.MarketPlace.Entities.Product;
+import com.SpringBootStarters.MarketPlace.Repositories.EntityVersion;
+import com.SpringBootStarters.MarketPlace.Services.BestSellerTracker;
+import com.SpringBootStarters.MarketPlace.Services.InventoryService;
+import com.SpringBootStarters.MarketPlace.Services.ProductImportService;
+import com.SpringBootStarters.MarketPlace.Services.ProductRepricingService;
 import com.SpringBootStarters.MarketPlace.Services.ProductService;
+import com.SpringBootStarters.MarketPlace.Utils.ETags;
+import com.SpringBootStarters.MarketPlace.Utils.PageCursor;
+import com.SpringBootStarters.MarketPlace.Utils.ResponseFields;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Positive;
 
@@ -33,50 +62,135 @@ import jakarta.validation.constraints.Positive;
 public class ProductController {
 	private static final Logger logger = LoggerFactory.getLogger(ProductController.class);
 	private final ProductService productService;
+	private final BestSellerTracker bestSellerTracker;
+	private final InventoryService inventoryService;
+	private final ProductImportService productImportService;
+	private final ProductRepricingService productRepricingService;
 
-	public ProductController(ProductService productService) {
+	public ProductController(ProductService productService, BestSellerTracker bestSellerTracker, InventoryService inventoryService, ProductImportService productImportService, ProductRepricingService productRepricingService) {
 		this.productService = productService;
+		this.bestSellerTracker = bestSellerTracker;
+		this.inventoryService = inventoryService;
+		this.productImportService = productImportService;
+		this.productRepricingService = productRepricingService;
 	}
 
 	/**
-	 * Retrieve a list of all the products
-	 * @return The list of products
+	 * Retrieve a page of products
+	 * @param cursor The cursor returned with the previous page
+	 * @param size The maximum number of products to return
+	 * @param view The properties to write, summary or full
+	 * @param fields The comma separated properties to write, instead of a view
+	 * @return The page of products
 	 */
 	@GetMapping("/")
-	@Operation(summary = "Get all products", description = "Get all products data from the database", responses = {
-			@ApiResponse(responseCode = "200", description = "The list of products")
+	@Operation(summary = "Get a page of products", description = "Get a page of products data from the database, use the returned cursor to read the next page", responses = {
+			@ApiResponse(responseCode = "200", description = "The page of products")
+	})
+	public ResponseEntity<CursorPage<ProductViewDto>> getProducts(@RequestParam(name = "cursor", required = false) String cursor, @RequestParam(name = "size", defaultValue = PageCursor.DEFAULT_PAGE_SIZE) @Positive(message = "Size must be a positive number") int size, @RequestParam(name = "view", required = false) String view, @RequestParam(name = "fields", required = false) String fields) {
+		logger.info("Get a page of products");
+		ResponseFields selected = productFields(view, fields);
+		return ETags.okPage(this.productService.getProducts(cursor, size), EntityVersion::of, product -> ProductViewDto.of(product, selected));
+	}
+
+	/**
+	 * Get the best-selling products of a recent window
+	 * @param window The window, like 1h or 1d
+	 * @param k The maximum number of products to return
+	 * @return The products by decreasing sales
+	 */
+	@GetMapping("/top")
+	@Operation(summary = "Get the best-selling products", description = "Get the estimated best-selling products of a recent window, computed in memory without querying the database", responses = {
+			@ApiResponse(responseCode = "200", description = "The best-selling products")
 	})
-	public ResponseEntity<List<Product>> getProducts() {
-		logger.info("Get a list of all products");
-		return ResponseEntity.ok(this.productService.getProducts());
+	public ResponseEntity<List<ProductSalesDto>> getTopProducts(@RequestParam(name = "window", defaultValue = "1h") String window, @RequestParam(name = "k", defaultValue = "10") @Positive(message = "K must be a positive number") int k) {
+		logger.info("Get the best-selling products");
+		return ResponseEntity.ok(this.bestSellerTracker.top(parseWindow(window), k));
+	}
+
+	/**
+	 * Search the products by name
+	 * @param query The text to search in the product names
+	 * @param limit The maximum number of products to return
+	 * @param prefix Whether the query must start a word, for autocompletion
+	 * @return The matching products, best first
+	 */
+	@GetMapping("/search")
+	@Operation(summary = "Search the products by name", description = "Search the product names ignoring case and accents, exact and prefix matches first, from an in-memory index", responses = {
+			@ApiResponse(responseCode = "200", description = "The matching products")
+	})
+	public ResponseEntity<List<ProductSearchHitDto>> searchProducts(@RequestParam(name = "q") String query, @RequestParam(name = "limit", defaultValue = "20") @Positive(message = "Limit must be a positive number") int limit, @RequestParam(name = "prefix", defaultValue = "false") boolean prefix) {
+		logger.info("Search products");
+		return ResponseEntity.ok(this.productService.searchProducts(query, limit, prefix));
 	}
 
 	/**
 	 * Get product by id
 	 * @param id The product id
+	 * @param view The properties to write, summary or full
+	 * @param fields The comma separated properties to write, instead of a view
+	 * @param request The request, answered with 304 when its If-None-Match or If-Modified-Since is current
 	 * @return The product object
 	 */
 	@GetMapping("/{id}")
 	@Operation(summary = "Get a product by its id", description = "Get product data from the database", responses = {
-			@ApiResponse(responseCode = "200", description = "The product object")
+			@ApiResponse(responseCode = "200", description = "The product object"),
+			@ApiResponse(responseCode = "304", description = "The product did not change since the version in If-None-Match")
 	})
-	public ResponseEntity<Product> getProduct(@PathVariable("id") @Positive(message = "Id must be a positive number") long id) {
+	public ResponseEntity<ProductViewDto> getProduct(@PathVariable("id") @Positive(message = "Id must be a positive number") long id, @RequestParam(name = "view", required = false) String view, @RequestParam(name = "fields", required = false) String fields, WebRequest request) {
 		logger.info("Get product by id");
-		return ResponseEntity.ok(this.productService.getProduct(id));
+		ResponseFields selected = productFields(view, fields);
+		if (ETags.notModified(request, this.productService.getProductVersion(id)))
+			return null;
+		Product product = this.productService.getProduct(id);
+		return ETags.ok(ProductViewDto.of(product, selected), EntityVersion.of(product));
 	}
 
 	/**
 	 * Get a list of products for a product
 	 * @param id The order id
+	 * @param view The properties to write, summary or full
+	 * @param fields The comma separated properties to write, instead of a view
 	 * @return The list of products
 	 */
 	@GetMapping("/order/{id}")
 	@Operation(summary = "Get a list of products for an order", description = "Get a list of products for an order", responses = {
 			@ApiResponse(responseCode = "200", description = "The list of products")
 	})
-	public ResponseEntity<List<Product>> getProductsForOrder(@PathVariable("id") @Positive(message = "Id must be a positive number") long id) {
+	public ResponseEntity<List<ProductViewDto>> getProductsForOrder(@PathVariable("id") @Positive(message = "Id must be a positive number") long id, @RequestParam(name = "view", required = false) String view, @RequestParam(name = "fields", required = false) String fields) {
 		logger.info("Get a list of orders for a product");
-		return ResponseEntity.ok(this.productService.getProductsForOrder(id));
+		ResponseFields selected = productFields(view, fields);
+		return ETags.okList(this.productService.getProductsForOrder(id), EntityVersion::of, product -> ProductViewDto.of(product, selected));
+	}
+
+	/**
+	 * Get the inventory of a product
+	 * @param id The product id
+	 * @return The units of the product that are neither sold nor reserved
+	 */
+	@GetMapping("/inventory/{id}")
+	@Operation(summary = "Get the inventory of a product", description = "Get the units of a product that are neither sold nor reserved by an order, products that were never restocked have no inventory", responses = {
+			@ApiResponse(responseCode = "200", description = "The inventory of the product")
+	})
+	public ResponseEntity<InventoryDto> getInventory(@PathVariable("id") @Positive(message = "Id must be a positive number") long id) {
+		logger.info("Get the inventory of a product");
+		return ResponseEntity.ok(this.inventoryService.getInventory(id));
+	}
+
+	/**
+	 * Add units to the stock of a product
+	 * @param id The product id
+	 * @param restockDto The units to add
+	 * @return The inventory of the product after the restock
+	 */
+	@PostMapping("/restock/{id}")
+	@Operation(summary = "Restock a product", description = "Add units to the stock of a product, orders for the product are then limited to its stock", responses = {
+			@ApiResponse(responseCode = "200", description = "The inventory of the product")
+	})
+	public ResponseEntity<InventoryDto> restockProduct(@PathVariable("id") @Positive(message = "Id must be a positive number") long id, @RequestBody @Valid RestockDto restockDto) {
+		logger.info("Restock a product");
+		this.productService.getProduct(id);
+		return ResponseEntity.ok(this.inventoryService.restock(id, restockDto.getQuantity()));
 	}
 
 	/**
@@ -88,9 +202,43 @@ public class ProductController {
 	@Operation(summary = "Create a new product", description = "Create new product and add it to the database", responses = {
 			@ApiResponse(responseCode = "201", description = "The new product")
 	})
-	public ResponseEntity<Product> createProduct(@RequestBody @Valid ProductDto productDto) {
+	public ResponseEntity<ProductViewDto> createProduct(@RequestBody @Valid ProductDto productDto) {
 		logger.info("Create a new product");
-		return ResponseEntity.status(HttpStatus.CREATED).body(this.productService.createProduct(productDto));
+		return ResponseEntity.status(HttpStatus.CREATED).body(ProductViewDto.of(this.productService.createProduct(productDto), ProductViewDto.FULL));
+	}
+
+	/**
+	 * Import a catalog of products, inserting new names and repricing the others
+	 * @param request The request, its body is a CSV or NDJSON upload, gzip compressed when its Content-Encoding is gzip
+	 * @return The counts of the import and its invalid rows
+	 * @throws IOException if reading the upload fails
+	 */
+	@PostMapping(value = "/import", consumes = { ProductImportService.CSV_TYPE, ProductImportService.NDJSON_TYPE })
+	@Operation(summary = "Import products", description = "Stream a catalog of products, as CSV with a header naming its productName and price columns or as newline-delimited JSON, and upsert it by product name in batches. Invalid rows are reported without stopping the import", responses = {
+			@ApiResponse(responseCode = "200", description = "The outcome of the import")
+	})
+	public ResponseEntity<ProductImportResultDto> importProducts(HttpServletRequest request) throws IOException {
+		logger.info("Import products");
+		ProductImportService.Format format = ProductImportService.Format.of(request.getContentType());
+		InputStream in = request.getInputStream();
+		if ("gzip".equalsIgnoreCase(request.getHeader(HttpHeaders.CONTENT_ENCODING)))
+			in = new GZIPInputStream(in, 64 * 1024);
+		Charset charset = request.getCharacterEncoding() == null ? StandardCharsets.UTF_8 : Charset.forName(request.getCharacterEncoding());
+		return ResponseEntity.ok(this.productImportService.importProducts(new InputStreamReader(in, charset), format));
+	}
+
+	/**
+	 * Reprice products in bulk, from a list of new prices or a percentage rule
+	 * @param repricingDto The new prices, or the percentage and the id range and name pattern of the products it applies to
+	 * @return The counts of the repricing
+	 */
+	@PostMapping("/reprice")
+	@Operation(summary = "Reprice products in bulk", description = "Set the prices of the listed products, or change by a percentage the prices of the products in an id range whose name matches a LIKE pattern, with chunked set-based updates", responses = {
+			@ApiResponse(responseCode = "200", description = "The outcome of the repricing")
+	})
+	public ResponseEntity<RepricingResultDto> repriceProducts(@RequestBody @Valid RepricingDto repricingDto) {
+		logger.info("Reprice products");
+		return ResponseEntity.ok(this.productRepricingService.reprice(repricingDto));
 	}
 
 	/**
@@ -103,9 +251,9 @@ public class ProductController {
 	@Operation(summary = "Update a product by its id", description = "Update  aproduct and save it in the database", responses = {
 			@ApiResponse(responseCode = "200", description = "The updated product")
 	})
-	public ResponseEntity<Product> updateProduct(@PathVariable("id") @Positive(message = "Id must be a positive number") long id, @RequestBody @Valid ProductDto productDto) {
+	public ResponseEntity<ProductViewDto> updateProduct(@PathVariable("id") @Positive(message = "Id must be a positive number") long id, @RequestBody @Valid ProductDto productDto) {
 		logger.info("Update product");
-		return ResponseEntity.ok(this.productService.updateProduct(id, productDto));
+		return ResponseEntity.ok(ProductViewDto.of(this.productService.updateProduct(id, productDto), ProductViewDto.FULL));
 	}
 
 	/**
@@ -121,4 +269,16 @@ public class ProductController {
 		this.productService.deleteProduct(id);
 		return ResponseEntity.ok().build();
 	}
+
+	private static Duration parseWindow(String window) {
+		try {
+			return DurationStyle.detectAndParse(window);
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("Invalid window : " + window);
+		}
+	}
+
+	private static ResponseFields productFields(String view, String fields) {
+		return ResponseFields.of(view, fields, ProductViewDto.SUMMARY, ProductViewDto.ALL);
+	}
 }
@@ -0,0 +1,25 @@
+package com.SpringBootStarters.MarketPlace.DTOs;
+
+import java.util.List;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * This class represents one order of a bulk order creation request.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkOrderDto {
+	@Positive(message = "Customer id must be a positive number")
+	private long customerId;
+
+	@NotEmpty(message = "Order must contain at least one product")
+	private List<Long> productIds;
+}
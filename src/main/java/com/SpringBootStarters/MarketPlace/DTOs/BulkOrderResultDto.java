@@ -0,0 +1,32 @@
+package com.SpringBootStarters.MarketPlace.DTOs;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * This class represents the outcome of one order of a bulk order creation
+ * request. The index refers to the position of the order in the request.
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkOrderResultDto {
+	public enum Status {
+		CREATED,
+		FAILED
+	}
+
+	private int index;
+	private Status status;
+	private Long orderId;
+	private String error;
+
+	public static BulkOrderResultDto created(int index, long orderId) {
+		return new BulkOrderResultDto(index, Status.CREATED, orderId, null);
+	}
+
+	public static BulkOrderResultDto failed(int index, String error) {
+		return new BulkOrderResultDto(index, Status.FAILED, null, error);
+	}
+}
@@ -0,0 +1,44 @@
+package com.SpringBootStarters.MarketPlace.DTOs;
+
+import java.util.List;
+import java.util.function.Function;
+
+import org.springframework.data.domain.Slice;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * This class represents one page of a keyset paginated list.
+ * The next cursor is null when there are no more rows to read.
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+	private List<T> content;
+	private int size;
+	private boolean hasNext;
+	private String nextCursor;
+
+	/**
+	 * Builds a page from a slice returned by a seek query.
+	 * @param slice The slice of rows
+	 * @param cursorOf Computes the cursor positioned after a row
+	 * @return The page
+	 */
+	public static <T> CursorPage<T> of(Slice<T> slice, Function<T, String> cursorOf) {
+		List<T> content = slice.getContent();
+		String nextCursor = slice.hasNext() && !content.isEmpty() ? cursorOf.apply(content.get(content.size() - 1)) : null;
+		return new CursorPage<>(content, content.size(), slice.hasNext(), nextCursor);
+	}
+
+	/**
+	 * @param mapper Maps a row
+	 * @return The same page with its rows mapped
+	 */
+	public <R> CursorPage<R> map(Function<T, R> mapper) {
+		return new CursorPage<>(this.content.stream().map(mapper).toList(), this.size, this.hasNext, this.nextCursor);
+	}
+}
@@ -0,0 +1,39 @@
+package com.SpringBootStarters.MarketPlace.DTOs;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+
+import com.SpringBootStarters.MarketPlace.Utils.Money;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * This class represents the order aggregates of a customer, maintained as
+ * orders are written so they can be read without loading the orders.
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerOrderStatsDto {
+	private long customerId;
+	private long orderCount;
+	private BigDecimal totalSpent;
+	private LocalDateTime firstOrderDate;
+	private LocalDateTime lastOrderDate;
+
+	public static CustomerOrderStatsDto empty(long customerId) {
+		return new CustomerOrderStatsDto(customerId, 0, Money.toDecimal(0), null, null);
+	}
+
+	/**
+	 * @return The average order total, or null if the customer has no orders
+	 */
+	public BigDecimal getAverageBasket() {
+		if (this.orderCount == 0)
+			return null;
+		return this.totalSpent.divide(BigDecimal.valueOf(this.orderCount), Money.SCALE, RoundingMode.HALF_EVEN);
+	}
+}
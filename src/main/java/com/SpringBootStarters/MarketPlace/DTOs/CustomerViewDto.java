@@ -0,0 +1,47 @@
+package com.SpringBootStarters.MarketPlace.DTOs;
+
+import java.util.Set;
+
+import com.SpringBootStarters.MarketPlace.Entities.Customer;
+import com.SpringBootStarters.MarketPlace.Utils.ResponseFields;
+import com.fasterxml.jackson.annotation.JsonFilter;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * This class represents a customer in a response, written with the
+ * properties selected by the view= or fields= parameters.
+ */
+@Getter
+@AllArgsConstructor
+@JsonFilter(ResponseFields.FILTER)
+public class CustomerViewDto implements ResponseFields.Shaped {
+	public static final Set<String> SUMMARY = Set.of("id", "firstName", "lastName");
+	public static final Set<String> ALL = Set.of("id", "firstName", "lastName", "email", "age");
+	public static final ResponseFields FULL = ResponseFields.all(ALL);
+
+	private long id;
+	private String firstName;
+	private String lastName;
+	private String email;
+	private int age;
+
+	@Getter(AccessLevel.NONE)
+	private ResponseFields fields;
+
+	/**
+	 * @param customer The customer
+	 * @param fields The properties to write
+	 * @return The view of the customer
+	 */
+	public static CustomerViewDto of(Customer customer, ResponseFields fields) {
+		return new CustomerViewDto(customer.getId(), customer.getFirstName(), customer.getLastName(), customer.getEmail(), customer.getAge(), fields);
+	}
+
+	@Override
+	public ResponseFields fields() {
+		return this.fields;
+	}
+}
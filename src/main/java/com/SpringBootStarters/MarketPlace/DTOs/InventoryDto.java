@@ -0,0 +1,17 @@
+package com.SpringBootStarters.MarketPlace.DTOs;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * This class represents the inventory of a product: the units that are
+ * neither sold nor reserved by a committed order.
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryDto {
+	private long productId;
+	private long available;
+}
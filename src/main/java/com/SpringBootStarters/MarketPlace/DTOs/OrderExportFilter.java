@@ -0,0 +1,34 @@
+package com.SpringBootStarters.MarketPlace.DTOs;
+
+import java.time.LocalDateTime;
+
+import lombok.Getter;
+
+/**
+ * This class represents the filter applied to an orders export.
+ * Missing bounds are replaced with an open range so the export query always
+ * receives concrete values.
+ */
+@Getter
+public class OrderExportFilter {
+	private static final LocalDateTime MIN_DATE = LocalDateTime.of(1970, 1, 1, 0, 0);
+	private static final LocalDateTime MAX_DATE = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+	private final Long customerId;
+	private final LocalDateTime from;
+	private final LocalDateTime to;
+
+	/**
+	 * Constructs a new export filter.
+	 * @param customerId The customer whose orders are exported, or null for all customers
+	 * @param from The inclusive lower bound of the order date, or null
+	 * @param to The exclusive upper bound of the order date, or null
+	 */
+	public OrderExportFilter(Long customerId, LocalDateTime from, LocalDateTime to) {
+		this.customerId = customerId;
+		this.from = from != null ? from : MIN_DATE;
+		this.to = to != null ? to : MAX_DATE;
+		if (!this.from.isBefore(this.to))
+			throw new IllegalArgumentException("Export start date must be before its end date");
+	}
+}
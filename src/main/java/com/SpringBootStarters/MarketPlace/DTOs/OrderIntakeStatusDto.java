@@ -0,0 +1,39 @@
+package com.SpringBootStarters.MarketPlace.DTOs;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * The status of an order submitted to the asynchronous intake, identified by
+ * the ticket returned when it was accepted.
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderIntakeStatusDto {
+	public enum Status {
+		QUEUED,
+		CREATED,
+		FAILED
+	}
+
+	private String ticket;
+	private Status status;
+	private Long orderId;
+	private String error;
+
+	public static OrderIntakeStatusDto queued(String ticket) {
+		return new OrderIntakeStatusDto(ticket, Status.QUEUED, null, null);
+	}
+
+	public static OrderIntakeStatusDto of(String ticket, BulkOrderResultDto result) {
+		if (result.getStatus() == BulkOrderResultDto.Status.CREATED)
+			return new OrderIntakeStatusDto(ticket, Status.CREATED, result.getOrderId(), null);
+		return failed(ticket, result.getError());
+	}
+
+	public static OrderIntakeStatusDto failed(String ticket, String error) {
+		return new OrderIntakeStatusDto(ticket, Status.FAILED, null, error);
+	}
+}
@@ -0,0 +1,68 @@
+package com.SpringBootStarters.MarketPlace.DTOs;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import com.SpringBootStarters.MarketPlace.Entities.Orders;
+import com.SpringBootStarters.MarketPlace.Entities.Product;
+import com.SpringBootStarters.MarketPlace.Utils.ResponseFields;
+import com.fasterxml.jackson.annotation.JsonFilter;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * This class represents an order in a response, written with the
+ * properties selected by the view= or fields= parameters. The summary holds
+ * the ids and the total; the customer and the products are only read from
+ * the order when they are selected, so the caller loads them only then.
+ */
+@Getter
+@AllArgsConstructor
+@JsonFilter(ResponseFields.FILTER)
+public class OrderViewDto implements ResponseFields.Shaped {
+	public static final String CUSTOMER = "customer";
+	public static final String PRODUCTS = "products";
+	public static final Set<String> SUMMARY = Set.of("id", "date", "totalAmount", "customerId");
+	public static final Set<String> ALL = Set.of("id", "date", "totalAmount", "customerId", CUSTOMER, PRODUCTS);
+	public static final ResponseFields FULL = ResponseFields.all(ALL);
+
+	private long id;
+	private LocalDateTime date;
+	private BigDecimal totalAmount;
+	private Long customerId;
+	private CustomerViewDto customer;
+	private List<ProductViewDto> products;
+
+	@Getter(AccessLevel.NONE)
+	private ResponseFields fields;
+
+	/**
+	 * @param order The order, with its customer and products loaded when they are selected
+	 * @param fields The properties to write
+	 * @return The view of the order
+	 */
+	public static OrderViewDto of(Orders order, ResponseFields fields) {
+		// The id of a lazy customer is read without loading it
+		Long customerId = order.getCustomer() != null ? order.getCustomer().getId() : null;
+		CustomerViewDto customer = null;
+		if (fields.includes(CUSTOMER) && order.getCustomer() != null)
+			customer = CustomerViewDto.of(order.getCustomer(), CustomerViewDto.FULL);
+		List<ProductViewDto> products = null;
+		if (fields.includes(PRODUCTS)) {
+			products = new ArrayList<>(order.getProducts().size());
+			for (Product product : order.getProducts())
+				products.add(ProductViewDto.of(product, ProductViewDto.FULL));
+		}
+		return new OrderViewDto(order.getId(), order.getDate(), order.getTotalAmount(), customerId, customer, products, fields);
+	}
+
+	@Override
+	public ResponseFields fields() {
+		return this.fields;
+	}
+}
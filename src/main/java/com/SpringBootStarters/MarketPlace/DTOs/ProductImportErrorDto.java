@@ -0,0 +1,17 @@
+package com.SpringBootStarters.MarketPlace.DTOs;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * This class represents a row of a product import that was not imported.
+ * The line is the line of the uploaded file the row starts on.
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportErrorDto {
+	private long line;
+	private String error;
+}
@@ -0,0 +1,27 @@
+package com.SpringBootStarters.MarketPlace.DTOs;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * This class represents the outcome of a product import: how many rows
+ * were read, inserted, updated, left unchanged because their price was the
+ * same, or failed, and the throughput. Only the first failed rows are
+ * listed in errors, failed counts them all.
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportResultDto {
+	private long rows;
+	private long inserted;
+	private long updated;
+	private long unchanged;
+	private long failed;
+	private long elapsedMillis;
+	private double rowsPerSecond;
+	private List<ProductImportErrorDto> errors;
+}
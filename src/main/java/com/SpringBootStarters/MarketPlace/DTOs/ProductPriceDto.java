@@ -0,0 +1,28 @@
+package com.SpringBootStarters.MarketPlace.DTOs;
+
+import java.math.BigDecimal;
+
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * This class represents the new price of one product of a repricing.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductPriceDto {
+	@Positive(message = "Product id must be a positive number")
+	private long productId;
+
+	@NotNull(message = "Price can't be null")
+	@Positive(message = "Price must be a positive number")
+	@Digits(integer = 8, fraction = 2, message = "Price must have at most 8 integer digits and 2 decimals")
+	private BigDecimal price;
+}
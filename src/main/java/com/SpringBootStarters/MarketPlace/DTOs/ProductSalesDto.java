@@ -0,0 +1,19 @@
+package com.SpringBootStarters.MarketPlace.DTOs;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * This class represents the estimated sales of a product over a window.
+ * The sales are never underestimated, the exact number is between
+ * sales - error and sales.
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSalesDto {
+	private long productId;
+	private long sales;
+	private long error;
+}
@@ -0,0 +1,16 @@
+package com.SpringBootStarters.MarketPlace.DTOs;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * This class represents a product matching a search query.
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSearchHitDto {
+	private long productId;
+	private String productName;
+}
@@ -0,0 +1,46 @@
+package com.SpringBootStarters.MarketPlace.DTOs;
+
+import java.math.BigDecimal;
+import java.util.Set;
+
+import com.SpringBootStarters.MarketPlace.Entities.Product;
+import com.SpringBootStarters.MarketPlace.Utils.ResponseFields;
+import com.fasterxml.jackson.annotation.JsonFilter;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * This class represents a product in a response, written with the
+ * properties selected by the view= or fields= parameters.
+ */
+@Getter
+@AllArgsConstructor
+@JsonFilter(ResponseFields.FILTER)
+public class ProductViewDto implements ResponseFields.Shaped {
+	public static final Set<String> SUMMARY = Set.of("id", "productName");
+	public static final Set<String> ALL = Set.of("id", "productName", "price");
+	public static final ResponseFields FULL = ResponseFields.all(ALL);
+
+	private long id;
+	private String productName;
+	private BigDecimal price;
+
+	@Getter(AccessLevel.NONE)
+	private ResponseFields fields;
+
+	/**
+	 * @param product The product
+	 * @param fields The properties to write
+	 * @return The view of the product
+	 */
+	public static ProductViewDto of(Product product, ResponseFields fields) {
+		return new ProductViewDto(product.getId(), product.getProductName(), product.getPrice(), fields);
+	}
+
+	@Override
+	public ResponseFields fields() {
+		return this.fields;
+	}
+}
@@ -0,0 +1,38 @@
+package com.SpringBootStarters.MarketPlace.DTOs;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * This class represents a repricing request, either a list of new prices or
+ * a rule: a percentage change applied to the products whose id is between
+ * fromId and toId and whose name matches namePattern, each bound being
+ * optional. The pattern is a case-insensitive SQL LIKE pattern, where % and
+ * _ match any text and any character.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class RepricingDto {
+	private List<@Valid ProductPriceDto> prices;
+
+	@DecimalMin(value = "-100", inclusive = false, message = "Percentage must be greater than -100")
+	private BigDecimal percentage;
+
+	@Positive(message = "From id must be a positive number")
+	private Long fromId;
+
+	@Positive(message = "To id must be a positive number")
+	private Long toId;
+
+	private String namePattern;
+}
@@ -0,0 +1,24 @@
+package com.SpringBootStarters.MarketPlace.DTOs;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * This class represents the outcome of a repricing: how many products were
+ * matched, updated, left unchanged because their price was already right,
+ * or skipped because the new price would not fit the price column, how
+ * many listed ids do not exist, and how many chunks were committed.
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class RepricingResultDto {
+	private long matched;
+	private long updated;
+	private long unchanged;
+	private long skipped;
+	private long missing;
+	private long chunks;
+	private long elapsedMillis;
+}
@@ -0,0 +1,19 @@
+package com.SpringBootStarters.MarketPlace.DTOs;
+
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * This class represents units added to the stock of a product.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class RestockDto {
+	@Positive(message = "Quantity must be a positive number")
+	private long quantity;
+}
@@ -1,13 +1,25 @@
 package com.SpringBootStarters.MarketPlace.Entities;
 
+import java.time.Instant;
+
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+
 import com.SpringBootStarters.MarketPlace.DTOs.CustomerDto;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Positive;
@@ -19,6 +31,7 @@ import lombok.Setter;
 
 /**
  * Represents a customer entity with their information.
+ * Customers are kept in the customer region of the second-level cache.
  */
 @Getter
 @Setter
@@ -26,9 +39,16 @@ import lombok.Setter;
 @AllArgsConstructor
 @Entity
 @Table(name = "Customer")
-public class Customer {
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Customer.CACHE_REGION)
+public class Customer implements Versioned {
+	public static final String CACHE_REGION = "customer";
+	public static final String ID_SEQUENCE = "customer_seq";
+	public static final int ID_ALLOCATION_SIZE = 50;
+
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+	@SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
 	@Column(name = "id", updatable = false, nullable = false)
 	private long id;
 
@@ -50,6 +70,17 @@ public class Customer {
 	@Column(name = "age", nullable = false)
 	private int age;
 
+	@Version
+	@ColumnDefault("0")
+	@Column(name = "version", nullable = false)
+	@JsonIgnore
+	private long version;
+
+	@ColumnDefault("CURRENT_TIMESTAMP")
+	@Column(name = "last_modified", nullable = false)
+	@JsonIgnore
+	private Instant lastModified;
+
 	/**
 	 * Constructs a new Customer object based on the provided information.
 	 * @param firstName The customer first name
@@ -63,4 +94,23 @@ public class Customer {
 		this.email = email;
 		this.age = age;
 	}
+
+	/**
+	 * Constructs a Customer object with a known id.
+	 * @param id The customer id
+	 * @param firstName The customer first name
+	 * @param lastName The customer last name
+	 * @param email The customer email
+	 * @param age The customer age
+	 */
+	public Customer(long id, String firstName, String lastName, String email, int age) {
+		this(firstName, lastName, email, age);
+		this.id = id;
+	}
+
+	@PrePersist
+	@PreUpdate
+	private void touch() {
+		this.lastModified = Instant.now();
+	}
 }
@@ -0,0 +1,58 @@
+package com.SpringBootStarters.MarketPlace.Entities;
+
+import java.math.BigDecimal;
+
+import com.SpringBootStarters.MarketPlace.Utils.Money;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * A line of an order, with a snapshot of the product price taken when the
+ * product was added. The unit price is held in minor units so totals can be
+ * computed with long arithmetic and don't change when the product does.
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+@Embeddable
+public class OrderLine {
+	@Column(name = "product_id", nullable = false)
+	private long productId;
+
+	@Column(name = "unit_price_minor", nullable = false)
+	private long unitPriceMinor;
+
+	@Column(name = "quantity", nullable = false)
+	private int quantity;
+
+	/**
+	 * Creates a line for one unit of the product at its current price.
+	 * @param product The product
+	 * @return The order line
+	 * @throws IllegalArgumentException if the product has no price
+	 */
+	public static OrderLine of(Product product) {
+		if (product.getPrice() == null)
+			throw new IllegalArgumentException("Product with Id : " + product.getId() + " has no price");
+		return new OrderLine(product.getId(), Money.toMinor(product.getPrice()), 1);
+	}
+
+	public BigDecimal getUnitPrice() {
+		return Money.toDecimal(this.unitPriceMinor);
+	}
+
+	/**
+	 * @return The total of the line in minor units
+	 */
+	public long getTotalMinor() {
+		return Money.multiply(this.unitPriceMinor, this.quantity);
+	}
+}
@@ -1,11 +1,19 @@
 package com.SpringBootStarters.MarketPlace.Entities;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.HashSet;
+import java.util.Set;
 
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.ColumnDefault;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import jakarta.persistence.CollectionTable;
 import jakarta.persistence.Column;
+import jakarta.persistence.ElementCollection;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
@@ -15,42 +23,82 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotNull;
 import lombok.Getter;
 import lombok.Setter;
 
 /**
  * Represents an order in the system.
+ * Both associations are lazy, reads choose what to load through the entity
+ * graphs declared below. The lines keep the price of each product at the
+ * time it was added, the total amount is computed from them. Products are a
+ * set, so adding one inserts a single order_product row instead of rewriting
+ * the whole collection.
  */
 @Setter
 @Getter
 @Entity
 @Table(name = "Orders")
-public class Orders {
+@NamedEntityGraph(name = Orders.WITH_CUSTOMER, attributeNodes = @NamedAttributeNode("customer"))
+@NamedEntityGraph(name = Orders.WITH_CUSTOMER_AND_PRODUCTS, attributeNodes = {
+	@NamedAttributeNode("customer"),
+	@NamedAttributeNode("products")
+})
+public class Orders implements Versioned {
+	public static final String WITH_CUSTOMER = "Orders.withCustomer";
+	public static final String WITH_CUSTOMER_AND_PRODUCTS = "Orders.withCustomerAndProducts";
+	public static final String ID_SEQUENCE = "orders_seq";
+	public static final int ID_ALLOCATION_SIZE = 50;
+
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+	@SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
 	@Column(name = "id", updatable = false, nullable = false)
 	private long id;
 
 	@Column(name = "date", updatable = false, nullable = false)
 	private LocalDateTime date;
 
+	@Version
+	@ColumnDefault("0")
+	@Column(name = "version", nullable = false)
+	@JsonIgnore
+	private long version;
+
+	@ColumnDefault("CURRENT_TIMESTAMP")
+	@Column(name = "last_modified", nullable = false)
+	@JsonIgnore
+	private Instant lastModified;
+
 	@NotNull(message = "Order total amount must not be null")
 	@Column(name = "total_amount", precision = 10, scale = 2)
 	private BigDecimal totalAmount = BigDecimal.ZERO;
 
-	@ManyToOne
+	@ManyToOne(fetch = FetchType.LAZY)
 	@JoinColumn(name = "customer_id")
 	private Customer customer;
 
-	@ManyToMany(fetch = FetchType.EAGER)
+	@ManyToMany(fetch = FetchType.LAZY)
+	@BatchSize(size = 100)
 	@JoinTable(
 		name = "order_product",
 		joinColumns = @JoinColumn(name = "order_id"),
 		inverseJoinColumns = @JoinColumn(name = "product_id")
 	)
-	private List<Product> products = new ArrayList<>();
+	private Set<Product> products = new HashSet<>();
+
+	@ElementCollection(fetch = FetchType.LAZY)
+	@BatchSize(size = 100)
+	@CollectionTable(name = "order_line", joinColumns = @JoinColumn(name = "order_id"))
+	@JsonIgnore
+	private Set<OrderLine> lines = new HashSet<>();
 
 	public Orders(long id) {
 		this.id = id;
@@ -62,4 +110,10 @@ public class Orders {
 	public Orders() {
 		this.date = LocalDateTime.now();
 	}
+
+	@PrePersist
+	@PreUpdate
+	private void touch() {
+		this.lastModified = Instant.now();
+	}
 }
@@ -1,12 +1,18 @@
 package com.SpringBootStarters.MarketPlace.Entities;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+
 import com.SpringBootStarters.MarketPlace.DTOs.ProductDto;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
@@ -14,7 +20,11 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.ManyToMany;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Positive;
@@ -26,6 +36,9 @@ import lombok.Setter;
 
 /**
  * Represents a product in the system.
+ * Two products are equal when they have the same id, so collections of
+ * products can be compared and deduplicated without loading them again.
+ * Products are kept in the product region of the second-level cache.
  */
 @Setter
 @Getter
@@ -33,9 +46,16 @@ import lombok.Setter;
 @AllArgsConstructor
 @Entity
 @Table(name = "Product")
-public class Product {
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Product.CACHE_REGION)
+public class Product implements Versioned {
+	public static final String CACHE_REGION = "product";
+	public static final String ID_SEQUENCE = "product_seq";
+	public static final int ID_ALLOCATION_SIZE = 50;
+
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+	@SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
 	@Column(name = "id", updatable = false, nullable = false)
 	private long id;
 
@@ -48,7 +68,18 @@ public class Product {
 	@Column(name = "price", precision = 10, scale = 2)
 	private BigDecimal price;
 
-	@ManyToMany(mappedBy = "products", fetch = FetchType.EAGER)
+	@Version
+	@ColumnDefault("0")
+	@Column(name = "version", nullable = false)
+	@JsonIgnore
+	private long version;
+
+	@ColumnDefault("CURRENT_TIMESTAMP")
+	@Column(name = "last_modified", nullable = false)
+	@JsonIgnore
+	private Instant lastModified;
+
+	@ManyToMany(mappedBy = "products", fetch = FetchType.LAZY)
 	@JsonIgnore
 	private List<Orders> orders = new ArrayList<>();
 
@@ -67,4 +98,28 @@ public class Product {
 		this.productName = productName;
 		this.price = price;
 	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o)
+			return true;
+		if (!(o instanceof Product other))
+			return false;
+		return this.id != 0 && this.id == other.getId();
+	}
+
+	/**
+	 * Hashes on the id, products must not be added to a hashed collection
+	 * before they are persisted.
+	 */
+	@Override
+	public int hashCode() {
+		return Long.hashCode(this.id);
+	}
+
+	@PrePersist
+	@PreUpdate
+	private void touch() {
+		this.lastModified = Instant.now();
+	}
 }
@@ -0,0 +1,16 @@
+package com.SpringBootStarters.MarketPlace.Entities;
+
+import java.time.Instant;
+
+/**
+ * An entity whose version is incremented by every change of its row, and
+ * which records when that change happened. Both identify a representation
+ * of the entity for conditional requests.
+ */
+public interface Versioned {
+	long getId();
+
+	long getVersion();
+
+	Instant getLastModified();
+}
@@ -1,7 +1,11 @@
 package com.SpringBootStarters.MarketPlace.Exceptions;
 
+import java.util.concurrent.RejectedExecutionException;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -56,4 +60,20 @@ public class GlobalExceptionHandler {
 		logger.error(ERROR_MESSAGE + ex.getMessage());
 		return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ERROR_MESSAGE + ex.getMessage());
 	}
+
+	@ExceptionHandler(RejectedExecutionException.class)
+	@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+	@ResponseBody
+	public ResponseEntity<String> handleRejectedExecutionException(RejectedExecutionException ex) {
+		logger.error(ERROR_MESSAGE + ex.getMessage());
+		return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, "1").body(ERROR_MESSAGE + ex.getMessage());
+	}
+
+	@ExceptionHandler(ConcurrencyFailureException.class)
+	@ResponseStatus(HttpStatus.CONFLICT)
+	@ResponseBody
+	public ResponseEntity<String> handleConcurrencyFailureException(ConcurrencyFailureException ex) {
+		logger.error(ERROR_MESSAGE + ex.getMessage());
+		return ResponseEntity.status(HttpStatus.CONFLICT).body(ERROR_MESSAGE + ex.getMessage());
+	}
 }
@@ -0,0 +1,36 @@
+package com.SpringBootStarters.MarketPlace.Mappers;
+
+import org.springframework.stereotype.Component;
+
+import com.SpringBootStarters.MarketPlace.DTOs.CustomerDto;
+import com.SpringBootStarters.MarketPlace.Entities.Customer;
+
+/**
+ * Maps customer DTOs to customer entities with plain field copies.
+ * Every DTO field is copied, null values included, the id is left untouched.
+ */
+@Component
+public class CustomerMapper {
+	/**
+	 * Creates a new customer from a DTO.
+	 * @param customerDto The DTO containing customer information
+	 * @return The new, unsaved customer
+	 */
+	public Customer toEntity(CustomerDto customerDto) {
+		Customer customer = new Customer();
+		update(customerDto, customer);
+		return customer;
+	}
+
+	/**
+	 * Copies the fields of a DTO onto an existing customer.
+	 * @param customerDto The DTO containing customer information
+	 * @param customer The customer to update
+	 */
+	public void update(CustomerDto customerDto, Customer customer) {
+		customer.setFirstName(customerDto.getFirstName());
+		customer.setLastName(customerDto.getLastName());
+		customer.setEmail(customerDto.getEmail());
+		customer.setAge(customerDto.getAge());
+	}
+}
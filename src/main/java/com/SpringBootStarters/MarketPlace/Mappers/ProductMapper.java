@@ -0,0 +1,35 @@
+package com.SpringBootStarters.MarketPlace.Mappers;
+
+import org.springframework.stereotype.Component;
+
+import com.SpringBootStarters.MarketPlace.DTOs.ProductDto;
+import com.SpringBootStarters.MarketPlace.Entities.Product;
+
+/**
+ * Maps product DTOs to product entities with plain field copies.
+ * Every DTO field is copied, null values included, the id and the orders are
+ * left untouched.
+ */
+@Component
+public class ProductMapper {
+	/**
+	 * Creates a new product from a DTO.
+	 * @param productDto The DTO containing product information
+	 * @return The new, unsaved product
+	 */
+	public Product toEntity(ProductDto productDto) {
+		Product product = new Product();
+		update(productDto, product);
+		return product;
+	}
+
+	/**
+	 * Copies the fields of a DTO onto an existing product.
+	 * @param productDto The DTO containing product information
+	 * @param product The product to update
+	 */
+	public void update(ProductDto productDto, Product product) {
+		product.setProductName(productDto.getProductName());
+		product.setPrice(productDto.getPrice());
+	}
+}
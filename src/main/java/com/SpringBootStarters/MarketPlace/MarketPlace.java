@@ -1,13 +1,13 @@
 package com.SpringBootStarters.MarketPlace;
 
-import org.modelmapper.ModelMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.context.annotation.Bean;
+import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
+@EnableCaching
 @EnableTransactionManagement
 @SpringBootApplication
 public class MarketPlace {
@@ -17,9 +17,4 @@ public class MarketPlace {
 		logger.info("Starting MarketPlaceApplication");
 		SpringApplication.run(MarketPlace.class, args);
 	}
-
-	@Bean
-	public ModelMapper modelMapper() {
-		return new ModelMapper();
-	}
 }
@@ -0,0 +1,163 @@
+package com.SpringBootStarters.MarketPlace.Repositories;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.SpringBootStarters.MarketPlace.DTOs.CustomerOrderStatsDto;
+
+/**
+ * Maintains the customer_order_stats table with upserts and relative
+ * updates, so recording an order touches one row whatever the number of
+ * orders of the customer. The methods that write must be called in the
+ * transaction that changes the orders.
+ */
+@Repository
+public class CustomerOrderStatsRepository {
+	private static final String FIND = "SELECT c.id, s.order_count, s.total_spent, s.first_order_date, s.last_order_date "
+			+ "FROM customer c LEFT JOIN customer_order_stats s ON s.customer_id = c.id WHERE c.id = ?";
+	private static final String UPSERT = "INSERT INTO customer_order_stats (customer_id, order_count, total_spent, first_order_date, last_order_date) VALUES (?, ?, ?, ?, ?) "
+			+ "ON CONFLICT (customer_id) DO UPDATE SET "
+			+ "order_count = customer_order_stats.order_count + EXCLUDED.order_count, "
+			+ "total_spent = customer_order_stats.total_spent + EXCLUDED.total_spent, "
+			+ "first_order_date = LEAST(customer_order_stats.first_order_date, EXCLUDED.first_order_date), "
+			+ "last_order_date = GREATEST(customer_order_stats.last_order_date, EXCLUDED.last_order_date)";
+	private static final String ADD_TO_ORDER_TOTAL = "UPDATE customer_order_stats s SET total_spent = s.total_spent + ? "
+			+ "FROM orders o WHERE o.id = ? AND s.customer_id = o.customer_id";
+	private static final String REMOVE_ORDER = "UPDATE customer_order_stats s SET "
+			+ "order_count = s.order_count - 1, "
+			+ "total_spent = s.total_spent - COALESCE(o.total_amount, 0), "
+			+ "first_order_date = (SELECT min(x.date) FROM orders x WHERE x.customer_id = o.customer_id AND x.id <> o.id), "
+			+ "last_order_date = (SELECT max(x.date) FROM orders x WHERE x.customer_id = o.customer_id AND x.id <> o.id) "
+			+ "FROM orders o WHERE o.id = ? AND s.customer_id = o.customer_id";
+	private static final String PARTITION_INSERT_MISSING = "INSERT INTO customer_order_stats (customer_id, order_count, total_spent) "
+			+ "SELECT id, 0, 0 FROM customer WHERE id % ? = ? ON CONFLICT (customer_id) DO NOTHING";
+	private static final String PARTITION_LOCK = "SELECT count(*) FROM (SELECT 1 FROM customer_order_stats "
+			+ "WHERE customer_id % ? = ? ORDER BY customer_id FOR UPDATE) locked";
+	private static final String PARTITION_RECOMPUTE = "INSERT INTO customer_order_stats (customer_id, order_count, total_spent, first_order_date, last_order_date) "
+			+ "SELECT customer_id, count(*), COALESCE(sum(total_amount), 0), min(date), max(date) FROM orders "
+			+ "WHERE customer_id % ? = ? GROUP BY customer_id "
+			+ "ON CONFLICT (customer_id) DO UPDATE SET order_count = EXCLUDED.order_count, total_spent = EXCLUDED.total_spent, "
+			+ "first_order_date = EXCLUDED.first_order_date, last_order_date = EXCLUDED.last_order_date";
+	private static final String PARTITION_RESET_EMPTY = "UPDATE customer_order_stats s SET order_count = 0, total_spent = 0, first_order_date = NULL, last_order_date = NULL "
+			+ "WHERE s.customer_id % ? = ? AND s.order_count <> 0 AND NOT EXISTS (SELECT 1 FROM orders o WHERE o.customer_id = s.customer_id)";
+
+	private final JdbcTemplate jdbcTemplate;
+
+	public CustomerOrderStatsRepository(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	/**
+	 * Reads the aggregates of a customer with a primary key lookup.
+	 * @param customerId The id of the customer
+	 * @return The aggregates, empty ones if the customer has no orders yet,
+	 *         or an empty Optional if the customer does not exist
+	 */
+	public Optional<CustomerOrderStatsDto> find(long customerId) {
+		return this.jdbcTemplate.query(FIND, (rs, rowNum) -> toStats(rs), customerId).stream().findFirst();
+	}
+
+	/**
+	 * Adds the deltas to the aggregates of their customers. Deltas of the
+	 * same customer are merged, and the rows are written in customer order so
+	 * concurrent writers lock them in the same order.
+	 * @param deltas The changes to apply
+	 */
+	public void apply(List<Delta> deltas) {
+		Map<Long, Delta> merged = new TreeMap<>();
+		for (Delta delta : deltas)
+			merged.merge(delta.customerId(), delta, Delta::plus);
+		List<Delta> rows = new ArrayList<>(merged.values());
+		this.jdbcTemplate.batchUpdate(UPSERT, rows, rows.size(), (ps, delta) -> {
+			ps.setLong(1, delta.customerId());
+			ps.setLong(2, delta.orderCount());
+			ps.setBigDecimal(3, delta.amount());
+			ps.setTimestamp(4, delta.firstOrderDate() == null ? null : Timestamp.valueOf(delta.firstOrderDate()));
+			ps.setTimestamp(5, delta.lastOrderDate() == null ? null : Timestamp.valueOf(delta.lastOrderDate()));
+		});
+	}
+
+	/**
+	 * Adds an amount to the total spent by the customer of an order.
+	 * @param orderId The id of the order whose total changed
+	 * @param amount The change of the order total
+	 */
+	public void addToOrderTotal(long orderId, BigDecimal amount) {
+		this.jdbcTemplate.update(ADD_TO_ORDER_TOTAL, amount, orderId);
+	}
+
+	/**
+	 * Removes an order from the aggregates of its customer, must be called
+	 * before the order is deleted. The first and last order dates are read
+	 * back from the (customer_id, date) index.
+	 * @param orderId The id of the order about to be deleted
+	 */
+	public void removeOrder(long orderId) {
+		this.jdbcTemplate.update(REMOVE_ORDER, orderId);
+	}
+
+	/**
+	 * Recomputes the aggregates of the customers whose id is congruent to
+	 * partition modulo partitions, in the current transaction. The rows of
+	 * the partition are locked before the orders are read, so an order
+	 * written meanwhile is either counted by the rebuild or applied after it.
+	 * @param partitions The number of partitions
+	 * @param partition The partition to rebuild
+	 * @return The number of customers with orders in the partition
+	 */
+	public int rebuildPartition(int partitions, int partition) {
+		this.jdbcTemplate.update(PARTITION_INSERT_MISSING, partitions, partition);
+		this.jdbcTemplate.queryForObject(PARTITION_LOCK, Long.class, partitions, partition);
+		int customers = this.jdbcTemplate.update(PARTITION_RECOMPUTE, partitions, partition);
+		this.jdbcTemplate.update(PARTITION_RESET_EMPTY, partitions, partition);
+		return customers;
+	}
+
+	private static CustomerOrderStatsDto toStats(ResultSet rs) throws SQLException {
+		long customerId = rs.getLong(1);
+		BigDecimal totalSpent = rs.getBigDecimal(3);
+		if (totalSpent == null)
+			return CustomerOrderStatsDto.empty(customerId);
+		Timestamp first = rs.getTimestamp(4);
+		Timestamp last = rs.getTimestamp(5);
+		return new CustomerOrderStatsDto(customerId, rs.getLong(2), totalSpent, first == null ? null : first.toLocalDateTime(), last == null ? null : last.toLocalDateTime());
+	}
+
+	/**
+	 * A change to the aggregates of a customer. The dates are null when the
+	 * change does not add orders.
+	 */
+	public record Delta(long customerId, long orderCount, BigDecimal amount, LocalDateTime firstOrderDate, LocalDateTime lastOrderDate) {
+		public static Delta order(long customerId, LocalDateTime date, BigDecimal totalAmount) {
+			return new Delta(customerId, 1, totalAmount, date, date);
+		}
+
+		public static Delta amount(long customerId, BigDecimal amount) {
+			return new Delta(customerId, 0, amount, null, null);
+		}
+
+		private Delta plus(Delta other) {
+			return new Delta(this.customerId, this.orderCount + other.orderCount, this.amount.add(other.amount),
+					min(this.firstOrderDate, other.firstOrderDate), max(this.lastOrderDate, other.lastOrderDate));
+		}
+
+		private static LocalDateTime min(LocalDateTime a, LocalDateTime b) {
+			return a == null ? b : b == null || a.isBefore(b) ? a : b;
+		}
+
+		private static LocalDateTime max(LocalDateTime a, LocalDateTime b) {
+			return a == null ? b : b == null || a.isAfter(b) ? a : b;
+		}
+	}
+}
@@ -1,13 +1,29 @@
 package com.SpringBootStarters.MarketPlace.Repositories;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.SpringBootStarters.MarketPlace.Entities.Customer;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface CustomerRepository extends JpaRepository<Customer, Long> {
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
 	Optional<Customer> findByEmail(String email);
+
+	Slice<Customer> findByIdGreaterThanOrderByIdAsc(long id, Pageable pageable);
+
+	@Query("SELECT c.id FROM Customer c WHERE c.id IN :ids")
+	List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,67 @@
+package com.SpringBootStarters.MarketPlace.Repositories;
+
+import java.time.Instant;
+
+import com.SpringBootStarters.MarketPlace.Entities.Customer;
+import com.SpringBootStarters.MarketPlace.Entities.Orders;
+import com.SpringBootStarters.MarketPlace.Entities.Product;
+import com.SpringBootStarters.MarketPlace.Entities.Versioned;
+
+/**
+ * The version of the JSON representation of an entity: the version of its
+ * row, the sum of the versions of the rows embedded in it, and when the
+ * latest of them changed. Versions only grow and changing which rows are
+ * embedded increments the entity version, so the pair changes whenever the
+ * representation does.
+ */
+public record EntityVersion(long version, long embeddedVersions, Instant lastModified) {
+	/**
+	 * @param entity A product or a customer, which embed no other rows
+	 * @return The version of the entity
+	 */
+	public static EntityVersion of(Versioned entity) {
+		return new EntityVersion(entity.getVersion(), 0, entity.getLastModified());
+	}
+
+	/**
+	 * @param order An order with its customer and products loaded
+	 * @return The version of the order, its customer and its products
+	 */
+	public static EntityVersion of(Orders order) {
+		return of(order, true, true);
+	}
+
+	/**
+	 * @param order An order with the embedded rows loaded
+	 * @param withCustomer Whether the representation embeds the customer
+	 * @param withProducts Whether the representation embeds the products
+	 * @return The version of the order and of the rows it embeds
+	 */
+	public static EntityVersion of(Orders order, boolean withCustomer, boolean withProducts) {
+		long embeddedVersions = 0;
+		Instant lastModified = order.getLastModified();
+		Customer customer = order.getCustomer();
+		if (withCustomer && customer != null) {
+			embeddedVersions += customer.getVersion();
+			lastModified = latest(lastModified, customer.getLastModified());
+		}
+		if (withProducts) {
+			for (Product product : order.getProducts()) {
+				embeddedVersions += product.getVersion();
+				lastModified = latest(lastModified, product.getLastModified());
+			}
+		}
+		return new EntityVersion(order.getVersion(), embeddedVersions, lastModified);
+	}
+
+	/**
+	 * @return The strong entity tag of the representation
+	 */
+	public String eTag() {
+		return "\"" + this.version + "." + this.embeddedVersions + "\"";
+	}
+
+	private static Instant latest(Instant a, Instant b) {
+		return a == null ? b : b == null || a.isAfter(b) ? a : b;
+	}
+}
@@ -0,0 +1,62 @@
+package com.SpringBootStarters.MarketPlace.Repositories;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Optional;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Reads the versions of entities with one primary key lookup each, without
+ * loading the entities, to answer conditional requests.
+ */
+@Repository
+public class EntityVersionRepository {
+	private static final String PRODUCT_VERSION = "SELECT version, 0, last_modified FROM product WHERE id = ?";
+	private static final String CUSTOMER_VERSION = "SELECT version, 0, last_modified FROM customer WHERE id = ?";
+	private static final String ORDER_VERSION = "SELECT o.version, COALESCE(c.version, 0) + COALESCE(p.versions, 0), GREATEST(o.last_modified, c.last_modified, p.last_modified) "
+			+ "FROM orders o LEFT JOIN customer c ON c.id = o.customer_id "
+			+ "LEFT JOIN LATERAL (SELECT sum(x.version) AS versions, max(x.last_modified) AS last_modified FROM order_product op "
+			+ "JOIN product x ON x.id = op.product_id WHERE op.order_id = o.id) p ON true WHERE o.id = ?";
+
+	private final JdbcTemplate jdbcTemplate;
+
+	public EntityVersionRepository(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	/**
+	 * @param id The id of the product
+	 * @return The version of the product, or an empty Optional if it doesn't exist
+	 */
+	public Optional<EntityVersion> findProductVersion(long id) {
+		return find(PRODUCT_VERSION, id);
+	}
+
+	/**
+	 * @param id The id of the customer
+	 * @return The version of the customer, or an empty Optional if it doesn't exist
+	 */
+	public Optional<EntityVersion> findCustomerVersion(long id) {
+		return find(CUSTOMER_VERSION, id);
+	}
+
+	/**
+	 * Reads the version of an order together with the versions of its
+	 * customer and products, as EntityVersion.of(Orders) computes it.
+	 * @param id The id of the order
+	 * @return The version of the order, or an empty Optional if it doesn't exist
+	 */
+	public Optional<EntityVersion> findOrderVersion(long id) {
+		return find(ORDER_VERSION, id);
+	}
+
+	private Optional<EntityVersion> find(String sql, long id) {
+		return this.jdbcTemplate.query(sql, (rs, rowNum) -> toVersion(rs), id).stream().findFirst();
+	}
+
+	private static EntityVersion toVersion(ResultSet rs) throws SQLException {
+		return new EntityVersion(rs.getLong(1), rs.getLong(2), rs.getTimestamp(3).toInstant());
+	}
+}
@@ -0,0 +1,164 @@
+package com.SpringBootStarters.MarketPlace.Repositories;
+
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Maintains the product_inventory, inventory_lease and inventory_sale
+ * tables. A node leases units from the stock of a product, sells them in
+ * memory, and records its sales in the order transactions with inserts
+ * only; the sales are subtracted from its leases when it reconciles, so
+ * the only rows updated on every sale are the ones the order inserts.
+ */
+@Repository
+public class InventoryRepository {
+	private static final String RESTOCK = "INSERT INTO product_inventory (product_id, stock) VALUES (?, ?) "
+			+ "ON CONFLICT (product_id) DO UPDATE SET stock = product_inventory.stock + EXCLUDED.stock";
+	private static final String TAKE_STOCK = "WITH current AS (SELECT stock FROM product_inventory WHERE product_id = ? FOR UPDATE) "
+			+ "UPDATE product_inventory i SET stock = i.stock - LEAST(current.stock, ?) FROM current WHERE i.product_id = ? "
+			+ "RETURNING current.stock - i.stock";
+	private static final String ADD_LEASE = "INSERT INTO inventory_lease (node, product_id, units, renewed_at) VALUES (?, ?, ?, now()) "
+			+ "ON CONFLICT (node, product_id) DO UPDATE SET units = inventory_lease.units + EXCLUDED.units, renewed_at = now()";
+	private static final String SUBTRACT_LEASE = "UPDATE inventory_lease SET units = units - ? WHERE node = ? AND product_id = ?";
+	private static final String RETURN_STOCK = "UPDATE product_inventory SET stock = stock + ? WHERE product_id = ?";
+	private static final String RETURN_SOLD = "UPDATE product_inventory i SET stock = i.stock + r.quantity "
+			+ "FROM unnest(?, ?) AS r(product_id, quantity) WHERE i.product_id = r.product_id";
+	private static final String INSERT_SALES = "INSERT INTO inventory_sale (node, product_id, quantity) "
+			+ "SELECT ?, sale.product_id, sale.quantity FROM unnest(?, ?) AS sale(product_id, quantity)";
+	private static final String FOLD_SALES = "WITH sold AS (DELETE FROM inventory_sale WHERE node = ? RETURNING product_id, quantity), "
+			+ "totals AS (SELECT product_id, sum(quantity) AS quantity FROM sold GROUP BY product_id) "
+			+ "UPDATE inventory_lease l SET units = l.units - t.quantity FROM totals t WHERE l.node = ? AND l.product_id = t.product_id";
+	private static final String RENEW_LEASES = "UPDATE inventory_lease SET renewed_at = now() WHERE node = ? RETURNING product_id";
+	private static final String RECLAIM_LEASES = "WITH stale AS (DELETE FROM inventory_lease WHERE node = ? OR renewed_at < now() - make_interval(secs => ?) "
+			+ "RETURNING node, product_id, units), "
+			+ "sold AS (DELETE FROM inventory_sale s USING stale WHERE s.node = stale.node AND s.product_id = stale.product_id RETURNING s.product_id, s.quantity), "
+			+ "unsold AS (SELECT product_id, sum(units) AS units FROM (SELECT product_id, units FROM stale UNION ALL SELECT product_id, -quantity FROM sold) m GROUP BY product_id) "
+			+ "UPDATE product_inventory i SET stock = i.stock + u.units FROM unsold u WHERE i.product_id = u.product_id AND u.units > 0";
+	private static final String FIND_TRACKED = "SELECT product_id FROM product_inventory";
+	private static final String FIND_AVAILABLE = "SELECT i.stock + COALESCE((SELECT sum(l.units) FROM inventory_lease l WHERE l.product_id = i.product_id), 0) "
+			+ "- COALESCE((SELECT sum(s.quantity) FROM inventory_sale s WHERE s.product_id = i.product_id), 0) "
+			+ "FROM product_inventory i WHERE i.product_id = ?";
+
+	private final JdbcTemplate jdbcTemplate;
+
+	public InventoryRepository(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	/**
+	 * Adds units to the stock of a product, which starts being tracked if it
+	 * was not.
+	 * @param productId The id of the product
+	 * @param units The units to add
+	 */
+	public void restock(long productId, long units) {
+		this.jdbcTemplate.update(RESTOCK, productId, units);
+	}
+
+	/**
+	 * Moves up to the requested units from the stock of a product to the
+	 * lease of a node. Must be called inside a transaction.
+	 * @param node The name of the node
+	 * @param productId The id of the product
+	 * @param units The units requested
+	 * @return The units leased, 0 if the product is out of stock or not tracked
+	 */
+	public long lease(String node, long productId, long units) {
+		List<Long> taken = this.jdbcTemplate.queryForList(TAKE_STOCK, Long.class, productId, units, productId);
+		long granted = taken.isEmpty() ? 0 : taken.get(0);
+		if (granted > 0)
+			this.jdbcTemplate.update(ADD_LEASE, node, productId, granted);
+		return granted;
+	}
+
+	/**
+	 * Moves unsold units from the lease of a node back to the stock of the
+	 * product. Must be called inside a transaction.
+	 * @param node The name of the node
+	 * @param productId The id of the product
+	 * @param units The units to give back
+	 */
+	public void giveBack(String node, long productId, long units) {
+		if (this.jdbcTemplate.update(SUBTRACT_LEASE, units, node, productId) > 0)
+			this.jdbcTemplate.update(RETURN_STOCK, units, productId);
+	}
+
+	/**
+	 * Records sales of leased units, in the transaction that creates the orders.
+	 * @param node The name of the node that leased the units
+	 * @param productIds The ids of the products sold
+	 * @param quantities The quantities sold, in the order of the products
+	 */
+	public void insertSales(String node, Long[] productIds, Integer[] quantities) {
+		this.jdbcTemplate.update(connection -> {
+			PreparedStatement ps = connection.prepareStatement(INSERT_SALES);
+			ps.setString(1, node);
+			ps.setArray(2, connection.createArrayOf("bigint", productIds));
+			ps.setArray(3, connection.createArrayOf("integer", quantities));
+			return ps;
+		});
+	}
+
+	/**
+	 * Returns sold units to the stock of their products, in the transaction
+	 * that takes them out of the orders. Products that are not tracked are
+	 * ignored.
+	 * @param productIds The ids of the products
+	 * @param quantities The quantities returned, in the order of the products
+	 */
+	public void returnStock(Long[] productIds, Integer[] quantities) {
+		this.jdbcTemplate.update(connection -> {
+			PreparedStatement ps = connection.prepareStatement(RETURN_SOLD);
+			ps.setArray(1, connection.createArrayOf("bigint", productIds));
+			ps.setArray(2, connection.createArrayOf("integer", quantities));
+			return ps;
+		});
+	}
+
+	/**
+	 * Subtracts the recorded sales of a node from its leases and renews them.
+	 * Must be called inside a transaction.
+	 * @param node The name of the node
+	 * @return The ids of the products the node still holds a lease on
+	 */
+	public Set<Long> reconcile(String node) {
+		this.jdbcTemplate.update(FOLD_SALES, node, node);
+		return new HashSet<>(this.jdbcTemplate.queryForList(RENEW_LEASES, Long.class, node));
+	}
+
+	/**
+	 * Returns the unsold units of the leases of a node and of the leases not
+	 * renewed for the timeout to the stock, the fallback for nodes that
+	 * stopped without giving their units back.
+	 * @param node The name of the node, whose leases are all reclaimed
+	 * @param timeout How long a lease of another node may go unrenewed
+	 * @return The number of products whose stock grew
+	 */
+	public int reclaim(String node, Duration timeout) {
+		return this.jdbcTemplate.update(RECLAIM_LEASES, node, timeout.toMillis() / 1000.0);
+	}
+
+	/**
+	 * @return The ids of the products whose inventory is tracked
+	 */
+	public Set<Long> findTrackedProductIds() {
+		return new HashSet<>(this.jdbcTemplate.queryForList(FIND_TRACKED, Long.class));
+	}
+
+	/**
+	 * Reads the units of a product that are not sold, in stock or leased.
+	 * Units reserved by orders that are not committed yet are included.
+	 * @param productId The id of the product
+	 * @return The available units, or an empty Optional if the product is not tracked
+	 */
+	public Optional<Long> findAvailable(long productId) {
+		return this.jdbcTemplate.queryForList(FIND_AVAILABLE, Long.class, productId).stream().findFirst();
+	}
+}
@@ -0,0 +1,100 @@
+package com.SpringBootStarters.MarketPlace.Repositories;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.SpringBootStarters.MarketPlace.Entities.OrderLine;
+import com.SpringBootStarters.MarketPlace.Entities.Orders;
+
+/**
+ * Writes orders with JDBC batch statements, bypassing the persistence context
+ * for bulk creation where one INSERT per order and per order line would
+ * dominate the cost.
+ */
+@Repository
+public class OrderBulkRepository {
+	private static final String INSERT_ORDER = "INSERT INTO orders (id, date, total_amount, customer_id, version, last_modified) VALUES (?, ?, ?, ?, 0, now())";
+	private static final String NEXT_ORDER_IDS = "SELECT nextval('" + Orders.ID_SEQUENCE + "') FROM generate_series(1, ?)";
+	private static final String INSERT_ORDER_PRODUCT = "INSERT INTO order_product (order_id, product_id) VALUES (?, ?)";
+	private static final String INSERT_ORDER_LINE = "INSERT INTO order_line (order_id, product_id, unit_price_minor, quantity) VALUES (?, ?, ?, ?)";
+
+	private final JdbcTemplate jdbcTemplate;
+
+	public OrderBulkRepository(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	/**
+	 * Inserts the orders, their product rows and their lines with three batch statements.
+	 * Must be called inside a transaction so a failure leaves no partial order.
+	 * @param orders The orders to insert
+	 * @return The allocated order ids, in the order of the given rows
+	 */
+	public List<Long> insertOrders(List<OrderRow> orders) {
+		List<Long> ids = allocateOrderIds(orders.size());
+		this.jdbcTemplate.batchUpdate(INSERT_ORDER, new BatchPreparedStatementSetter() {
+			@Override
+			public void setValues(PreparedStatement ps, int i) throws SQLException {
+				OrderRow order = orders.get(i);
+				ps.setLong(1, ids.get(i));
+				ps.setTimestamp(2, Timestamp.valueOf(order.date()));
+				ps.setBigDecimal(3, order.totalAmount());
+				ps.setLong(4, order.customerId());
+			}
+
+			@Override
+			public int getBatchSize() {
+				return orders.size();
+			}
+		});
+		List<long[]> lines = new ArrayList<>();
+		for (int i = 0; i < orders.size(); i++) {
+			for (OrderLine line : orders.get(i).lines())
+				lines.add(new long[] { ids.get(i), line.getProductId(), line.getUnitPriceMinor(), line.getQuantity() });
+		}
+		this.jdbcTemplate.batchUpdate(INSERT_ORDER_PRODUCT, lines, lines.size(), (ps, line) -> {
+			ps.setLong(1, line[0]);
+			ps.setLong(2, line[1]);
+		});
+		this.jdbcTemplate.batchUpdate(INSERT_ORDER_LINE, lines, lines.size(), (ps, line) -> {
+			ps.setLong(1, line[0]);
+			ps.setLong(2, line[1]);
+			ps.setLong(3, line[2]);
+			ps.setInt(4, (int) line[3]);
+		});
+		return ids;
+	}
+
+	/**
+	 * Allocates order ids the way the pooled Hibernate generator does, so both
+	 * writers can share the sequence: each nextval reserves the block of
+	 * ID_ALLOCATION_SIZE ids ending at the returned value.
+	 */
+	private List<Long> allocateOrderIds(int count) {
+		int blocks = (count + Orders.ID_ALLOCATION_SIZE - 1) / Orders.ID_ALLOCATION_SIZE;
+		List<Long> ids = new ArrayList<>(count);
+		for (Long hi : this.jdbcTemplate.queryForList(NEXT_ORDER_IDS, Long.class, blocks)) {
+			for (long id = hi - Orders.ID_ALLOCATION_SIZE + 1; id <= hi && ids.size() < count; id++)
+				ids.add(id);
+		}
+		return ids;
+	}
+
+	/**
+	 * An order row to insert, the products of its lines must exist and be distinct.
+	 */
+	public record OrderRow(long customerId, LocalDateTime date, BigDecimal totalAmount, List<OrderLine> lines) {
+		public List<Long> productIds() {
+			return this.lines.stream().map(OrderLine::getProductId).toList();
+		}
+	}
+}
@@ -0,0 +1,110 @@
+package com.SpringBootStarters.MarketPlace.Repositories;
+
+import java.sql.PreparedStatement;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import com.SpringBootStarters.MarketPlace.Entities.OrderLine;
+import com.SpringBootStarters.MarketPlace.Utils.Money;
+
+/**
+ * Adds and removes the products of an existing order with set-based
+ * statements, so the cost of a change is proportional to the number of
+ * products changed rather than to the size of the order.
+ */
+@Repository
+public class OrderLineRepository {
+	private static final String INSERT_LINES = "INSERT INTO order_line (order_id, product_id, unit_price_minor, quantity) "
+			+ "SELECT ?, line.product_id, line.unit_price_minor, line.quantity FROM unnest(?, ?, ?) AS line(product_id, unit_price_minor, quantity) "
+			+ "ON CONFLICT (order_id, product_id) DO NOTHING RETURNING product_id, unit_price_minor, quantity";
+	private static final String INSERT_PRODUCTS = "INSERT INTO order_product (order_id, product_id) SELECT ?, unnest(?) ON CONFLICT DO NOTHING";
+	private static final String DELETE_LINES = "DELETE FROM order_line WHERE order_id = ? AND product_id = ANY(?) RETURNING product_id, unit_price_minor, quantity";
+	private static final String DELETE_PRODUCTS = "DELETE FROM order_product WHERE order_id = ? AND product_id = ANY(?)";
+	private static final String ADJUST_TOTAL = "UPDATE orders SET total_amount = total_amount + ?, version = version + 1, last_modified = now() WHERE id = ?";
+
+	private static final RowMapper<OrderLine> LINE_MAPPER = (rs, rowNum) -> new OrderLine(rs.getLong(1), rs.getLong(2), rs.getInt(3));
+
+	private final JdbcTemplate jdbcTemplate;
+
+	public OrderLineRepository(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	/**
+	 * Adds the lines whose product is not in the order yet, lines of products
+	 * already in the order are left untouched, and adds their total to the
+	 * order total. Must be called inside a transaction.
+	 * @param orderId The id of the order
+	 * @param lines The lines to add, with distinct products
+	 * @return The lines added
+	 */
+	public List<OrderLine> addLines(long orderId, List<OrderLine> lines) {
+		Long[] productIds = new Long[lines.size()];
+		Long[] unitPrices = new Long[lines.size()];
+		Integer[] quantities = new Integer[lines.size()];
+		for (int i = 0; i < lines.size(); i++) {
+			productIds[i] = lines.get(i).getProductId();
+			unitPrices[i] = lines.get(i).getUnitPriceMinor();
+			quantities[i] = lines.get(i).getQuantity();
+		}
+		List<OrderLine> added = this.jdbcTemplate.query(connection -> {
+			PreparedStatement ps = connection.prepareStatement(INSERT_LINES);
+			ps.setLong(1, orderId);
+			ps.setArray(2, connection.createArrayOf("bigint", productIds));
+			ps.setArray(3, connection.createArrayOf("bigint", unitPrices));
+			ps.setArray(4, connection.createArrayOf("integer", quantities));
+			return ps;
+		}, LINE_MAPPER);
+		this.jdbcTemplate.update(connection -> {
+			PreparedStatement ps = connection.prepareStatement(INSERT_PRODUCTS);
+			ps.setLong(1, orderId);
+			ps.setArray(2, connection.createArrayOf("bigint", productIds));
+			return ps;
+		});
+		adjustTotal(orderId, added, 1);
+		return added;
+	}
+
+	/**
+	 * Removes the products from the order and subtracts their lines from the
+	 * order total, products that are not in the order are ignored. Must be
+	 * called inside a transaction.
+	 * @param orderId The id of the order
+	 * @param productIds The ids of the products to remove
+	 * @return The lines removed
+	 */
+	public List<OrderLine> removeLines(long orderId, Collection<Long> productIds) {
+		Long[] ids = productIds.toArray(new Long[0]);
+		List<OrderLine> removed = this.jdbcTemplate.query(connection -> {
+			PreparedStatement ps = connection.prepareStatement(DELETE_LINES);
+			ps.setLong(1, orderId);
+			ps.setArray(2, connection.createArrayOf("bigint", ids));
+			return ps;
+		}, LINE_MAPPER);
+		this.jdbcTemplate.update(connection -> {
+			PreparedStatement ps = connection.prepareStatement(DELETE_PRODUCTS);
+			ps.setLong(1, orderId);
+			ps.setArray(2, connection.createArrayOf("bigint", ids));
+			return ps;
+		});
+		adjustTotal(orderId, removed, -1);
+		return removed;
+	}
+
+	/**
+	 * Adjusts the order total and increments the order version, as Hibernate
+	 * does when the products of a loaded order change.
+	 */
+	private void adjustTotal(long orderId, List<OrderLine> lines, int sign) {
+		if (lines.isEmpty())
+			return;
+		long delta = 0;
+		for (OrderLine line : lines)
+			delta = Money.add(delta, line.getTotalMinor());
+		this.jdbcTemplate.update(ADJUST_TOTAL, Money.toDecimal(sign * delta), orderId);
+	}
+}
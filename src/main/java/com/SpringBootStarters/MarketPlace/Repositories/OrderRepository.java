@@ -1,14 +1,57 @@
 package com.SpringBootStarters.MarketPlace.Repositories;
 
-import java.util.List;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.SpringBootStarters.MarketPlace.Entities.Orders;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface OrderRepository extends JpaRepository<Orders, Long> {
-	List<Orders> findByCustomerId(long customerId);
-	List<Orders> findByProductsId(long productId);
+	@EntityGraph(Orders.WITH_CUSTOMER_AND_PRODUCTS)
+	Optional<Orders> findWithCustomerAndProductsById(long id);
+
+	@EntityGraph(Orders.WITH_CUSTOMER)
+	Slice<Orders> findByIdGreaterThanOrderByIdAsc(long id, Pageable pageable);
+
+	@EntityGraph(Orders.WITH_CUSTOMER)
+	Slice<Orders> findByCustomerIdAndIdGreaterThanOrderByIdAsc(long customerId, long id, Pageable pageable);
+
+	@EntityGraph(Orders.WITH_CUSTOMER)
+	Slice<Orders> findByProductsIdAndIdGreaterThanOrderByIdAsc(long productId, long id, Pageable pageable);
+
+	@EntityGraph(Orders.WITH_CUSTOMER)
+	Slice<Orders> findAllByOrderByDateAscIdAsc(Pageable pageable);
+
+	@EntityGraph(Orders.WITH_CUSTOMER)
+	@Query("SELECT o FROM Orders o WHERE o.date > :date OR (o.date = :date AND o.id > :id) ORDER BY o.date ASC, o.id ASC")
+	Slice<Orders> findAfterDate(@Param("date") LocalDateTime date, @Param("id") long id, Pageable pageable);
+
+	@EntityGraph(Orders.WITH_CUSTOMER)
+	@QueryHints({
+		@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+		@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+	})
+	@Query("SELECT o FROM Orders o WHERE o.date >= :from AND o.date < :to ORDER BY o.id ASC")
+	Stream<Orders> streamByDateRange(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+	@EntityGraph(Orders.WITH_CUSTOMER)
+	@QueryHints({
+		@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+		@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+	})
+	@Query("SELECT o FROM Orders o WHERE o.customer.id = :customerId AND o.date >= :from AND o.date < :to ORDER BY o.id ASC")
+	Stream<Orders> streamByCustomerIdAndDateRange(@Param("customerId") long customerId, @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 }
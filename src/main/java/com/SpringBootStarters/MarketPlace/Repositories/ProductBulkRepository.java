@@ -0,0 +1,141 @@
+package com.SpringBootStarters.MarketPlace.Repositories;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.SpringBootStarters.MarketPlace.DTOs.ProductDto;
+import com.SpringBootStarters.MarketPlace.DTOs.ProductPriceDto;
+import com.SpringBootStarters.MarketPlace.Entities.Product;
+
+/**
+ * Writes products with set-based JDBC statements, bypassing the persistence
+ * context for catalog imports and repricings where one lookup and one write
+ * per product would dominate the cost. Rows written here are not seen by the Hibernate
+ * caches, callers evict what they change.
+ */
+@Repository
+public class ProductBulkRepository {
+	// The price column is numeric(10, 2)
+	private static final String PRICE_BOUND = "100000000";
+	private static final String NEXT_PRODUCT_IDS = "SELECT nextval('" + Product.ID_SEQUENCE + "') FROM generate_series(1, ?)";
+	// xmax is 0 on a freshly inserted row version and set on an updated one; unchanged rows are not returned
+	private static final String UPSERT_PRODUCTS = "INSERT INTO product (id, product_name, price, version, last_modified) "
+			+ "SELECT id, product_name, price, 0, now() FROM unnest(?::bigint[], ?::varchar[], ?::numeric[]) AS row_values (id, product_name, price) "
+			+ "ON CONFLICT (product_name) DO UPDATE SET price = EXCLUDED.price, version = product.version + 1, last_modified = EXCLUDED.last_modified "
+			+ "WHERE product.price IS DISTINCT FROM EXCLUDED.price "
+			+ "RETURNING id, product_name, xmax = 0";
+	// The SELECT reads the snapshot taken before the UPDATE, so it still sees the rows whose price is unchanged
+	private static final String UPDATE_PRICES = "WITH new_prices AS (SELECT * FROM unnest(?::bigint[], ?::numeric[]) AS new_prices (id, price)), "
+			+ "updated AS (UPDATE product SET price = new_prices.price, version = product.version + 1, last_modified = now() FROM new_prices "
+			+ "WHERE product.id = new_prices.id AND product.price IS DISTINCT FROM new_prices.price RETURNING product.id) "
+			+ "SELECT product.id, updated.id IS NOT NULL, true FROM product JOIN new_prices ON new_prices.id = product.id LEFT JOIN updated ON updated.id = product.id";
+	// The new price is computed from the row the UPDATE locks, not from the chunk, so a concurrent change is not overwritten with a stale price.
+	// The chunk ids are passed as an array, a join with the chunk is planned as a hash join over the whole table.
+	private static final String REPRICE_CHUNK = "WITH params AS (SELECT ?::numeric AS factor), "
+			+ "chunk AS (SELECT id, round(price * params.factor, 2) < " + PRICE_BOUND + " AS in_range FROM product, params "
+			+ "WHERE id > ? AND id <= ? AND price IS NOT NULL AND (?::varchar IS NULL OR product_name ILIKE ?) ORDER BY id LIMIT ?), "
+			+ "updated AS (UPDATE product SET price = greatest(round(product.price * params.factor, 2), 0.01), version = product.version + 1, last_modified = now() "
+			+ "FROM params WHERE product.id = ANY (ARRAY(SELECT id FROM chunk)) AND round(product.price * params.factor, 2) < " + PRICE_BOUND + " "
+			+ "AND greatest(round(product.price * params.factor, 2), 0.01) <> product.price RETURNING product.id) "
+			+ "SELECT chunk.id, updated.id IS NOT NULL, chunk.in_range FROM chunk LEFT JOIN updated ON updated.id = chunk.id ORDER BY chunk.id";
+
+	private final JdbcTemplate jdbcTemplate;
+
+	public ProductBulkRepository(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	/**
+	 * Inserts the products whose name is new and updates the price of the
+	 * others, with one statement. An updated product gets a new version.
+	 * @param products The products, their names must be distinct
+	 * @return The inserted and updated products, products whose price did not change are left out
+	 */
+	public List<UpsertedProduct> upsertProducts(List<ProductDto> products) {
+		List<Long> ids = allocateProductIds(products.size());
+		Long[] idValues = ids.toArray(new Long[0]);
+		String[] names = new String[products.size()];
+		BigDecimal[] prices = new BigDecimal[products.size()];
+		for (int i = 0; i < products.size(); i++) {
+			names[i] = products.get(i).getProductName();
+			prices[i] = products.get(i).getPrice();
+		}
+		return this.jdbcTemplate.query(UPSERT_PRODUCTS, ps -> {
+			Connection connection = ps.getConnection();
+			ps.setArray(1, connection.createArrayOf("bigint", idValues));
+			ps.setArray(2, connection.createArrayOf("varchar", names));
+			ps.setArray(3, connection.createArrayOf("numeric", prices));
+		}, (rs, rowNum) -> new UpsertedProduct(rs.getLong(1), rs.getString(2), rs.getBoolean(3)));
+	}
+
+	/**
+	 * Sets the price of the listed products, with one statement. A product
+	 * whose price changes gets a new version.
+	 * @param prices The new prices, their ids must be distinct
+	 * @return The listed products that exist
+	 */
+	public List<RepricedProduct> updatePrices(List<ProductPriceDto> prices) {
+		Long[] ids = new Long[prices.size()];
+		BigDecimal[] values = new BigDecimal[prices.size()];
+		for (int i = 0; i < prices.size(); i++) {
+			ids[i] = prices.get(i).getProductId();
+			values[i] = prices.get(i).getPrice();
+		}
+		return this.jdbcTemplate.query(UPDATE_PRICES, ps -> {
+			Connection connection = ps.getConnection();
+			ps.setArray(1, connection.createArrayOf("bigint", ids));
+			ps.setArray(2, connection.createArrayOf("numeric", values));
+		}, (rs, rowNum) -> new RepricedProduct(rs.getLong(1), rs.getBoolean(2), rs.getBoolean(3)));
+	}
+
+	/**
+	 * Multiplies the price of the next chunk of products by a factor, with
+	 * one statement. Prices are rounded to cents and kept at least a cent;
+	 * a product whose new price would not fit the price column is left
+	 * unchanged, one whose price changes gets a new version. Products
+	 * without a price are not matched.
+	 * @param factor The factor of the prices
+	 * @param afterId The chunk starts after this id
+	 * @param toId The last id that can be matched
+	 * @param namePattern A case-insensitive LIKE pattern the names must match, or null
+	 * @param limit The maximum number of products in the chunk
+	 * @return The products of the chunk, by increasing id
+	 */
+	public List<RepricedProduct> repriceChunk(BigDecimal factor, long afterId, long toId, String namePattern, int limit) {
+		return this.jdbcTemplate.query(REPRICE_CHUNK, (rs, rowNum) -> new RepricedProduct(rs.getLong(1), rs.getBoolean(2), rs.getBoolean(3)),
+				factor, afterId, toId, namePattern, namePattern, limit);
+	}
+
+	/**
+	 * Allocates product ids the way the pooled Hibernate generator does, see
+	 * OrderBulkRepository. The ids of the products that already exist are
+	 * left unused.
+	 */
+	private List<Long> allocateProductIds(int count) {
+		int blocks = (count + Product.ID_ALLOCATION_SIZE - 1) / Product.ID_ALLOCATION_SIZE;
+		List<Long> ids = new ArrayList<>(count);
+		for (Long hi : this.jdbcTemplate.queryForList(NEXT_PRODUCT_IDS, Long.class, blocks)) {
+			for (long id = hi - Product.ID_ALLOCATION_SIZE + 1; id <= hi && ids.size() < count; id++)
+				ids.add(id);
+		}
+		return ids;
+	}
+
+	/**
+	 * A product written by an upsert.
+	 */
+	public record UpsertedProduct(long id, String productName, boolean inserted) {
+	}
+
+	/**
+	 * A product matched by a repricing, inRange is false when its new price
+	 * would not fit the price column.
+	 */
+	public record RepricedProduct(long id, boolean updated, boolean inRange) {
+	}
+}
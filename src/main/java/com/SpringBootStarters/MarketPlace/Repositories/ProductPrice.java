@@ -0,0 +1,11 @@
+package com.SpringBootStarters.MarketPlace.Repositories;
+
+import java.math.BigDecimal;
+
+/**
+ * Projection of a product on the columns needed to price an order.
+ */
+public interface ProductPrice {
+	long getId();
+	BigDecimal getPrice();
+}
@@ -1,15 +1,26 @@
 package com.SpringBootStarters.MarketPlace.Repositories;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import com.SpringBootStarters.MarketPlace.Entities.Product;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
 	Optional<Product> findByProductName(String productName);
+
 	List<Product> findByOrdersId(long orderId);
+	Slice<Product> findByIdGreaterThanOrderByIdAsc(long id, Pageable pageable);
+	List<ProductPrice> findPricesByIdIn(Collection<Long> ids);
 }
@@ -0,0 +1,171 @@
+package com.SpringBootStarters.MarketPlace.Services;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.SpringBootStarters.MarketPlace.DTOs.ProductSalesDto;
+import com.SpringBootStarters.MarketPlace.Entities.OrderLine;
+import com.SpringBootStarters.MarketPlace.Utils.AfterCommit;
+import com.SpringBootStarters.MarketPlace.Utils.SpaceSaving;
+
+/**
+ * Tracks the best-selling products in memory. Sales are counted in a ring
+ * of time buckets covering marketplace.bestsellers.retention, each bucket
+ * holding a Space-Saving summary of marketplace.bestsellers.capacity
+ * products, and a window is answered by merging the buckets it covers, so
+ * reads never query the database. The ring is seeded on startup with one
+ * aggregation over order_product. Sales are counted when the order is
+ * created or products are added to it; removals are not subtracted.
+ */
+@Component
+public class BestSellerTracker implements SmartInitializingSingleton {
+	private static final Logger logger = LoggerFactory.getLogger(BestSellerTracker.class);
+	private static final String SEED_QUERY = "SELECT op.product_id, date_trunc('minute', o.date) AS minute, count(*) FROM order_product op "
+			+ "JOIN orders o ON o.id = op.order_id WHERE o.date >= ? GROUP BY op.product_id, date_trunc('minute', o.date)";
+
+	private final JdbcTemplate jdbcTemplate;
+	private final Clock clock;
+	private final long bucketMillis;
+	private final int capacity;
+	private final Bucket[] buckets;
+
+	@Autowired
+	public BestSellerTracker(JdbcTemplate jdbcTemplate,
+			@Value("${marketplace.bestsellers.bucket:5m}") Duration bucket,
+			@Value("${marketplace.bestsellers.retention:1d}") Duration retention,
+			@Value("${marketplace.bestsellers.capacity:1000}") int capacity) {
+		this(jdbcTemplate, Clock.systemDefaultZone(), bucket, retention, capacity);
+	}
+
+	public BestSellerTracker(JdbcTemplate jdbcTemplate, Clock clock, Duration bucket, Duration retention, int capacity) {
+		if (bucket.toMillis() < 1 || retention.compareTo(bucket) < 0)
+			throw new IllegalArgumentException("Best sellers retention must be at least one bucket");
+		if (capacity < 1)
+			throw new IllegalArgumentException("Best sellers capacity must be a positive number");
+		this.jdbcTemplate = jdbcTemplate;
+		this.clock = clock;
+		this.bucketMillis = bucket.toMillis();
+		this.capacity = capacity;
+		this.buckets = new Bucket[(int) ((retention.toMillis() + this.bucketMillis - 1) / this.bucketMillis)];
+		for (int i = 0; i < this.buckets.length; i++)
+			this.buckets[i] = new Bucket();
+	}
+
+	/**
+	 * Seeds the buckets from the orders of the retention period. Runs once
+	 * the schema is in place and before the server accepts requests.
+	 */
+	@Override
+	public void afterSingletonsInstantiated() {
+		LocalDateTime since = LocalDateTime.now(this.clock).minus(Duration.ofMillis(this.bucketMillis * this.buckets.length));
+		try {
+			long start = System.nanoTime();
+			this.jdbcTemplate.query(SEED_QUERY, rs -> {
+				long epochMillis = rs.getTimestamp(2).toLocalDateTime().atZone(this.clock.getZone()).toInstant().toEpochMilli();
+				add(rs.getLong(1), rs.getLong(3), epochMillis);
+			}, since);
+			logger.info("Seeded the best sellers in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+		} catch (DataAccessException e) {
+			logger.warn("Could not seed the best sellers, starting empty: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Counts the lines as sold now. Inside a transaction the lines are only
+	 * counted once it commits.
+	 * @param lines The lines sold
+	 */
+	public void record(Collection<OrderLine> lines) {
+		if (lines.isEmpty())
+			return;
+		List<OrderLine> sold = List.copyOf(lines);
+		AfterCommit.run(() -> count(sold));
+	}
+
+	/**
+	 * Retrieves the best-selling products of a window.
+	 * @param window The window, rounded up to whole buckets
+	 * @param k The maximum number of products to return
+	 * @return The products by decreasing sales, the sales are an upper bound
+	 *         and the error how much they may be overestimated
+	 */
+	public List<ProductSalesDto> top(Duration window, int k) {
+		long windowBuckets = (window.toMillis() + this.bucketMillis - 1) / this.bucketMillis;
+		if (windowBuckets < 1 || windowBuckets > this.buckets.length)
+			throw new IllegalArgumentException("Window must be between " + Duration.ofMillis(this.bucketMillis) + " and " + Duration.ofMillis(this.bucketMillis * this.buckets.length));
+		if (k < 1 || k > this.capacity)
+			throw new IllegalArgumentException("K must be between 1 and " + this.capacity);
+		long current = this.clock.millis() / this.bucketMillis;
+		// An item missing from a bucket may have sold up to that bucket's smallest count
+		long missing = 0;
+		Map<Long, long[]> merged = new HashMap<>();
+		for (long index = current - windowBuckets + 1; index <= current; index++) {
+			Bucket bucket = this.buckets[slot(index)];
+			long minCount;
+			List<SpaceSaving.Entry> entries;
+			synchronized (bucket) {
+				if (bucket.index != index || bucket.summary == null)
+					continue;
+				minCount = bucket.summary.minCount();
+				entries = bucket.summary.entries();
+			}
+			missing += minCount;
+			for (SpaceSaving.Entry entry : entries) {
+				long[] counts = merged.computeIfAbsent(entry.item(), item -> new long[2]);
+				counts[0] += entry.count() - minCount;
+				counts[1] += entry.error() - minCount;
+			}
+		}
+		List<ProductSalesDto> top = new ArrayList<>(merged.size());
+		for (Map.Entry<Long, long[]> entry : merged.entrySet())
+			top.add(new ProductSalesDto(entry.getKey(), entry.getValue()[0] + missing, entry.getValue()[1] + missing));
+		top.sort(Comparator.comparingLong(ProductSalesDto::getSales).reversed().thenComparingLong(ProductSalesDto::getProductId));
+		return top.size() > k ? new ArrayList<>(top.subList(0, k)) : top;
+	}
+
+	private void count(Collection<OrderLine> lines) {
+		long now = this.clock.millis();
+		for (OrderLine line : lines)
+			add(line.getProductId(), line.getQuantity(), now);
+	}
+
+	private void add(long productId, long count, long epochMillis) {
+		long index = epochMillis / this.bucketMillis;
+		Bucket bucket = this.buckets[slot(index)];
+		synchronized (bucket) {
+			if (bucket.index != index) {
+				// Sales older than the bucket in the slot are out of the retention period
+				if (bucket.index > index)
+					return;
+				bucket.index = index;
+				bucket.summary = new SpaceSaving(this.capacity);
+			}
+			bucket.summary.add(productId, count);
+		}
+	}
+
+	private int slot(long index) {
+		return (int) Math.floorMod(index, (long) this.buckets.length);
+	}
+
+	private static final class Bucket {
+		private long index = Long.MIN_VALUE;
+		private SpaceSaving summary;
+	}
+}
@@ -0,0 +1,84 @@
+package com.SpringBootStarters.MarketPlace.Services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.SpringBootStarters.MarketPlace.DTOs.CustomerOrderStatsDto;
+import com.SpringBootStarters.MarketPlace.Repositories.CustomerOrderStatsRepository;
+
+import jakarta.persistence.EntityNotFoundException;
+
+@Service
+public class CustomerOrderStatsService {
+	private static final Logger logger = LoggerFactory.getLogger(CustomerOrderStatsService.class);
+
+	private final CustomerOrderStatsRepository customerOrderStatsRepository;
+	private final TransactionTemplate transactionTemplate;
+	private final int rebuildPartitions;
+
+	public CustomerOrderStatsService(CustomerOrderStatsRepository customerOrderStatsRepository, TransactionTemplate transactionTemplate,
+			@Value("${marketplace.stats.rebuild-partitions:4}") int rebuildPartitions) {
+		if (rebuildPartitions < 1)
+			throw new IllegalArgumentException("Rebuild partitions must be a positive number");
+		this.customerOrderStatsRepository = customerOrderStatsRepository;
+		this.transactionTemplate = transactionTemplate;
+		this.rebuildPartitions = rebuildPartitions;
+	}
+
+	/**
+	 * Retrieves the order aggregates of a customer without reading its orders.
+	 * @param customerId The id of the customer
+	 * @return The aggregates of the customer
+	 */
+	public CustomerOrderStatsDto getStats(long customerId) {
+		return this.customerOrderStatsRepository.find(customerId).orElseThrow(() -> new EntityNotFoundException("Customer with id " + customerId + " doesn't exist"));
+	}
+
+	/**
+	 * Recomputes the aggregates of every customer from the orders.
+	 * Customers are split in marketplace.stats.rebuild-partitions partitions
+	 * by id, each rebuilt in its own transaction on its own connection, so the
+	 * rebuild runs in parallel and only locks one partition at a time per
+	 * worker.
+	 * @return The outcome of the rebuild
+	 */
+	public RebuildResult rebuild() {
+		long start = System.nanoTime();
+		List<Future<Integer>> partitions = new ArrayList<>(this.rebuildPartitions);
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (int i = 0; i < this.rebuildPartitions; i++) {
+				int partition = i;
+				partitions.add(executor.submit(() -> this.transactionTemplate.execute(status -> this.customerOrderStatsRepository.rebuildPartition(this.rebuildPartitions, partition))));
+			}
+			int customers = 0;
+			for (Future<Integer> partition : partitions)
+				customers += partition.get();
+			RebuildResult result = new RebuildResult(customers, this.rebuildPartitions, (System.nanoTime() - start) / 1_000_000);
+			logger.info("Rebuilt the order aggregates of " + result.customers() + " customers in " + result.durationMillis() + " ms");
+			return result;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Order aggregates rebuild was interrupted");
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException cause)
+				throw cause;
+			throw new IllegalStateException("Order aggregates rebuild failed", e.getCause());
+		}
+	}
+
+	/**
+	 * The outcome of a rebuild, customers counts the customers with orders.
+	 */
+	public record RebuildResult(int customers, int partitions, long durationMillis) {
+	}
+}
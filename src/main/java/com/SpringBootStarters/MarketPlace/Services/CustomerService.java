@@ -1,33 +1,44 @@
 package com.SpringBootStarters.MarketPlace.Services;
 
-import java.util.List;
 import java.util.Optional;
 
-import org.modelmapper.ModelMapper;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.SpringBootStarters.MarketPlace.DTOs.CursorPage;
 import com.SpringBootStarters.MarketPlace.DTOs.CustomerDto;
 import com.SpringBootStarters.MarketPlace.Entities.Customer;
+import com.SpringBootStarters.MarketPlace.Mappers.CustomerMapper;
 import com.SpringBootStarters.MarketPlace.Repositories.CustomerRepository;
+import com.SpringBootStarters.MarketPlace.Repositories.EntityVersion;
+import com.SpringBootStarters.MarketPlace.Repositories.EntityVersionRepository;
+import com.SpringBootStarters.MarketPlace.Utils.PageCursor;
 
 import jakarta.persistence.EntityNotFoundException;
 
 @Service
 public class CustomerService {
 	private final CustomerRepository customerRepository;
-	private final ModelMapper modelMapper;
+	private final CustomerMapper customerMapper;
+	private final EntityVersionRepository entityVersionRepository;
 
-	public CustomerService(CustomerRepository customerRepository, ModelMapper modelMapper) {
+	public CustomerService(CustomerRepository customerRepository, CustomerMapper customerMapper, EntityVersionRepository entityVersionRepository) {
 		this.customerRepository = customerRepository;
-		this.modelMapper = modelMapper;
+		this.customerMapper = customerMapper;
+		this.entityVersionRepository = entityVersionRepository;
 	}
 
 	/**
-	 * Retrieves a list of customers.
-	 * @return the list of customers
+	 * Retrieves a page of customers sorted by id.
+	 * @param cursor the cursor returned with the previous page, or null for the first page
+	 * @param size the maximum number of customers to return
+	 * @return the page of customers
 	 */
-	public List<Customer> getCustomers() {
-		return this.customerRepository.findAll();
+	@Transactional(readOnly = true)
+	public CursorPage<Customer> getCustomers(String cursor, int size) {
+		Slice<Customer> customers = this.customerRepository.findByIdGreaterThanOrderByIdAsc(PageCursor.decodeId(cursor), PageCursor.pageable(size));
+		return CursorPage.of(customers, customer -> PageCursor.encodeId(customer.getId()));
 	}
 
 	/**
@@ -36,10 +47,21 @@ public class CustomerService {
 	 * @param id The customer's id
 	 * @return The customer instance
 	 */
+	@Transactional(readOnly = true)
 	public Customer getCustomer(long id) {
 		return this.customerRepository.findById(id).orElseThrow(() -> new EntityNotFoundException("Customer with id " + id + " doesn't exist"));
 	}
 
+	/**
+	 * Get the version of a customer with a version-only query
+	 * 
+	 * @param id The customer's id
+	 * @return The version of the customer
+	 */
+	public EntityVersion getCustomerVersion(long id) {
+		return this.entityVersionRepository.findCustomerVersion(id).orElseThrow(() -> new EntityNotFoundException("Customer with id " + id + " doesn't exist"));
+	}
+
 	/**
 	 * Create a new customer
 	 * 
@@ -52,7 +74,7 @@ public class CustomerService {
 		Optional<Customer> customerOptional = this.customerRepository.findByEmail(customerDto.getEmail());
 		if (customerOptional.isPresent())
 			throw new IllegalStateException("Email already taken");
-		Customer customer = modelMapper.map(customerDto, Customer.class);
+		Customer customer = this.customerMapper.toEntity(customerDto);
 		return this.customerRepository.save(customer);
 	}
 
@@ -83,7 +105,7 @@ public class CustomerService {
 		if (customerOptional.isPresent())
 			throw new IllegalStateException("Email already taken");
 		Customer existingCustomer = this.customerRepository.findById(id).orElseThrow(() -> new EntityNotFoundException("Customer with id " + id + " doesn't exist"));
-		modelMapper.map(customerDto, existingCustomer);
+		this.customerMapper.update(customerDto, existingCustomer);
 		return this.customerRepository.save(existingCustomer);
 	}
 }
@@ -0,0 +1,604 @@
+package com.SpringBootStarters.MarketPlace.Services;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.SpringBootStarters.MarketPlace.DTOs.InventoryDto;
+import com.SpringBootStarters.MarketPlace.Entities.OrderLine;
+import com.SpringBootStarters.MarketPlace.Repositories.InventoryRepository;
+import com.SpringBootStarters.MarketPlace.Utils.AfterCommit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityNotFoundException;
+
+/**
+ * Reserves product stock in memory so a hot product is not a hot row.
+ * The node leases marketplace.inventory.lease-size units at a time from the
+ * stock of a product and spreads them over striped counters, which
+ * reservations decrement with compare-and-set; only a reservation that
+ * finds every stripe empty takes the product lock to lease more. Committed
+ * reservations are recorded as inserted sale rows in the order transaction,
+ * and a background thread subtracts them from the leases and renews the
+ * leases every marketplace.inventory.reconcile-interval.
+ * On shutdown the unsold units go back to the stock. If the node dies
+ * instead, its leases are reclaimed when it restarts with the same
+ * marketplace.inventory.node, by default the host name and server port so
+ * a restarted instance keeps its id, or by any node once they have not been
+ * renewed for marketplace.inventory.lease-timeout; a node stops selling
+ * leased units when it could not renew them for half that time, so they
+ * are never sold twice. Products without an inventory row are not tracked.
+ */
+@Service
+public class InventoryService implements SmartLifecycle {
+	private static final Logger logger = LoggerFactory.getLogger(InventoryService.class);
+	// Stripes are a cache line apart so threads decrementing different stripes don't contend
+	private static final int STRIPE_SPACING = 8;
+	public static final String HOST_PLACEHOLDER = "{host}";
+	public static final String PORT_PLACEHOLDER = "{port}";
+	private static final int MAX_NODE_LENGTH = 64;
+
+	private final InventoryRepository inventoryRepository;
+	private final TransactionTemplate transactionTemplate;
+	private final TransactionTemplate leaseTemplate;
+	private final String node;
+	private final int stripes;
+	private final long leaseSize;
+	private final Duration reconcileInterval;
+	private final Duration leaseTimeout;
+	private final Counter reserved;
+	private final Counter rejected;
+	private final Map<Long, Stock> stocks = new ConcurrentHashMap<>();
+	private final Object pendingKey = new Object();
+	// Locks rather than monitors, a virtual thread waiting on a monitor pins its carrier
+	private final ReentrantLock reconcileLock = new ReentrantLock();
+	private volatile long leasesValidUntil;
+	private volatile boolean running;
+	private Thread reconciler;
+
+	@Autowired
+	public InventoryService(
+			InventoryRepository inventoryRepository,
+			PlatformTransactionManager transactionManager,
+			MeterRegistry meterRegistry,
+			@Value("${marketplace.inventory.node:{host}:{port}}") String node,
+			@Value("${server.port:8080}") int port,
+			@Value("${marketplace.inventory.stripes:0}") int stripes,
+			@Value("${marketplace.inventory.lease-size:100}") long leaseSize,
+			@Value("${marketplace.inventory.reconcile-interval:1s}") Duration reconcileInterval,
+			@Value("${marketplace.inventory.lease-timeout:1m}") Duration leaseTimeout) {
+		node = resolveNode(node, port);
+		if (node.isBlank() || node.length() > MAX_NODE_LENGTH)
+			throw new IllegalArgumentException("Inventory node must be between 1 and " + MAX_NODE_LENGTH + " characters");
+		if (leaseSize < 1)
+			throw new IllegalArgumentException("Inventory lease size must be a positive number");
+		if (reconcileInterval.toMillis() < 1 || leaseTimeout.compareTo(reconcileInterval.multipliedBy(4)) < 0)
+			throw new IllegalArgumentException("Inventory lease timeout must be at least four reconcile intervals");
+		this.inventoryRepository = inventoryRepository;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.leaseTemplate = new TransactionTemplate(transactionManager);
+		this.leaseTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		this.node = node;
+		this.stripes = Integer.highestOneBit(Math.max(1, stripes > 0 ? stripes : Runtime.getRuntime().availableProcessors()) * 2 - 1);
+		this.leaseSize = leaseSize;
+		this.reconcileInterval = reconcileInterval;
+		this.leaseTimeout = leaseTimeout;
+		this.reserved = Counter.builder("marketplace.inventory.reserved")
+			.description("Units reserved by orders")
+			.register(meterRegistry);
+		this.rejected = Counter.builder("marketplace.inventory.rejected")
+			.description("Reservations rejected because a product was out of stock")
+			.register(meterRegistry);
+	}
+
+	/**
+	 * Resolves the id of the node, which must not change when the node
+	 * restarts so it can reclaim its own leases.
+	 * @param node The id, where {host} stands for the host name and {port} for the server port
+	 * @param port The server port
+	 * @return The id of the node
+	 * @throws IllegalArgumentException if the id is null
+	 * @throws IllegalStateException if the id needs the host name and it can't be resolved
+	 */
+	public static String resolveNode(String node, int port) {
+		if (node == null)
+			throw new IllegalArgumentException("Inventory node can't be null");
+		String resolved = node.replace(PORT_PLACEHOLDER, Integer.toString(port));
+		if (resolved.contains(HOST_PLACEHOLDER)) {
+			String host;
+			try {
+				host = InetAddress.getLocalHost().getHostName();
+			} catch (UnknownHostException e) {
+				throw new IllegalStateException("Could not resolve the host name, set marketplace.inventory.node: " + e.getMessage());
+			}
+			int room = MAX_NODE_LENGTH - (resolved.length() - HOST_PLACEHOLDER.length());
+			resolved = resolved.replace(HOST_PLACEHOLDER, host.length() > room ? host.substring(0, Math.max(room, 0)) : host);
+		}
+		return resolved;
+	}
+
+	/**
+	 * @return The id of the node in the leases
+	 */
+	public String getNode() {
+		return this.node;
+	}
+
+	/**
+	 * Reserves one unit per line. Either every tracked product of the lines
+	 * is reserved or none is. Call it before opening the transaction that
+	 * writes the order, leasing more units may need a connection of its own.
+	 * @param lines The lines to reserve
+	 * @return The reservation, to commit in the order transaction and release if the order fails
+	 * @throws IllegalStateException if a product is out of stock, or the leases of the node could not be renewed
+	 */
+	public Reservation reserve(Collection<OrderLine> lines) {
+		Map<Long, Integer> quantities = new TreeMap<>();
+		for (OrderLine line : lines) {
+			if (this.stocks.containsKey(line.getProductId()))
+				quantities.merge(line.getProductId(), line.getQuantity(), Integer::sum);
+		}
+		if (quantities.isEmpty())
+			return Reservation.NONE;
+		checkLeases();
+		List<Map.Entry<Long, Integer>> taken = new ArrayList<>(quantities.size());
+		for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+			Stock stock = this.stocks.get(entry.getKey());
+			if (stock == null)
+				continue;
+			if (!stock.take(entry.getValue())) {
+				for (Map.Entry<Long, Integer> done : taken)
+					giveBackToMemory(done.getKey(), done.getValue());
+				this.rejected.increment();
+				throw new IllegalStateException("Product with Id : " + entry.getKey() + " is out of stock");
+			}
+			taken.add(entry);
+		}
+		long units = 0;
+		Long[] productIds = new Long[taken.size()];
+		Integer[] unitsByProduct = new Integer[taken.size()];
+		for (int i = 0; i < taken.size(); i++) {
+			productIds[i] = taken.get(i).getKey();
+			unitsByProduct[i] = taken.get(i).getValue();
+			units += unitsByProduct[i];
+		}
+		this.reserved.increment(units);
+		return new Reservation(this, productIds, unitsByProduct);
+	}
+
+	/**
+	 * Gives the units of lines taken out of committed orders back to the
+	 * stock, when the current transaction commits. Lines of products that
+	 * are not tracked are ignored.
+	 * @param lines The lines removed from orders
+	 * @throws IllegalStateException if there is no transaction
+	 */
+	public void giveBack(Collection<OrderLine> lines) {
+		if (!TransactionSynchronizationManager.isActualTransactionActive())
+			throw new IllegalStateException("Units must be given back inside the order transaction");
+		Map<Long, Integer> quantities = new TreeMap<>();
+		for (OrderLine line : lines) {
+			if (this.stocks.containsKey(line.getProductId()))
+				quantities.merge(line.getProductId(), line.getQuantity(), Integer::sum);
+		}
+		if (quantities.isEmpty())
+			return;
+		this.inventoryRepository.returnStock(quantities.keySet().toArray(new Long[0]), quantities.values().toArray(new Integer[0]));
+		AfterCommit.run(() -> {
+			for (Long productId : quantities.keySet())
+				track(productId).clearExhausted();
+		});
+	}
+
+	/**
+	 * Adds units to the stock of a product, which starts being tracked.
+	 * @param productId The id of the product
+	 * @param units The units to add
+	 * @return The inventory of the product after the restock
+	 */
+	public InventoryDto restock(long productId, long units) {
+		if (units < 1)
+			throw new IllegalArgumentException("Quantity must be a positive number");
+		this.transactionTemplate.executeWithoutResult(status -> {
+			this.inventoryRepository.restock(productId, units);
+			AfterCommit.run(() -> track(productId).clearExhausted());
+		});
+		return getInventory(productId);
+	}
+
+	/**
+	 * Retrieves the units of a product that are neither sold nor reserved by
+	 * a committed order, across all nodes.
+	 * @param productId The id of the product
+	 * @return The inventory of the product
+	 * @throws EntityNotFoundException if the inventory of the product is not tracked
+	 */
+	public InventoryDto getInventory(long productId) {
+		Optional<Long> available = this.inventoryRepository.findAvailable(productId);
+		return new InventoryDto(productId, available.orElseThrow(() -> new EntityNotFoundException("Product with id " + productId + " has no inventory")));
+	}
+
+	/**
+	 * Subtracts the committed sales from the leases of the node and renews
+	 * them, drops the units of leases another node reclaimed, reclaims the
+	 * expired leases of other nodes, and picks up the products that started
+	 * or stopped being tracked. Runs every reconcile interval.
+	 */
+	public void reconcile() {
+		this.reconcileLock.lock();
+		try {
+			long started = System.nanoTime();
+			Set<Long> leased = this.transactionTemplate.execute(status -> this.inventoryRepository.reconcile(this.node));
+			this.leasesValidUntil = started + this.leaseTimeout.toNanos() / 2;
+			for (Map.Entry<Long, Stock> entry : this.stocks.entrySet()) {
+				if (!leased.contains(entry.getKey()))
+					entry.getValue().dropLeasedBefore(started);
+			}
+			this.transactionTemplate.execute(status -> this.inventoryRepository.reclaim("", this.leaseTimeout));
+			Set<Long> tracked = this.inventoryRepository.findTrackedProductIds();
+			this.stocks.keySet().retainAll(tracked);
+			for (Long productId : tracked)
+				track(productId).clearExhausted();
+		} finally {
+			this.reconcileLock.unlock();
+		}
+	}
+
+	/**
+	 * Reclaims the leases a previous run of this node left behind, loads the
+	 * tracked products and starts the reconciler. Runs before the web server
+	 * accepts requests.
+	 */
+	@Override
+	public void start() {
+		int reclaimed = this.transactionTemplate.execute(status -> this.inventoryRepository.reclaim(this.node, this.leaseTimeout));
+		if (reclaimed > 0)
+			logger.info("Reclaimed the leases of " + reclaimed + " products left by a previous run of inventory node " + this.node);
+		reconcile();
+		this.running = true;
+		this.reconciler = Thread.ofPlatform().name("inventory-reconciler").daemon().start(this::reconcileLoop);
+	}
+
+	/**
+	 * Stops the reconciler once the web server has stopped, records the last
+	 * sales and gives the unsold units back to the stock.
+	 */
+	@Override
+	public void stop() {
+		this.running = false;
+		if (this.reconciler != null) {
+			this.reconciler.interrupt();
+			try {
+				this.reconciler.join(TimeUnit.SECONDS.toMillis(10));
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		try {
+			this.transactionTemplate.executeWithoutResult(status -> {
+				this.inventoryRepository.reconcile(this.node);
+				for (Stock stock : this.stocks.values()) {
+					long units = stock.drain();
+					if (units > 0)
+						this.inventoryRepository.giveBack(this.node, stock.productId, units);
+				}
+			});
+		} catch (DataAccessException e) {
+			logger.warn("Could not give the leased units back, they are reclaimed after the lease timeout: " + e.getMessage());
+		}
+	}
+
+	@Override
+	public boolean isRunning() {
+		return this.running;
+	}
+
+	/**
+	 * Starts before and stops after the web server, so no request reserves
+	 * units before the products are loaded or after they are given back.
+	 */
+	@Override
+	public int getPhase() {
+		return SmartLifecycle.DEFAULT_PHASE - 4096;
+	}
+
+	private void reconcileLoop() {
+		while (this.running) {
+			try {
+				Thread.sleep(this.reconcileInterval);
+				reconcile();
+			} catch (InterruptedException e) {
+				return;
+			} catch (RuntimeException e) {
+				logger.warn("Could not reconcile the inventory: " + e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Renews the leases when the reconciler fell behind, units of leases that
+	 * may have been reclaimed are not sold.
+	 */
+	private void checkLeases() {
+		if (System.nanoTime() - this.leasesValidUntil < 0)
+			return;
+		this.reconcileLock.lock();
+		try {
+			if (System.nanoTime() - this.leasesValidUntil >= 0)
+				reconcile();
+		} finally {
+			this.reconcileLock.unlock();
+		}
+	}
+
+	private Stock track(long productId) {
+		return this.stocks.computeIfAbsent(productId, id -> new Stock(id, this.stripes));
+	}
+
+	private void giveBackToMemory(long productId, int units) {
+		Stock stock = this.stocks.get(productId);
+		if (stock != null)
+			stock.add(units);
+	}
+
+	/**
+	 * Records the sales of the reservations committed in the current
+	 * transaction with one insert before it commits, and gives their units
+	 * back to memory if it rolls back.
+	 */
+	private void commit(Reservation reservation) {
+		if (!TransactionSynchronizationManager.isActualTransactionActive())
+			throw new IllegalStateException("Reservations must be committed inside the order transaction");
+		@SuppressWarnings("unchecked")
+		List<Reservation> pending = (List<Reservation>) TransactionSynchronizationManager.getResource(this.pendingKey);
+		if (pending == null) {
+			List<Reservation> reservations = new ArrayList<>();
+			TransactionSynchronizationManager.bindResource(this.pendingKey, reservations);
+			TransactionSynchronizationManager.registerSynchronization(new PendingSales(reservations));
+			pending = reservations;
+		}
+		pending.add(reservation);
+	}
+
+	/**
+	 * The units reserved for an order. A reservation committed in a
+	 * transaction that rolls back can be committed again in the next one.
+	 */
+	public static final class Reservation {
+		public static final Reservation NONE = new Reservation(null, new Long[0], new Integer[0]);
+		private static final int RESERVED = 0;
+		private static final int COMMITTED = 1;
+		private static final int RELEASED = 2;
+
+		private final InventoryService inventory;
+		private final Long[] productIds;
+		private final Integer[] units;
+		private final AtomicInteger state = new AtomicInteger(RESERVED);
+		// The units of each product sold by the transaction the reservation is committed in
+		private volatile Integer[] sold;
+
+		private Reservation(InventoryService inventory, Long[] productIds, Integer[] units) {
+			this.inventory = inventory;
+			this.productIds = productIds;
+			this.units = units;
+		}
+
+		/**
+		 * Records the sale when the current transaction commits.
+		 * @throws IllegalStateException if there is no transaction or the reservation was released
+		 */
+		public void commit() {
+			commit(this.units);
+		}
+
+		/**
+		 * Records the sale of the reserved units of the lines when the current
+		 * transaction commits, and gives back the units of the other reserved
+		 * lines once it has. For changes that only keep some of the lines
+		 * they reserved for, like products already in the order.
+		 * @param lines The lines sold
+		 * @throws IllegalStateException if there is no transaction or the reservation was released
+		 */
+		public void commit(Collection<OrderLine> lines) {
+			Map<Long, Integer> quantities = new HashMap<>();
+			for (OrderLine line : lines)
+				quantities.merge(line.getProductId(), line.getQuantity(), Integer::sum);
+			Integer[] sold = new Integer[this.productIds.length];
+			for (int i = 0; i < this.productIds.length; i++)
+				sold[i] = Math.min(this.units[i], quantities.getOrDefault(this.productIds[i], 0));
+			commit(sold);
+		}
+
+		private void commit(Integer[] sold) {
+			if (this.inventory == null)
+				return;
+			if (this.state.get() == RELEASED)
+				throw new IllegalStateException("Reservation was released");
+			this.sold = sold;
+			this.inventory.commit(this);
+		}
+
+		/**
+		 * Gives the units back unless the sale was committed, does nothing
+		 * when called again.
+		 */
+		public void release() {
+			if (this.inventory == null || !this.state.compareAndSet(RESERVED, RELEASED))
+				return;
+			for (int i = 0; i < this.productIds.length; i++)
+				this.inventory.giveBackToMemory(this.productIds[i], this.units[i]);
+		}
+	}
+
+	private final class PendingSales implements TransactionSynchronization {
+		private final List<Reservation> reservations;
+
+		private PendingSales(List<Reservation> reservations) {
+			this.reservations = reservations;
+		}
+
+		@Override
+		public void beforeCommit(boolean readOnly) {
+			// A node that could not renew its leases may have lost them, its sales must not commit
+			if (System.nanoTime() - InventoryService.this.leasesValidUntil >= 0)
+				throw new IllegalStateException("Inventory leases of node " + InventoryService.this.node + " could not be renewed");
+			Map<Long, Integer> sales = new TreeMap<>();
+			for (Reservation reservation : this.reservations) {
+				for (int i = 0; i < reservation.productIds.length; i++) {
+					if (reservation.sold[i] > 0)
+						sales.merge(reservation.productIds[i], reservation.sold[i], Integer::sum);
+				}
+			}
+			if (sales.isEmpty())
+				return;
+			InventoryService.this.inventoryRepository.insertSales(InventoryService.this.node, sales.keySet().toArray(new Long[0]), sales.values().toArray(new Integer[0]));
+		}
+
+		@Override
+		public void afterCompletion(int status) {
+			TransactionSynchronizationManager.unbindResourceIfPossible(InventoryService.this.pendingKey);
+			if (status == STATUS_COMMITTED) {
+				for (Reservation reservation : this.reservations) {
+					if (!reservation.state.compareAndSet(Reservation.RESERVED, Reservation.COMMITTED))
+						continue;
+					for (int i = 0; i < reservation.productIds.length; i++) {
+						if (reservation.units[i] > reservation.sold[i])
+							giveBackToMemory(reservation.productIds[i], reservation.units[i] - reservation.sold[i]);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * The leased units of a product that are not reserved, spread over
+	 * striped counters.
+	 */
+	private final class Stock {
+		private final long productId;
+		private final AtomicLongArray counters;
+		private final int mask;
+		private final ReentrantLock lock = new ReentrantLock();
+		private volatile boolean exhausted;
+		private long leasedAt;
+
+		private Stock(long productId, int stripes) {
+			this.productId = productId;
+			this.counters = new AtomicLongArray(stripes * STRIPE_SPACING);
+			this.mask = stripes - 1;
+		}
+
+		/**
+		 * Takes units from the stripe of the current thread, or any other,
+		 * and leases more when they are all too low.
+		 */
+		private boolean take(int units) {
+			if (tryTake(units))
+				return true;
+			this.lock.lock();
+			try {
+				if (tryTake(units))
+					return true;
+				long pool = drain();
+				if (pool < units && !this.exhausted) {
+					long requested = Math.max(InventoryService.this.leaseSize, units - pool);
+					long granted = InventoryService.this.leaseTemplate.execute(status -> InventoryService.this.inventoryRepository.lease(InventoryService.this.node, this.productId, requested));
+					// Until the next reconciliation or restock, an empty stock is not asked again
+					this.exhausted = granted < requested;
+					if (granted > 0)
+						this.leasedAt = System.nanoTime();
+					pool += granted;
+				}
+				boolean enough = pool >= units;
+				if (enough)
+					pool -= units;
+				spread(pool);
+				return enough;
+			} finally {
+				this.lock.unlock();
+			}
+		}
+
+		private boolean tryTake(int units) {
+			int start = (int) (Thread.currentThread().threadId() * 0x9E3779B9L >>> 16) & this.mask;
+			for (int i = 0; i <= this.mask; i++) {
+				int index = ((start + i) & this.mask) * STRIPE_SPACING;
+				long current = this.counters.get(index);
+				while (current >= units) {
+					long witness = this.counters.compareAndExchange(index, current, current - units);
+					if (witness == current)
+						return true;
+					current = witness;
+				}
+			}
+			return false;
+		}
+
+		private void add(long units) {
+			int index = ((int) (Thread.currentThread().threadId() * 0x9E3779B9L >>> 16) & this.mask) * STRIPE_SPACING;
+			this.counters.addAndGet(index, units);
+		}
+
+		private void spread(long units) {
+			long share = units / (this.mask + 1);
+			for (int i = 0; i <= this.mask; i++)
+				this.counters.addAndGet(i * STRIPE_SPACING, i == 0 ? units - share * this.mask : share);
+		}
+
+		/**
+		 * Empties every stripe.
+		 * @return The units the stripes held
+		 */
+		private long drain() {
+			long units = 0;
+			for (int i = 0; i <= this.mask; i++)
+				units += this.counters.getAndSet(i * STRIPE_SPACING, 0);
+			return units;
+		}
+
+		/**
+		 * Drops the units of a lease another node reclaimed, unless units were
+		 * leased again since the reconciliation read the leases.
+		 */
+		private void dropLeasedBefore(long reconciled) {
+			this.lock.lock();
+			try {
+				if (this.leasedAt - reconciled < 0)
+					drain();
+			} finally {
+				this.lock.unlock();
+			}
+		}
+
+		private void clearExhausted() {
+			this.exhausted = false;
+		}
+	}
+}
@@ -0,0 +1,208 @@
+package com.SpringBootStarters.MarketPlace.Services;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.SpringBootStarters.MarketPlace.DTOs.BulkOrderDto;
+import com.SpringBootStarters.MarketPlace.DTOs.BulkOrderResultDto;
+import com.SpringBootStarters.MarketPlace.Entities.OrderLine;
+import com.SpringBootStarters.MarketPlace.Repositories.CustomerOrderStatsRepository;
+import com.SpringBootStarters.MarketPlace.Repositories.CustomerOrderStatsRepository.Delta;
+import com.SpringBootStarters.MarketPlace.Repositories.CustomerRepository;
+import com.SpringBootStarters.MarketPlace.Repositories.OrderBulkRepository;
+import com.SpringBootStarters.MarketPlace.Repositories.OrderBulkRepository.OrderRow;
+import com.SpringBootStarters.MarketPlace.Repositories.ProductPrice;
+import com.SpringBootStarters.MarketPlace.Repositories.ProductRepository;
+import com.SpringBootStarters.MarketPlace.Utils.Money;
+
+@Service
+public class OrderBulkService {
+	public static final int MAX_ORDERS = 10_000;
+	private static final Logger logger = LoggerFactory.getLogger(OrderBulkService.class);
+	private static final int LOOKUP_CHUNK_SIZE = 1000;
+	private static final int WRITE_CHUNK_SIZE = 500;
+
+	private final OrderBulkRepository orderBulkRepository;
+	private final CustomerRepository customerRepository;
+	private final ProductRepository productRepository;
+	private final CustomerOrderStatsRepository customerOrderStatsRepository;
+	private final BestSellerTracker bestSellerTracker;
+	private final TransactionTemplate transactionTemplate;
+	private final InventoryService inventoryService;
+
+	public OrderBulkService(OrderBulkRepository orderBulkRepository, CustomerRepository customerRepository, ProductRepository productRepository, CustomerOrderStatsRepository customerOrderStatsRepository, BestSellerTracker bestSellerTracker, TransactionTemplate transactionTemplate, InventoryService inventoryService) {
+		this.orderBulkRepository = orderBulkRepository;
+		this.customerRepository = customerRepository;
+		this.productRepository = productRepository;
+		this.customerOrderStatsRepository = customerOrderStatsRepository;
+		this.bestSellerTracker = bestSellerTracker;
+		this.transactionTemplate = transactionTemplate;
+		this.inventoryService = inventoryService;
+	}
+
+	/**
+	 * Creates many orders at once.
+	 * Customers and products are resolved with a few set-based queries, then the
+	 * valid orders are written with JDBC batches in transactions of
+	 * WRITE_CHUNK_SIZE orders, along with the aggregates of their customers.
+	 * An invalid order, an order for a product out of stock, or a chunk that
+	 * fails to commit, is reported in its result without affecting the other
+	 * orders.
+	 * @param orders The orders to create
+	 * @return One result per order, in the order of the request
+	 */
+	public List<BulkOrderResultDto> createOrders(List<BulkOrderDto> orders) {
+		if (orders == null)
+			throw new IllegalArgumentException("Orders can't be null");
+		if (orders.size() > MAX_ORDERS)
+			throw new IllegalArgumentException("A bulk request can't contain more than " + MAX_ORDERS + " orders");
+		BulkOrderResultDto[] results = new BulkOrderResultDto[orders.size()];
+		Set<Long> customerIds = findExistingCustomerIds(orders);
+		Map<Long, Long> prices = findProductPrices(orders);
+
+		List<Integer> chunkIndexes = new ArrayList<>(WRITE_CHUNK_SIZE);
+		List<OrderRow> chunk = new ArrayList<>(WRITE_CHUNK_SIZE);
+		for (int i = 0; i < orders.size(); i++) {
+			BulkOrderDto order = orders.get(i);
+			String error = validate(order, customerIds, prices);
+			if (error != null) {
+				results[i] = BulkOrderResultDto.failed(i, error);
+				continue;
+			}
+			List<OrderLine> lines = new ArrayList<>();
+			long totalAmount = 0;
+			for (Long productId : new LinkedHashSet<>(order.getProductIds())) {
+				OrderLine line = new OrderLine(productId, prices.get(productId), 1);
+				lines.add(line);
+				totalAmount = Money.add(totalAmount, line.getTotalMinor());
+			}
+			chunkIndexes.add(i);
+			chunk.add(new OrderRow(order.getCustomerId(), LocalDateTime.now(), Money.toDecimal(totalAmount), lines));
+			if (chunk.size() == WRITE_CHUNK_SIZE) {
+				writeChunk(chunk, chunkIndexes, results);
+				chunk.clear();
+				chunkIndexes.clear();
+			}
+		}
+		if (!chunk.isEmpty())
+			writeChunk(chunk, chunkIndexes, results);
+		return Arrays.asList(results);
+	}
+
+	private void writeChunk(List<OrderRow> chunk, List<Integer> indexes, BulkOrderResultDto[] results) {
+		// Stock is reserved before the transaction opens, an order out of stock is left out of the chunk
+		List<OrderRow> reservedChunk = new ArrayList<>(chunk.size());
+		List<Integer> reservedIndexes = new ArrayList<>(chunk.size());
+		List<InventoryService.Reservation> reservations = new ArrayList<>(chunk.size());
+		for (int i = 0; i < chunk.size(); i++) {
+			try {
+				reservations.add(this.inventoryService.reserve(chunk.get(i).lines()));
+				reservedChunk.add(chunk.get(i));
+				reservedIndexes.add(indexes.get(i));
+			} catch (IllegalStateException e) {
+				results[indexes.get(i)] = BulkOrderResultDto.failed(indexes.get(i), e.getMessage());
+			}
+		}
+		if (reservedChunk.isEmpty())
+			return;
+		try {
+			List<Long> ids = this.transactionTemplate.execute(status -> {
+				List<Long> inserted = this.orderBulkRepository.insertOrders(reservedChunk);
+				List<Delta> deltas = new ArrayList<>(reservedChunk.size());
+				for (OrderRow order : reservedChunk)
+					deltas.add(Delta.order(order.customerId(), order.date(), order.totalAmount()));
+				this.customerOrderStatsRepository.apply(deltas);
+				for (InventoryService.Reservation reservation : reservations)
+					reservation.commit();
+				return inserted;
+			});
+			for (int i = 0; i < reservedIndexes.size(); i++)
+				results[reservedIndexes.get(i)] = BulkOrderResultDto.created(reservedIndexes.get(i), ids.get(i));
+			for (OrderRow order : reservedChunk)
+				this.bestSellerTracker.record(order.lines());
+		} catch (RuntimeException e) {
+			logger.error("Failed to write a chunk of " + reservedChunk.size() + " orders: " + e.getMessage());
+			for (InventoryService.Reservation reservation : reservations)
+				reservation.release();
+			for (Integer index : reservedIndexes)
+				results[index] = BulkOrderResultDto.failed(index, "Order could not be saved: " + e.getMessage());
+		}
+	}
+
+	private static String validate(BulkOrderDto order, Set<Long> customerIds, Map<Long, Long> prices) {
+		if (order == null)
+			return "Order can't be null";
+		if (!customerIds.contains(order.getCustomerId()))
+			return "Customer not found with Id : " + order.getCustomerId();
+		if (order.getProductIds() == null || order.getProductIds().isEmpty())
+			return "Order must contain at least one product";
+		for (Long productId : order.getProductIds()) {
+			if (productId == null || !prices.containsKey(productId))
+				return "Product not found with Id : " + productId;
+			if (prices.get(productId) == null)
+				return "Product with Id : " + productId + " has no price";
+		}
+		return null;
+	}
+
+	private Set<Long> findExistingCustomerIds(List<BulkOrderDto> orders) {
+		Set<Long> requested = new HashSet<>();
+		for (BulkOrderDto order : orders) {
+			if (order != null)
+				requested.add(order.getCustomerId());
+		}
+		Set<Long> existing = new HashSet<>();
+		for (List<Long> ids : chunked(requested))
+			existing.addAll(this.customerRepository.findExistingIds(ids));
+		return existing;
+	}
+
+	/**
+	 * Loads the prices of the requested products in minor units, a product
+	 * without a price is mapped to null.
+	 */
+	private Map<Long, Long> findProductPrices(List<BulkOrderDto> orders) {
+		Set<Long> requested = new HashSet<>();
+		for (BulkOrderDto order : orders) {
+			if (order != null && order.getProductIds() != null) {
+				for (Long productId : order.getProductIds()) {
+					if (productId != null)
+						requested.add(productId);
+				}
+			}
+		}
+		Map<Long, Long> prices = new HashMap<>();
+		for (List<Long> ids : chunked(requested)) {
+			for (ProductPrice price : this.productRepository.findPricesByIdIn(ids))
+				prices.put(price.getId(), price.getPrice() == null ? null : Money.toMinor(price.getPrice()));
+		}
+		return prices;
+	}
+
+	private static List<List<Long>> chunked(Set<Long> ids) {
+		List<List<Long>> chunks = new ArrayList<>();
+		List<Long> chunk = new ArrayList<>(LOOKUP_CHUNK_SIZE);
+		for (Long id : ids) {
+			chunk.add(id);
+			if (chunk.size() == LOOKUP_CHUNK_SIZE) {
+				chunks.add(chunk);
+				chunk = new ArrayList<>(LOOKUP_CHUNK_SIZE);
+			}
+		}
+		if (!chunk.isEmpty())
+			chunks.add(chunk);
+		return chunks;
+	}
+}
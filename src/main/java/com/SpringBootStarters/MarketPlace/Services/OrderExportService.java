@@ -0,0 +1,84 @@
+package com.SpringBootStarters.MarketPlace.Services;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.hibernate.Hibernate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.SpringBootStarters.MarketPlace.DTOs.OrderExportFilter;
+import com.SpringBootStarters.MarketPlace.Entities.Orders;
+import com.SpringBootStarters.MarketPlace.Repositories.OrderRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import jakarta.persistence.EntityManager;
+
+@Service
+public class OrderExportService {
+	private static final int CHUNK_SIZE = 100;
+
+	private final OrderRepository orderRepository;
+	private final EntityManager entityManager;
+	private final ObjectMapper objectMapper;
+
+	public OrderExportService(OrderRepository orderRepository, EntityManager entityManager, ObjectMapper objectMapper) {
+		this.orderRepository = orderRepository;
+		this.entityManager = entityManager;
+		this.objectMapper = objectMapper;
+	}
+
+	/**
+	 * Writes the orders matching the filter as newline-delimited JSON.
+	 * Orders are read through a database cursor in chunks of CHUNK_SIZE rows.
+	 * The products of a chunk are loaded with one batch query and the
+	 * persistence context is cleared after each chunk, so memory use does not
+	 * grow with the number of exported orders.
+	 * @param filter The export filter
+	 * @param out The stream the orders are written to, it is flushed but not closed
+	 * @return The number of exported orders
+	 * @throws IOException if writing to the stream fails
+	 */
+	@Transactional(readOnly = true)
+	public long exportOrders(OrderExportFilter filter, OutputStream out) throws IOException {
+		ObjectWriter writer = this.objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+		long count = 0;
+		try (Stream<Orders> orders = streamOrders(filter);
+				JsonGenerator generator = this.objectMapper.getFactory().createGenerator(out)) {
+			generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+			generator.setRootValueSeparator(new SerializedString("\n"));
+			Iterator<Orders> iterator = orders.iterator();
+			List<Orders> chunk = new ArrayList<>(CHUNK_SIZE);
+			while (iterator.hasNext()) {
+				chunk.add(iterator.next());
+				if (chunk.size() == CHUNK_SIZE || !iterator.hasNext()) {
+					Hibernate.initialize(chunk.get(0).getProducts());
+					for (Orders order : chunk)
+						writer.writeValue(generator, order);
+					count += chunk.size();
+					chunk.clear();
+					generator.flush();
+					this.entityManager.clear();
+				}
+			}
+			if (count > 0)
+				generator.writeRaw('\n');
+			generator.flush();
+		}
+		return count;
+	}
+
+	private Stream<Orders> streamOrders(OrderExportFilter filter) {
+		if (filter.getCustomerId() != null)
+			return this.orderRepository.streamByCustomerIdAndDateRange(filter.getCustomerId(), filter.getFrom(), filter.getTo());
+		return this.orderRepository.streamByDateRange(filter.getFrom(), filter.getTo());
+	}
+}
@@ -0,0 +1,216 @@
+package com.SpringBootStarters.MarketPlace.Services;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+
+import com.SpringBootStarters.MarketPlace.DTOs.BulkOrderDto;
+import com.SpringBootStarters.MarketPlace.DTOs.BulkOrderResultDto;
+import com.SpringBootStarters.MarketPlace.DTOs.OrderDto;
+import com.SpringBootStarters.MarketPlace.DTOs.OrderIntakeStatusDto;
+import com.SpringBootStarters.MarketPlace.Entities.Product;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityNotFoundException;
+
+/**
+ * Accepts orders into a bounded in-memory queue and writes them in the
+ * background with group commit: a single writer thread takes up to
+ * marketplace.intake.batch-size orders, waiting at most
+ * marketplace.intake.max-delay after the first one, and creates them
+ * through OrderBulkService in one transaction.
+ * Queued orders are lost if the process dies before they are written, the
+ * queue is drained when the application shuts down normally.
+ */
+@Service
+public class OrderIntakeService implements SmartLifecycle {
+	private static final Logger logger = LoggerFactory.getLogger(OrderIntakeService.class);
+	private static final long POLL_TIMEOUT_MS = 100;
+	private static final long MAX_STATUSES = 1_000_000;
+
+	private final OrderBulkService orderBulkService;
+	private final ProductCatalog productCatalog;
+	private final BlockingQueue<QueuedOrder> queue;
+	private final Cache<String, OrderIntakeStatusDto> statuses;
+	private final int batchSize;
+	private final Duration maxDelay;
+	private final DistributionSummary batchSizes;
+	private final Timer batchWrites;
+	private volatile boolean accepting = true;
+	private volatile boolean running;
+	private Thread writer;
+
+	public OrderIntakeService(
+			OrderBulkService orderBulkService,
+			ProductCatalog productCatalog,
+			MeterRegistry meterRegistry,
+			@Value("${marketplace.intake.queue-capacity:10000}") int queueCapacity,
+			@Value("${marketplace.intake.batch-size:200}") int batchSize,
+			@Value("${marketplace.intake.max-delay:20ms}") Duration maxDelay,
+			@Value("${marketplace.intake.status-retention:1h}") Duration statusRetention) {
+		if (batchSize < 1 || batchSize > OrderBulkService.MAX_ORDERS)
+			throw new IllegalArgumentException("Intake batch size must be between 1 and " + OrderBulkService.MAX_ORDERS);
+		this.orderBulkService = orderBulkService;
+		this.productCatalog = productCatalog;
+		this.queue = new ArrayBlockingQueue<>(queueCapacity);
+		this.statuses = Caffeine.newBuilder().maximumSize(MAX_STATUSES).expireAfterWrite(statusRetention).build();
+		this.batchSize = batchSize;
+		this.maxDelay = maxDelay;
+		Gauge.builder("marketplace.intake.queue.depth", this.queue, BlockingQueue::size)
+			.description("Orders waiting to be written")
+			.register(meterRegistry);
+		this.batchSizes = DistributionSummary.builder("marketplace.intake.batch.size")
+			.description("Orders written per transaction")
+			.register(meterRegistry);
+		this.batchWrites = Timer.builder("marketplace.intake.batch.write")
+			.description("Time taken to write a batch of orders")
+			.register(meterRegistry);
+	}
+
+	/**
+	 * Validates an order and queues it for creation.
+	 * @param customerId The customer Id, it is checked when the order is written
+	 * @param orderDto The order data
+	 * @return The queued status, with the ticket to follow the order
+	 * @throws RejectedExecutionException if the queue is full or the intake is shutting down
+	 */
+	public OrderIntakeStatusDto submit(long customerId, OrderDto orderDto) {
+		if (orderDto == null)
+			throw new IllegalArgumentException("Order can't be null");
+		if (orderDto.getProductIds() == null || orderDto.getProductIds().isEmpty())
+			throw new IllegalArgumentException("Order must contain at least one product");
+		Set<Long> productIds = new LinkedHashSet<>(orderDto.getProductIds());
+		List<Product> products = this.productCatalog.findAllById(productIds);
+		if (products.size() != productIds.size()) {
+			for (Product product : products)
+				productIds.remove(product.getId());
+			throw new EntityNotFoundException("Product not found with Id : " + productIds.iterator().next());
+		}
+		if (!this.accepting)
+			throw new RejectedExecutionException("Order intake is shutting down");
+		String ticket = UUID.randomUUID().toString();
+		OrderIntakeStatusDto status = OrderIntakeStatusDto.queued(ticket);
+		this.statuses.put(ticket, status);
+		if (!this.queue.offer(new QueuedOrder(ticket, new BulkOrderDto(customerId, new ArrayList<>(productIds))))) {
+			this.statuses.invalidate(ticket);
+			throw new RejectedExecutionException("Order intake queue is full");
+		}
+		return status;
+	}
+
+	/**
+	 * Retrieves the status of a submitted order.
+	 * @param ticket The ticket returned by submit
+	 * @return The status of the order
+	 * @throws EntityNotFoundException if the ticket is unknown or its status has expired
+	 */
+	public OrderIntakeStatusDto getStatus(String ticket) {
+		OrderIntakeStatusDto status = this.statuses.getIfPresent(ticket);
+		if (status == null)
+			throw new EntityNotFoundException("Order intake ticket not found : " + ticket);
+		return status;
+	}
+
+	@Override
+	public void start() {
+		this.running = true;
+		this.writer = Thread.ofPlatform().name("order-intake-writer").daemon().start(this::drain);
+	}
+
+	/**
+	 * Stops accepting orders and waits for the writer to write the queued ones.
+	 */
+	@Override
+	public void stop() {
+		this.accepting = false;
+		this.running = false;
+		try {
+			this.writer.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	@Override
+	public boolean isRunning() {
+		return this.running;
+	}
+
+	/**
+	 * Starts before and stops after the web server, so no request is
+	 * accepted once the writer is gone, and starts after and stops before
+	 * the inventory, so the orders drained on shutdown still reserve their
+	 * units from leases that have not been given back yet. The web server
+	 * stops in phase DEFAULT_PHASE - 2048 and the inventory in
+	 * DEFAULT_PHASE - 4096.
+	 */
+	@Override
+	public int getPhase() {
+		return SmartLifecycle.DEFAULT_PHASE - 3072;
+	}
+
+	private void drain() {
+		List<QueuedOrder> batch = new ArrayList<>(this.batchSize);
+		try {
+			while (this.running || !this.queue.isEmpty()) {
+				QueuedOrder first = this.queue.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+				if (first == null)
+					continue;
+				batch.add(first);
+				long deadline = System.nanoTime() + this.maxDelay.toNanos();
+				while (batch.size() < this.batchSize) {
+					this.queue.drainTo(batch, this.batchSize - batch.size());
+					long remaining = deadline - System.nanoTime();
+					if (batch.size() == this.batchSize || remaining <= 0)
+						break;
+					QueuedOrder next = this.queue.poll(remaining, TimeUnit.NANOSECONDS);
+					if (next == null)
+						break;
+					batch.add(next);
+				}
+				write(batch);
+				batch.clear();
+			}
+		} catch (InterruptedException e) {
+			logger.warn("Order intake writer interrupted, " + this.queue.size() + " queued orders were not written");
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void write(List<QueuedOrder> batch) {
+		this.batchSizes.record(batch.size());
+		List<BulkOrderDto> orders = new ArrayList<>(batch.size());
+		for (QueuedOrder order : batch)
+			orders.add(order.order());
+		try {
+			List<BulkOrderResultDto> results = this.batchWrites.recordCallable(() -> this.orderBulkService.createOrders(orders));
+			for (int i = 0; i < batch.size(); i++)
+				this.statuses.put(batch.get(i).ticket(), OrderIntakeStatusDto.of(batch.get(i).ticket(), results.get(i)));
+		} catch (Exception e) {
+			logger.error("Failed to write a batch of " + batch.size() + " orders: " + e.getMessage());
+			for (QueuedOrder order : batch)
+				this.statuses.put(order.ticket(), OrderIntakeStatusDto.failed(order.ticket(), "Order could not be saved: " + e.getMessage()));
+		}
+	}
+
+	private record QueuedOrder(String ticket, BulkOrderDto order) {
+	}
+}
@@ -1,17 +1,36 @@
 package com.SpringBootStarters.MarketPlace.Services;
 
-import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
 
+import org.hibernate.Hibernate;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.SpringBootStarters.MarketPlace.DTOs.CursorPage;
 import com.SpringBootStarters.MarketPlace.DTOs.OrderDto;
 import com.SpringBootStarters.MarketPlace.Entities.Customer;
+import com.SpringBootStarters.MarketPlace.Entities.OrderLine;
 import com.SpringBootStarters.MarketPlace.Entities.Orders;
 import com.SpringBootStarters.MarketPlace.Entities.Product;
+import com.SpringBootStarters.MarketPlace.Repositories.CustomerOrderStatsRepository;
+import com.SpringBootStarters.MarketPlace.Repositories.CustomerOrderStatsRepository.Delta;
 import com.SpringBootStarters.MarketPlace.Repositories.CustomerRepository;
+import com.SpringBootStarters.MarketPlace.Repositories.EntityVersion;
+import com.SpringBootStarters.MarketPlace.Repositories.EntityVersionRepository;
+import com.SpringBootStarters.MarketPlace.Repositories.OrderLineRepository;
 import com.SpringBootStarters.MarketPlace.Repositories.OrderRepository;
-import com.SpringBootStarters.MarketPlace.Repositories.ProductRepository;
+import com.SpringBootStarters.MarketPlace.Utils.Money;
+import com.SpringBootStarters.MarketPlace.Utils.PageCursor;
 
 import jakarta.persistence.EntityNotFoundException;
 
@@ -19,20 +38,57 @@ import jakarta.persistence.EntityNotFoundException;
 public class OrderService {
 	private final OrderRepository orderRepository;
 	private final CustomerRepository customerRepository;
-	private final ProductRepository productRepository;
+	private final ProductCatalog productCatalog;
+	private final OrderLineRepository orderLineRepository;
+	private final CustomerOrderStatsRepository customerOrderStatsRepository;
+	private final BestSellerTracker bestSellerTracker;
+	private final EntityVersionRepository entityVersionRepository;
+	private final TransactionTemplate transactionTemplate;
+	private final RetryPolicy retryPolicy;
+	private final InventoryService inventoryService;
 
-	public OrderService(OrderRepository orderRepository, CustomerRepository customerRepository, ProductRepository productRepository) {
+	public OrderService(OrderRepository orderRepository, CustomerRepository customerRepository, ProductCatalog productCatalog, OrderLineRepository orderLineRepository, CustomerOrderStatsRepository customerOrderStatsRepository, BestSellerTracker bestSellerTracker, EntityVersionRepository entityVersionRepository, PlatformTransactionManager transactionManager, RetryPolicy retryPolicy, InventoryService inventoryService) {
 		this.orderRepository = orderRepository;
 		this.customerRepository = customerRepository;
-		this.productRepository = productRepository;
+		this.productCatalog = productCatalog;
+		this.orderLineRepository = orderLineRepository;
+		this.customerOrderStatsRepository = customerOrderStatsRepository;
+		this.bestSellerTracker = bestSellerTracker;
+		this.entityVersionRepository = entityVersionRepository;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.retryPolicy = retryPolicy;
+		this.inventoryService = inventoryService;
 	}
 
 	/**
-	 * Retrieves a list of all orders.
-	 * @return A list of Order objects representing all the orders.
+	 * Retrieves a page of orders sorted by id or by date.
+	 * @param cursor The cursor returned with the previous page, or null for the first page
+	 * @param size The maximum number of orders to return
+	 * @param sort The sort key, either "id" or "date"
+	 * @param withProducts Whether the products of the orders are loaded
+	 * @return A page of orders
 	 */
-	public List<Orders> getOrders() {
-		return this.orderRepository.findAll();
+	@Transactional(readOnly = true)
+	public CursorPage<Orders> getOrders(String cursor, int size, String sort, boolean withProducts) {
+		Pageable pageable = PageCursor.pageable(size);
+		if ("date".equals(sort)) {
+			Slice<Orders> orders;
+			if (cursor == null || cursor.isEmpty()) {
+				orders = this.orderRepository.findAllByOrderByDateAscIdAsc(pageable);
+			} else {
+				PageCursor.DatePosition position = PageCursor.decodeDate(cursor);
+				orders = this.orderRepository.findAfterDate(position.date(), position.id(), pageable);
+			}
+			if (withProducts)
+				initializeProducts(orders);
+			return CursorPage.of(orders, order -> PageCursor.encodeDate(order.getDate(), order.getId()));
+		}
+		if (!"id".equals(sort))
+			throw new IllegalArgumentException("Unsupported sort key : " + sort);
+		Slice<Orders> orders = this.orderRepository.findByIdGreaterThanOrderByIdAsc(PageCursor.decodeId(cursor), pageable);
+		if (withProducts)
+			initializeProducts(orders);
+		return CursorPage.of(orders, order -> PageCursor.encodeId(order.getId()));
 	}
 
 	/**
@@ -41,86 +97,296 @@ public class OrderService {
 	 * @return An Optional containing the order, or an empty Optional if no order is
 	 *         found
 	 */
+	@Transactional(readOnly = true)
 	public Orders getOrder(long id) {
-		return this.orderRepository.findById(id).orElseThrow(() -> new EntityNotFoundException("Order not found with Id : " + id));
+		return this.orderRepository.findWithCustomerAndProductsById(id).orElseThrow(() -> new EntityNotFoundException("Order not found with Id : " + id));
+	}
+
+	/**
+	 * Retrieves the order with the specified ID and only the associations
+	 * that are asked for.
+	 * @param id The ID of the order to retrieve
+	 * @param withCustomer Whether the customer of the order is loaded
+	 * @param withProducts Whether the products of the order are loaded
+	 * @return The order
+	 */
+	@Transactional(readOnly = true)
+	public Orders getOrder(long id, boolean withCustomer, boolean withProducts) {
+		if (withCustomer && withProducts)
+			return getOrder(id);
+		Orders order = this.orderRepository.findById(id).orElseThrow(() -> new EntityNotFoundException("Order not found with Id : " + id));
+		if (withCustomer)
+			Hibernate.initialize(order.getCustomer());
+		if (withProducts)
+			Hibernate.initialize(order.getProducts());
+		return order;
 	}
 
 	/**
-	 * Retrieves a list of orders for a given product.
+	 * Retrieves the version of an order, its customer and its products with
+	 * one query, without loading them.
+	 * @param id The ID of the order
+	 * @return The version of the order
+	 */
+	public EntityVersion getOrderVersion(long id) {
+		return this.entityVersionRepository.findOrderVersion(id).orElseThrow(() -> new EntityNotFoundException("Order not found with Id : " + id));
+	}
+
+	/**
+	 * Retrieves a page of orders for a given product.
 	 * @param id The ID of the product
-	 * @return A list of Order objects representing the orders for the product
+	 * @param cursor The cursor returned with the previous page, or null for the first page
+	 * @param size The maximum number of orders to return
+	 * @param withProducts Whether the products of the orders are loaded
+	 * @return A page of orders for the product
 	 */
-	public List<Orders> getOrdersByProductId(long id) {
-		List<Orders> orders = this.orderRepository.findByProductsId(id);
-		if (orders.isEmpty())
+	@Transactional(readOnly = true)
+	public CursorPage<Orders> getOrdersByProductId(long id, String cursor, int size, boolean withProducts) {
+		Slice<Orders> orders = this.orderRepository.findByProductsIdAndIdGreaterThanOrderByIdAsc(id, PageCursor.decodeId(cursor), PageCursor.pageable(size));
+		if (orders.isEmpty() && (cursor == null || cursor.isEmpty()))
 			throw new EntityNotFoundException("No orders found for product with id " + id);
-		return orders;
+		if (withProducts)
+			initializeProducts(orders);
+		return CursorPage.of(orders, order -> PageCursor.encodeId(order.getId()));
 	}
 
 	/**
-	 * Retrieves a list of orders for a given customer.
+	 * Retrieves a page of orders for a given customer.
 	 * @param id The ID of the customer
-	 * @return A list of Order objects representing the orders for the customer
+	 * @param cursor The cursor returned with the previous page, or null for the first page
+	 * @param size The maximum number of orders to return
+	 * @param withProducts Whether the products of the orders are loaded
+	 * @return A page of orders for the customer
 	 */
-	public List<Orders> getOrdersByCustomerId(long id) {
-		List<Orders> orders = this.orderRepository.findByCustomerId(id);
-		if (orders.isEmpty())
+	@Transactional(readOnly = true)
+	public CursorPage<Orders> getOrdersByCustomerId(long id, String cursor, int size, boolean withProducts) {
+		Slice<Orders> orders = this.orderRepository.findByCustomerIdAndIdGreaterThanOrderByIdAsc(id, PageCursor.decodeId(cursor), PageCursor.pageable(size));
+		if (orders.isEmpty() && (cursor == null || cursor.isEmpty()))
 			throw new EntityNotFoundException("No orders found for customer with id " + id);
-		return orders;
+		if (withProducts)
+			initializeProducts(orders);
+		return CursorPage.of(orders, order -> PageCursor.encodeId(order.getId()));
 	}
 
 	/**
-	 * Creates a new order based on the provided order data.
+	 * Creates a new order based on the provided order data. The stock of the
+	 * products is reserved before the order transaction starts, and released
+	 * if the order can't be created.
 	 * @param customerId The customer Id
 	 * @param orderDto The order data
 	 * @return The created order
+	 * @throws IllegalStateException if a product is out of stock
 	 */
 	public Orders createOrder(long customerId, OrderDto orderDto) {
 		if (orderDto == null)
 			throw new IllegalArgumentException("Order can't be null");
-		Customer customer = this.customerRepository.findById(customerId).orElseThrow(() -> new EntityNotFoundException("Customer not found with Id : " + customerId));
-		List<Product> products = this.productRepository.findAllById(orderDto.getProductIds());
-		Orders newOrder = new Orders();
-		newOrder.setCustomer(customer);
-		BigDecimal totalAmount = BigDecimal.ZERO;
-		for (Product product : products) {
-			newOrder.getProducts().add(product);
-			totalAmount = totalAmount.add(product.getPrice());
+		List<Product> products = this.productCatalog.findAllById(orderDto.getProductIds());
+		List<OrderLine> lines = new ArrayList<>(products.size());
+		for (Product product : products)
+			lines.add(OrderLine.of(product));
+		InventoryService.Reservation reservation = this.inventoryService.reserve(lines);
+		try {
+			return mutate(() -> {
+				Customer customer = this.customerRepository.findById(customerId).orElseThrow(() -> new EntityNotFoundException("Customer not found with Id : " + customerId));
+				Orders newOrder = new Orders();
+				newOrder.setCustomer(customer);
+				long totalAmount = 0;
+				for (int i = 0; i < products.size(); i++) {
+					newOrder.getProducts().add(products.get(i));
+					newOrder.getLines().add(lines.get(i));
+					totalAmount = Money.add(totalAmount, lines.get(i).getTotalMinor());
+				}
+				newOrder.setTotalAmount(Money.toDecimal(totalAmount));
+				Orders savedOrder = this.orderRepository.save(newOrder);
+				this.customerOrderStatsRepository.apply(List.of(Delta.order(customerId, newOrder.getDate(), newOrder.getTotalAmount())));
+				this.bestSellerTracker.record(newOrder.getLines());
+				reservation.commit();
+				return savedOrder;
+			});
+		} catch (RuntimeException e) {
+			reservation.release();
+			throw e;
 		}
-		newOrder.setTotalAmount(totalAmount);
-		return this.orderRepository.save(newOrder);
 	}
 
 	/**
-	 * Updates an order with the specified ID.
+	 * Updates an order with the specified ID. The new lines are added to the
+	 * stored total, like addProducts, instead of summing every line again:
+	 * the lines backfilled for older orders hold the prices of the backfill,
+	 * not the prices the order was placed at. The stock of the products is
+	 * reserved like createOrder does, and only the units of the products
+	 * that were not in the order yet are sold.
 	 * @param id The ID of the order to update
 	 * @param orderDto The order dto containing products to be added to the order
 	 * @return The updated order
+	 * @throws IllegalStateException if a product is out of stock
 	 */
 	public Orders updateOrder(long id, OrderDto orderDto) {
 		if (orderDto == null)
 			throw new IllegalArgumentException("Order can't be null");
-		Orders existingOrder = this.orderRepository.findById(id).orElseThrow(() -> new EntityNotFoundException("Order not found with Id : " + id));
-		List<Product> products = this.productRepository.findAllById(orderDto.getProductIds());
-		BigDecimal totalAmount = existingOrder.getTotalAmount();
-		for (Product product : products) {
-			if (!existingOrder.getProducts().contains(product)) {
-				existingOrder.getProducts().add(product);
-				totalAmount = totalAmount.add(product.getPrice());
+		List<Product> products = this.productCatalog.findAllById(orderDto.getProductIds());
+		InventoryService.Reservation reservation = this.inventoryService.reserve(pricedLines(products));
+		return reserved(reservation, () -> {
+			Orders existingOrder = this.orderRepository.findWithCustomerAndProductsById(id).orElseThrow(() -> new EntityNotFoundException("Order not found with Id : " + id));
+			long change = 0;
+			List<OrderLine> added = new ArrayList<>();
+			Set<Long> existingIds = new HashSet<>();
+			for (Product product : existingOrder.getProducts())
+				existingIds.add(product.getId());
+			for (OrderLine line : existingOrder.getLines())
+				existingIds.add(line.getProductId());
+			for (Product product : products) {
+				if (existingIds.add(product.getId())) {
+					OrderLine line = OrderLine.of(product);
+					existingOrder.getProducts().add(product);
+					existingOrder.getLines().add(line);
+					added.add(line);
+					change = Money.add(change, line.getTotalMinor());
+				}
 			}
+			existingOrder.setTotalAmount(Money.toDecimal(Money.add(Money.toMinor(existingOrder.getTotalAmount()), change)));
+			Orders savedOrder = this.orderRepository.save(existingOrder);
+			// Flushing checks the version now and locks the order before the customer aggregates, like addProducts
+			this.orderRepository.flush();
+			if (change != 0 && existingOrder.getCustomer() != null)
+				this.customerOrderStatsRepository.apply(List.of(Delta.amount(existingOrder.getCustomer().getId(), Money.toDecimal(change))));
+			this.bestSellerTracker.record(added);
+			reservation.commit(added);
+			return savedOrder;
+		});
+	}
+
+	/**
+	 * Adds products to an order, products already in the order are ignored.
+	 * Only the new rows are inserted and the total is adjusted in place, the
+	 * existing products of the order are not loaded. The stock of the
+	 * products is reserved like createOrder does, and only the units of the
+	 * lines inserted are sold.
+	 * @param id The ID of the order
+	 * @param orderDto The order dto containing the products to add
+	 * @return The updated order
+	 * @throws IllegalStateException if a product is out of stock
+	 */
+	public Orders addProducts(long id, OrderDto orderDto) {
+		if (orderDto == null)
+			throw new IllegalArgumentException("Order can't be null");
+		List<OrderLine> lines = new ArrayList<>();
+		for (Product product : this.productCatalog.findAllById(orderDto.getProductIds()))
+			lines.add(OrderLine.of(product));
+		InventoryService.Reservation reservation = this.inventoryService.reserve(lines);
+		return reserved(reservation, () -> {
+			if (!this.orderRepository.existsById(id))
+				throw new EntityNotFoundException("Order not found with Id : " + id);
+			if (!lines.isEmpty()) {
+				List<OrderLine> added = this.orderLineRepository.addLines(id, lines);
+				updateCustomerTotal(id, added, 1);
+				this.bestSellerTracker.record(added);
+				reservation.commit(added);
+			}
+			return getOrder(id);
+		});
+	}
+
+	/**
+	 * Removes products from an order, products that are not in the order are
+	 * ignored. Only the removed rows are deleted and the total is adjusted in
+	 * place. The units of the removed lines go back to the stock.
+	 * @param id The ID of the order
+	 * @param orderDto The order dto containing the products to remove
+	 * @return The updated order
+	 */
+	public Orders removeProducts(long id, OrderDto orderDto) {
+		if (orderDto == null)
+			throw new IllegalArgumentException("Order can't be null");
+		if (orderDto.getProductIds() == null)
+			throw new IllegalArgumentException("Product ids can't be null");
+		Set<Long> productIds = new LinkedHashSet<>();
+		for (Long productId : orderDto.getProductIds()) {
+			if (productId == null)
+				throw new IllegalArgumentException("Product ids can't be null");
+			productIds.add(productId);
 		}
-		existingOrder.setTotalAmount(totalAmount);
-		return this.orderRepository.save(existingOrder);
+		return mutate(() -> {
+			if (!this.orderRepository.existsById(id))
+				throw new EntityNotFoundException("Order not found with Id : " + id);
+			if (!productIds.isEmpty()) {
+				List<OrderLine> removed = this.orderLineRepository.removeLines(id, productIds);
+				updateCustomerTotal(id, removed, -1);
+				this.inventoryService.giveBack(removed);
+			}
+			return getOrder(id);
+		});
 	}
 
 	/**
-	 * Deletes an order with the specified ID.
+	 * Deletes an order with the specified ID, the units of its lines go back
+	 * to the stock.
 	 * @param id The ID of the order to delete
 	 */
 	public void deleteOrder(long id) {
-		boolean exists = this.orderRepository.existsById(id);
-		if (!exists)
-			throw new EntityNotFoundException("Order not found with Id : " + id);
-		this.orderRepository.deleteById(id);
+		mutate(() -> {
+			Orders order = this.orderRepository.findById(id).orElseThrow(() -> new EntityNotFoundException("Order not found with Id : " + id));
+			this.inventoryService.giveBack(order.getLines());
+			this.customerOrderStatsRepository.removeOrder(id);
+			this.orderRepository.deleteById(id);
+			return null;
+		});
+	}
+
+	/**
+	 * Runs a mutation in its own transaction, retried with backoff when it
+	 * conflicts with a concurrent change of the same rows, which the order
+	 * version turns into an optimistic locking failure instead of a lost
+	 * update. Inside a caller's transaction the mutation runs once, as a
+	 * conflict has already doomed that transaction.
+	 */
+	private <T> T mutate(Supplier<T> mutation) {
+		if (TransactionSynchronizationManager.isActualTransactionActive())
+			return mutation.get();
+		return this.retryPolicy.execute(() -> this.transactionTemplate.execute(status -> mutation.get()));
+	}
+
+	/**
+	 * Runs a mutation that commits the reservation, which is released if the
+	 * mutation fails for good.
+	 */
+	private <T> T reserved(InventoryService.Reservation reservation, Supplier<T> mutation) {
+		try {
+			return mutate(mutation);
+		} catch (RuntimeException e) {
+			reservation.release();
+			throw e;
+		}
+	}
+
+	/**
+	 * The lines of the products that have a price, for reserving products
+	 * that may already be in an order without a line.
+	 */
+	private static List<OrderLine> pricedLines(List<Product> products) {
+		List<OrderLine> lines = new ArrayList<>(products.size());
+		for (Product product : products) {
+			if (product.getPrice() != null)
+				lines.add(OrderLine.of(product));
+		}
+		return lines;
+	}
+
+	private void updateCustomerTotal(long orderId, List<OrderLine> lines, int sign) {
+		long change = 0;
+		for (OrderLine line : lines)
+			change = Money.add(change, line.getTotalMinor());
+		if (change != 0)
+			this.customerOrderStatsRepository.addToOrderTotal(orderId, Money.toDecimal(sign * change));
+	}
+
+	/**
+	 * Loads the products of a page of orders, the lazy collections are fetched
+	 * in batches so a page costs one extra query instead of one per order.
+	 * @param orders The page of orders
+	 */
+	private static void initializeProducts(Slice<Orders> orders) {
+		for (Orders order : orders)
+			Hibernate.initialize(order.getProducts());
 	}
 }
@@ -0,0 +1,129 @@
+package com.SpringBootStarters.MarketPlace.Services;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import com.SpringBootStarters.MarketPlace.Config.ReplicaRoutingDataSource;
+import com.SpringBootStarters.MarketPlace.Entities.Product;
+import com.SpringBootStarters.MarketPlace.Repositories.ProductRepository;
+
+/**
+ * Read-through cache of products by id.
+ * The cache holds detached copies without their orders, so a cached product
+ * is never tied to the session that loaded it and can be shared between
+ * requests. Entries are evicted by ProductService when a product is updated
+ * or deleted, and by ProductImportService and ProductRepricingService when
+ * they update it with JDBC; size, expiry and statistics are configured with
+ * spring.cache.caffeine.spec. Cache misses are loaded from the primary, a
+ * product read from a lagging replica would stay cached until it expires.
+ */
+@Component
+public class ProductCatalog {
+	public static final String PRODUCTS_CACHE = "products";
+	public static final String PRODUCT_PAGES_CACHE = "productPages";
+
+	private final ProductRepository productRepository;
+	private final Cache cache;
+	private final Cache pages;
+
+	public ProductCatalog(ProductRepository productRepository, CacheManager cacheManager) {
+		this.productRepository = productRepository;
+		this.cache = cacheManager.getCache(PRODUCTS_CACHE);
+		this.pages = cacheManager.getCache(PRODUCT_PAGES_CACHE);
+	}
+
+	/**
+	 * Finds a product by id, loading it on a cache miss.
+	 * @param id The id of the product
+	 * @return The product, or an empty Optional if it doesn't exist
+	 */
+	public Optional<Product> find(long id) {
+		Product product = this.cache.get(id, Product.class);
+		if (product != null)
+			return Optional.of(product);
+		Optional<Product> loaded = ReplicaRoutingDataSource.readFromPrimary(() -> this.productRepository.findById(id)).map(ProductCatalog::detachedCopy);
+		loaded.ifPresent(copy -> this.cache.put(id, copy));
+		return loaded;
+	}
+
+	/**
+	 * Finds a product in the cache only.
+	 * @param id The id of the product
+	 * @return The cached product, or an empty Optional on a cache miss
+	 */
+	public Optional<Product> findCached(long id) {
+		return Optional.ofNullable(this.cache.get(id, Product.class));
+	}
+
+	/**
+	 * Finds several products, the cache misses are loaded with one query.
+	 * @param ids The ids of the products, null ids are ignored
+	 * @return The existing products, in the order of the ids and without duplicates
+	 */
+	public List<Product> findAllById(Collection<Long> ids) {
+		if (ids == null)
+			throw new IllegalArgumentException("Product ids can't be null");
+		Set<Long> requested = new LinkedHashSet<>();
+		for (Long id : ids) {
+			if (id != null)
+				requested.add(id);
+		}
+		Map<Long, Product> found = new HashMap<>();
+		List<Long> misses = new ArrayList<>();
+		for (Long id : requested) {
+			Product product = this.cache.get(id, Product.class);
+			if (product != null)
+				found.put(id, product);
+			else
+				misses.add(id);
+		}
+		if (!misses.isEmpty()) {
+			for (Product product : ReplicaRoutingDataSource.readFromPrimary(() -> this.productRepository.findAllById(misses))) {
+				Product copy = detachedCopy(product);
+				this.cache.put(copy.getId(), copy);
+				found.put(copy.getId(), copy);
+			}
+		}
+		List<Product> products = new ArrayList<>(found.size());
+		for (Long id : requested) {
+			if (found.containsKey(id))
+				products.add(found.get(id));
+		}
+		return products;
+	}
+
+	/**
+	 * Evicts products changed with JDBC, without going through ProductService,
+	 * from the caches the statements bypassed: this catalog, the cached pages
+	 * of products and the product region of the second-level cache. The cached
+	 * product queries only hold ids, their products are read from that region.
+	 * @param ids The ids of the changed products
+	 * @param secondLevelCache The second-level cache of the EntityManagerFactory
+	 */
+	public void evict(Collection<Long> ids, jakarta.persistence.Cache secondLevelCache) {
+		if (ids.isEmpty())
+			return;
+		for (Long id : ids) {
+			this.cache.evict(id);
+			secondLevelCache.evict(Product.class, id);
+		}
+		this.pages.clear();
+	}
+
+	private static Product detachedCopy(Product product) {
+		Product copy = new Product(product.getId(), product.getProductName(), product.getPrice());
+		copy.setVersion(product.getVersion());
+		copy.setLastModified(product.getLastModified());
+		return copy;
+	}
+}
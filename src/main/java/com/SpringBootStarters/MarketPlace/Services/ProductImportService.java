@@ -0,0 +1,282 @@
+package com.SpringBootStarters.MarketPlace.Services;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.SpringBootStarters.MarketPlace.DTOs.ProductDto;
+import com.SpringBootStarters.MarketPlace.DTOs.ProductImportErrorDto;
+import com.SpringBootStarters.MarketPlace.DTOs.ProductImportResultDto;
+import com.SpringBootStarters.MarketPlace.Repositories.ProductBulkRepository;
+import com.SpringBootStarters.MarketPlace.Repositories.ProductBulkRepository.UpsertedProduct;
+import com.SpringBootStarters.MarketPlace.Utils.Money;
+import com.SpringBootStarters.MarketPlace.Utils.RecordReader;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+@Service
+public class ProductImportService {
+	public static final String CSV_TYPE = "text/csv";
+	public static final String NDJSON_TYPE = "application/x-ndjson";
+	public static final String NAME_COLUMN = "productName";
+	public static final String PRICE_COLUMN = "price";
+	private static final Logger logger = LoggerFactory.getLogger(ProductImportService.class);
+	// The price column is numeric(10, 2)
+	private static final int PRICE_INTEGER_DIGITS = 8;
+
+	private final ProductBulkRepository productBulkRepository;
+	private final ProductCatalog productCatalog;
+	private final ProductSearchIndex productSearchIndex;
+	private final EntityManagerFactory entityManagerFactory;
+	private final TransactionTemplate transactionTemplate;
+	private final Validator validator;
+	private final ObjectReader productReader;
+	private final int batchSize;
+	private final int maxReportedErrors;
+	private final int maxRowLength;
+
+	public ProductImportService(ProductBulkRepository productBulkRepository, ProductCatalog productCatalog, ProductSearchIndex productSearchIndex,
+			EntityManagerFactory entityManagerFactory, TransactionTemplate transactionTemplate, Validator validator, ObjectMapper objectMapper,
+			@Value("${marketplace.import.batch-size:500}") int batchSize,
+			@Value("${marketplace.import.max-reported-errors:1000}") int maxReportedErrors,
+			@Value("${marketplace.import.max-row-length:8192}") int maxRowLength) {
+		if (batchSize < 1 || maxReportedErrors < 0 || maxRowLength < 1)
+			throw new IllegalArgumentException("Import batch size and maximum row length must be positive numbers");
+		this.productBulkRepository = productBulkRepository;
+		this.productCatalog = productCatalog;
+		this.productSearchIndex = productSearchIndex;
+		this.entityManagerFactory = entityManagerFactory;
+		this.transactionTemplate = transactionTemplate;
+		this.validator = validator;
+		this.productReader = objectMapper.readerFor(ProductDto.class);
+		this.batchSize = batchSize;
+		this.maxReportedErrors = maxReportedErrors;
+		this.maxRowLength = maxRowLength;
+	}
+
+	/**
+	 * The formats of an import.
+	 */
+	public enum Format {
+		CSV,
+		NDJSON;
+
+		/**
+		 * @param contentType The content type of the upload
+		 * @return The format of the upload
+		 * @throws IllegalArgumentException if the content type is not CSV or NDJSON
+		 */
+		public static Format of(String contentType) {
+			MediaType mediaType = contentType == null ? null : MediaType.parseMediaType(contentType);
+			if (mediaType != null && mediaType.isCompatibleWith(MediaType.parseMediaType(CSV_TYPE)))
+				return CSV;
+			if (mediaType != null && mediaType.isCompatibleWith(MediaType.parseMediaType(NDJSON_TYPE)))
+				return NDJSON;
+			throw new IllegalArgumentException("Unsupported content type : " + contentType + ", expected " + CSV_TYPE + " or " + NDJSON_TYPE);
+		}
+	}
+
+	/**
+	 * Imports products as they are read, inserting the products whose name is
+	 * new and updating the price of the others.
+	 * A CSV upload starts with a header naming its productName and price
+	 * columns, an NDJSON upload holds one product object per line. Each row is
+	 * validated like a ProductDto, then the valid rows are upserted in
+	 * transactions of batchSize rows with one statement each. An invalid row,
+	 * or a batch that fails to commit, is reported without affecting the
+	 * other rows. Only a batch, the current row and the first
+	 * maxReportedErrors errors are held in memory, whatever the size of the
+	 * upload.
+	 * @param reader The upload
+	 * @param format The format of the upload
+	 * @return The outcome of the import
+	 * @throws IOException if reading the upload fails
+	 * @throws IllegalArgumentException if the CSV header lacks a column
+	 */
+	public ProductImportResultDto importProducts(Reader reader, Format format) throws IOException {
+		long start = System.nanoTime();
+		Progress progress = new Progress(this.maxReportedErrors);
+		RecordReader records = format == Format.CSV ? RecordReader.csv(reader, this.maxRowLength) : RecordReader.lines(reader, this.maxRowLength);
+		int[] columns = format == Format.CSV ? readHeader(records) : null;
+		List<ProductDto> batch = new ArrayList<>(this.batchSize);
+		List<Long> lines = new ArrayList<>(this.batchSize);
+		Set<String> names = new HashSet<>();
+		while (records.next()) {
+			progress.rows++;
+			ProductDto product;
+			try {
+				product = format == Format.CSV ? parseCsv(records, columns) : parseJson(records);
+			} catch (IllegalArgumentException e) {
+				progress.fail(records.line(), e.getMessage());
+				continue;
+			}
+			String error = validate(product);
+			if (error != null) {
+				progress.fail(records.line(), error);
+				continue;
+			}
+			// A statement can't upsert a name twice, a repeated name starts a new batch so the last row wins
+			if (!names.add(product.getProductName())) {
+				write(batch, lines, progress);
+				names.clear();
+				names.add(product.getProductName());
+			}
+			batch.add(product);
+			lines.add(records.line());
+			if (batch.size() == this.batchSize) {
+				write(batch, lines, progress);
+				names.clear();
+			}
+		}
+		if (!batch.isEmpty())
+			write(batch, lines, progress);
+		long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+		double rowsPerSecond = progress.rows * 1000.0 / Math.max(elapsedMillis, 1);
+		logger.info("Imported " + progress.rows + " product rows in " + elapsedMillis + " ms: " + progress.inserted + " inserted, " + progress.updated + " updated, "
+				+ progress.unchanged + " unchanged, " + progress.failed + " failed");
+		return new ProductImportResultDto(progress.rows, progress.inserted, progress.updated, progress.unchanged, progress.failed, elapsedMillis, rowsPerSecond, progress.errors);
+	}
+
+	private void write(List<ProductDto> batch, List<Long> lines, Progress progress) {
+		if (batch.isEmpty())
+			return;
+		try {
+			List<UpsertedProduct> upserted = this.transactionTemplate.execute(status -> this.productBulkRepository.upsertProducts(batch));
+			List<Long> updatedIds = new ArrayList<>();
+			for (UpsertedProduct product : upserted) {
+				if (product.inserted()) {
+					progress.inserted++;
+					this.productSearchIndex.productSaved(product.id(), product.productName());
+				} else {
+					progress.updated++;
+					updatedIds.add(product.id());
+				}
+			}
+			progress.unchanged += batch.size() - upserted.size();
+			if (!upserted.isEmpty())
+				evict(updatedIds, updatedIds.size() < upserted.size());
+		} catch (RuntimeException e) {
+			logger.error("Failed to write a batch of " + batch.size() + " products: " + e.getMessage());
+			for (Long line : lines)
+				progress.fail(line, "Product could not be saved: " + e.getMessage());
+		}
+		batch.clear();
+		lines.clear();
+	}
+
+	/**
+	 * Evicts the committed changes from the product catalog and, when a
+	 * product was inserted, the cached queries, which may hold the absence
+	 * of its name.
+	 */
+	private void evict(List<Long> updatedIds, boolean inserted) {
+		Cache cache = this.entityManagerFactory.getCache();
+		this.productCatalog.evict(updatedIds, cache);
+		if (inserted)
+			cache.unwrap(org.hibernate.Cache.class).evictDefaultQueryRegion();
+	}
+
+	private static int[] readHeader(RecordReader records) throws IOException {
+		int name = -1;
+		int price = -1;
+		if (records.next()) {
+			List<String> header = records.fields();
+			for (int i = 0; i < header.size(); i++) {
+				// A byte order mark may precede the first column
+				String column = header.get(i).replace("\uFEFF", "").trim();
+				if (NAME_COLUMN.equals(column))
+					name = i;
+				else if (PRICE_COLUMN.equals(column))
+					price = i;
+			}
+		}
+		if (name < 0 || price < 0)
+			throw new IllegalArgumentException("The CSV header must name the " + NAME_COLUMN + " and " + PRICE_COLUMN + " columns");
+		return new int[] { name, price };
+	}
+
+	private ProductDto parseCsv(RecordReader records, int[] columns) {
+		checkRecord(records);
+		List<String> fields = records.fields();
+		int expected = Math.max(columns[0], columns[1]) + 1;
+		if (fields.size() < expected)
+			throw new IllegalArgumentException("Expected at least " + expected + " fields, found " + fields.size());
+		String price = fields.get(columns[1]).trim();
+		try {
+			return new ProductDto(fields.get(columns[0]).trim(), price.isEmpty() ? null : new BigDecimal(price));
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid price : " + price);
+		}
+	}
+
+	private ProductDto parseJson(RecordReader records) {
+		checkRecord(records);
+		try {
+			ProductDto product = this.productReader.readValue(records.fields().get(0));
+			if (product == null)
+				throw new IllegalArgumentException("Product can't be null");
+			return product;
+		} catch (JsonProcessingException e) {
+			throw new IllegalArgumentException("Invalid JSON : " + e.getOriginalMessage());
+		}
+	}
+
+	private void checkRecord(RecordReader records) {
+		if (records.tooLong())
+			throw new IllegalArgumentException("Row longer than " + this.maxRowLength + " characters");
+		if (records.unterminated())
+			throw new IllegalArgumentException("Unterminated quoted field");
+	}
+
+	private String validate(ProductDto product) {
+		Set<ConstraintViolation<ProductDto>> violations = this.validator.validate(product);
+		if (!violations.isEmpty()) {
+			Set<String> messages = new TreeSet<>();
+			for (ConstraintViolation<ProductDto> violation : violations)
+				messages.add(violation.getMessage());
+			return String.join(", ", messages);
+		}
+		BigDecimal price = product.getPrice();
+		if (price != null && (price.stripTrailingZeros().scale() > Money.SCALE || price.precision() - price.scale() > PRICE_INTEGER_DIGITS))
+			return "Price must have at most " + PRICE_INTEGER_DIGITS + " integer digits and " + Money.SCALE + " decimals";
+		return null;
+	}
+
+	private static final class Progress {
+		private final int maxReportedErrors;
+		private final List<ProductImportErrorDto> errors = new ArrayList<>();
+		private long rows;
+		private long inserted;
+		private long updated;
+		private long unchanged;
+		private long failed;
+
+		private Progress(int maxReportedErrors) {
+			this.maxReportedErrors = maxReportedErrors;
+		}
+
+		private void fail(long line, String error) {
+			this.failed++;
+			if (this.errors.size() < this.maxReportedErrors)
+				this.errors.add(new ProductImportErrorDto(line, error));
+		}
+	}
+}
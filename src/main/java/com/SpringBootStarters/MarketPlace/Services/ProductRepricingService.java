@@ -0,0 +1,143 @@
+package com.SpringBootStarters.MarketPlace.Services;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.SpringBootStarters.MarketPlace.DTOs.ProductPriceDto;
+import com.SpringBootStarters.MarketPlace.DTOs.RepricingDto;
+import com.SpringBootStarters.MarketPlace.DTOs.RepricingResultDto;
+import com.SpringBootStarters.MarketPlace.Repositories.ProductBulkRepository;
+import com.SpringBootStarters.MarketPlace.Repositories.ProductBulkRepository.RepricedProduct;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@Service
+public class ProductRepricingService {
+	public static final int MAX_PRICES = 100_000;
+	private static final Logger logger = LoggerFactory.getLogger(ProductRepricingService.class);
+	private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+	private final ProductBulkRepository productBulkRepository;
+	private final ProductCatalog productCatalog;
+	private final EntityManagerFactory entityManagerFactory;
+	private final TransactionTemplate transactionTemplate;
+	private final int chunkSize;
+
+	public ProductRepricingService(ProductBulkRepository productBulkRepository, ProductCatalog productCatalog, EntityManagerFactory entityManagerFactory,
+			TransactionTemplate transactionTemplate, @Value("${marketplace.repricing.chunk-size:1000}") int chunkSize) {
+		if (chunkSize < 1)
+			throw new IllegalArgumentException("Repricing chunk size must be a positive number");
+		this.productBulkRepository = productBulkRepository;
+		this.productCatalog = productCatalog;
+		this.entityManagerFactory = entityManagerFactory;
+		this.transactionTemplate = transactionTemplate;
+		this.chunkSize = chunkSize;
+	}
+
+	/**
+	 * Reprices products with set-based UPDATE statements, in transactions of
+	 * chunkSize products, without loading them. Either the listed products
+	 * get their new price, or the products matched by the rule get their
+	 * price changed by the percentage, rounded to cents. Each changed product
+	 * gets a new version and is evicted from the caches once its chunk
+	 * commits. The chunks committed before a failure stay committed.
+	 * @param repricingDto The new prices or the rule
+	 * @return The counts of the repricing
+	 * @throws IllegalArgumentException if the request holds both or neither a list and a percentage, too many prices or a repeated id
+	 */
+	public RepricingResultDto reprice(RepricingDto repricingDto) {
+		if (repricingDto == null)
+			throw new IllegalArgumentException("Repricing can't be null");
+		if ((repricingDto.getPrices() == null) == (repricingDto.getPercentage() == null))
+			throw new IllegalArgumentException("A repricing needs either a list of prices or a percentage");
+		long start = System.nanoTime();
+		Progress progress = repricingDto.getPrices() != null ? repriceList(repricingDto.getPrices()) : repriceRule(repricingDto);
+		long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+		logger.info("Repriced " + progress.matched + " products in " + progress.chunks + " chunks and " + elapsedMillis + " ms: " + progress.updated + " updated, "
+				+ progress.unchanged + " unchanged, " + progress.skipped + " skipped, " + progress.missing + " missing");
+		return new RepricingResultDto(progress.matched, progress.updated, progress.unchanged, progress.skipped, progress.missing, progress.chunks, elapsedMillis);
+	}
+
+	private Progress repriceList(List<ProductPriceDto> prices) {
+		if (prices.size() > MAX_PRICES)
+			throw new IllegalArgumentException("A repricing can't list more than " + MAX_PRICES + " prices");
+		Set<Long> ids = new HashSet<>();
+		for (ProductPriceDto price : prices) {
+			if (price == null)
+				throw new IllegalArgumentException("Price can't be null");
+			if (!ids.add(price.getProductId()))
+				throw new IllegalArgumentException("Product " + price.getProductId() + " is listed more than once");
+		}
+		Progress progress = new Progress();
+		for (int from = 0; from < prices.size(); from += this.chunkSize) {
+			List<ProductPriceDto> chunk = prices.subList(from, Math.min(from + this.chunkSize, prices.size()));
+			List<RepricedProduct> repriced = this.transactionTemplate.execute(status -> this.productBulkRepository.updatePrices(chunk));
+			evict(progress.add(repriced));
+			progress.missing += chunk.size() - repriced.size();
+		}
+		return progress;
+	}
+
+	private Progress repriceRule(RepricingDto rule) {
+		BigDecimal factor = BigDecimal.ONE.add(rule.getPercentage().divide(HUNDRED));
+		if (factor.signum() <= 0)
+			throw new IllegalArgumentException("Percentage must be greater than -100");
+		long afterId = rule.getFromId() == null ? 0 : rule.getFromId() - 1;
+		long toId = rule.getToId() == null ? Long.MAX_VALUE : rule.getToId();
+		String namePattern = rule.getNamePattern() == null || rule.getNamePattern().isBlank() ? null : rule.getNamePattern();
+		Progress progress = new Progress();
+		while (afterId < toId) {
+			long after = afterId;
+			List<RepricedProduct> repriced = this.transactionTemplate.execute(status -> this.productBulkRepository.repriceChunk(factor, after, toId, namePattern, this.chunkSize));
+			if (repriced.isEmpty())
+				break;
+			evict(progress.add(repriced));
+			if (repriced.size() < this.chunkSize)
+				break;
+			afterId = repriced.get(repriced.size() - 1).id();
+		}
+		return progress;
+	}
+
+	private void evict(List<Long> updatedIds) {
+		this.productCatalog.evict(updatedIds, this.entityManagerFactory.getCache());
+	}
+
+	private static final class Progress {
+		private long matched;
+		private long updated;
+		private long unchanged;
+		private long skipped;
+		private long missing;
+		private long chunks;
+
+		/**
+		 * Counts a committed chunk.
+		 * @return The ids of the updated products
+		 */
+		private List<Long> add(List<RepricedProduct> repriced) {
+			List<Long> updatedIds = new ArrayList<>();
+			for (RepricedProduct product : repriced) {
+				if (product.updated())
+					updatedIds.add(product.id());
+				else if (product.inRange())
+					this.unchanged++;
+				else
+					this.skipped++;
+			}
+			this.matched += repriced.size();
+			this.updated += updatedIds.size();
+			this.chunks++;
+			return updatedIds;
+		}
+	}
+}
@@ -0,0 +1,154 @@
+package com.SpringBootStarters.MarketPlace.Services;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.SpringBootStarters.MarketPlace.DTOs.ProductSearchHitDto;
+import com.SpringBootStarters.MarketPlace.Utils.AfterCommit;
+import com.SpringBootStarters.MarketPlace.Utils.TrigramIndex;
+
+/**
+ * Searches the products by name in memory. The names are held in a
+ * trigram index loaded on startup with one streamed query over the product
+ * table, and kept in sync by ProductService once its changes are committed,
+ * so a search never queries the database. Searches share a read lock and
+ * only wait for the short exclusive lock of a change.
+ */
+@Component
+public class ProductSearchIndex implements SmartInitializingSingleton {
+	public static final int MAX_LIMIT = 100;
+	private static final Logger logger = LoggerFactory.getLogger(ProductSearchIndex.class);
+	private static final String LOAD_QUERY = "SELECT id, product_name FROM product";
+	private static final int LOAD_FETCH_SIZE = 10_000;
+
+	private final JdbcTemplate jdbcTemplate;
+	private final TransactionTemplate transactionTemplate;
+	private final TrigramIndex index = new TrigramIndex();
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	public ProductSearchIndex(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+		this.jdbcTemplate = jdbcTemplate;
+		// Postgres only streams a result set with a fetch size inside a transaction
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.transactionTemplate.setReadOnly(true);
+	}
+
+	/**
+	 * Loads the names of every product. Runs once the schema is in place and
+	 * before the server accepts requests.
+	 */
+	@Override
+	public void afterSingletonsInstantiated() {
+		try {
+			long start = System.nanoTime();
+			List<Long> ids = new ArrayList<>();
+			List<String> names = new ArrayList<>();
+			this.transactionTemplate.executeWithoutResult(status -> this.jdbcTemplate.query(connection -> {
+				PreparedStatement ps = connection.prepareStatement(LOAD_QUERY);
+				ps.setFetchSize(LOAD_FETCH_SIZE);
+				return ps;
+			}, rs -> {
+				ids.add(rs.getLong(1));
+				names.add(rs.getString(2));
+			}));
+			long[] productIds = new long[ids.size()];
+			for (int i = 0; i < productIds.length; i++)
+				productIds[i] = ids.get(i);
+			this.lock.writeLock().lock();
+			try {
+				this.index.putAll(productIds, names.toArray(new String[0]), productIds.length);
+			} finally {
+				this.lock.writeLock().unlock();
+			}
+			logger.info("Indexed " + size() + " product names in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+		} catch (DataAccessException e) {
+			logger.warn("Could not load the product names, starting empty: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Indexes the name of a product once the current transaction commits.
+	 * @param productId The id of the product
+	 * @param productName The name of the product
+	 */
+	public void productSaved(long productId, String productName) {
+		AfterCommit.run(() -> put(productId, productName));
+	}
+
+	/**
+	 * Removes a product from the index once the current transaction commits.
+	 * @param productId The id of the product
+	 */
+	public void productDeleted(long productId) {
+		AfterCommit.run(() -> {
+			this.lock.writeLock().lock();
+			try {
+				this.index.remove(productId);
+			} finally {
+				this.lock.writeLock().unlock();
+			}
+		});
+	}
+
+	/**
+	 * Searches the products whose name contains the query, ignoring case,
+	 * accents and punctuation. Exact names come first, then names starting
+	 * with the query, then names with a word starting with it, then the rest,
+	 * shorter names first.
+	 * @param query The query
+	 * @param limit The maximum number of products to return
+	 * @param prefix Whether the query must start a word of the name, for
+	 *        autocompletion; queries shorter than three characters always must
+	 * @return The matching products, best first
+	 */
+	public List<ProductSearchHitDto> search(String query, int limit, boolean prefix) {
+		if (TrigramIndex.normalize(query).isEmpty())
+			throw new IllegalArgumentException("Query must contain a letter or a digit");
+		if (limit < 1 || limit > MAX_LIMIT)
+			throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LIMIT);
+		List<TrigramIndex.Match> matches;
+		this.lock.readLock().lock();
+		try {
+			matches = this.index.search(query, limit, prefix);
+		} finally {
+			this.lock.readLock().unlock();
+		}
+		List<ProductSearchHitDto> hits = new ArrayList<>(matches.size());
+		for (TrigramIndex.Match match : matches)
+			hits.add(new ProductSearchHitDto(match.id(), match.text()));
+		return hits;
+	}
+
+	/**
+	 * @return The number of indexed products
+	 */
+	public int size() {
+		this.lock.readLock().lock();
+		try {
+			return this.index.size();
+		} finally {
+			this.lock.readLock().unlock();
+		}
+	}
+
+	private void put(long productId, String productName) {
+		this.lock.writeLock().lock();
+		try {
+			this.index.put(productId, productName);
+		} finally {
+			this.lock.writeLock().unlock();
+		}
+	}
+}
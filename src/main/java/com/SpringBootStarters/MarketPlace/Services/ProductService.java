@@ -3,43 +3,81 @@ package com.SpringBootStarters.MarketPlace.Services;
 import java.util.List;
 import java.util.Optional;
 
-import org.modelmapper.ModelMapper;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.SpringBootStarters.MarketPlace.Config.ReplicaRoutingDataSource;
+import com.SpringBootStarters.MarketPlace.DTOs.CursorPage;
 import com.SpringBootStarters.MarketPlace.DTOs.ProductDto;
+import com.SpringBootStarters.MarketPlace.DTOs.ProductSearchHitDto;
 import com.SpringBootStarters.MarketPlace.Entities.Product;
+import com.SpringBootStarters.MarketPlace.Mappers.ProductMapper;
+import com.SpringBootStarters.MarketPlace.Repositories.EntityVersion;
+import com.SpringBootStarters.MarketPlace.Repositories.EntityVersionRepository;
 import com.SpringBootStarters.MarketPlace.Repositories.ProductRepository;
+import com.SpringBootStarters.MarketPlace.Utils.PageCursor;
 
 import jakarta.persistence.EntityNotFoundException;
 
 @Service
 public class ProductService {
 	private final ProductRepository productRepository;
-	private final ModelMapper modelMapper;
+	private final ProductCatalog productCatalog;
+	private final ProductMapper productMapper;
+	private final ProductSearchIndex productSearchIndex;
+	private final EntityVersionRepository entityVersionRepository;
 
-	public ProductService(ProductRepository productRepository, ModelMapper modelMapper) {
+	public ProductService(ProductRepository productRepository, ProductCatalog productCatalog, ProductMapper productMapper, ProductSearchIndex productSearchIndex, EntityVersionRepository entityVersionRepository) {
 		this.productRepository = productRepository;
-		this.modelMapper = modelMapper;
+		this.productCatalog = productCatalog;
+		this.productMapper = productMapper;
+		this.productSearchIndex = productSearchIndex;
+		this.entityVersionRepository = entityVersionRepository;
 	}
 
 	/**
-	 * Retrieve a list of all the products
+	 * Retrieve a page of products sorted by id, read from the primary as the
+	 * page is cached
 	 * 
-	 * @return List of products
+	 * @param cursor The cursor returned with the previous page, or null for the first page
+	 * @param size   The maximum number of products to return
+	 * @return Page of products
 	 */
-	public List<Product> getProducts() {
-		return this.productRepository.findAll();
+	@Cacheable(cacheNames = ProductCatalog.PRODUCT_PAGES_CACHE, key = "#cursor + ':' + #size")
+	@Transactional(readOnly = true)
+	public CursorPage<Product> getProducts(String cursor, int size) {
+		Slice<Product> products = ReplicaRoutingDataSource.readFromPrimary(() -> this.productRepository.findByIdGreaterThanOrderByIdAsc(PageCursor.decodeId(cursor), PageCursor.pageable(size)));
+		return CursorPage.of(products, product -> PageCursor.encodeId(product.getId()));
 	}
 
 	/**
-	 * Retrieves a product by its ID.
+	 * Retrieves a product by its ID, from the product catalog cache when present.
 	 * 
 	 * @param id the ID of the product to retrieve
-	 * @return an Optional containing the product if found, or an empty Optional if
-	 *         not found
+	 * @return the product
+	 * @throws EntityNotFoundException if no product has this ID
 	 */
 	public Product getProduct(long id) {
-		return this.productRepository.findById(id).orElseThrow(() -> new EntityNotFoundException("Product with id " + id + " doesn't exist"));
+		return this.productCatalog.find(id).orElseThrow(() -> new EntityNotFoundException("Product with id " + id + " doesn't exist"));
+	}
+
+	/**
+	 * Retrieves the version of a product from the product catalog cache when
+	 * present, otherwise with a version-only query.
+	 * 
+	 * @param id the ID of the product
+	 * @return the version of the product
+	 * @throws EntityNotFoundException if no product has this ID
+	 */
+	public EntityVersion getProductVersion(long id) {
+		Optional<Product> cached = this.productCatalog.findCached(id);
+		if (cached.isPresent())
+			return EntityVersion.of(cached.get());
+		return this.entityVersionRepository.findProductVersion(id).orElseThrow(() -> new EntityNotFoundException("Product with id " + id + " doesn't exist"));
 	}
 
 	/**
@@ -47,6 +85,7 @@ public class ProductService {
 	 * @param id The ID of the order
 	 * @return List of products
 	 */
+	@Transactional(readOnly = true)
 	public List<Product> getProductsForOrder(long id) {
 		List<Product> products = this.productRepository.findByOrdersId(id);
 		if (products.isEmpty())
@@ -54,20 +93,35 @@ public class ProductService {
 		return products;
 	}
 
+	/**
+	 * Searches the products by name, see ProductSearchIndex.
+	 * 
+	 * @param query  The text to search in the product names
+	 * @param limit  The maximum number of products to return
+	 * @param prefix Whether the query must start a word of the name
+	 * @return The matching products, best first
+	 */
+	public List<ProductSearchHitDto> searchProducts(String query, int limit, boolean prefix) {
+		return this.productSearchIndex.search(query, limit, prefix);
+	}
+
 	/**
 	 * Creates a new product and saves it to the database.
 	 * 
 	 * @param product the product to be created
 	 * @return the created product
 	 */
+	@CacheEvict(cacheNames = ProductCatalog.PRODUCT_PAGES_CACHE, allEntries = true)
 	public Product createProduct(ProductDto productDto) {
 		if (productDto == null)
 			throw new IllegalArgumentException("Product can't be null");
 		Optional<Product> productOptional = this.productRepository.findByProductName(productDto.getProductName());
 		if (productOptional.isPresent())
 			throw new IllegalStateException("Product name already taken");
-		Product product = modelMapper.map(productDto, Product.class);
-		return this.productRepository.save(product);
+		Product product = this.productMapper.toEntity(productDto);
+		Product saved = this.productRepository.save(product);
+		this.productSearchIndex.productSaved(saved.getId(), saved.getProductName());
+		return saved;
 	}
 
 	/**
@@ -78,6 +132,10 @@ public class ProductService {
 	 * @return The updated product
 	 * @throws IllegalStateException if the productDto is null
 	 */
+	@Caching(evict = {
+		@CacheEvict(cacheNames = ProductCatalog.PRODUCTS_CACHE, key = "#id"),
+		@CacheEvict(cacheNames = ProductCatalog.PRODUCT_PAGES_CACHE, allEntries = true)
+	})
 	public Product updateProduct(long id, ProductDto productDto) {
 		if (productDto == null)
 			throw new IllegalArgumentException("Product can't be null");
@@ -85,8 +143,10 @@ public class ProductService {
 		Optional<Product> productOptional = this.productRepository.findByProductName(productDto.getProductName());
 		if (productOptional.isPresent())
 			throw new IllegalStateException("Product name already taken");
-		modelMapper.map(productDto, existingProduct);
-		return this.productRepository.save(existingProduct);
+		this.productMapper.update(productDto, existingProduct);
+		Product saved = this.productRepository.save(existingProduct);
+		this.productSearchIndex.productSaved(saved.getId(), saved.getProductName());
+		return saved;
 	}
 
 	/**
@@ -94,10 +154,15 @@ public class ProductService {
 	 * 
 	 * @param id the ID of the product to be deleted
 	 */
+	@Caching(evict = {
+		@CacheEvict(cacheNames = ProductCatalog.PRODUCTS_CACHE, key = "#id"),
+		@CacheEvict(cacheNames = ProductCatalog.PRODUCT_PAGES_CACHE, allEntries = true)
+	})
 	public void deleteProduct(long id) {
 		boolean exists = this.productRepository.existsById(id);
 		if (!exists)
 			throw new EntityNotFoundException("Product with id " + id + " doesn't exist");
 		this.productRepository.deleteById(id);
+		this.productSearchIndex.productDeleted(id);
 	}
 }
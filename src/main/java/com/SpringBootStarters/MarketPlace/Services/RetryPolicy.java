@@ -0,0 +1,93 @@
+package com.SpringBootStarters.MarketPlace.Services;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Retries work that failed on a concurrency conflict: a stale optimistic
+ * lock, a deadlock or a lock timeout. Retry n waits a random delay
+ * between 0 and min(marketplace.retry.max-backoff, marketplace.retry.initial-backoff * 2^(n-1))
+ * before running, so writers that collided spread out instead of colliding
+ * again. Other failures and the conflict of the last attempt are thrown.
+ * The work must start its own transaction, retrying inside a transaction
+ * that has already failed is pointless.
+ */
+@Component
+public class RetryPolicy {
+	private static final Logger logger = LoggerFactory.getLogger(RetryPolicy.class);
+
+	private final int maxAttempts;
+	private final long initialBackoffNanos;
+	private final long maxBackoffNanos;
+	private final Counter retries;
+	private final Counter exhausted;
+
+	@Autowired
+	public RetryPolicy(
+			@Value("${marketplace.retry.max-attempts:10}") int maxAttempts,
+			@Value("${marketplace.retry.initial-backoff:10ms}") Duration initialBackoff,
+			@Value("${marketplace.retry.max-backoff:500ms}") Duration maxBackoff,
+			MeterRegistry meterRegistry) {
+		if (maxAttempts < 1)
+			throw new IllegalArgumentException("Retry attempts must be a positive number");
+		if (initialBackoff.isNegative() || maxBackoff.compareTo(initialBackoff) < 0)
+			throw new IllegalArgumentException("Retry max backoff must be at least the initial backoff");
+		this.maxAttempts = maxAttempts;
+		this.initialBackoffNanos = initialBackoff.toNanos();
+		this.maxBackoffNanos = maxBackoff.toNanos();
+		this.retries = Counter.builder("marketplace.retry.retries")
+			.description("Attempts retried after a concurrency conflict")
+			.register(meterRegistry);
+		this.exhausted = Counter.builder("marketplace.retry.exhausted")
+			.description("Work that still conflicted on its last attempt")
+			.register(meterRegistry);
+	}
+
+	/**
+	 * Runs the work until it completes without a concurrency conflict.
+	 * @param work The work, starting its own transaction
+	 * @return The result of the work
+	 * @throws ConcurrencyFailureException if the last attempt conflicted
+	 */
+	public <T> T execute(Supplier<T> work) {
+		for (int attempt = 1;; attempt++) {
+			try {
+				return work.get();
+			} catch (ConcurrencyFailureException e) {
+				if (attempt >= this.maxAttempts) {
+					this.exhausted.increment();
+					throw e;
+				}
+				this.retries.increment();
+				logger.debug("Retrying after a concurrency conflict, attempt " + attempt + ": " + e.getMessage());
+				backOff(attempt, e);
+			}
+		}
+	}
+
+	private void backOff(int attempt, ConcurrencyFailureException failure) {
+		long ceiling = this.initialBackoffNanos;
+		for (int i = 1; i < attempt && ceiling < this.maxBackoffNanos; i++)
+			ceiling <<= 1;
+		ceiling = Math.min(ceiling, this.maxBackoffNanos);
+		if (ceiling == 0)
+			return;
+		try {
+			Thread.sleep(Duration.ofNanos(ThreadLocalRandom.current().nextLong(ceiling + 1)));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw failure;
+		}
+	}
+}
@@ -0,0 +1,31 @@
+package com.SpringBootStarters.MarketPlace.Utils;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Defers in-memory updates until the database change they mirror is
+ * committed, so a rolled back transaction never shows up in memory.
+ */
+public final class AfterCommit {
+	private AfterCommit() {
+	}
+
+	/**
+	 * Runs an action once the current transaction commits, or right away
+	 * when there is no transaction.
+	 * @param action The action to run
+	 */
+	public static void run(Runnable action) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			action.run();
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				action.run();
+			}
+		});
+	}
+}
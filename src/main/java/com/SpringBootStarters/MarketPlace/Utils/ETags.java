@@ -0,0 +1,81 @@
+package com.SpringBootStarters.MarketPlace.Utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Function;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.context.request.WebRequest;
+
+import com.SpringBootStarters.MarketPlace.DTOs.CursorPage;
+import com.SpringBootStarters.MarketPlace.Entities.Versioned;
+import com.SpringBootStarters.MarketPlace.Repositories.EntityVersion;
+
+/**
+ * Builds the conditional responses of the read endpoints. A single entity
+ * is tagged with its version and Last-Modified, a list with a digest of the
+ * ids and versions of its rows; a list has no Last-Modified since removing
+ * a row would not move it.
+ */
+public final class ETags {
+	private ETags() {
+	}
+
+	/**
+	 * Checks the conditional headers of a request against a version, and
+	 * prepares the 304 response when they match.
+	 * @param request The request
+	 * @param version The current version of the requested entity
+	 * @return Whether the client copy is current, the handler must then return null
+	 */
+	public static boolean notModified(WebRequest request, EntityVersion version) {
+		if (version.lastModified() == null)
+			return request.checkNotModified(version.eTag());
+		return request.checkNotModified(version.eTag(), version.lastModified().toEpochMilli());
+	}
+
+	/**
+	 * @param body The entity
+	 * @param version The version of the entity
+	 * @return A 200 response tagged with the version
+	 */
+	public static <T> ResponseEntity<T> ok(T body, EntityVersion version) {
+		ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(version.eTag());
+		if (version.lastModified() != null)
+			response.lastModified(version.lastModified());
+		return response.body(body);
+	}
+
+	/**
+	 * A 200 response tagged with a digest of the rows, Spring answers 304
+	 * instead when it matches the If-None-Match header, so the rows are not
+	 * serialized.
+	 * @param rows The rows
+	 * @param versionOf Computes the version of a row
+	 * @param view Maps a row to its response DTO
+	 * @return The response
+	 */
+	public static <T extends Versioned, R> ResponseEntity<List<R>> okList(List<T> rows, Function<T, EntityVersion> versionOf, Function<T, R> view) {
+		return ResponseEntity.ok().eTag(digest(rows, versionOf, "")).body(rows.stream().map(view).toList());
+	}
+
+	/**
+	 * Same as okList for a page, the digest also covers whether more rows follow.
+	 * @param page The page
+	 * @param versionOf Computes the version of a row
+	 * @param view Maps a row to its response DTO
+	 * @return The response
+	 */
+	public static <T extends Versioned, R> ResponseEntity<CursorPage<R>> okPage(CursorPage<T> page, Function<T, EntityVersion> versionOf, Function<T, R> view) {
+		return ResponseEntity.ok().eTag(digest(page.getContent(), versionOf, page.isHasNext() ? "more" : "end")).body(page.map(view));
+	}
+
+	private static <T extends Versioned> String digest(List<T> rows, Function<T, EntityVersion> versionOf, String suffix) {
+		StringBuilder versions = new StringBuilder(rows.size() * 16);
+		for (T row : rows)
+			versions.append(row.getId()).append(':').append(versionOf.apply(row).eTag()).append(';');
+		versions.append(suffix);
+		return "\"" + DigestUtils.md5DigestAsHex(versions.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+	}
+}
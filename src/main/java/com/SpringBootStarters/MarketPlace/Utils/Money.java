@@ -0,0 +1,70 @@
+package com.SpringBootStarters.MarketPlace.Utils;
+
+import java.math.BigDecimal;
+
+/**
+ * Fixed-point money arithmetic on amounts held as a number of minor units
+ * (cents) in a long. Order totals are computed with these methods, which
+ * don't allocate and fail on overflow instead of wrapping around; amounts
+ * are converted to BigDecimal only at the API and database boundary.
+ */
+public final class Money {
+	public static final int SCALE = 2;
+
+	private static final String OUT_OF_RANGE = "Amount is out of range";
+
+	private Money() {
+	}
+
+	/**
+	 * Converts an amount to minor units.
+	 * @param amount The amount, with at most SCALE decimal places
+	 * @return The amount in minor units
+	 * @throws IllegalArgumentException if the amount is null, has more decimal places or doesn't fit in a long
+	 */
+	public static long toMinor(BigDecimal amount) {
+		if (amount == null)
+			throw new IllegalArgumentException("Amount can't be null");
+		try {
+			return amount.movePointRight(SCALE).longValueExact();
+		} catch (ArithmeticException e) {
+			throw new IllegalArgumentException(OUT_OF_RANGE + " : " + amount);
+		}
+	}
+
+	/**
+	 * Converts an amount in minor units back to a decimal amount.
+	 * @param minor The amount in minor units
+	 * @return The amount with SCALE decimal places
+	 */
+	public static BigDecimal toDecimal(long minor) {
+		return BigDecimal.valueOf(minor, SCALE);
+	}
+
+	/**
+	 * Computes the total of a line.
+	 * @param unitPrice The unit price in minor units
+	 * @param quantity The quantity
+	 * @return The line total in minor units
+	 * @throws IllegalArgumentException on overflow
+	 */
+	public static long multiply(long unitPrice, int quantity) {
+		try {
+			return Math.multiplyExact(unitPrice, quantity);
+		} catch (ArithmeticException e) {
+			throw new IllegalArgumentException(OUT_OF_RANGE);
+		}
+	}
+
+	/**
+	 * Adds two amounts in minor units.
+	 * @throws IllegalArgumentException on overflow
+	 */
+	public static long add(long a, long b) {
+		try {
+			return Math.addExact(a, b);
+		} catch (ArithmeticException e) {
+			throw new IllegalArgumentException(OUT_OF_RANGE);
+		}
+	}
+}
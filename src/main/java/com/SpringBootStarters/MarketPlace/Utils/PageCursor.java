@@ -0,0 +1,111 @@
+package com.SpringBootStarters.MarketPlace.Utils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * Encodes and decodes the opaque continuation tokens used by the keyset
+ * paginated endpoints. A token only carries the sort key of the last row
+ * of the previous page, so clients must treat it as an opaque string.
+ */
+public final class PageCursor {
+	public static final String DEFAULT_PAGE_SIZE = "20";
+	public static final int MAX_PAGE_SIZE = 100;
+
+	private static final String ID_PREFIX = "id:";
+	private static final String DATE_PREFIX = "date:";
+	private static final String INVALID_CURSOR = "Invalid page cursor";
+
+	private PageCursor() {
+	}
+
+	/**
+	 * Builds the pageable used by the seek queries, capping the page size.
+	 * @param size The requested page size
+	 * @return A first-page request of at most MAX_PAGE_SIZE rows
+	 */
+	public static Pageable pageable(int size) {
+		if (size < 1)
+			throw new IllegalArgumentException("Page size must be a positive number");
+		return PageRequest.ofSize(Math.min(size, MAX_PAGE_SIZE));
+	}
+
+	/**
+	 * Encodes a cursor positioned after the given id.
+	 * @param id The id of the last row of the page
+	 * @return The opaque cursor
+	 */
+	public static String encodeId(long id) {
+		return encode(ID_PREFIX + id);
+	}
+
+	/**
+	 * Decodes an id cursor, a null or empty cursor starts from the beginning.
+	 * @param cursor The opaque cursor
+	 * @return The id to seek after
+	 */
+	public static long decodeId(String cursor) {
+		if (cursor == null || cursor.isEmpty())
+			return 0L;
+		String payload = decode(cursor);
+		if (!payload.startsWith(ID_PREFIX))
+			throw new IllegalArgumentException(INVALID_CURSOR);
+		try {
+			return Long.parseLong(payload.substring(ID_PREFIX.length()));
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException(INVALID_CURSOR);
+		}
+	}
+
+	/**
+	 * Encodes a cursor positioned after the given (date, id) pair.
+	 * @param date The date of the last row of the page
+	 * @param id The id of the last row of the page, used as a tie breaker
+	 * @return The opaque cursor
+	 */
+	public static String encodeDate(LocalDateTime date, long id) {
+		return encode(DATE_PREFIX + date + "|" + id);
+	}
+
+	/**
+	 * Decodes a date cursor.
+	 * @param cursor The opaque cursor
+	 * @return The (date, id) position to seek after
+	 */
+	public static DatePosition decodeDate(String cursor) {
+		String payload = decode(cursor);
+		int separator = payload.lastIndexOf('|');
+		if (!payload.startsWith(DATE_PREFIX) || separator < 0)
+			throw new IllegalArgumentException(INVALID_CURSOR);
+		try {
+			LocalDateTime date = LocalDateTime.parse(payload.substring(DATE_PREFIX.length(), separator));
+			long id = Long.parseLong(payload.substring(separator + 1));
+			return new DatePosition(date, id);
+		} catch (DateTimeParseException | NumberFormatException e) {
+			throw new IllegalArgumentException(INVALID_CURSOR);
+		}
+	}
+
+	private static String encode(String payload) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static String decode(String cursor) {
+		try {
+			return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException(INVALID_CURSOR);
+		}
+	}
+
+	/**
+	 * The position encoded in a date cursor.
+	 */
+	public record DatePosition(LocalDateTime date, long id) {
+	}
+}
@@ -0,0 +1,179 @@
+package com.SpringBootStarters.MarketPlace.Utils;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the records of a text stream one at a time, either CSV records
+ * (RFC 4180: comma separated fields, double quoted fields may hold commas,
+ * line breaks and doubled quotes) or whole lines. Blank lines are skipped.
+ * A record longer than maxLength characters is read to its end but not
+ * kept, so memory stays bounded whatever the input. Not thread-safe.
+ */
+public final class RecordReader {
+	private static final int BUFFER_SIZE = 8192;
+
+	private final Reader reader;
+	private final boolean csv;
+	private final int maxLength;
+	private final char[] buffer = new char[BUFFER_SIZE];
+	private int position;
+	private int limit;
+	private long nextLine = 1;
+
+	private final List<String> fields = new ArrayList<>();
+	private final StringBuilder field = new StringBuilder();
+	private long line;
+	private int length;
+	private boolean unterminated;
+
+	private RecordReader(Reader reader, boolean csv, int maxLength) {
+		if (maxLength < 1)
+			throw new IllegalArgumentException("Maximum record length must be a positive number");
+		this.reader = reader;
+		this.csv = csv;
+		this.maxLength = maxLength;
+	}
+
+	/**
+	 * @param reader The CSV text
+	 * @param maxLength The maximum number of characters of a record
+	 * @return A reader of the CSV records
+	 */
+	public static RecordReader csv(Reader reader, int maxLength) {
+		return new RecordReader(reader, true, maxLength);
+	}
+
+	/**
+	 * @param reader The text
+	 * @param maxLength The maximum number of characters of a line
+	 * @return A reader of the lines, each one a record of one field
+	 */
+	public static RecordReader lines(Reader reader, int maxLength) {
+		return new RecordReader(reader, false, maxLength);
+	}
+
+	/**
+	 * Moves to the next record.
+	 * @return false at the end of the stream
+	 * @throws IOException if reading fails
+	 */
+	public boolean next() throws IOException {
+		do {
+			this.fields.clear();
+			this.field.setLength(0);
+			this.length = 0;
+			this.unterminated = false;
+			this.line = this.nextLine;
+			int c = read();
+			if (c < 0)
+				return false;
+			readRecord(c);
+		} while (this.fields.size() == 1 && this.fields.get(0).isBlank() && !tooLong());
+		return true;
+	}
+
+	/**
+	 * @return The fields of the current record, empty when it is too long
+	 */
+	public List<String> fields() {
+		return tooLong() ? List.of() : this.fields;
+	}
+
+	/**
+	 * @return The line the current record starts on, from 1
+	 */
+	public long line() {
+		return this.line;
+	}
+
+	/**
+	 * @return Whether the current record is longer than the maximum length
+	 */
+	public boolean tooLong() {
+		return this.length > this.maxLength;
+	}
+
+	/**
+	 * @return Whether the current record ends inside a quoted field
+	 */
+	public boolean unterminated() {
+		return this.unterminated;
+	}
+
+	private void readRecord(int c) throws IOException {
+		boolean quoted = false;
+		boolean fieldStart = true;
+		while (c >= 0) {
+			if (quoted) {
+				if (c == '"') {
+					c = read();
+					if (c != '"') {
+						quoted = false;
+						continue;
+					}
+				}
+				append((char) c);
+			} else if (c == '\n' || c == '\r') {
+				if (c == '\r' && peek() == '\n')
+					read();
+				else if (c == '\r')
+					this.nextLine++;
+				break;
+			} else if (this.csv && c == ',') {
+				// Separators count towards the length, or a run of empty fields could grow the record without bound
+				this.length++;
+				endField();
+				fieldStart = true;
+				c = read();
+				continue;
+			} else if (this.csv && c == '"' && fieldStart) {
+				quoted = true;
+			} else {
+				append((char) c);
+			}
+			fieldStart = false;
+			c = read();
+		}
+		this.unterminated = quoted;
+		endField();
+	}
+
+	private void append(char c) {
+		if (++this.length <= this.maxLength)
+			this.field.append(c);
+	}
+
+	private void endField() {
+		if (!tooLong())
+			this.fields.add(this.field.toString());
+		this.field.setLength(0);
+	}
+
+	private int read() throws IOException {
+		if (this.position == this.limit && !fill())
+			return -1;
+		char c = this.buffer[this.position++];
+		if (c == '\n')
+			this.nextLine++;
+		return c;
+	}
+
+	private int peek() throws IOException {
+		if (this.position == this.limit && !fill())
+			return -1;
+		return this.buffer[this.position];
+	}
+
+	private boolean fill() throws IOException {
+		this.limit = this.reader.read(this.buffer, 0, BUFFER_SIZE);
+		this.position = 0;
+		if (this.limit < 0) {
+			this.limit = 0;
+			return false;
+		}
+		return true;
+	}
+}
@@ -0,0 +1,94 @@
+package com.SpringBootStarters.MarketPlace.Utils;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+
+/**
+ * The properties a response writes, resolved from its view= and fields=
+ * parameters. view=summary writes the summary properties of the resource,
+ * view=full, the default, all of them; fields= lists the properties to write
+ * and takes precedence over view. The response DTOs carry their fields and
+ * are written through the FILTER property filter, which skips the others.
+ */
+public final class ResponseFields {
+	public static final String FILTER = "responseFields";
+	public static final String SUMMARY = "summary";
+	public static final String FULL = "full";
+
+	private final Set<String> fields;
+
+	private ResponseFields(Set<String> fields) {
+		this.fields = fields;
+	}
+
+	/**
+	 * A DTO written with only some of its properties.
+	 */
+	public interface Shaped {
+		ResponseFields fields();
+	}
+
+	/**
+	 * @param all The properties of the resource
+	 * @return Fields writing every property
+	 */
+	public static ResponseFields all(Set<String> all) {
+		return new ResponseFields(all);
+	}
+
+	/**
+	 * Resolves the fields of a request.
+	 * @param view The view parameter, summary or full, or null
+	 * @param fields The comma separated fields parameter, or null
+	 * @param summary The properties of the summary view
+	 * @param all The properties of the resource
+	 * @return The fields to write
+	 * @throws IllegalArgumentException if the view or a field is unknown
+	 */
+	public static ResponseFields of(String view, String fields, Set<String> summary, Set<String> all) {
+		if (fields != null && !fields.isBlank()) {
+			Set<String> selected = new LinkedHashSet<>();
+			for (String field : fields.split(",")) {
+				String name = field.trim();
+				if (!all.contains(name))
+					throw new IllegalArgumentException("Unknown field : " + name + ", expected one of " + new TreeSet<>(all));
+				selected.add(name);
+			}
+			return new ResponseFields(selected);
+		}
+		if (view == null || view.isEmpty() || FULL.equals(view))
+			return new ResponseFields(all);
+		if (SUMMARY.equals(view))
+			return new ResponseFields(summary);
+		throw new IllegalArgumentException("Unsupported view : " + view);
+	}
+
+	public boolean includes(String field) {
+		return this.fields.contains(field);
+	}
+
+	/**
+	 * @return The filters of the application ObjectMapper
+	 */
+	public static FilterProvider filterProvider() {
+		return new SimpleFilterProvider().addFilter(FILTER, new ShapedFilter());
+	}
+
+	private static final class ShapedFilter extends SimpleBeanPropertyFilter {
+		@Override
+		public void serializeAsField(Object pojo, JsonGenerator generator, SerializerProvider provider, PropertyWriter writer) throws Exception {
+			if (!(pojo instanceof Shaped shaped) || shaped.fields().includes(writer.getName()))
+				writer.serializeAsField(pojo, generator, provider);
+			else if (!generator.canOmitFields())
+				writer.serializeAsOmittedField(pojo, generator, provider);
+		}
+	}
+}
@@ -0,0 +1,89 @@
+package com.SpringBootStarters.MarketPlace.Utils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Space-Saving summary of the most frequent items of a stream, keeping at
+ * most capacity counters. When a new item arrives and the summary is full,
+ * it takes over the smallest counter and inherits its count as error, so a
+ * count is never underestimated and overestimated by at most its error.
+ * Counters are ordered by count, which makes every update O(log capacity).
+ * Not thread-safe.
+ */
+public final class SpaceSaving {
+	private static final Comparator<Counter> BY_COUNT = Comparator.<Counter>comparingLong(counter -> counter.count).thenComparingLong(counter -> counter.item);
+
+	private final int capacity;
+	private final Map<Long, Counter> counters;
+	private final TreeSet<Counter> byCount = new TreeSet<>(BY_COUNT);
+
+	public SpaceSaving(int capacity) {
+		if (capacity < 1)
+			throw new IllegalArgumentException("Capacity must be a positive number");
+		this.capacity = capacity;
+		this.counters = new HashMap<>(capacity * 2);
+	}
+
+	/**
+	 * Counts occurrences of an item.
+	 * @param item The item
+	 * @param count The number of occurrences, positive
+	 */
+	public void add(long item, long count) {
+		Counter counter = this.counters.get(item);
+		if (counter == null) {
+			if (this.counters.size() < this.capacity) {
+				counter = new Counter(item, 0, 0);
+			} else {
+				Counter smallest = this.byCount.pollFirst();
+				this.counters.remove(smallest.item);
+				counter = new Counter(item, smallest.count, smallest.count);
+			}
+			this.counters.put(item, counter);
+		} else {
+			this.byCount.remove(counter);
+		}
+		counter.count += count;
+		this.byCount.add(counter);
+	}
+
+	/**
+	 * @return The count an item that is not tracked may have reached, 0 while the summary is not full
+	 */
+	public long minCount() {
+		return this.counters.size() < this.capacity ? 0 : this.byCount.first().count;
+	}
+
+	/**
+	 * @return A copy of the counters, in no particular order
+	 */
+	public List<Entry> entries() {
+		List<Entry> entries = new ArrayList<>(this.counters.size());
+		for (Counter counter : this.counters.values())
+			entries.add(new Entry(counter.item, counter.count, counter.error));
+		return entries;
+	}
+
+	/**
+	 * An estimated count, the exact count is between count - error and count.
+	 */
+	public record Entry(long item, long count, long error) {
+	}
+
+	private static final class Counter {
+		private final long item;
+		private long count;
+		private final long error;
+
+		private Counter(long item, long count, long error) {
+			this.item = item;
+			this.count = count;
+			this.error = error;
+		}
+	}
+}
@@ -0,0 +1,94 @@
+package com.SpringBootStarters.MarketPlace.Utils;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Counts the JDBC statements, the rows fetched and the time spent in the
+ * database by the current request. The counts are bound to the thread that
+ * serves the request, work handed to other threads is not counted.
+ */
+public final class SqlStatistics {
+	private static final ThreadLocal<SqlStatistics> CURRENT = new ThreadLocal<>();
+
+	private final Map<String, Integer> executions = new HashMap<>();
+	private int statements;
+	private long rows;
+	private long nanos;
+	private long started;
+
+	private SqlStatistics() {
+	}
+
+	/**
+	 * Starts counting for the current thread.
+	 * @return The statistics of the current thread
+	 */
+	public static SqlStatistics begin() {
+		SqlStatistics statistics = new SqlStatistics();
+		CURRENT.set(statistics);
+		return statistics;
+	}
+
+	/**
+	 * Stops counting for the current thread.
+	 */
+	public static void end() {
+		CURRENT.remove();
+	}
+
+	/**
+	 * @return The statistics of the current thread, or null when it is not counting
+	 */
+	public static SqlStatistics current() {
+		return CURRENT.get();
+	}
+
+	/**
+	 * Counts a row read from a result set by the current thread.
+	 */
+	public static void rowFetched() {
+		SqlStatistics statistics = CURRENT.get();
+		if (statistics != null)
+			statistics.rows++;
+	}
+
+	public void statementStarted() {
+		this.started = System.nanoTime();
+	}
+
+	/**
+	 * Counts a statement execution, a batch counts once.
+	 * @param sql The statement executed
+	 */
+	public void statementFinished(String sql) {
+		this.nanos += System.nanoTime() - this.started;
+		this.statements++;
+		this.executions.merge(sql, 1, Integer::sum);
+	}
+
+	public int getStatements() {
+		return this.statements;
+	}
+
+	public long getRows() {
+		return this.rows;
+	}
+
+	public Duration getTime() {
+		return Duration.ofNanos(this.nanos);
+	}
+
+	/**
+	 * @return The statement executed the most times, or null if none was executed
+	 */
+	public Map.Entry<String, Integer> getMostRepeated() {
+		Map.Entry<String, Integer> most = null;
+		for (Map.Entry<String, Integer> entry : this.executions.entrySet()) {
+			if (most == null || entry.getValue() > most.getValue())
+				most = entry;
+		}
+		return most;
+	}
+}
@@ -0,0 +1,317 @@
+package com.SpringBootStarters.MarketPlace.Utils;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Trigram index of short texts for substring and word-prefix search.
+ * Texts are normalized (lowercase, accents and punctuation removed) and
+ * every distinct trigram of " " + text maps to the sorted list of the
+ * entries containing it, the leading space making word starts searchable;
+ * the first letters of the text and of each word are keys too, so one and
+ * two letter prefixes are searchable.
+ * A query walks the shortest list of its keys, gallops through the others,
+ * and verifies the entries present in all of them. Entries are numbered in
+ * text length then id order, so the walk meets the shortest texts first and
+ * stops as soon as it has enough matches of a rank.
+ * Removed entries are only marked and the index compacts itself once they
+ * make a quarter of it, which also restores the order of the entries added
+ * since the previous compaction. Not thread-safe.
+ */
+public final class TrigramIndex {
+	private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+	private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+	private static final char TEXT_START = '\u0001';
+	private static final int MIN_COMPACTION = 1024;
+
+	private long[] ids = new long[16];
+	private String[] texts = new String[16];
+	private String[] normalized = new String[16];
+	private int size;
+	private int removed;
+	private final BitSet removedOrdinals = new BitSet();
+	private final Map<Long, Integer> ordinals = new HashMap<>();
+	private final Map<Long, Postings> postings = new HashMap<>();
+
+	/**
+	 * Indexes a text, replacing the text previously indexed for the id.
+	 * @param id The id of the entry
+	 * @param text The text, entries whose text has nothing to index are only removed
+	 */
+	public void put(long id, String text) {
+		Integer previous = this.ordinals.get(id);
+		if (previous != null && this.texts[previous].equals(text))
+			return;
+		unlink(id);
+		String key = normalize(text);
+		if (!key.isEmpty())
+			add(id, text, key);
+		compactIfNeeded();
+	}
+
+	/**
+	 * Indexes many texts at once, in text length then id order, which is
+	 * how a search meets them. Prefer it to put for loading.
+	 * @param ids The ids of the entries, distinct
+	 * @param texts The texts, in the order of the ids
+	 * @param count The number of entries to index
+	 */
+	public void putAll(long[] ids, String[] texts, int count) {
+		String[] keys = new String[count];
+		Integer[] order = new Integer[count];
+		for (int i = 0; i < count; i++) {
+			keys[i] = normalize(texts[i]);
+			order[i] = i;
+		}
+		Arrays.sort(order, Comparator.<Integer>comparingInt(i -> keys[i].length()).thenComparingLong(i -> ids[i]));
+		for (int i : order) {
+			unlink(ids[i]);
+			if (!keys[i].isEmpty())
+				add(ids[i], texts[i], keys[i]);
+		}
+		compactIfNeeded();
+	}
+
+	/**
+	 * Removes the entry of an id, if any.
+	 * @param id The id of the entry
+	 */
+	public void remove(long id) {
+		unlink(id);
+		compactIfNeeded();
+	}
+
+	/**
+	 * @return The number of entries
+	 */
+	public int size() {
+		return this.ordinals.size();
+	}
+
+	/**
+	 * Finds the entries matching a query. Matches are ranked exact text
+	 * first, then text starting with the query, then a word starting with the
+	 * query, then the query anywhere, and within a rank by shorter text then
+	 * id; entries added since the last compaction come after the others of
+	 * their rank.
+	 * @param query The query, normalized like the texts
+	 * @param limit The maximum number of matches to return
+	 * @param prefix Whether the query must start a word, queries shorter than
+	 *        three characters always must
+	 * @return The best matches, in rank order
+	 */
+	public List<Match> search(String query, int limit, boolean prefix) {
+		String key = normalize(query);
+		List<Match> matches = new ArrayList<>();
+		if (key.isEmpty() || limit < 1)
+			return matches;
+		long startKey = key.length() == 1 ? pack(TEXT_START, key.charAt(0), '\0') : pack(TEXT_START, key.charAt(0), key.charAt(1));
+		long[] keyTrigrams = key.length() < 3 ? new long[0] : trigrams(key);
+		long[] startKeys = Arrays.copyOf(keyTrigrams, keyTrigrams.length + 1);
+		startKeys[keyTrigrams.length] = startKey;
+		collect(startKeys, key, 0, 1, matches, limit);
+		long[] wordKeys = key.length() == 1 ? new long[] { pack(' ', key.charAt(0), '\0') } : trigrams(" " + key);
+		collect(wordKeys, key, 2, 2, matches, limit);
+		if (!prefix && keyTrigrams.length > 0)
+			collect(keyTrigrams, key, 3, 3, matches, limit);
+		matches.sort(Comparator.comparingInt(Match::rank).thenComparingInt(match -> match.text().length()).thenComparingLong(Match::id));
+		return matches;
+	}
+
+	/**
+	 * Normalizes a text for indexing and searching: lowercase, without
+	 * accents, and with every run of other characters than letters and
+	 * digits replaced by a single space.
+	 * @param text The text
+	 * @return The normalized text, empty if it has no letter or digit
+	 */
+	public static String normalize(String text) {
+		if (text == null)
+			return "";
+		String stripped = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+		return SEPARATORS.matcher(stripped.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+	}
+
+	/**
+	 * Adds to matches, in entry order, the entries having every key whose
+	 * rank is between minRank and maxRank, until matches holds limit entries.
+	 */
+	private void collect(long[] keys, String key, int minRank, int maxRank, List<Match> matches, int limit) {
+		if (matches.size() >= limit)
+			return;
+		Postings[] lists = new Postings[keys.length];
+		for (int i = 0; i < keys.length; i++) {
+			lists[i] = this.postings.get(keys[i]);
+			if (lists[i] == null)
+				return;
+		}
+		Arrays.sort(lists, Comparator.comparingInt(list -> list.size));
+		int[] cursors = new int[lists.length];
+		Postings shortest = lists[0];
+		candidates: for (int i = 0; i < shortest.size; i++) {
+			int ordinal = shortest.ordinals[i];
+			if (this.removedOrdinals.get(ordinal))
+				continue;
+			for (int j = 1; j < lists.length; j++) {
+				cursors[j] = lists[j].seek(cursors[j], ordinal);
+				if (cursors[j] == lists[j].size)
+					return;
+				if (lists[j].ordinals[cursors[j]] != ordinal)
+					continue candidates;
+			}
+			int rank = rank(this.normalized[ordinal], key);
+			if (rank < minRank || rank > maxRank)
+				continue;
+			matches.add(new Match(this.ids[ordinal], this.texts[ordinal], rank));
+			if (matches.size() >= limit)
+				return;
+		}
+	}
+
+	private static int rank(String text, String key) {
+		if (text.equals(key))
+			return 0;
+		if (text.startsWith(key))
+			return 1;
+		int index = text.indexOf(key);
+		boolean contains = index > 0;
+		while (index > 0) {
+			if (text.charAt(index - 1) == ' ')
+				return 2;
+			index = text.indexOf(key, index + 1);
+		}
+		return contains ? 3 : -1;
+	}
+
+	private void add(long id, String text, String key) {
+		if (this.size == this.ids.length) {
+			this.ids = Arrays.copyOf(this.ids, this.size * 2);
+			this.texts = Arrays.copyOf(this.texts, this.size * 2);
+			this.normalized = Arrays.copyOf(this.normalized, this.size * 2);
+		}
+		int ordinal = this.size++;
+		this.ids[ordinal] = id;
+		this.texts[ordinal] = text;
+		this.normalized[ordinal] = key;
+		this.ordinals.put(id, ordinal);
+		for (long indexKey : keys(key))
+			this.postings.computeIfAbsent(indexKey, k -> new Postings()).add(ordinal);
+	}
+
+	private void unlink(long id) {
+		Integer ordinal = this.ordinals.remove(id);
+		if (ordinal == null)
+			return;
+		this.removedOrdinals.set(ordinal);
+		this.texts[ordinal] = null;
+		this.normalized[ordinal] = null;
+		this.removed++;
+	}
+
+	private void compactIfNeeded() {
+		if (this.removed < MIN_COMPACTION || this.removed * 4 < this.size)
+			return;
+		long[] liveIds = new long[this.ordinals.size()];
+		String[] liveTexts = new String[liveIds.length];
+		int count = 0;
+		for (int ordinal = 0; ordinal < this.size; ordinal++) {
+			if (this.texts[ordinal] != null) {
+				liveIds[count] = this.ids[ordinal];
+				liveTexts[count++] = this.texts[ordinal];
+			}
+		}
+		this.ids = new long[Math.max(16, count)];
+		this.texts = new String[this.ids.length];
+		this.normalized = new String[this.ids.length];
+		this.size = 0;
+		this.removed = 0;
+		this.removedOrdinals.clear();
+		this.ordinals.clear();
+		this.postings.clear();
+		putAll(liveIds, liveTexts, count);
+	}
+
+	/**
+	 * The distinct trigrams of a text packed as three 16 bits chars.
+	 */
+	private static long[] trigrams(String text) {
+		long[] trigrams = new long[text.length() - 2];
+		for (int i = 0; i < trigrams.length; i++)
+			trigrams[i] = pack(text.charAt(i), text.charAt(i + 1), text.charAt(i + 2));
+		return distinct(trigrams, trigrams.length);
+	}
+
+	/**
+	 * The keys an entry is indexed under: the trigrams of " " + text, the
+	 * first letter of each word, and the first one and two letters of the text.
+	 */
+	private static long[] keys(String key) {
+		String padded = " " + key;
+		long[] keys = new long[padded.length() * 2 + 2];
+		int count = 0;
+		keys[count++] = pack(TEXT_START, key.charAt(0), '\0');
+		if (key.length() > 1)
+			keys[count++] = pack(TEXT_START, key.charAt(0), key.charAt(1));
+		for (int i = 0; i + 1 < padded.length(); i++) {
+			if (padded.charAt(i) == ' ')
+				keys[count++] = pack(' ', padded.charAt(i + 1), '\0');
+			if (i + 2 < padded.length())
+				keys[count++] = pack(padded.charAt(i), padded.charAt(i + 1), padded.charAt(i + 2));
+		}
+		return distinct(keys, count);
+	}
+
+	private static long[] distinct(long[] keys, int count) {
+		Arrays.sort(keys, 0, count);
+		int distinct = 0;
+		for (int i = 0; i < count; i++) {
+			if (i == 0 || keys[i] != keys[distinct - 1])
+				keys[distinct++] = keys[i];
+		}
+		return Arrays.copyOf(keys, distinct);
+	}
+
+	private static long pack(char a, char b, char c) {
+		return ((long) a << 32) | ((long) b << 16) | c;
+	}
+
+	/**
+	 * An entry matching a query, rank 0 being the best.
+	 */
+	public record Match(long id, String text, int rank) {
+	}
+
+	private static final class Postings {
+		private int[] ordinals = new int[4];
+		private int size;
+
+		private void add(int ordinal) {
+			if (this.size == this.ordinals.length)
+				this.ordinals = Arrays.copyOf(this.ordinals, this.size * 2);
+			this.ordinals[this.size++] = ordinal;
+		}
+
+		/**
+		 * Gallops from a position to the first ordinal not below the target,
+		 * so walking a long list in step with a short one skips most of it.
+		 * @return The position found, size if every ordinal is below the target
+		 */
+		private int seek(int from, int target) {
+			if (from >= this.size || this.ordinals[from] >= target)
+				return from;
+			int bound = 1;
+			while (from + bound < this.size && this.ordinals[from + bound] < target)
+				bound <<= 1;
+			int found = Arrays.binarySearch(this.ordinals, from + bound / 2, Math.min(from + bound + 1, this.size), target);
+			return found >= 0 ? found : -found - 1;
+		}
+	}
+}
@@ -0,0 +1,148 @@
+-- The schema as Hibernate ddl-auto=update and the startup scripts built it
+-- before the migrations owned it. Idempotent: a database created that way
+-- is baselined at version 0 and upgraded by this migration, which creates
+-- what is missing and runs the backfills of the startup scripts once.
+
+CREATE TABLE IF NOT EXISTS customer (
+	id BIGINT PRIMARY KEY,
+	first_name VARCHAR(100) NOT NULL,
+	last_name VARCHAR(100) NOT NULL,
+	email VARCHAR(100) NOT NULL,
+	age INTEGER NOT NULL,
+	version BIGINT NOT NULL DEFAULT 0,
+	last_modified TIMESTAMP(6) WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS product (
+	id BIGINT PRIMARY KEY,
+	product_name VARCHAR(100) NOT NULL,
+	price NUMERIC(10, 2),
+	version BIGINT NOT NULL DEFAULT 0,
+	last_modified TIMESTAMP(6) WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS orders (
+	id BIGINT PRIMARY KEY,
+	date TIMESTAMP(6) NOT NULL,
+	total_amount NUMERIC(10, 2) NOT NULL,
+	customer_id BIGINT REFERENCES customer (id),
+	version BIGINT NOT NULL DEFAULT 0,
+	last_modified TIMESTAMP(6) WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS order_product (
+	order_id BIGINT NOT NULL REFERENCES orders (id),
+	product_id BIGINT NOT NULL REFERENCES product (id)
+);
+
+CREATE TABLE IF NOT EXISTS order_line (
+	order_id BIGINT NOT NULL REFERENCES orders (id),
+	product_id BIGINT NOT NULL,
+	unit_price_minor BIGINT NOT NULL,
+	quantity INTEGER NOT NULL,
+	PRIMARY KEY (order_id, product_id, quantity, unit_price_minor)
+);
+
+-- Versions and modification times, added to tables created before them
+ALTER TABLE customer ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE customer ADD COLUMN IF NOT EXISTS last_modified TIMESTAMP(6) WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP;
+ALTER TABLE product ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE product ADD COLUMN IF NOT EXISTS last_modified TIMESTAMP(6) WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP;
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS last_modified TIMESTAMP(6) WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP;
+
+-- Pooled id sequences used by the entities (allocation size 50), moved past
+-- the ids already present, so the rows created by the former IDENTITY
+-- columns keep their ids.
+CREATE SEQUENCE IF NOT EXISTS customer_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS product_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS orders_seq START WITH 1 INCREMENT BY 50;
+
+SELECT setval('customer_seq', GREATEST((SELECT last_value FROM customer_seq), (SELECT COALESCE(MAX(id), 0) FROM customer) + 50));
+SELECT setval('product_seq', GREATEST((SELECT last_value FROM product_seq), (SELECT COALESCE(MAX(id), 0) FROM product) + 50));
+SELECT setval('orders_seq', GREATEST((SELECT last_value FROM orders_seq), (SELECT COALESCE(MAX(id), 0) FROM orders) + 50));
+
+-- Product names are unique, which lets catalog imports upsert products by
+-- name with INSERT ... ON CONFLICT (product_name).
+CREATE UNIQUE INDEX IF NOT EXISTS product_product_name_key ON product (product_name);
+
+-- Backfills the price snapshots of orders created before order lines
+-- existed, using the current product prices.
+INSERT INTO order_line (order_id, product_id, unit_price_minor, quantity)
+SELECT DISTINCT op.order_id, op.product_id, ROUND(p.price * 100), 1
+FROM order_product op
+JOIN product p ON p.id = op.product_id
+WHERE p.price IS NOT NULL
+AND NOT EXISTS (SELECT 1 FROM order_line ol WHERE ol.order_id = op.order_id);
+
+-- Unique keys on the products of an order, so products can be added with
+-- INSERT ... ON CONFLICT DO NOTHING and removed one by one. Duplicated rows
+-- left by the former bag mapping are removed first, and the orders that
+-- lost products or lines get their total recomputed from the lines they
+-- keep, as their total counted the duplicates.
+CREATE TEMPORARY TABLE deduplicated_orders ON COMMIT DROP AS
+SELECT a.order_id FROM order_product a JOIN order_product b
+ON a.order_id = b.order_id AND a.product_id = b.product_id AND a.ctid > b.ctid
+UNION
+SELECT a.order_id FROM order_line a JOIN order_line b
+ON a.order_id = b.order_id AND a.product_id = b.product_id AND a.ctid > b.ctid;
+
+DELETE FROM order_product a USING order_product b
+WHERE a.order_id = b.order_id AND a.product_id = b.product_id AND a.ctid > b.ctid;
+DELETE FROM order_line a USING order_line b
+WHERE a.order_id = b.order_id AND a.product_id = b.product_id AND a.ctid > b.ctid;
+
+UPDATE orders o
+SET total_amount = (SELECT COALESCE(SUM(l.unit_price_minor * l.quantity), 0) FROM order_line l WHERE l.order_id = o.id) / 100.0
+WHERE o.id IN (SELECT order_id FROM deduplicated_orders);
+
+CREATE UNIQUE INDEX IF NOT EXISTS order_product_order_id_product_id_key ON order_product (order_id, product_id);
+CREATE UNIQUE INDEX IF NOT EXISTS order_line_order_id_product_id_key ON order_line (order_id, product_id);
+
+-- Per-customer order aggregates, kept up to date by the services in the
+-- transaction that changes the orders, backfilled for the customers
+-- without a row.
+CREATE TABLE IF NOT EXISTS customer_order_stats (
+	customer_id BIGINT PRIMARY KEY REFERENCES customer (id) ON DELETE CASCADE,
+	order_count BIGINT NOT NULL,
+	total_spent NUMERIC(19, 2) NOT NULL,
+	first_order_date TIMESTAMP,
+	last_order_date TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS orders_customer_id_date_idx ON orders (customer_id, date);
+
+INSERT INTO customer_order_stats (customer_id, order_count, total_spent, first_order_date, last_order_date)
+SELECT o.customer_id, count(*), COALESCE(sum(o.total_amount), 0), min(o.date), max(o.date)
+FROM orders o
+WHERE o.customer_id IS NOT NULL
+AND NOT EXISTS (SELECT 1 FROM customer_order_stats s WHERE s.customer_id = o.customer_id)
+GROUP BY o.customer_id;
+
+-- Product inventory, reserved in memory from units leased to each node.
+-- stock holds the units neither sold nor leased, inventory_lease the units
+-- leased to a node and not sold as of its last reconciliation, and
+-- inventory_sale the sales of leased units since then, written by the
+-- order transactions without updating any shared row. Products without an
+-- inventory row are not tracked and never run out.
+CREATE TABLE IF NOT EXISTS product_inventory (
+	product_id BIGINT PRIMARY KEY REFERENCES product (id) ON DELETE CASCADE,
+	stock BIGINT NOT NULL CHECK (stock >= 0)
+);
+
+CREATE TABLE IF NOT EXISTS inventory_lease (
+	node VARCHAR(64) NOT NULL,
+	product_id BIGINT NOT NULL REFERENCES product (id) ON DELETE CASCADE,
+	units BIGINT NOT NULL,
+	renewed_at TIMESTAMP NOT NULL,
+	PRIMARY KEY (node, product_id)
+);
+
+CREATE TABLE IF NOT EXISTS inventory_sale (
+	node VARCHAR(64) NOT NULL,
+	product_id BIGINT NOT NULL REFERENCES product (id) ON DELETE CASCADE,
+	quantity INTEGER NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS inventory_sale_node_product_id_idx ON inventory_sale (node, product_id);
+CREATE INDEX IF NOT EXISTS inventory_sale_product_id_idx ON inventory_sale (product_id);
@@ -0,0 +1,64 @@
+-- Indexes for the repository access paths that scanned their table, and
+-- primary keys for the join tables. Guarded, as the databases created by
+-- Hibernate ddl-auto=update already have some of these keys.
+
+-- CustomerRepository.findByEmail; CustomerService refuses an email that is taken.
+-- Customers created before it did may share an email, which the unique index
+-- can't be built over: they are listed so they can be merged first.
+DO $$
+DECLARE
+	duplicates TEXT;
+BEGIN
+	SELECT string_agg(email || ' (' || customers || ' customers)', ', ' ORDER BY email) INTO duplicates
+	FROM (SELECT email, count(*) AS customers FROM customer GROUP BY email HAVING count(*) > 1 ORDER BY email LIMIT 20) d;
+	IF duplicates IS NOT NULL THEN
+		RAISE EXCEPTION 'Customer emails must be unique before migrating, these are shared: %', duplicates;
+	END IF;
+END $$;
+CREATE UNIQUE INDEX IF NOT EXISTS customer_email_key ON customer (email);
+
+-- OrderRepository.findByCustomerIdAndIdGreaterThanOrderByIdAsc pages a customer's orders by id;
+-- orders_customer_id_date_idx still serves the date ranges of a customer and the order statistics
+CREATE INDEX IF NOT EXISTS orders_customer_id_id_idx ON orders (customer_id, id);
+
+-- OrderRepository.findAllByOrderByDateAscIdAsc, findAfterDate and streamByDateRange
+CREATE INDEX IF NOT EXISTS orders_date_id_idx ON orders (date, id);
+
+-- OrderRepository.findByProductsIdAndIdGreaterThanOrderByIdAsc, and the foreign key check
+-- when a product is deleted; ProductRepository.findByOrdersId uses the primary key
+CREATE INDEX IF NOT EXISTS order_product_product_id_order_id_idx ON order_product (product_id, order_id);
+
+-- The available units of a product sum its leases, and deleting a product cascades to them
+CREATE INDEX IF NOT EXISTS inventory_lease_product_id_idx ON inventory_lease (product_id) INCLUDE (units);
+
+-- The unique keys of the join tables become their primary keys. The former
+-- key of order_line also spanned its quantity and price, an index that
+-- every order write maintained without any query using it. A primary key
+-- on other columns is replaced; one on the same columns, as ddl-auto=update
+-- gave order_product for its Set mapping, is kept and the unique index that
+-- duplicates it is dropped.
+DO $$
+DECLARE
+	join_table TEXT;
+	pkey TEXT;
+	pkey_definition TEXT;
+BEGIN
+	FOREACH join_table IN ARRAY ARRAY['order_product', 'order_line'] LOOP
+		pkey := NULL;
+		SELECT conname, pg_get_constraintdef(oid) INTO pkey, pkey_definition
+		FROM pg_constraint
+		WHERE conrelid = join_table::REGCLASS AND contype = 'p';
+
+		IF pkey_definition = 'PRIMARY KEY (order_id, product_id)' THEN
+			EXECUTE format('DROP INDEX IF EXISTS %I', join_table || '_order_id_product_id_key');
+			IF pkey <> join_table || '_pkey' THEN
+				EXECUTE format('ALTER TABLE %I RENAME CONSTRAINT %I TO %I', join_table, pkey, join_table || '_pkey');
+			END IF;
+		ELSE
+			IF pkey IS NOT NULL THEN
+				EXECUTE format('ALTER TABLE %I DROP CONSTRAINT %I', join_table, pkey);
+			END IF;
+			EXECUTE format('ALTER TABLE %I ADD CONSTRAINT %I PRIMARY KEY USING INDEX %I', join_table, join_table || '_pkey', join_table || '_order_id_product_id_key');
+		END IF;
+	END LOOP;
+END $$;
@@ -0,0 +1,111 @@
+package com.SpringBootStarters.MarketPlace;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.SpringBootStarters.MarketPlace.Config.AdmissionControlFilter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+@SpringBootTest
+public class MarketPlaceAdmissionControlFilterTests {
+	private static final Logger logger = LoggerFactory.getLogger(MarketPlaceAdmissionControlFilterTests.class);
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final AdmissionControlFilter filter = new AdmissionControlFilter(1, Duration.ofMillis(10), meterRegistry);
+
+	@BeforeAll
+	public static void setUp() {
+		logger.info("Starting admission control filter tests");
+	}
+
+	@Test
+	public void testRejectsWhenNoPermitIsAvailable() throws Exception {
+		logger.info("Testing that a request is rejected while the only permit is held");
+
+		// Testing a request arriving while another one holds the permit
+		MockHttpServletResponse nested = new MockHttpServletResponse();
+		MockHttpServletResponse outer = new MockHttpServletResponse();
+		filter.doFilter(apiRequest(), outer, new MockFilterChain(new HttpServlet() {
+			@Override
+			protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException, ServletException {
+				filter.doFilter(apiRequest(), nested, new MockFilterChain());
+			}
+		}));
+		assertEquals(200, outer.getStatus());
+		assertEquals(503, nested.getStatus());
+		assertEquals("1", nested.getHeader("Retry-After"));
+		assertEquals(1.0, meterRegistry.get("marketplace.admission.rejected").counter().count());
+
+		// Testing that the permit is released once the request is done
+		MockHttpServletResponse next = new MockHttpServletResponse();
+		filter.doFilter(apiRequest(), next, new MockFilterChain());
+		assertEquals(200, next.getStatus());
+		assertEquals(0.0, meterRegistry.get("marketplace.admission.in.flight").gauge().value());
+	}
+
+	@Test
+	public void testAsyncRequestKeepsItsPermit() throws Exception {
+		logger.info("Testing that an asynchronous request keeps its permit until it completes");
+
+		// Testing a request that continues asynchronously
+		MockHttpServletRequest asyncRequest = apiRequest();
+		asyncRequest.setAsyncSupported(true);
+		filter.doFilter(asyncRequest, new MockHttpServletResponse(), new MockFilterChain(new HttpServlet() {
+			@Override
+			protected void service(HttpServletRequest request, HttpServletResponse response) {
+				request.startAsync();
+			}
+		}));
+		assertEquals(1.0, meterRegistry.get("marketplace.admission.in.flight").gauge().value());
+		MockHttpServletResponse rejected = new MockHttpServletResponse();
+		filter.doFilter(apiRequest(), rejected, new MockFilterChain());
+		assertEquals(503, rejected.getStatus());
+
+		// Testing that the permit is released when the asynchronous request completes
+		asyncRequest.getAsyncContext().complete();
+		MockHttpServletResponse admitted = new MockHttpServletResponse();
+		filter.doFilter(apiRequest(), admitted, new MockFilterChain());
+		assertEquals(200, admitted.getStatus());
+	}
+
+	@Test
+	public void testManagementRequestsAreNotLimited() throws Exception {
+		logger.info("Testing that management requests bypass the admission limit");
+
+		// Testing a health check while the only permit is held
+		MockHttpServletResponse health = new MockHttpServletResponse();
+		filter.doFilter(apiRequest(), new MockHttpServletResponse(), new MockFilterChain(new HttpServlet() {
+			@Override
+			protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException, ServletException {
+				filter.doFilter(new MockHttpServletRequest("GET", "/admin/health"), health, new MockFilterChain());
+			}
+		}));
+		assertEquals(200, health.getStatus());
+	}
+
+	private static MockHttpServletRequest apiRequest() {
+		return new MockHttpServletRequest("GET", "/api/v1/products");
+	}
+
+	@AfterAll
+	public static void tearDown() {
+		logger.info("Finishing admission control filter tests");
+	}
+}
@@ -0,0 +1,131 @@
+package com.SpringBootStarters.MarketPlace;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.SpringBootStarters.MarketPlace.DTOs.ProductSalesDto;
+import com.SpringBootStarters.MarketPlace.Entities.OrderLine;
+import com.SpringBootStarters.MarketPlace.Services.BestSellerTracker;
+import com.SpringBootStarters.MarketPlace.Utils.SpaceSaving;
+
+@SpringBootTest
+public class MarketPlaceBestSellerTrackerTests {
+	private static final Logger logger = LoggerFactory.getLogger(MarketPlaceBestSellerTrackerTests.class);
+
+	@BeforeAll
+	public static void setUp() {
+		logger.info("Starting best seller tracker tests");
+	}
+
+	@Test
+	public void testSpaceSavingBounds() {
+		logger.info("Testing the error bounds of the Space-Saving summary");
+
+		// Testing a skewed stream of 200 items with room for 20 counters
+		SpaceSaving summary = new SpaceSaving(20);
+		Map<Long, Long> exact = new HashMap<>();
+		Random random = new Random(42);
+		for (int i = 0; i < 20_000; i++) {
+			long item = (long) Math.floor(200 * Math.pow(random.nextDouble(), 3));
+			summary.add(item, 1);
+			exact.merge(item, 1L, Long::sum);
+		}
+		for (SpaceSaving.Entry entry : summary.entries()) {
+			long count = exact.get(entry.item());
+			assertTrue(entry.count() >= count && entry.count() - entry.error() <= count);
+		}
+
+		// Testing that every item seen more than N / capacity times is kept
+		for (Map.Entry<Long, Long> item : exact.entrySet()) {
+			if (item.getValue() > 20_000 / 20)
+				assertTrue(summary.entries().stream().anyMatch(entry -> entry.item() == item.getKey()));
+		}
+		assertTrue(summary.minCount() > 0);
+	}
+
+	@Test
+	public void testTopByWindow() {
+		logger.info("Testing top method");
+
+		MutableClock clock = new MutableClock(Instant.parse("2026-01-01T10:00:00Z"));
+		BestSellerTracker tracker = new BestSellerTracker(null, clock, Duration.ofMinutes(5), Duration.ofDays(1), 100);
+
+		// Testing sales spread over two hours
+		tracker.record(List.of(new OrderLine(1L, 100, 5), new OrderLine(2L, 100, 1)));
+		clock.advance(Duration.ofMinutes(90));
+		tracker.record(List.of(new OrderLine(2L, 100, 3), new OrderLine(3L, 100, 1)));
+		tracker.record(List.of(new OrderLine(2L, 100, 1)));
+
+		List<ProductSalesDto> lastHour = tracker.top(Duration.ofHours(1), 10);
+		assertEquals(2, lastHour.size());
+		assertEquals(2L, lastHour.get(0).getProductId());
+		assertEquals(4, lastHour.get(0).getSales());
+		assertEquals(0, lastHour.get(0).getError());
+
+		List<ProductSalesDto> lastDay = tracker.top(Duration.ofDays(1), 2);
+		assertEquals(1L, lastDay.get(0).getProductId());
+		assertEquals(5, lastDay.get(0).getSales());
+		assertEquals(2L, lastDay.get(1).getProductId());
+		assertEquals(5, lastDay.get(1).getSales());
+
+		// Testing that sales leave the window once the retention has passed
+		clock.advance(Duration.ofHours(23));
+		assertEquals(List.of(2L, 3L), tracker.top(Duration.ofDays(1), 10).stream().map(ProductSalesDto::getProductId).toList());
+
+		// Testing invalid windows and sizes
+		IllegalArgumentException thrown = assertThrowsExactly(IllegalArgumentException.class, () -> tracker.top(Duration.ofDays(2), 10));
+		assertTrue(thrown.getMessage().contains("Window must be between"));
+		IllegalArgumentException thrown2 = assertThrowsExactly(IllegalArgumentException.class, () -> tracker.top(Duration.ofHours(1), 101));
+		assertTrue(thrown2.getMessage().contains("K must be between 1 and 100"));
+	}
+
+	private static final class MutableClock extends Clock {
+		private Instant now;
+
+		private MutableClock(Instant now) {
+			this.now = now;
+		}
+
+		private void advance(Duration duration) {
+			this.now = this.now.plus(duration);
+		}
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			return this;
+		}
+
+		@Override
+		public Instant instant() {
+			return this.now;
+		}
+	}
+
+	@AfterAll
+	public static void tearDown() {
+		logger.info("Finished best seller tracker tests");
+	}
+}
@@ -0,0 +1,153 @@
+package com.SpringBootStarters.MarketPlace;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import com.SpringBootStarters.MarketPlace.Controllers.OrderController;
+import com.SpringBootStarters.MarketPlace.Controllers.ProductController;
+import com.SpringBootStarters.MarketPlace.DTOs.OrderDto;
+import com.SpringBootStarters.MarketPlace.DTOs.OrderViewDto;
+import com.SpringBootStarters.MarketPlace.DTOs.ProductDto;
+import com.SpringBootStarters.MarketPlace.DTOs.ProductViewDto;
+import com.SpringBootStarters.MarketPlace.Entities.Customer;
+import com.SpringBootStarters.MarketPlace.Entities.Orders;
+import com.SpringBootStarters.MarketPlace.Entities.Product;
+import com.SpringBootStarters.MarketPlace.Repositories.CustomerRepository;
+import com.SpringBootStarters.MarketPlace.Repositories.EntityVersion;
+import com.SpringBootStarters.MarketPlace.Repositories.EntityVersionRepository;
+import com.SpringBootStarters.MarketPlace.Repositories.ProductRepository;
+import com.SpringBootStarters.MarketPlace.Services.OrderService;
+import com.SpringBootStarters.MarketPlace.Services.ProductService;
+import com.SpringBootStarters.MarketPlace.Utils.ResponseFields;
+
+/**
+ * Checks that the versions read without loading the entities match the
+ * versions of the loaded entities, and that they change whenever the
+ * representation does.
+ */
+@SpringBootTest
+public class MarketPlaceConditionalRequestTests {
+	private static final Logger logger = LoggerFactory.getLogger(MarketPlaceConditionalRequestTests.class);
+
+	@Autowired
+	private ProductController productController;
+
+	@Autowired
+	private OrderController orderController;
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private EntityVersionRepository entityVersionRepository;
+
+	@Autowired
+	private CustomerRepository customerRepository;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private Customer customer;
+	private List<Long> productIds;
+	private Orders order;
+
+	@BeforeEach
+	public void setUp() {
+		logger.info("Seeding an order for the conditional request tests");
+		String suffix = UUID.randomUUID().toString().substring(0, 8);
+		customer = customerRepository.save(new Customer("Conditional", "Buyer", "conditional-" + suffix + "@example.com", 35));
+		List<Product> products = new ArrayList<>();
+		for (int i = 0; i < 3; i++)
+			products.add(new Product(0L, "Conditional product " + i + " " + suffix, BigDecimal.TEN));
+		productIds = productRepository.saveAll(products).stream().map(Product::getId).toList();
+		order = orderService.createOrder(customer.getId(), new OrderDto(productIds.subList(0, 2)));
+	}
+
+	@Test
+	public void testOrderVersion() {
+		// Testing that the version query agrees with the loaded order
+		EntityVersion version = entityVersionRepository.findOrderVersion(order.getId()).orElseThrow();
+		assertEquals(EntityVersion.of(orderService.getOrder(order.getId())), version);
+
+		// Testing that renaming an embedded product changes the order version
+		productService.updateProduct(productIds.get(0), new ProductDto("Renamed conditional product", BigDecimal.TEN));
+		EntityVersion renamed = orderService.getOrderVersion(order.getId());
+		assertNotEquals(version.eTag(), renamed.eTag());
+		assertEquals(EntityVersion.of(orderService.getOrder(order.getId())), renamed);
+
+		// Testing that adding a product changes the order version
+		orderService.addProducts(order.getId(), new OrderDto(List.of(productIds.get(2))));
+		EntityVersion added = orderService.getOrderVersion(order.getId());
+		assertEquals(renamed.version() + 1, added.version());
+		assertEquals(EntityVersion.of(orderService.getOrder(order.getId())), added);
+
+		// Testing that a missing order has no version
+		assertEquals(false, entityVersionRepository.findOrderVersion(-1L).isPresent());
+	}
+
+	@Test
+	public void testConditionalGet() {
+		// Testing that the first response carries the tag the next request sends back
+		ResponseEntity<OrderViewDto> first = orderController.getOrder(order.getId(), null, null, new ServletWebRequest(new MockHttpServletRequest("GET", "/api/v1/orders/" + order.getId())));
+		assertEquals(HttpStatus.OK, first.getStatusCode());
+		String eTag = first.getHeaders().getETag();
+
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		assertNull(orderController.getOrder(order.getId(), ResponseFields.SUMMARY, null, new ServletWebRequest(conditional("/api/v1/orders/" + order.getId(), eTag), response)));
+		assertEquals(HttpStatus.NOT_MODIFIED.value(), response.getStatus());
+
+		// Testing that a product update makes the product and the order tags stale
+		ResponseEntity<ProductViewDto> product = productController.getProduct(productIds.get(0), null, null, new ServletWebRequest(new MockHttpServletRequest("GET", "/api/v1/products/" + productIds.get(0))));
+		productService.updateProduct(productIds.get(0), new ProductDto("Repriced conditional product", BigDecimal.ONE));
+		ResponseEntity<ProductViewDto> updatedProduct = productController.getProduct(productIds.get(0), null, null, new ServletWebRequest(conditional("/api/v1/products/" + productIds.get(0), product.getHeaders().getETag()), new MockHttpServletResponse()));
+		assertEquals(HttpStatus.OK, updatedProduct.getStatusCode());
+		assertEquals(BigDecimal.ONE.compareTo(updatedProduct.getBody().getPrice()), 0);
+
+		ResponseEntity<OrderViewDto> updatedOrder = orderController.getOrder(order.getId(), ResponseFields.SUMMARY, null, new ServletWebRequest(conditional("/api/v1/orders/" + order.getId(), eTag), new MockHttpServletResponse()));
+		assertEquals(HttpStatus.OK, updatedOrder.getStatusCode());
+		assertNotEquals(eTag, updatedOrder.getHeaders().getETag());
+	}
+
+	private static MockHttpServletRequest conditional(String uri, String eTag) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+		request.addHeader(HttpHeaders.IF_NONE_MATCH, eTag);
+		return request;
+	}
+
+	@AfterEach
+	public void tearDown() {
+		jdbcTemplate.update("DELETE FROM order_line WHERE order_id = ?", order.getId());
+		jdbcTemplate.update("DELETE FROM order_product WHERE order_id = ?", order.getId());
+		jdbcTemplate.update("DELETE FROM orders WHERE id = ?", order.getId());
+		jdbcTemplate.update("DELETE FROM customer_order_stats WHERE customer_id = ?", customer.getId());
+		productRepository.deleteAllById(productIds);
+		customerRepository.delete(customer);
+	}
+}
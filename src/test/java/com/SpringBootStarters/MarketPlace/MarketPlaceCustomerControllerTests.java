@@ -2,6 +2,9 @@ package com.SpringBootStarters.MarketPlace;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 
@@ -14,13 +17,23 @@ import org.mockito.Mockito;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import com.SpringBootStarters.MarketPlace.Controllers.CustomerController;
+import com.SpringBootStarters.MarketPlace.DTOs.CursorPage;
 import com.SpringBootStarters.MarketPlace.DTOs.CustomerDto;
+import com.SpringBootStarters.MarketPlace.DTOs.CustomerOrderStatsDto;
+import com.SpringBootStarters.MarketPlace.DTOs.CustomerViewDto;
 import com.SpringBootStarters.MarketPlace.Entities.Customer;
+import com.SpringBootStarters.MarketPlace.Repositories.EntityVersion;
+import com.SpringBootStarters.MarketPlace.Services.CustomerOrderStatsService;
 import com.SpringBootStarters.MarketPlace.Services.CustomerService;
+import com.SpringBootStarters.MarketPlace.Utils.ResponseFields;
 
 @SpringBootTest
 class MarketPlaceCustomerControllerTests {
@@ -29,6 +42,9 @@ class MarketPlaceCustomerControllerTests {
 	@Mock
 	private CustomerService customerService;
 
+	@Mock
+	private CustomerOrderStatsService customerOrderStatsService;
+
 	@InjectMocks
 	private CustomerController customerController;
 
@@ -47,13 +63,16 @@ class MarketPlaceCustomerControllerTests {
 			new Customer(2L,"Jane", "Smith", "jane@example.com", 30)
 		);
 
-		Mockito.when(customerService.getCustomers()).thenReturn(customers);
+		CursorPage<Customer> page = new CursorPage<>(customers, 2, false, null);
+
+		Mockito.when(customerService.getCustomers(null, 20)).thenReturn(page);
 
-		ResponseEntity<List<Customer>> responseEntity = customerController.getCustomers();
+		ResponseEntity<CursorPage<CustomerViewDto>> responseEntity = customerController.getCustomers(null, 20, ResponseFields.SUMMARY, null);
 		assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
-		assertEquals(customers, responseEntity.getBody());
+		assertEquals(2, responseEntity.getBody().getContent().size());
+		assertEquals("Smith", responseEntity.getBody().getContent().get(1).getLastName());
 
-		Mockito.verify(customerService, Mockito.times(1)).getCustomers();
+		Mockito.verify(customerService, Mockito.times(1)).getCustomers(null, 20);
 	}
 
 	@Test
@@ -63,13 +82,40 @@ class MarketPlaceCustomerControllerTests {
 		// Testing the retrieval of a customer by id
 		Customer customer = new Customer(1L,"Jane", "Smith", "jane@example.com", 30);
 
+		customer.setVersion(2);
+		customer.setLastModified(Instant.parse("2026-01-01T10:00:00Z"));
+		Mockito.when(customerService.getCustomerVersion(1L)).thenReturn(EntityVersion.of(customer));
 		Mockito.when(customerService.getCustomer(1L)).thenReturn(customer);
-		ResponseEntity<Customer> responseEntity = customerController.getCustomer(1L);
+		ResponseEntity<CustomerViewDto> responseEntity = customerController.getCustomer(1L, null, null, new ServletWebRequest(new MockHttpServletRequest("GET", "/api/v1/customers/1")));
+		assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+		assertEquals(customer.getEmail(), responseEntity.getBody().getEmail());
+		assertEquals("\"2.0\"", responseEntity.getHeaders().getETag());
+
+		// Testing a conditional retrieval of a customer modified since
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/customers/1");
+		request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"1.0\"");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		responseEntity = customerController.getCustomer(1L, null, "email", new ServletWebRequest(request, response));
+		assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+		assertEquals(customer.getEmail(), responseEntity.getBody().getEmail());
+
+		// Verify
+		Mockito.verify(customerService, Mockito.times(2)).getCustomer(1L);
+	}
+
+	@Test
+	public void testGetCustomerStats() {
+		logger.info("Testing getCustomerStats method");
+
+		// Testing the retrieval of the order statistics of a customer
+		CustomerOrderStatsDto stats = new CustomerOrderStatsDto(1L, 4, new BigDecimal("100.00"), LocalDateTime.now(), LocalDateTime.now());
+		Mockito.when(customerOrderStatsService.getStats(1L)).thenReturn(stats);
+		ResponseEntity<CustomerOrderStatsDto> responseEntity = customerController.getCustomerStats(1L);
 		assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
-		assertEquals(customer, responseEntity.getBody());
+		assertEquals(new BigDecimal("25.00"), responseEntity.getBody().getAverageBasket());
 
 		// Verify
-		Mockito.verify(customerService, Mockito.times(1)).getCustomer(1L);
+		Mockito.verify(customerOrderStatsService, Mockito.times(1)).getStats(1L);
 	}
 
 	@Test
@@ -81,9 +127,9 @@ class MarketPlaceCustomerControllerTests {
 		
 		// Testing the creation of a new customer
 		Mockito.when(customerService.createCustomer(customerDto)).thenReturn(customer);
-		ResponseEntity<Customer> responseEntity = customerController.createCustomer(customerDto);
+		ResponseEntity<CustomerViewDto> responseEntity = customerController.createCustomer(customerDto);
 		assertEquals(HttpStatus.CREATED, responseEntity.getStatusCode());
-		assertEquals(customer, responseEntity.getBody());
+		assertEquals(customer.getId(), responseEntity.getBody().getId());
 
 		// Verify
 		Mockito.verify(customerService, Mockito.times(1)).createCustomer(customerDto);
@@ -98,9 +144,9 @@ class MarketPlaceCustomerControllerTests {
 
 		// Testing the update of an existing customer
 		Mockito.when(customerService.updateCustomer(1L, customerDto)).thenReturn(customer);
-		ResponseEntity<Customer> responseEntity = customerController.updateCustomer(1L, customerDto);
+		ResponseEntity<CustomerViewDto> responseEntity = customerController.updateCustomer(1L, customerDto);
 		assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
-		assertEquals(customer, responseEntity.getBody());
+		assertEquals(customer.getId(), responseEntity.getBody().getId());
 
 		// Verify
 		Mockito.verify(customerService, Mockito.times(1)).updateCustomer(1L, customerDto);
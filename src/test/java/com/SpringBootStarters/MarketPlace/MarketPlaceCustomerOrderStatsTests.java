@@ -0,0 +1,135 @@
+package com.SpringBootStarters.MarketPlace;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.SpringBootStarters.MarketPlace.DTOs.BulkOrderDto;
+import com.SpringBootStarters.MarketPlace.DTOs.BulkOrderResultDto;
+import com.SpringBootStarters.MarketPlace.DTOs.CustomerOrderStatsDto;
+import com.SpringBootStarters.MarketPlace.DTOs.OrderDto;
+import com.SpringBootStarters.MarketPlace.Entities.Customer;
+import com.SpringBootStarters.MarketPlace.Entities.Orders;
+import com.SpringBootStarters.MarketPlace.Entities.Product;
+import com.SpringBootStarters.MarketPlace.Repositories.CustomerRepository;
+import com.SpringBootStarters.MarketPlace.Repositories.ProductRepository;
+import com.SpringBootStarters.MarketPlace.Services.CustomerOrderStatsService;
+import com.SpringBootStarters.MarketPlace.Services.OrderBulkService;
+import com.SpringBootStarters.MarketPlace.Services.OrderService;
+
+import jakarta.persistence.EntityNotFoundException;
+
+/**
+ * Checks that every write path keeps the customer order aggregates equal to
+ * the aggregates computed from the orders, and that a rebuild repairs them.
+ */
+@SpringBootTest
+public class MarketPlaceCustomerOrderStatsTests {
+	private static final Logger logger = LoggerFactory.getLogger(MarketPlaceCustomerOrderStatsTests.class);
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private OrderBulkService orderBulkService;
+
+	@Autowired
+	private CustomerOrderStatsService customerOrderStatsService;
+
+	@Autowired
+	private CustomerRepository customerRepository;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private Customer customer;
+	private List<Long> productIds;
+
+	@BeforeEach
+	public void setUp() {
+		logger.info("Seeding a customer for the order aggregates tests");
+		String suffix = UUID.randomUUID().toString().substring(0, 8);
+		customer = customerRepository.save(new Customer("Stats", "Buyer", "stats-" + suffix + "@example.com", 45));
+		productIds = new ArrayList<>();
+		for (int i = 1; i <= 3; i++)
+			productIds.add(productRepository.save(new Product(0L, "Stats product " + i + " " + suffix, BigDecimal.valueOf(i * 10))).getId());
+	}
+
+	@Test
+	public void testWritesKeepStatsConsistent() {
+		// Testing a customer without orders
+		CustomerOrderStatsDto empty = customerOrderStatsService.getStats(customer.getId());
+		assertEquals(0, empty.getOrderCount());
+		assertNull(empty.getAverageBasket());
+
+		// Testing every write path: 30 + 30 + 30, then +30 -10 on the first order, +10 on the second, and the third deleted
+		Orders order = orderService.createOrder(customer.getId(), new OrderDto(productIds.subList(0, 2)));
+		List<BulkOrderResultDto> created = orderBulkService.createOrders(List.of(
+			new BulkOrderDto(customer.getId(), List.of(productIds.get(2))),
+			new BulkOrderDto(customer.getId(), List.of(productIds.get(2)))));
+		orderService.addProducts(order.getId(), new OrderDto(List.of(productIds.get(2))));
+		orderService.removeProducts(order.getId(), new OrderDto(List.of(productIds.get(0))));
+		orderService.updateOrder(created.get(0).getOrderId(), new OrderDto(List.of(productIds.get(0))));
+		orderService.deleteOrder(created.get(1).getOrderId());
+
+		CustomerOrderStatsDto stats = customerOrderStatsService.getStats(customer.getId());
+		assertEquals(2, stats.getOrderCount());
+		assertEquals(new BigDecimal("90.00"), stats.getTotalSpent());
+		assertEquals(new BigDecimal("45.00"), stats.getAverageBasket());
+		assertStatsMatchOrders(stats);
+	}
+
+	@Test
+	public void testRebuildRepairsStats() {
+		orderService.createOrder(customer.getId(), new OrderDto(productIds));
+		orderService.createOrder(customer.getId(), new OrderDto(productIds.subList(0, 1)));
+
+		// Testing that a rebuild restores drifted aggregates
+		jdbcTemplate.update("UPDATE customer_order_stats SET order_count = 99, total_spent = 0 WHERE customer_id = ?", customer.getId());
+		customerOrderStatsService.rebuild();
+		CustomerOrderStatsDto stats = customerOrderStatsService.getStats(customer.getId());
+		assertEquals(2, stats.getOrderCount());
+		assertEquals(new BigDecimal("70.00"), stats.getTotalSpent());
+		assertStatsMatchOrders(stats);
+
+		// Testing the statistics of a customer that does not exist
+		EntityNotFoundException thrown = assertThrowsExactly(EntityNotFoundException.class, () -> customerOrderStatsService.getStats(-1L));
+		assertEquals("Customer with id -1 doesn't exist", thrown.getMessage());
+	}
+
+	private void assertStatsMatchOrders(CustomerOrderStatsDto stats) {
+		Map<String, Object> expected = jdbcTemplate.queryForMap("SELECT count(*) AS order_count, sum(total_amount) AS total_spent, min(date) AS first_order_date, max(date) AS last_order_date FROM orders WHERE customer_id = ?", customer.getId());
+		assertEquals(((Number) expected.get("order_count")).longValue(), stats.getOrderCount());
+		assertEquals(expected.get("total_spent"), stats.getTotalSpent());
+		assertEquals(((Timestamp) expected.get("first_order_date")).toLocalDateTime(), stats.getFirstOrderDate());
+		assertEquals(((Timestamp) expected.get("last_order_date")).toLocalDateTime(), stats.getLastOrderDate());
+	}
+
+	@AfterEach
+	public void tearDown() {
+		jdbcTemplate.update("DELETE FROM order_line WHERE order_id IN (SELECT id FROM orders WHERE customer_id = ?)", customer.getId());
+		jdbcTemplate.update("DELETE FROM order_product WHERE order_id IN (SELECT id FROM orders WHERE customer_id = ?)", customer.getId());
+		jdbcTemplate.update("DELETE FROM orders WHERE customer_id = ?", customer.getId());
+		productRepository.deleteAllById(productIds);
+		customerRepository.delete(customer);
+	}
+}
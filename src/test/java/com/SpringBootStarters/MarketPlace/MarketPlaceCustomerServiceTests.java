@@ -2,6 +2,7 @@ package com.SpringBootStarters.MarketPlace;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -15,12 +16,18 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 
+import com.SpringBootStarters.MarketPlace.DTOs.CursorPage;
 import com.SpringBootStarters.MarketPlace.DTOs.CustomerDto;
 import com.SpringBootStarters.MarketPlace.Entities.Customer;
+import com.SpringBootStarters.MarketPlace.Mappers.CustomerMapper;
+import com.SpringBootStarters.MarketPlace.Repositories.EntityVersionRepository;
 import com.SpringBootStarters.MarketPlace.Repositories.CustomerRepository;
 import com.SpringBootStarters.MarketPlace.Services.CustomerService;
 
@@ -33,6 +40,12 @@ class MarketPlaceCustomerServiceTests {
 	@Mock
 	private CustomerRepository customerRepository;
 
+	@Spy
+	private CustomerMapper customerMapper = new CustomerMapper();
+
+	@Mock
+	private EntityVersionRepository entityVersionRepository;
+
 	@InjectMocks
 	private CustomerService customerService;
 
@@ -50,12 +63,23 @@ class MarketPlaceCustomerServiceTests {
 			new Customer(1L, "John", "Doe", "john@example.com", 25),
 			new Customer(2L,"Jane", "Smith", "jane@example.com", 30)
 		);
-		Mockito.when(customerRepository.findAll()).thenReturn(customers);
-		List<Customer> result = customerService.getCustomers();
-		assertEquals(customers, result);
+		Mockito.when(customerRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.ofSize(2))).thenReturn(new SliceImpl<>(customers, PageRequest.ofSize(2), true));
+		CursorPage<Customer> result = customerService.getCustomers(null, 2);
+		assertEquals(customers, result.getContent());
+		assertTrue(result.isHasNext());
+
+		// Testing that the next page seeks after the last customer of the previous page
+		Mockito.when(customerRepository.findByIdGreaterThanOrderByIdAsc(2L, PageRequest.ofSize(2))).thenReturn(new SliceImpl<>(Arrays.asList(), PageRequest.ofSize(2), false));
+		CursorPage<Customer> nextPage = customerService.getCustomers(result.getNextCursor(), 2);
+		assertTrue(nextPage.getContent().isEmpty());
+		assertNull(nextPage.getNextCursor());
+
+		// Testing the retrieval of a page with an invalid cursor
+		IllegalArgumentException thrown = assertThrowsExactly(IllegalArgumentException.class, () -> customerService.getCustomers("not-a-cursor", 2));
+		assertTrue(thrown.getMessage().contains("Invalid page cursor"));
 
 		// Verify
-		Mockito.verify(customerRepository, Mockito.times(1)).findAll();
+		Mockito.verify(customerRepository, Mockito.times(2)).findByIdGreaterThanOrderByIdAsc(Mockito.anyLong(), Mockito.any());
 	}
 
 	@Test
@@ -0,0 +1,162 @@
+package com.SpringBootStarters.MarketPlace;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.SpringBootStarters.MarketPlace.DTOs.OrderExportFilter;
+import com.SpringBootStarters.MarketPlace.Entities.Customer;
+import com.SpringBootStarters.MarketPlace.Entities.Orders;
+import com.SpringBootStarters.MarketPlace.Entities.Product;
+import com.SpringBootStarters.MarketPlace.Repositories.CustomerRepository;
+import com.SpringBootStarters.MarketPlace.Repositories.OrderRepository;
+import com.SpringBootStarters.MarketPlace.Repositories.ProductRepository;
+import com.SpringBootStarters.MarketPlace.Services.OrderExportService;
+import com.SpringBootStarters.MarketPlace.Services.OrderService;
+import com.SpringBootStarters.MarketPlace.Services.ProductService;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Asserts the number of SQL statements each read endpoint issues, so a
+ * change to the fetch plans that brings back the eager object graph fails.
+ */
+@SpringBootTest(properties = { "spring.jpa.properties.hibernate.generate_statistics=true", "marketplace.inventory.node={host}:statistics" })
+public class MarketPlaceFetchPlanTests {
+	private static final Logger logger = LoggerFactory.getLogger(MarketPlaceFetchPlanTests.class);
+	private static final int ORDER_COUNT = 3;
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private OrderExportService orderExportService;
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@Autowired
+	private CustomerRepository customerRepository;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+	private Customer customer;
+	private List<Product> products;
+	private List<Orders> orders;
+
+	@BeforeEach
+	public void setUp() {
+		logger.info("Seeding orders for the fetch plan tests");
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		String suffix = UUID.randomUUID().toString().substring(0, 8);
+		transactionTemplate.executeWithoutResult(status -> {
+			customer = customerRepository.save(new Customer("John", "Doe", "fetch-" + suffix + "@example.com", 25));
+			products = productRepository.saveAll(List.of(
+				new Product(0L, "Fetch plan shoe " + suffix, BigDecimal.valueOf(100)),
+				new Product(0L, "Fetch plan shirt " + suffix, BigDecimal.valueOf(50))
+			));
+			orders = new ArrayList<>();
+			for (int i = 0; i < ORDER_COUNT; i++) {
+				Orders order = new Orders();
+				order.setCustomer(customer);
+				order.getProducts().addAll(products);
+				order.setTotalAmount(BigDecimal.valueOf(150));
+				orders.add(orderRepository.save(order));
+			}
+		});
+		// Start from a cold second-level cache, so every read endpoint is measured against the database
+		entityManagerFactory.getCache().evictAll();
+	}
+
+	@Test
+	public void testGetOrderStatementCount() {
+		statistics.clear();
+		orderService.getOrder(orders.get(0).getId());
+		assertEquals(1, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	public void testGetOrderSummaryStatementCount() {
+		statistics.clear();
+		orderService.getOrder(orders.get(0).getId(), false, false);
+		assertEquals(1, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	public void testGetOrdersByCustomerStatementCount() {
+		statistics.clear();
+		orderService.getOrdersByCustomerId(customer.getId(), null, 20, true);
+		assertEquals(2, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	public void testGetOrdersByCustomerSummaryStatementCount() {
+		statistics.clear();
+		orderService.getOrdersByCustomerId(customer.getId(), null, 20, false);
+		assertEquals(1, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	public void testGetOrdersByProductStatementCount() {
+		statistics.clear();
+		orderService.getOrdersByProductId(products.get(0).getId(), null, 20, true);
+		assertEquals(2, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	public void testGetProductStatementCount() {
+		statistics.clear();
+		productService.getProduct(products.get(0).getId());
+		assertEquals(1, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	public void testGetProductsForOrderStatementCount() {
+		statistics.clear();
+		productService.getProductsForOrder(orders.get(0).getId());
+		assertEquals(1, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	public void testExportOrdersStatementCount() throws Exception {
+		statistics.clear();
+		long exported = orderExportService.exportOrders(new OrderExportFilter(customer.getId(), null, null), new ByteArrayOutputStream());
+		assertEquals(ORDER_COUNT, exported);
+		assertEquals(2, statistics.getPrepareStatementCount());
+	}
+
+	@AfterEach
+	public void tearDown() {
+		transactionTemplate.executeWithoutResult(status -> {
+			orderRepository.deleteAll(orders);
+			productRepository.deleteAll(products);
+			customerRepository.delete(customer);
+		});
+	}
+}
@@ -0,0 +1,123 @@
+package com.SpringBootStarters.MarketPlace;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.SpringBootStarters.MarketPlace.Entities.Customer;
+import com.SpringBootStarters.MarketPlace.Entities.Orders;
+import com.SpringBootStarters.MarketPlace.Entities.Product;
+import com.SpringBootStarters.MarketPlace.Repositories.CustomerRepository;
+import com.SpringBootStarters.MarketPlace.Repositories.OrderRepository;
+import com.SpringBootStarters.MarketPlace.Repositories.ProductRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Measures the insert throughput of products and orders written through the
+ * persistence context, and checks that the inserts are sent as JDBC batches
+ * rather than one statement per row.
+ */
+@SpringBootTest(properties = { "spring.jpa.properties.hibernate.generate_statistics=true", "marketplace.inventory.node={host}:statistics" })
+public class MarketPlaceInsertBatchingTests {
+	private static final Logger logger = LoggerFactory.getLogger(MarketPlaceInsertBatchingTests.class);
+	private static final int PRODUCT_COUNT = 2000;
+	private static final int ORDER_COUNT = 1000;
+
+	@Autowired
+	private CustomerRepository customerRepository;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+	private String suffix;
+	private Customer customer;
+
+	@BeforeEach
+	public void setUp() {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		suffix = UUID.randomUUID().toString().substring(0, 8);
+		customer = customerRepository.save(new Customer("Batch", "Buyer", "batch-" + suffix + "@example.com", 30));
+	}
+
+	@Test
+	public void testProductInsertBatching() {
+		List<Product> products = new ArrayList<>(PRODUCT_COUNT);
+		for (int i = 0; i < PRODUCT_COUNT; i++)
+			products.add(new Product(0L, "Batch product " + i + " " + suffix, BigDecimal.valueOf(i + 1)));
+
+		statistics.clear();
+		long start = System.nanoTime();
+		transactionTemplate.executeWithoutResult(status -> productRepository.saveAll(products));
+		double rate = PRODUCT_COUNT / ((System.nanoTime() - start) / 1e9);
+
+		long statements = statistics.getPrepareStatementCount();
+		logger.info(String.format("Inserted %d products at %.0f rows/s with %d prepared statements", PRODUCT_COUNT, rate, statements));
+		assertEquals(PRODUCT_COUNT, statistics.getEntityInsertCount());
+		assertTrue(statements < PRODUCT_COUNT / 10, "Product inserts are not batched: " + statements + " statements");
+	}
+
+	@Test
+	public void testOrderInsertBatching() {
+		List<Product> products = productRepository.saveAll(List.of(
+			new Product(0L, "Batch shoe " + suffix, BigDecimal.valueOf(100)),
+			new Product(0L, "Batch shirt " + suffix, BigDecimal.valueOf(50))
+		));
+		List<Orders> orders = new ArrayList<>(ORDER_COUNT);
+		for (int i = 0; i < ORDER_COUNT; i++) {
+			Orders order = new Orders();
+			order.setCustomer(customer);
+			order.getProducts().addAll(products);
+			order.setTotalAmount(BigDecimal.valueOf(150));
+			orders.add(order);
+		}
+
+		statistics.clear();
+		long start = System.nanoTime();
+		transactionTemplate.executeWithoutResult(status -> orderRepository.saveAll(orders));
+		double rate = ORDER_COUNT / ((System.nanoTime() - start) / 1e9);
+
+		long statements = statistics.getPrepareStatementCount();
+		logger.info(String.format("Inserted %d orders at %.0f orders/s with %d prepared statements", ORDER_COUNT, rate, statements));
+		assertEquals(ORDER_COUNT, statistics.getEntityInsertCount());
+		assertTrue(statements < ORDER_COUNT / 10, "Order inserts are not batched: " + statements + " statements");
+	}
+
+	@AfterEach
+	public void tearDown() {
+		jdbcTemplate.update("DELETE FROM order_line WHERE order_id IN (SELECT id FROM orders WHERE customer_id = ?)", customer.getId());
+		jdbcTemplate.update("DELETE FROM order_product WHERE order_id IN (SELECT id FROM orders WHERE customer_id = ?)", customer.getId());
+		jdbcTemplate.update("DELETE FROM orders WHERE customer_id = ?", customer.getId());
+		jdbcTemplate.update("DELETE FROM product WHERE product_name LIKE ?", "Batch % " + suffix);
+		customerRepository.delete(customer);
+	}
+}
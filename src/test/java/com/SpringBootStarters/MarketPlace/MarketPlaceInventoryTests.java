@@ -0,0 +1,315 @@
+package com.SpringBootStarters.MarketPlace;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.SpringBootStarters.MarketPlace.DTOs.OrderDto;
+import com.SpringBootStarters.MarketPlace.Entities.Customer;
+import com.SpringBootStarters.MarketPlace.Entities.OrderLine;
+import com.SpringBootStarters.MarketPlace.Entities.Product;
+import com.SpringBootStarters.MarketPlace.Repositories.CustomerRepository;
+import com.SpringBootStarters.MarketPlace.Repositories.InventoryRepository;
+import com.SpringBootStarters.MarketPlace.Repositories.ProductRepository;
+import com.SpringBootStarters.MarketPlace.Services.InventoryService;
+import com.SpringBootStarters.MarketPlace.Services.OrderService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Reserves the stock of one product from many threads and checks that
+ * exactly the stock is sold, that rolled back and released reservations
+ * give their units back, and that a node restarting after a crash returns
+ * the units it had leased.
+ */
+@SpringBootTest
+public class MarketPlaceInventoryTests {
+	private static final Logger logger = LoggerFactory.getLogger(MarketPlaceInventoryTests.class);
+	private static final int THREADS = 16;
+	private static final int STOCK = 5000;
+
+	@Autowired
+	private InventoryService inventoryService;
+
+	@Autowired
+	private InventoryRepository inventoryRepository;
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private CustomerRepository customerRepository;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private TransactionTemplate transactionTemplate;
+	private Customer customer;
+	private Product product;
+
+	@BeforeEach
+	public void setUp() {
+		logger.info("Seeding a product for the inventory tests");
+		String suffix = UUID.randomUUID().toString().substring(0, 8);
+		transactionTemplate = new TransactionTemplate(transactionManager);
+		customer = customerRepository.save(new Customer("Inventory", "Buyer", "inventory-" + suffix + "@example.com", 35));
+		product = productRepository.save(new Product(0L, "Inventory product " + suffix, new BigDecimal("19.99")));
+	}
+
+	@Test
+	public void testConcurrentReservationsDoNotOversell() throws Exception {
+		inventoryService.restock(product.getId(), STOCK);
+		List<OrderLine> lines = List.of(OrderLine.of(product));
+		AtomicLong sold = new AtomicLong();
+		AtomicLong reserveNanos = new AtomicLong();
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		List<Future<?>> workers = new ArrayList<>();
+		for (int t = 0; t < THREADS; t++) {
+			workers.add(executor.submit(() -> {
+				start.await();
+				while (true) {
+					InventoryService.Reservation reservation;
+					long begin = System.nanoTime();
+					try {
+						reservation = inventoryService.reserve(lines);
+					} catch (IllegalStateException e) {
+						return null;
+					} finally {
+						reserveNanos.addAndGet(System.nanoTime() - begin);
+					}
+					transactionTemplate.executeWithoutResult(status -> reservation.commit());
+					sold.incrementAndGet();
+				}
+			}));
+		}
+		long begin = System.nanoTime();
+		start.countDown();
+		for (Future<?> worker : workers)
+			worker.get();
+		double seconds = (System.nanoTime() - begin) / 1e9;
+		executor.shutdown();
+		logger.info(String.format("%d units of one product sold by %d threads in %.2f s: %.0f committed reservations/s, %.1f us per reservation",
+				sold.get(), THREADS, seconds, sold.get() / seconds, reserveNanos.get() / 1e3 / (sold.get() + THREADS)));
+
+		// Testing that exactly the stock was sold
+		assertEquals(STOCK, sold.get());
+		assertEquals(0L, jdbcTemplate.queryForObject("SELECT stock FROM product_inventory WHERE product_id = ?", Long.class, product.getId()));
+		assertEquals(0L, inventoryService.getInventory(product.getId()).getAvailable());
+
+		// Testing that reconciling folds the sales into the lease
+		inventoryService.reconcile();
+		assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM inventory_sale WHERE product_id = ?", Integer.class, product.getId()));
+		assertEquals(0L, jdbcTemplate.queryForObject("SELECT coalesce(sum(units), 0) FROM inventory_lease WHERE product_id = ?", Long.class, product.getId()));
+		assertEquals(0L, inventoryService.getInventory(product.getId()).getAvailable());
+	}
+
+	@Test
+	public void testReservationThroughput() throws Exception {
+		inventoryService.restock(product.getId(), 1000);
+		List<OrderLine> lines = List.of(OrderLine.of(product));
+		int operations = 20_000;
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		List<Future<?>> workers = new ArrayList<>();
+		for (int t = 0; t < THREADS; t++) {
+			workers.add(executor.submit(() -> {
+				start.await();
+				for (int i = 0; i < operations; i++)
+					inventoryService.reserve(lines).release();
+				return null;
+			}));
+		}
+		long begin = System.nanoTime();
+		start.countDown();
+		for (Future<?> worker : workers)
+			worker.get();
+		double seconds = (System.nanoTime() - begin) / 1e9;
+		executor.shutdown();
+		logger.info(String.format("%d reservations of one product by %d threads in %.3f s: %.0f reservations/s",
+				THREADS * operations, THREADS, seconds, THREADS * operations / seconds));
+
+		// Testing that the released units are all still available, and only one lease was taken
+		assertEquals(1000L, inventoryService.getInventory(product.getId()).getAvailable());
+		assertEquals(900L, jdbcTemplate.queryForObject("SELECT stock FROM product_inventory WHERE product_id = ?", Long.class, product.getId()));
+	}
+
+	@Test
+	public void testRolledBackReservationsAreReleased() {
+		inventoryService.restock(product.getId(), 3);
+		List<OrderLine> lines = List.of(OrderLine.of(product));
+
+		// Testing that a reservation committed in a rolled back transaction can be released
+		InventoryService.Reservation reservation = inventoryService.reserve(lines);
+		transactionTemplate.executeWithoutResult(status -> {
+			reservation.commit();
+			status.setRollbackOnly();
+		});
+		reservation.release();
+		reservation.release();
+		assertEquals(3L, inventoryService.getInventory(product.getId()).getAvailable());
+
+		// Testing that the released unit can be sold again, and no more
+		for (int i = 0; i < 3; i++) {
+			InventoryService.Reservation sale = inventoryService.reserve(lines);
+			transactionTemplate.executeWithoutResult(status -> sale.commit());
+			sale.release();
+		}
+		IllegalStateException thrown = assertThrowsExactly(IllegalStateException.class, () -> inventoryService.reserve(lines));
+		assertTrue(thrown.getMessage().contains("Product with Id : " + product.getId() + " is out of stock"));
+		assertEquals(0L, inventoryService.getInventory(product.getId()).getAvailable());
+	}
+
+	@Test
+	public void testOrdersOutOfStock() {
+		inventoryService.restock(product.getId(), 1);
+
+		// Testing that an order takes the last unit and the next one is refused
+		orderService.createOrder(customer.getId(), new OrderDto(List.of(product.getId())));
+		IllegalStateException thrown = assertThrowsExactly(IllegalStateException.class, () -> orderService.createOrder(customer.getId(), new OrderDto(List.of(product.getId()))));
+		assertTrue(thrown.getMessage().contains("is out of stock"));
+		assertEquals(1, jdbcTemplate.queryForObject("SELECT count(*) FROM order_line WHERE product_id = ?", Integer.class, product.getId()));
+		assertEquals(0L, inventoryService.getInventory(product.getId()).getAvailable());
+	}
+
+	@Test
+	public void testOrderChangesReserveAndGiveBack() {
+		inventoryService.restock(product.getId(), 2);
+		List<Long> productIds = List.of(product.getId());
+		long orderId = orderService.createOrder(customer.getId(), new OrderDto(productIds)).getId();
+		assertEquals(1L, inventoryService.getInventory(product.getId()).getAvailable());
+
+		// Testing that adding a product already in the order sells nothing
+		orderService.addProducts(orderId, new OrderDto(productIds));
+		orderService.updateOrder(orderId, new OrderDto(productIds));
+		assertEquals(1L, inventoryService.getInventory(product.getId()).getAvailable());
+
+		// Testing that removing the product gives its unit back
+		orderService.removeProducts(orderId, new OrderDto(productIds));
+		assertEquals(2L, inventoryService.getInventory(product.getId()).getAvailable());
+
+		// Testing that adding and updating take their units from the stock, and no more
+		orderService.addProducts(orderId, new OrderDto(productIds));
+		long otherId = orderService.createOrder(customer.getId(), new OrderDto(productIds)).getId();
+		assertEquals(0L, inventoryService.getInventory(product.getId()).getAvailable());
+		orderService.removeProducts(orderId, new OrderDto(productIds));
+		orderService.updateOrder(orderId, new OrderDto(productIds));
+		assertEquals(0L, inventoryService.getInventory(product.getId()).getAvailable());
+		orderService.removeProducts(orderId, new OrderDto(productIds));
+		orderService.createOrder(customer.getId(), new OrderDto(productIds));
+		assertThrowsExactly(IllegalStateException.class, () -> orderService.addProducts(orderId, new OrderDto(productIds)));
+		assertThrowsExactly(IllegalStateException.class, () -> orderService.updateOrder(orderId, new OrderDto(productIds)));
+
+		// Testing that deleting an order gives its units back
+		orderService.deleteOrder(otherId);
+		assertEquals(1L, inventoryService.getInventory(product.getId()).getAvailable());
+		assertEquals(1, jdbcTemplate.queryForObject("SELECT count(*) FROM order_line WHERE product_id = ?", Integer.class, product.getId()));
+	}
+
+	@Test
+	public void testRestartReclaimsLeases() {
+		String node = "inventory-test-" + UUID.randomUUID().toString().substring(0, 8);
+		InventoryService crashed = inventoryNode(node);
+		crashed.restock(product.getId(), 500);
+
+		// Testing that a sale leases units away from the shared stock
+		InventoryService.Reservation reservation = crashed.reserve(List.of(OrderLine.of(product)));
+		transactionTemplate.executeWithoutResult(status -> reservation.commit());
+		assertEquals(400L, jdbcTemplate.queryForObject("SELECT stock FROM product_inventory WHERE product_id = ?", Long.class, product.getId()));
+		assertEquals(499L, inventoryService.getInventory(product.getId()).getAvailable());
+
+		// Testing that the node restarting without having stopped returns its unsold units
+		InventoryService restarted = inventoryNode(node);
+		restarted.start();
+		try {
+			assertEquals(499L, jdbcTemplate.queryForObject("SELECT stock FROM product_inventory WHERE product_id = ?", Long.class, product.getId()));
+			assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM inventory_lease WHERE node = ?", Integer.class, node));
+
+			// Testing that the crashed run stopping late gives nothing back twice
+			crashed.stop();
+			assertEquals(499L, inventoryService.getInventory(product.getId()).getAvailable());
+		} finally {
+			restarted.stop();
+		}
+		assertEquals(499L, jdbcTemplate.queryForObject("SELECT stock FROM product_inventory WHERE product_id = ?", Long.class, product.getId()));
+	}
+
+	@Test
+	public void testDefaultNodeSurvivesRestart() {
+		// Testing that the configured node is stable and names this host
+		String host = InventoryService.resolveNode("{host}", 8080);
+		assertEquals(host + ":8080", inventoryService.getNode());
+		assertEquals(inventoryService.getNode(), InventoryService.resolveNode("{host}:{port}", 8080));
+
+		// Testing that a node restarting on the same host and port reclaims its leases, on a port no other node uses
+		int port = 20000 + ThreadLocalRandom.current().nextInt(40000);
+		InventoryService crashed = inventoryNode("{host}:{port}", port);
+		crashed.restock(product.getId(), 500);
+		InventoryService.Reservation reservation = crashed.reserve(List.of(OrderLine.of(product)));
+		transactionTemplate.executeWithoutResult(status -> reservation.commit());
+		assertEquals(400L, jdbcTemplate.queryForObject("SELECT stock FROM product_inventory WHERE product_id = ?", Long.class, product.getId()));
+
+		InventoryService restarted = inventoryNode("{host}:{port}", port);
+		assertEquals(host + ":" + port, restarted.getNode());
+		restarted.start();
+		try {
+			assertEquals(499L, jdbcTemplate.queryForObject("SELECT stock FROM product_inventory WHERE product_id = ?", Long.class, product.getId()));
+			assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM inventory_lease WHERE node = ?", Integer.class, restarted.getNode()));
+		} finally {
+			restarted.stop();
+		}
+
+		// Testing that a node id too long for the leases is rejected
+		assertThrowsExactly(IllegalArgumentException.class, () -> inventoryNode("x".repeat(65), port));
+	}
+
+	private InventoryService inventoryNode(String node) {
+		return inventoryNode(node, 8080);
+	}
+
+	private InventoryService inventoryNode(String node, int port) {
+		return new InventoryService(inventoryRepository, transactionManager, new SimpleMeterRegistry(), node, port, 4, 100, Duration.ofSeconds(1), Duration.ofMinutes(1));
+	}
+
+	@AfterEach
+	public void tearDown() {
+		List<Long> orderIds = jdbcTemplate.queryForList("SELECT id FROM orders WHERE customer_id = ?", Long.class, customer.getId());
+		for (Long orderId : orderIds) {
+			jdbcTemplate.update("DELETE FROM order_line WHERE order_id = ?", orderId);
+			jdbcTemplate.update("DELETE FROM order_product WHERE order_id = ?", orderId);
+			jdbcTemplate.update("DELETE FROM orders WHERE id = ?", orderId);
+		}
+		jdbcTemplate.update("DELETE FROM customer_order_stats WHERE customer_id = ?", customer.getId());
+		productRepository.delete(product);
+		customerRepository.delete(customer);
+	}
+}
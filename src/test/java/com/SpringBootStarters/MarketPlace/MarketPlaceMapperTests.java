@@ -0,0 +1,118 @@
+package com.SpringBootStarters.MarketPlace;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.SpringBootStarters.MarketPlace.DTOs.CustomerDto;
+import com.SpringBootStarters.MarketPlace.DTOs.ProductDto;
+import com.SpringBootStarters.MarketPlace.Entities.Customer;
+import com.SpringBootStarters.MarketPlace.Entities.Product;
+import com.SpringBootStarters.MarketPlace.Mappers.CustomerMapper;
+import com.SpringBootStarters.MarketPlace.Mappers.ProductMapper;
+
+/**
+ * Checks that the handwritten mappers produce the same entities as the
+ * ModelMapper configuration they replaced.
+ */
+@SpringBootTest
+public class MarketPlaceMapperTests {
+	private static final Logger logger = LoggerFactory.getLogger(MarketPlaceMapperTests.class);
+
+	private final ModelMapper modelMapper = new ModelMapper();
+	private final CustomerMapper customerMapper = new CustomerMapper();
+	private final ProductMapper productMapper = new ProductMapper();
+
+	private final List<CustomerDto> customerDtos = Arrays.asList(
+		new CustomerDto("John", "Doe", "doe@example.com", 25),
+		new CustomerDto("Jane", null, null, 0),
+		new CustomerDto(null, null, null, -1)
+	);
+
+	private final List<ProductDto> productDtos = Arrays.asList(
+		new ProductDto("Nike Air Jordan 1 Low", BigDecimal.valueOf(1500)),
+		new ProductDto("Nike Air Jordan 2 High", new BigDecimal("1700.50")),
+		new ProductDto(null, null)
+	);
+
+	@BeforeAll
+	public static void setUp() {
+		logger.info("Starting mapper tests");
+	}
+
+	@Test
+	public void testCustomerToEntity() {
+		logger.info("Testing CustomerMapper toEntity method");
+
+		// Testing that new customers match the ModelMapper ones
+		for (CustomerDto customerDto : customerDtos)
+			assertCustomerEquals(modelMapper.map(customerDto, Customer.class), customerMapper.toEntity(customerDto));
+	}
+
+	@Test
+	public void testCustomerUpdate() {
+		logger.info("Testing CustomerMapper update method");
+
+		// Testing that updated customers match the ModelMapper ones, id included
+		for (CustomerDto customerDto : customerDtos) {
+			Customer expected = new Customer(7L, "Old", "Name", "old@example.com", 60);
+			Customer actual = new Customer(7L, "Old", "Name", "old@example.com", 60);
+			modelMapper.map(customerDto, expected);
+			customerMapper.update(customerDto, actual);
+			assertCustomerEquals(expected, actual);
+		}
+	}
+
+	@Test
+	public void testProductToEntity() {
+		logger.info("Testing ProductMapper toEntity method");
+
+		// Testing that new products match the ModelMapper ones
+		for (ProductDto productDto : productDtos)
+			assertProductEquals(modelMapper.map(productDto, Product.class), productMapper.toEntity(productDto));
+	}
+
+	@Test
+	public void testProductUpdate() {
+		logger.info("Testing ProductMapper update method");
+
+		// Testing that updated products match the ModelMapper ones, id included
+		for (ProductDto productDto : productDtos) {
+			Product expected = new Product(7L, "Old product", BigDecimal.TEN);
+			Product actual = new Product(7L, "Old product", BigDecimal.TEN);
+			modelMapper.map(productDto, expected);
+			productMapper.update(productDto, actual);
+			assertProductEquals(expected, actual);
+		}
+	}
+
+	private static void assertCustomerEquals(Customer expected, Customer actual) {
+		assertEquals(expected.getId(), actual.getId());
+		assertEquals(expected.getFirstName(), actual.getFirstName());
+		assertEquals(expected.getLastName(), actual.getLastName());
+		assertEquals(expected.getEmail(), actual.getEmail());
+		assertEquals(expected.getAge(), actual.getAge());
+	}
+
+	private static void assertProductEquals(Product expected, Product actual) {
+		assertEquals(expected.getId(), actual.getId());
+		assertEquals(expected.getProductName(), actual.getProductName());
+		assertEquals(expected.getPrice(), actual.getPrice());
+		assertEquals(expected.getOrders(), actual.getOrders());
+	}
+
+	@AfterAll
+	public static void tearDown() {
+		logger.info("Finishing mapper tests");
+	}
+}
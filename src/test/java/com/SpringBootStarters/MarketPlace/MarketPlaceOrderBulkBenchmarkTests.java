@@ -0,0 +1,120 @@
+package com.SpringBootStarters.MarketPlace;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.SpringBootStarters.MarketPlace.DTOs.BulkOrderDto;
+import com.SpringBootStarters.MarketPlace.DTOs.BulkOrderResultDto;
+import com.SpringBootStarters.MarketPlace.DTOs.OrderDto;
+import com.SpringBootStarters.MarketPlace.Entities.Customer;
+import com.SpringBootStarters.MarketPlace.Entities.Product;
+import com.SpringBootStarters.MarketPlace.Repositories.CustomerRepository;
+import com.SpringBootStarters.MarketPlace.Repositories.ProductRepository;
+import com.SpringBootStarters.MarketPlace.Services.OrderBulkService;
+import com.SpringBootStarters.MarketPlace.Services.OrderService;
+import com.SpringBootStarters.MarketPlace.Utils.SqlStatistics;
+
+/**
+ * Compares the single-order path with the bulk path against the real
+ * database: the bulk path must create the same orders with far fewer
+ * statements, counted by the SQL statistics of the data source. The rates
+ * are logged for information only, the benchmarks profile measures them.
+ */
+@SpringBootTest
+public class MarketPlaceOrderBulkBenchmarkTests {
+	private static final Logger logger = LoggerFactory.getLogger(MarketPlaceOrderBulkBenchmarkTests.class);
+	private static final int SINGLE_ORDERS = 20;
+	private static final int BULK_ORDERS = 200;
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private OrderBulkService orderBulkService;
+
+	@Autowired
+	private CustomerRepository customerRepository;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private Customer customer;
+	private List<Long> productIds;
+
+	@BeforeEach
+	public void setUp() {
+		String suffix = UUID.randomUUID().toString().substring(0, 8);
+		customer = customerRepository.save(new Customer("Bulk", "Buyer", "bulk-" + suffix + "@example.com", 40));
+		productIds = new ArrayList<>();
+		for (int i = 0; i < 5; i++)
+			productIds.add(productRepository.save(new Product(0L, "Bulk product " + i + " " + suffix, BigDecimal.valueOf(10 + i))).getId());
+	}
+
+	@Test
+	public void testBulkIssuesFewerStatements() {
+		// Warm up both paths so class loading, connection setup and caches are not counted
+		orderService.createOrder(customer.getId(), new OrderDto(productIds));
+		orderBulkService.createOrders(List.of(new BulkOrderDto(customer.getId(), productIds)));
+
+		SqlStatistics single = SqlStatistics.begin();
+		long start = System.nanoTime();
+		try {
+			for (int i = 0; i < SINGLE_ORDERS; i++)
+				orderService.createOrder(customer.getId(), new OrderDto(productIds));
+		} finally {
+			SqlStatistics.end();
+		}
+		double singleRate = SINGLE_ORDERS / ((System.nanoTime() - start) / 1e9);
+
+		List<BulkOrderDto> orders = new ArrayList<>(BULK_ORDERS);
+		for (int i = 0; i < BULK_ORDERS; i++)
+			orders.add(new BulkOrderDto(customer.getId(), productIds));
+		SqlStatistics bulk = SqlStatistics.begin();
+		List<BulkOrderResultDto> results;
+		start = System.nanoTime();
+		try {
+			results = orderBulkService.createOrders(orders);
+		} finally {
+			SqlStatistics.end();
+		}
+		double bulkRate = BULK_ORDERS / ((System.nanoTime() - start) / 1e9);
+
+		// Testing that every bulk order was created
+		long created = results.stream().filter(result -> result.getStatus() == BulkOrderResultDto.Status.CREATED).count();
+		assertEquals(BULK_ORDERS, created);
+
+		// Testing that the bulk path needs at least ten times fewer statements per order
+		double singlePerOrder = (double) single.getStatements() / SINGLE_ORDERS;
+		double bulkPerOrder = (double) bulk.getStatements() / BULK_ORDERS;
+		logger.info(String.format("Single-order path: %.1f statements and %.0f orders/s, bulk path: %.2f statements and %.0f orders/s",
+				singlePerOrder, singleRate, bulkPerOrder, bulkRate));
+		assertTrue(single.getStatements() >= SINGLE_ORDERS, "The single-order path ran " + single.getStatements() + " statements");
+		assertTrue(bulkPerOrder * 10 <= singlePerOrder, "Bulk path: " + bulkPerOrder + " statements per order, single-order path: " + singlePerOrder);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		jdbcTemplate.update("DELETE FROM order_line WHERE order_id IN (SELECT id FROM orders WHERE customer_id = ?)", customer.getId());
+		jdbcTemplate.update("DELETE FROM order_product WHERE order_id IN (SELECT id FROM orders WHERE customer_id = ?)", customer.getId());
+		jdbcTemplate.update("DELETE FROM orders WHERE customer_id = ?", customer.getId());
+		productRepository.deleteAllById(productIds);
+		customerRepository.delete(customer);
+	}
+}
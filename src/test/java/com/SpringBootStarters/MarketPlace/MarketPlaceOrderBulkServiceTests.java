@@ -0,0 +1,181 @@
+package com.SpringBootStarters.MarketPlace;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.Spy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.SpringBootStarters.MarketPlace.DTOs.BulkOrderDto;
+import com.SpringBootStarters.MarketPlace.DTOs.BulkOrderResultDto;
+import com.SpringBootStarters.MarketPlace.Repositories.CustomerOrderStatsRepository;
+import com.SpringBootStarters.MarketPlace.Repositories.CustomerRepository;
+import com.SpringBootStarters.MarketPlace.Repositories.OrderBulkRepository;
+import com.SpringBootStarters.MarketPlace.Repositories.OrderBulkRepository.OrderRow;
+import com.SpringBootStarters.MarketPlace.Repositories.ProductPrice;
+import com.SpringBootStarters.MarketPlace.Repositories.ProductRepository;
+import com.SpringBootStarters.MarketPlace.Services.BestSellerTracker;
+import com.SpringBootStarters.MarketPlace.Services.InventoryService;
+import com.SpringBootStarters.MarketPlace.Services.OrderBulkService;
+
+@SpringBootTest
+public class MarketPlaceOrderBulkServiceTests {
+	private static final Logger logger = LoggerFactory.getLogger(MarketPlaceOrderBulkServiceTests.class);
+
+	@Mock
+	private OrderBulkRepository orderBulkRepository;
+
+	@Mock
+	private CustomerRepository customerRepository;
+
+	@Mock
+	private ProductRepository productRepository;
+
+	@Mock
+	private CustomerOrderStatsRepository customerOrderStatsRepository;
+
+	@Mock
+	private BestSellerTracker bestSellerTracker;
+
+	@Mock
+	private InventoryService inventoryService;
+
+	@Spy
+	private TransactionTemplate transactionTemplate = new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class));
+
+	@InjectMocks
+	private OrderBulkService orderBulkService;
+
+	@BeforeAll
+	public static void setUp() {
+		logger.info("Starting order bulk service tests");
+	}
+
+	@Test
+	public void testCreateOrders() {
+		logger.info("Testing createOrders method");
+
+		List<BulkOrderDto> orders = Arrays.asList(
+			new BulkOrderDto(1L, Arrays.asList(1L, 2L, 1L)),
+			new BulkOrderDto(2L, Arrays.asList(1L)),
+			new BulkOrderDto(1L, Arrays.asList(3L)),
+			new BulkOrderDto(1L, Collections.emptyList()),
+			new BulkOrderDto(1L, Arrays.asList(2L))
+		);
+
+		// Testing the creation of valid orders next to invalid ones
+		Mockito.when(inventoryService.reserve(Mockito.anyCollection())).thenReturn(InventoryService.Reservation.NONE);
+		Mockito.when(customerRepository.findExistingIds(Mockito.anyList())).thenReturn(Arrays.asList(1L));
+		Mockito.when(productRepository.findPricesByIdIn(Mockito.anyList())).thenReturn(Arrays.asList(price(1L, "15.00"), price(2L, "17.50")));
+		Mockito.when(orderBulkRepository.insertOrders(Mockito.anyList())).thenReturn(Arrays.asList(10L, 11L));
+		List<BulkOrderResultDto> results = orderBulkService.createOrders(orders);
+		assertEquals(5, results.size());
+		assertEquals(BulkOrderResultDto.Status.CREATED, results.get(0).getStatus());
+		assertEquals(10L, results.get(0).getOrderId());
+		assertTrue(results.get(1).getError().contains("Customer not found with Id : 2"));
+		assertTrue(results.get(2).getError().contains("Product not found with Id : 3"));
+		assertTrue(results.get(3).getError().contains("Order must contain at least one product"));
+		assertEquals(11L, results.get(4).getOrderId());
+
+		// Verify that duplicated products are written once and priced once
+		@SuppressWarnings("unchecked")
+		ArgumentCaptor<List<OrderRow>> rows = ArgumentCaptor.forClass(List.class);
+		Mockito.verify(orderBulkRepository, Mockito.times(1)).insertOrders(rows.capture());
+		assertEquals(Arrays.asList(1L, 2L), rows.getValue().get(0).productIds());
+		assertEquals(new BigDecimal("32.50"), rows.getValue().get(0).totalAmount());
+		Mockito.verify(customerRepository, Mockito.times(1)).findExistingIds(Mockito.anyList());
+		Mockito.verify(productRepository, Mockito.times(1)).findPricesByIdIn(Mockito.anyList());
+		Mockito.verify(customerOrderStatsRepository, Mockito.times(1)).apply(Mockito.argThat(deltas -> deltas.size() == 2));
+	}
+
+	@Test
+	public void testCreateOrdersWithFailingChunk() {
+		logger.info("Testing createOrders method when a chunk fails to be written");
+
+		List<BulkOrderDto> orders = new ArrayList<>();
+		for (int i = 0; i < 501; i++)
+			orders.add(new BulkOrderDto(1L, Arrays.asList(1L)));
+
+		// Testing that a failing chunk only fails its own orders
+		InventoryService.Reservation reservation = Mockito.mock(InventoryService.Reservation.class);
+		Mockito.when(inventoryService.reserve(Mockito.anyCollection())).thenReturn(reservation);
+		Mockito.when(customerRepository.findExistingIds(Mockito.anyList())).thenReturn(Arrays.asList(1L));
+		Mockito.when(productRepository.findPricesByIdIn(Mockito.anyList())).thenReturn(Arrays.asList(price(1L, "15.00")));
+		Mockito.when(orderBulkRepository.insertOrders(Mockito.anyList()))
+			.thenThrow(new DataIntegrityViolationException("constraint violation"))
+			.thenReturn(Arrays.asList(42L));
+		List<BulkOrderResultDto> results = orderBulkService.createOrders(orders);
+		assertEquals(BulkOrderResultDto.Status.FAILED, results.get(0).getStatus());
+		assertEquals(BulkOrderResultDto.Status.FAILED, results.get(499).getStatus());
+		assertEquals(42L, results.get(500).getOrderId());
+
+		// Testing the creation of too many orders at once
+		List<BulkOrderDto> tooMany = Collections.nCopies(OrderBulkService.MAX_ORDERS + 1, new BulkOrderDto(1L, Arrays.asList(1L)));
+		IllegalArgumentException thrown = assertThrowsExactly(IllegalArgumentException.class, () -> orderBulkService.createOrders(tooMany));
+		assertTrue(thrown.getMessage().contains("can't contain more than"));
+
+		// Verify
+		Mockito.verify(orderBulkRepository, Mockito.times(2)).insertOrders(Mockito.anyList());
+		Mockito.verify(reservation, Mockito.times(500)).release();
+	}
+
+	@Test
+	public void testCreateOrdersOutOfStock() {
+		logger.info("Testing createOrders method when a product is out of stock");
+
+		List<BulkOrderDto> orders = Arrays.asList(new BulkOrderDto(1L, Arrays.asList(1L)), new BulkOrderDto(1L, Arrays.asList(2L)));
+
+		// Testing that an order for a product out of stock fails without failing the chunk
+		Mockito.when(customerRepository.findExistingIds(Mockito.anyList())).thenReturn(Arrays.asList(1L));
+		Mockito.when(productRepository.findPricesByIdIn(Mockito.anyList())).thenReturn(Arrays.asList(price(1L, "15.00"), price(2L, "17.50")));
+		Mockito.when(inventoryService.reserve(Mockito.anyCollection()))
+			.thenThrow(new IllegalStateException("Product with Id : 1 is out of stock"))
+			.thenReturn(InventoryService.Reservation.NONE);
+		Mockito.when(orderBulkRepository.insertOrders(Mockito.anyList())).thenReturn(Arrays.asList(7L));
+		List<BulkOrderResultDto> results = orderBulkService.createOrders(orders);
+		assertEquals(BulkOrderResultDto.Status.FAILED, results.get(0).getStatus());
+		assertTrue(results.get(0).getError().contains("Product with Id : 1 is out of stock"));
+		assertEquals(7L, results.get(1).getOrderId());
+
+		// Verify
+		Mockito.verify(orderBulkRepository, Mockito.times(1)).insertOrders(Mockito.argThat(rows -> rows.size() == 1));
+	}
+
+	private static ProductPrice price(long id, String price) {
+		return new ProductPrice() {
+			@Override
+			public long getId() {
+				return id;
+			}
+
+			@Override
+			public BigDecimal getPrice() {
+				return new BigDecimal(price);
+			}
+		};
+	}
+
+	@AfterAll
+	public static void tearDown() {
+		logger.info("Finished order bulk service tests");
+	}
+}
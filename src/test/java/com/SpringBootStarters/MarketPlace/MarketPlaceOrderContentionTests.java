@@ -0,0 +1,144 @@
+package com.SpringBootStarters.MarketPlace;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.SpringBootStarters.MarketPlace.DTOs.OrderDto;
+import com.SpringBootStarters.MarketPlace.Entities.Customer;
+import com.SpringBootStarters.MarketPlace.Entities.Orders;
+import com.SpringBootStarters.MarketPlace.Entities.Product;
+import com.SpringBootStarters.MarketPlace.Repositories.CustomerRepository;
+import com.SpringBootStarters.MarketPlace.Repositories.ProductRepository;
+import com.SpringBootStarters.MarketPlace.Services.OrderService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Runs many threads adding products to the same order, through the
+ * read-modify-write update and the delta operation, and checks that no
+ * addition is lost: the order holds every product that was reported added
+ * and its total and the customer aggregates are exact.
+ */
+@SpringBootTest
+public class MarketPlaceOrderContentionTests {
+	private static final Logger logger = LoggerFactory.getLogger(MarketPlaceOrderContentionTests.class);
+	private static final int THREADS = 8;
+	private static final int OPERATIONS_PER_THREAD = 25;
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private CustomerRepository customerRepository;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	private Customer customer;
+	private List<Product> products;
+	private Orders order;
+
+	@BeforeEach
+	public void setUp() {
+		logger.info("Seeding an order for the contention tests");
+		String suffix = UUID.randomUUID().toString().substring(0, 8);
+		customer = customerRepository.save(new Customer("Contention", "Buyer", "contention-" + suffix + "@example.com", 35));
+		List<Product> seeded = new ArrayList<>();
+		for (int i = 0; i <= THREADS * OPERATIONS_PER_THREAD; i++)
+			seeded.add(new Product(0L, "Contention product " + i + " " + suffix, new BigDecimal((i % 97 + 1) + ".37")));
+		products = productRepository.saveAll(seeded);
+		order = orderService.createOrder(customer.getId(), new OrderDto(List.of(products.get(0).getId())));
+	}
+
+	@Test
+	public void testConcurrentAdditionsAreNotLost() throws Exception {
+		double retriesBefore = meterRegistry.counter("marketplace.retry.retries").count();
+		Map<Long, BigDecimal> added = new ConcurrentHashMap<>();
+		Map<Long, BigDecimal> conflicted = new ConcurrentHashMap<>();
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		List<Future<?>> workers = new ArrayList<>();
+		for (int t = 0; t < THREADS; t++) {
+			int thread = t;
+			workers.add(executor.submit(() -> {
+				start.await();
+				for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+					Product product = products.get(1 + thread * OPERATIONS_PER_THREAD + i);
+					OrderDto orderDto = new OrderDto(List.of(product.getId()));
+					try {
+						// Half the threads read-modify-write the order, the others add a delta
+						if (thread % 2 == 0)
+							orderService.updateOrder(order.getId(), orderDto);
+						else
+							orderService.addProducts(order.getId(), orderDto);
+						added.put(product.getId(), product.getPrice());
+					} catch (ConcurrencyFailureException e) {
+						conflicted.put(product.getId(), product.getPrice());
+					}
+				}
+				return null;
+			}));
+		}
+		long begin = System.nanoTime();
+		start.countDown();
+		for (Future<?> worker : workers)
+			worker.get();
+		double seconds = (System.nanoTime() - begin) / 1e9;
+		executor.shutdown();
+		double retries = meterRegistry.counter("marketplace.retry.retries").count() - retriesBefore;
+		logger.info(String.format("%d mutations of one order by %d threads in %.2f s: %.0f mutations/s, %.0f retries, %d gave up",
+				THREADS * OPERATIONS_PER_THREAD, THREADS, seconds, THREADS * OPERATIONS_PER_THREAD / seconds, retries, conflicted.size()));
+
+		// Testing that every reported addition is in the order and nothing else
+		BigDecimal expected = products.get(0).getPrice();
+		for (BigDecimal price : added.values())
+			expected = expected.add(price);
+		List<Long> productIds = jdbcTemplate.queryForList("SELECT product_id FROM order_product WHERE order_id = ?", Long.class, order.getId());
+		assertEquals(added.size() + 1, productIds.size());
+		assertTrue(productIds.containsAll(added.keySet()));
+		assertEquals(added.size() + 1, (int) jdbcTemplate.queryForObject("SELECT count(*) FROM order_line WHERE order_id = ?", Integer.class, order.getId()));
+
+		// Testing that the order total and the customer aggregates are exact
+		assertEquals(0, expected.compareTo(jdbcTemplate.queryForObject("SELECT total_amount FROM orders WHERE id = ?", BigDecimal.class, order.getId())));
+		assertEquals(0, expected.compareTo(jdbcTemplate.queryForObject("SELECT total_spent FROM customer_order_stats WHERE customer_id = ?", BigDecimal.class, customer.getId())));
+
+		// Testing that the retries let most mutations through
+		assertTrue(added.size() >= THREADS * OPERATIONS_PER_THREAD * 3 / 4, added.size() + " mutations succeeded");
+	}
+
+	@AfterEach
+	public void tearDown() {
+		jdbcTemplate.update("DELETE FROM order_line WHERE order_id = ?", order.getId());
+		jdbcTemplate.update("DELETE FROM order_product WHERE order_id = ?", order.getId());
+		jdbcTemplate.update("DELETE FROM orders WHERE id = ?", order.getId());
+		productRepository.deleteAll(products);
+		customerRepository.delete(customer);
+	}
+}
@@ -1,7 +1,13 @@
 package com.SpringBootStarters.MarketPlace;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.ByteArrayOutputStream;
+import java.time.Instant;
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 
@@ -14,13 +20,29 @@ import org.mockito.Mockito;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.SpringBootStarters.MarketPlace.Controllers.OrderController;
+import com.SpringBootStarters.MarketPlace.DTOs.BulkOrderDto;
+import com.SpringBootStarters.MarketPlace.DTOs.BulkOrderResultDto;
+import com.SpringBootStarters.MarketPlace.DTOs.CursorPage;
 import com.SpringBootStarters.MarketPlace.DTOs.OrderDto;
+import com.SpringBootStarters.MarketPlace.DTOs.OrderExportFilter;
+import com.SpringBootStarters.MarketPlace.DTOs.OrderIntakeStatusDto;
+import com.SpringBootStarters.MarketPlace.DTOs.OrderViewDto;
 import com.SpringBootStarters.MarketPlace.Entities.Orders;
+import com.SpringBootStarters.MarketPlace.Repositories.EntityVersion;
+import com.SpringBootStarters.MarketPlace.Services.OrderBulkService;
+import com.SpringBootStarters.MarketPlace.Services.OrderExportService;
+import com.SpringBootStarters.MarketPlace.Services.OrderIntakeService;
 import com.SpringBootStarters.MarketPlace.Services.OrderService;
+import com.SpringBootStarters.MarketPlace.Utils.ResponseFields;
 
 @SpringBootTest
 public class MarketPlaceOrderControllerTests {
@@ -29,6 +51,15 @@ public class MarketPlaceOrderControllerTests {
 	@Mock
 	private OrderService orderService;
 
+	@Mock
+	private OrderExportService orderExportService;
+
+	@Mock
+	private OrderBulkService orderBulkService;
+
+	@Mock
+	private OrderIntakeService orderIntakeService;
+
 	@InjectMocks
 	private OrderController orderController;
 
@@ -42,14 +73,20 @@ public class MarketPlaceOrderControllerTests {
 		logger.info("Testing getOrders method");
 
 		// Testing the retrieval of a list of orders
-		List<Orders> orders = Arrays.asList(new Orders(1L));
-		Mockito.when(orderService.getOrders()).thenReturn(orders);
-		ResponseEntity<List<Orders>> responseEntity = orderController.getOrders();
+		CursorPage<Orders> orders = new CursorPage<>(Arrays.asList(new Orders(1L)), 1, false, null);
+		Mockito.when(orderService.getOrders(null, 20, "id", true)).thenReturn(orders);
+		ResponseEntity<CursorPage<OrderViewDto>> responseEntity = orderController.getOrders(null, 20, "id", null, null);
 		assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
-		assertEquals(orders, responseEntity.getBody());
+		assertEquals(1L, responseEntity.getBody().getContent().get(0).getId());
+
+		// Testing the retrieval of a page of order summaries, without their products
+		Mockito.when(orderService.getOrders(null, 20, "id", false)).thenReturn(orders);
+		ResponseEntity<CursorPage<OrderViewDto>> summaries = orderController.getOrders(null, 20, "id", ResponseFields.SUMMARY, null);
+		assertNull(summaries.getBody().getContent().get(0).getProducts());
 
 		// Verify
-		Mockito.verify(orderService, Mockito.times(1)).getOrders();
+		Mockito.verify(orderService, Mockito.times(1)).getOrders(null, 20, "id", true);
+		Mockito.verify(orderService, Mockito.times(1)).getOrders(null, 20, "id", false);
 	}
 
 	@Test
@@ -58,13 +95,30 @@ public class MarketPlaceOrderControllerTests {
 
 		// Testing the retrieval of an order by its ID
 		Orders order = new Orders(1L);
-		Mockito.when(orderService.getOrder(1L)).thenReturn(order);
-		ResponseEntity<Orders> responseEntity = orderController.getOrder(1L);
+		order.setVersion(4);
+		Mockito.when(orderService.getOrderVersion(1L)).thenReturn(new EntityVersion(4, 0, Instant.parse("2026-01-01T10:00:00Z")));
+		Mockito.when(orderService.getOrder(1L, true, true)).thenReturn(order);
+		ResponseEntity<OrderViewDto> responseEntity = orderController.getOrder(1L, null, null, new ServletWebRequest(new MockHttpServletRequest("GET", "/api/v1/orders/1")));
 		assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
-		assertEquals(order, responseEntity.getBody());
+		assertEquals(1L, responseEntity.getBody().getId());
+		assertEquals("\"4.0\"", responseEntity.getHeaders().getETag());
+
+		// Testing the retrieval of some fields of an order, which loads only the selected associations
+		Mockito.when(orderService.getOrder(1L, false, true)).thenReturn(order);
+		assertTrue(orderController.getOrder(1L, null, "id,products", new ServletWebRequest(new MockHttpServletRequest("GET", "/api/v1/orders/1"))).getBody().getProducts().isEmpty());
+		assertThrowsExactly(IllegalArgumentException.class, () -> orderController.getOrder(1L, null, "id,secret", new ServletWebRequest(new MockHttpServletRequest("GET", "/api/v1/orders/1"))));
+
+		// Testing a conditional retrieval of an unchanged order, by date
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/orders/1");
+		request.addHeader(HttpHeaders.IF_MODIFIED_SINCE, "Thu, 01 Jan 2026 10:00:00 GMT");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		assertNull(orderController.getOrder(1L, ResponseFields.SUMMARY, null, new ServletWebRequest(request, response)));
+		assertEquals(HttpStatus.NOT_MODIFIED.value(), response.getStatus());
 
 		// Verify
-		Mockito.verify(orderService, Mockito.times(1)).getOrder(1L);
+		Mockito.verify(orderService, Mockito.times(3)).getOrderVersion(1L);
+		Mockito.verify(orderService, Mockito.times(1)).getOrder(1L, true, true);
+		Mockito.verify(orderService, Mockito.times(1)).getOrder(1L, false, true);
 	}
 
 	@Test
@@ -72,14 +126,14 @@ public class MarketPlaceOrderControllerTests {
 		logger.info("Testing getOrdersByProductId method");
 
 		// Testing the retrieval of a list of orders by product ID
-		List<Orders> orders = Arrays.asList(new Orders(1L));
-		Mockito.when(orderService.getOrdersByProductId(1L)).thenReturn(orders);
-		ResponseEntity<List<Orders>> responseEntity = orderController.getOrdersByProductId(1L);
+		CursorPage<Orders> orders = new CursorPage<>(Arrays.asList(new Orders(1L)), 1, false, null);
+		Mockito.when(orderService.getOrdersByProductId(1L, null, 20, true)).thenReturn(orders);
+		ResponseEntity<CursorPage<OrderViewDto>> responseEntity = orderController.getOrdersByProductId(1L, null, 20, null, null);
 		assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
-		assertEquals(orders, responseEntity.getBody());
+		assertEquals(1L, responseEntity.getBody().getContent().get(0).getId());
 
 		// Verify
-		Mockito.verify(orderService, Mockito.times(1)).getOrdersByProductId(1L);
+		Mockito.verify(orderService, Mockito.times(1)).getOrdersByProductId(1L, null, 20, true);
 	}
 
 	@Test
@@ -87,14 +141,32 @@ public class MarketPlaceOrderControllerTests {
 		logger.info("Testing getOrdersByCustomerId method");
 
 		// Testing the retrieval of a list of orders by customer ID
-		List<Orders> orders = Arrays.asList(new Orders(1L));
-		Mockito.when(orderService.getOrdersByCustomerId(1L)).thenReturn(orders);
-		ResponseEntity<List<Orders>> responseEntity = orderController.getOrdersByCustomerId(1L);
+		CursorPage<Orders> orders = new CursorPage<>(Arrays.asList(new Orders(1L)), 1, false, null);
+		Mockito.when(orderService.getOrdersByCustomerId(1L, null, 20, true)).thenReturn(orders);
+		ResponseEntity<CursorPage<OrderViewDto>> responseEntity = orderController.getOrdersByCustomerId(1L, null, 20, null, null);
+		assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+		assertEquals(1L, responseEntity.getBody().getContent().get(0).getId());
+
+		// Verify
+		Mockito.verify(orderService, Mockito.times(1)).getOrdersByCustomerId(1L, null, 20, true);
+	}
+
+	@Test
+	public void testExportOrders() throws Exception {
+		logger.info("Testing exportOrders method");
+
+		// Testing the export of orders as gzip compressed NDJSON
+		ResponseEntity<StreamingResponseBody> responseEntity = orderController.exportOrders(1L, null, null, true);
 		assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
-		assertEquals(orders, responseEntity.getBody());
+		assertEquals("gzip", responseEntity.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+		responseEntity.getBody().writeTo(new ByteArrayOutputStream());
+
+		// Testing the export of orders with an empty date range
+		LocalDateTime now = LocalDateTime.now();
+		assertThrowsExactly(IllegalArgumentException.class, () -> orderController.exportOrders(null, now, now, false));
 
 		// Verify
-		Mockito.verify(orderService, Mockito.times(1)).getOrdersByCustomerId(1L);
+		Mockito.verify(orderExportService, Mockito.times(1)).exportOrders(Mockito.any(OrderExportFilter.class), Mockito.any());
 	}
 
 	@Test
@@ -106,14 +178,57 @@ public class MarketPlaceOrderControllerTests {
 
 		// Testing the creation of an order
 		Mockito.when(orderService.createOrder(1L, orderDto)).thenReturn(order);
-		ResponseEntity<Orders> responseEntity = orderController.createOrder(1L, orderDto);
+		ResponseEntity<OrderViewDto> responseEntity = orderController.createOrder(1L, orderDto);
 		assertEquals(HttpStatus.CREATED, responseEntity.getStatusCode());
-		assertEquals(order, responseEntity.getBody());
+		assertEquals(order.getId(), responseEntity.getBody().getId());
 
 		// Verify
 		Mockito.verify(orderService, Mockito.times(1)).createOrder(1L, orderDto);
 	}
 
+	@Test
+	public void testCreateOrders() {
+		logger.info("Testing createOrders method");
+
+		List<BulkOrderDto> orders = Arrays.asList(new BulkOrderDto(1L, Arrays.asList(1L, 2L)));
+		List<BulkOrderResultDto> results = Arrays.asList(BulkOrderResultDto.created(0, 1L));
+
+		// Testing the creation of orders in bulk
+		Mockito.when(orderBulkService.createOrders(orders)).thenReturn(results);
+		ResponseEntity<List<BulkOrderResultDto>> responseEntity = orderController.createOrders(orders);
+		assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+		assertEquals(results, responseEntity.getBody());
+
+		// Verify
+		Mockito.verify(orderBulkService, Mockito.times(1)).createOrders(orders);
+	}
+
+	@Test
+	public void testSubmitOrder() {
+		logger.info("Testing submitOrder method");
+
+		OrderDto orderDto = new OrderDto(Arrays.asList(1L, 2L));
+		OrderIntakeStatusDto queued = OrderIntakeStatusDto.queued("ticket-1");
+
+		// Testing the submission of an order to the intake
+		Mockito.when(orderIntakeService.submit(1L, orderDto)).thenReturn(queued);
+		ResponseEntity<OrderIntakeStatusDto> responseEntity = orderController.submitOrder(1L, orderDto);
+		assertEquals(HttpStatus.ACCEPTED, responseEntity.getStatusCode());
+		assertEquals("/api/v1/orders/intake/ticket-1", responseEntity.getHeaders().getLocation().toString());
+		assertEquals(queued, responseEntity.getBody());
+
+		// Testing the retrieval of the status of the submitted order
+		OrderIntakeStatusDto created = OrderIntakeStatusDto.of("ticket-1", BulkOrderResultDto.created(0, 5L));
+		Mockito.when(orderIntakeService.getStatus("ticket-1")).thenReturn(created);
+		ResponseEntity<OrderIntakeStatusDto> status = orderController.getIntakeStatus("ticket-1");
+		assertEquals(HttpStatus.OK, status.getStatusCode());
+		assertEquals(5L, status.getBody().getOrderId());
+
+		// Verify
+		Mockito.verify(orderIntakeService, Mockito.times(1)).submit(1L, orderDto);
+		Mockito.verify(orderIntakeService, Mockito.times(1)).getStatus("ticket-1");
+	}
+
 	@Test
 	public void testUpdateOrder() {
 		logger.info("Testing updateOrder method");
@@ -123,14 +238,35 @@ public class MarketPlaceOrderControllerTests {
 
 		// Testing the update of an order
 		Mockito.when(orderService.updateOrder(1L, orderDto)).thenReturn(order);
-		ResponseEntity<Orders> responseEntity = orderController.updateOrders(1L, orderDto);
+		ResponseEntity<OrderViewDto> responseEntity = orderController.updateOrders(1L, orderDto);
 		assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
-		assertEquals(order, responseEntity.getBody());
+		assertEquals(order.getId(), responseEntity.getBody().getId());
 
 		// Verify
 		Mockito.verify(orderService, Mockito.times(1)).updateOrder(1L, orderDto);
 	}
 
+	@Test
+	public void testAddAndRemoveProducts() {
+		logger.info("Testing addProducts and removeProducts methods");
+
+		Orders order = new Orders(1L);
+		OrderDto orderDto = new OrderDto();
+
+		// Testing the addition and the removal of products
+		Mockito.when(orderService.addProducts(1L, orderDto)).thenReturn(order);
+		Mockito.when(orderService.removeProducts(1L, orderDto)).thenReturn(order);
+		ResponseEntity<OrderViewDto> added = orderController.addProducts(1L, orderDto);
+		ResponseEntity<OrderViewDto> removed = orderController.removeProducts(1L, orderDto);
+		assertEquals(HttpStatus.OK, added.getStatusCode());
+		assertEquals(order.getId(), added.getBody().getId());
+		assertEquals(HttpStatus.OK, removed.getStatusCode());
+
+		// Verify
+		Mockito.verify(orderService, Mockito.times(1)).addProducts(1L, orderDto);
+		Mockito.verify(orderService, Mockito.times(1)).removeProducts(1L, orderDto);
+	}
+
 	@Test
 	public void testDeleteOrder() {
 		logger.info("Testing deleteOrder method");
@@ -0,0 +1,142 @@
+package com.SpringBootStarters.MarketPlace;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.SpringBootStarters.MarketPlace.DTOs.OrderDto;
+import com.SpringBootStarters.MarketPlace.Entities.Customer;
+import com.SpringBootStarters.MarketPlace.Entities.Orders;
+import com.SpringBootStarters.MarketPlace.Entities.Product;
+import com.SpringBootStarters.MarketPlace.Repositories.CustomerRepository;
+import com.SpringBootStarters.MarketPlace.Repositories.OrderRepository;
+import com.SpringBootStarters.MarketPlace.Repositories.ProductRepository;
+import com.SpringBootStarters.MarketPlace.Services.OrderService;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Checks that changing the products of a large order writes only the
+ * changed rows instead of rewriting all of its order_product rows, both
+ * through the entity and through the delta operations.
+ */
+@SpringBootTest(properties = { "spring.jpa.properties.hibernate.generate_statistics=true", "marketplace.inventory.node={host}:statistics" })
+public class MarketPlaceOrderDeltaTests {
+	private static final Logger logger = LoggerFactory.getLogger(MarketPlaceOrderDeltaTests.class);
+	private static final int PRODUCT_COUNT = 200;
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private CustomerRepository customerRepository;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+	private Customer customer;
+	private List<Long> productIds;
+	private Orders order;
+
+	@BeforeEach
+	public void setUp() {
+		logger.info("Seeding a large order for the delta tests");
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		String suffix = UUID.randomUUID().toString().substring(0, 8);
+		customer = customerRepository.save(new Customer("Delta", "Buyer", "delta-" + suffix + "@example.com", 35));
+		List<Product> products = new ArrayList<>();
+		for (int i = 0; i < PRODUCT_COUNT + 2; i++)
+			products.add(new Product(0L, "Delta product " + i + " " + suffix, BigDecimal.ONE));
+		productIds = productRepository.saveAll(products).stream().map(Product::getId).toList();
+		order = orderService.createOrder(customer.getId(), new OrderDto(productIds.subList(0, PRODUCT_COUNT)));
+	}
+
+	@Test
+	public void testUpdateOrderDoesNotRecreateProducts() {
+		statistics.clear();
+		orderService.updateOrder(order.getId(), new OrderDto(List.of(productIds.get(PRODUCT_COUNT))));
+		// Order, product and lines selects, one insert per collection and the total update
+		assertEquals(6, statistics.getPrepareStatementCount());
+		assertEquals(PRODUCT_COUNT + 1, countProducts());
+		assertEquals(new BigDecimal("201.00"), total());
+	}
+
+	@Test
+	public void testRemoveThroughEntityDoesNotRecreateProducts() {
+		// A copy of the product is enough to find it in the set, products are equal by id
+		Product removed = new Product(productIds.get(0), "Copy", BigDecimal.ONE);
+		statistics.clear();
+		transactionTemplate.executeWithoutResult(status -> {
+			Orders managed = orderRepository.findWithCustomerAndProductsById(order.getId()).orElseThrow();
+			assertTrue(managed.getProducts().remove(removed));
+		});
+		// The order select, a single delete and the version increment, a bag would delete every row and insert them back
+		assertEquals(3, statistics.getPrepareStatementCount());
+		assertEquals(PRODUCT_COUNT - 1, countProducts());
+	}
+
+	@Test
+	public void testAddAndRemoveProducts() {
+		// Testing that adding new and existing products only adds the new ones
+		Orders updated = orderService.addProducts(order.getId(), new OrderDto(List.of(productIds.get(0), productIds.get(PRODUCT_COUNT), productIds.get(PRODUCT_COUNT + 1))));
+		assertEquals(PRODUCT_COUNT + 2, updated.getProducts().size());
+		assertEquals(new BigDecimal("202.00"), updated.getTotalAmount());
+
+		// Testing that adding the same products again changes nothing
+		orderService.addProducts(order.getId(), new OrderDto(List.of(productIds.get(PRODUCT_COUNT))));
+		assertEquals(PRODUCT_COUNT + 2, countProducts());
+		assertEquals(new BigDecimal("202.00"), total());
+
+		// Testing that removing products and unknown ones only removes the products of the order
+		updated = orderService.removeProducts(order.getId(), new OrderDto(List.of(productIds.get(0), productIds.get(1), -1L)));
+		assertEquals(PRODUCT_COUNT, updated.getProducts().size());
+		assertEquals(new BigDecimal("200.00"), updated.getTotalAmount());
+		assertEquals(PRODUCT_COUNT, (int) jdbcTemplate.queryForObject("SELECT count(*) FROM order_line WHERE order_id = ?", Integer.class, order.getId()));
+	}
+
+	private int countProducts() {
+		return jdbcTemplate.queryForObject("SELECT count(*) FROM order_product WHERE order_id = ?", Integer.class, order.getId());
+	}
+
+	private BigDecimal total() {
+		return jdbcTemplate.queryForObject("SELECT total_amount FROM orders WHERE id = ?", BigDecimal.class, order.getId());
+	}
+
+	@AfterEach
+	public void tearDown() {
+		jdbcTemplate.update("DELETE FROM order_line WHERE order_id = ?", order.getId());
+		jdbcTemplate.update("DELETE FROM order_product WHERE order_id = ?", order.getId());
+		jdbcTemplate.update("DELETE FROM orders WHERE id = ?", order.getId());
+		productRepository.deleteAllById(productIds);
+		customerRepository.delete(customer);
+	}
+}
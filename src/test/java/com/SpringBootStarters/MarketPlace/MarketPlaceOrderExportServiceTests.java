@@ -0,0 +1,95 @@
+package com.SpringBootStarters.MarketPlace;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.Spy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.SpringBootStarters.MarketPlace.DTOs.OrderExportFilter;
+import com.SpringBootStarters.MarketPlace.Entities.Orders;
+import com.SpringBootStarters.MarketPlace.Repositories.OrderRepository;
+import com.SpringBootStarters.MarketPlace.Services.OrderExportService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManager;
+
+@SpringBootTest
+public class MarketPlaceOrderExportServiceTests {
+	private static final Logger logger = LoggerFactory.getLogger(MarketPlaceOrderExportServiceTests.class);
+
+	@Mock
+	private OrderRepository orderRepository;
+
+	@Mock
+	private EntityManager entityManager;
+
+	@Spy
+	private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+	@InjectMocks
+	private OrderExportService orderExportService;
+
+	@BeforeAll
+	public static void setUp() {
+		logger.info("Starting order export service tests");
+	}
+
+	@Test
+	public void testExportOrders() throws Exception {
+		logger.info("Testing exportOrders method");
+
+		OrderExportFilter filter = new OrderExportFilter(null, null, null);
+
+		// Testing the export of orders as one JSON document per line
+		Mockito.when(orderRepository.streamByDateRange(filter.getFrom(), filter.getTo())).thenReturn(Stream.of(new Orders(1L), new Orders(2L)));
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		long count = orderExportService.exportOrders(filter, out);
+		String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+		assertEquals(2, count);
+		assertEquals(2, lines.length);
+		assertTrue(lines[0].startsWith("{\"id\":1"));
+		assertTrue(lines[1].startsWith("{\"id\":2"));
+
+		// Verify
+		Mockito.verify(orderRepository, Mockito.times(1)).streamByDateRange(filter.getFrom(), filter.getTo());
+	}
+
+	@Test
+	public void testExportOrdersByCustomer() throws Exception {
+		logger.info("Testing exportOrders method with a customer filter");
+
+		LocalDateTime from = LocalDateTime.of(2024, 1, 1, 0, 0);
+		LocalDateTime to = LocalDateTime.of(2024, 2, 1, 0, 0);
+		OrderExportFilter filter = new OrderExportFilter(1L, from, to);
+
+		// Testing the export of the orders of a customer, an empty export writes nothing
+		Mockito.when(orderRepository.streamByCustomerIdAndDateRange(1L, from, to)).thenReturn(Stream.empty());
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		long count = orderExportService.exportOrders(filter, out);
+		assertEquals(0, count);
+		assertEquals(0, out.size());
+
+		// Verify
+		Mockito.verify(orderRepository, Mockito.times(1)).streamByCustomerIdAndDateRange(1L, from, to);
+		Mockito.verify(orderRepository, Mockito.never()).streamByDateRange(Mockito.any(), Mockito.any());
+	}
+
+	@AfterAll
+	public static void tearDown() {
+		logger.info("Finished order export service tests");
+	}
+}
@@ -0,0 +1,180 @@
+package com.SpringBootStarters.MarketPlace;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+
+import com.SpringBootStarters.MarketPlace.DTOs.BulkOrderDto;
+import com.SpringBootStarters.MarketPlace.DTOs.BulkOrderResultDto;
+import com.SpringBootStarters.MarketPlace.DTOs.OrderDto;
+import com.SpringBootStarters.MarketPlace.DTOs.OrderIntakeStatusDto;
+import com.SpringBootStarters.MarketPlace.Entities.Product;
+import com.SpringBootStarters.MarketPlace.Services.InventoryService;
+import com.SpringBootStarters.MarketPlace.Services.OrderBulkService;
+import com.SpringBootStarters.MarketPlace.Services.OrderIntakeService;
+import com.SpringBootStarters.MarketPlace.Services.ProductCatalog;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityNotFoundException;
+
+@SpringBootTest
+public class MarketPlaceOrderIntakeServiceTests {
+	private static final Logger logger = LoggerFactory.getLogger(MarketPlaceOrderIntakeServiceTests.class);
+	private static final OrderDto ORDER = new OrderDto(Arrays.asList(1L));
+
+	@Mock
+	private OrderBulkService orderBulkService;
+
+	@Mock
+	private ProductCatalog productCatalog;
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private OrderIntakeService orderIntakeService;
+
+	@BeforeAll
+	public static void setUp() {
+		logger.info("Starting order intake service tests");
+	}
+
+	@Test
+	public void testSubmitGroupsOrdersInOneBatch() {
+		logger.info("Testing that queued orders are written in one batch");
+
+		orderIntakeService = intake(100, 10);
+		Mockito.when(productCatalog.findAllById(Mockito.anyCollection())).thenReturn(Arrays.asList(product(1L)));
+		Mockito.when(orderBulkService.createOrders(Mockito.anyList())).thenAnswer(invocation -> {
+			List<BulkOrderDto> orders = invocation.getArgument(0);
+			List<BulkOrderResultDto> results = new ArrayList<>();
+			for (int i = 0; i < orders.size(); i++)
+				results.add(i == 0 ? BulkOrderResultDto.failed(i, "Customer not found with Id : 9") : BulkOrderResultDto.created(i, 100L + i));
+			return results;
+		});
+
+		// Testing that orders submitted before the writer runs are queued
+		List<OrderIntakeStatusDto> queued = new ArrayList<>();
+		for (int i = 0; i < 5; i++)
+			queued.add(orderIntakeService.submit(9L - Math.min(i, 1) * 8, ORDER));
+		assertEquals(OrderIntakeStatusDto.Status.QUEUED, queued.get(0).getStatus());
+		assertEquals(5.0, meterRegistry.get("marketplace.intake.queue.depth").gauge().value());
+
+		// Testing that the writer creates them with one call and publishes their status
+		orderIntakeService.start();
+		String last = queued.get(4).getTicket();
+		await(() -> orderIntakeService.getStatus(last).getStatus() != OrderIntakeStatusDto.Status.QUEUED);
+		assertEquals(OrderIntakeStatusDto.Status.FAILED, orderIntakeService.getStatus(queued.get(0).getTicket()).getStatus());
+		assertEquals(104L, orderIntakeService.getStatus(last).getOrderId());
+		assertEquals(5.0, meterRegistry.get("marketplace.intake.batch.size").summary().max());
+
+		// Verify
+		Mockito.verify(orderBulkService, Mockito.times(1)).createOrders(Mockito.anyList());
+	}
+
+	@Test
+	public void testSubmitRejectsWhenQueueIsFull() throws Exception {
+		logger.info("Testing that orders are rejected when the queue is full");
+
+		orderIntakeService = intake(1, 10);
+		CountDownLatch writing = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		Mockito.when(productCatalog.findAllById(Mockito.anyCollection())).thenReturn(Arrays.asList(product(1L)));
+		Mockito.when(orderBulkService.createOrders(Mockito.anyList())).thenAnswer(invocation -> {
+			writing.countDown();
+			release.await();
+			return Arrays.asList(BulkOrderResultDto.created(0, 1L));
+		});
+		orderIntakeService.start();
+
+		// Testing a full queue while the writer is busy
+		orderIntakeService.submit(1L, ORDER);
+		writing.await();
+		orderIntakeService.submit(1L, ORDER);
+		RejectedExecutionException thrown = assertThrowsExactly(RejectedExecutionException.class, () -> orderIntakeService.submit(1L, ORDER));
+		assertTrue(thrown.getMessage().contains("Order intake queue is full"));
+		release.countDown();
+	}
+
+	@Test
+	public void testStopsBetweenWebServerAndInventory() {
+		logger.info("Testing that the intake drains after the web server and before the inventory stop");
+
+		orderIntakeService = intake(100, 10);
+		InventoryService inventoryService = new InventoryService(null, null, meterRegistry, "intake-test", 8080, 1, 100, Duration.ofSeconds(1), Duration.ofMinutes(1));
+
+		// Lifecycles stop in decreasing phase order
+		assertTrue(orderIntakeService.getPhase() < WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 1024);
+		assertTrue(orderIntakeService.getPhase() > inventoryService.getPhase());
+	}
+
+	@Test
+	public void testSubmitValidatesOrder() {
+		logger.info("Testing the validation of submitted orders");
+
+		orderIntakeService = intake(10, 10);
+
+		// Testing the submission of invalid orders
+		IllegalArgumentException thrown = assertThrowsExactly(IllegalArgumentException.class, () -> orderIntakeService.submit(1L, null));
+		assertTrue(thrown.getMessage().contains("Order can't be null"));
+		IllegalArgumentException thrown2 = assertThrowsExactly(IllegalArgumentException.class, () -> orderIntakeService.submit(1L, new OrderDto(new ArrayList<>())));
+		assertTrue(thrown2.getMessage().contains("Order must contain at least one product"));
+
+		// Testing the submission of an order with an unknown product
+		Mockito.when(productCatalog.findAllById(Mockito.anyCollection())).thenReturn(Arrays.asList(product(1L)));
+		EntityNotFoundException thrown3 = assertThrowsExactly(EntityNotFoundException.class, () -> orderIntakeService.submit(1L, new OrderDto(Arrays.asList(1L, 3L))));
+		assertTrue(thrown3.getMessage().contains("Product not found with Id : 3"));
+
+		// Testing the status of an unknown ticket
+		EntityNotFoundException thrown4 = assertThrowsExactly(EntityNotFoundException.class, () -> orderIntakeService.getStatus("unknown"));
+		assertTrue(thrown4.getMessage().contains("Order intake ticket not found : unknown"));
+
+		// Verify
+		Mockito.verify(orderBulkService, Mockito.never()).createOrders(Mockito.anyList());
+	}
+
+	@AfterEach
+	public void stopIntake() {
+		if (orderIntakeService.isRunning())
+			orderIntakeService.stop();
+	}
+
+	private OrderIntakeService intake(int queueCapacity, int batchSize) {
+		return new OrderIntakeService(orderBulkService, productCatalog, meterRegistry, queueCapacity, batchSize, Duration.ofMillis(50), Duration.ofMinutes(1));
+	}
+
+	private static Product product(long id) {
+		return new Product(id, "Product " + id, BigDecimal.TEN);
+	}
+
+	private static void await(BooleanSupplier condition) {
+		long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+		while (!condition.getAsBoolean()) {
+			if (System.nanoTime() > deadline)
+				throw new AssertionError("Condition not met within 5 seconds");
+			Thread.onSpinWait();
+		}
+	}
+
+	@AfterAll
+	public static void tearDown() {
+		logger.info("Finishing order intake service tests");
+	}
+}
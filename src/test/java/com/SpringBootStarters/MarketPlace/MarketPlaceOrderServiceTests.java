@@ -5,7 +5,9 @@ import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,19 +17,34 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import com.SpringBootStarters.MarketPlace.DTOs.CursorPage;
 import com.SpringBootStarters.MarketPlace.DTOs.OrderDto;
 import com.SpringBootStarters.MarketPlace.Entities.Customer;
+import com.SpringBootStarters.MarketPlace.Entities.OrderLine;
 import com.SpringBootStarters.MarketPlace.Entities.Orders;
 import com.SpringBootStarters.MarketPlace.Entities.Product;
+import com.SpringBootStarters.MarketPlace.Repositories.CustomerOrderStatsRepository;
 import com.SpringBootStarters.MarketPlace.Repositories.CustomerRepository;
+import com.SpringBootStarters.MarketPlace.Repositories.EntityVersionRepository;
+import com.SpringBootStarters.MarketPlace.Repositories.OrderLineRepository;
 import com.SpringBootStarters.MarketPlace.Repositories.OrderRepository;
-import com.SpringBootStarters.MarketPlace.Repositories.ProductRepository;
+import com.SpringBootStarters.MarketPlace.Services.BestSellerTracker;
+import com.SpringBootStarters.MarketPlace.Services.InventoryService;
 import com.SpringBootStarters.MarketPlace.Services.OrderService;
+import com.SpringBootStarters.MarketPlace.Services.ProductCatalog;
+import com.SpringBootStarters.MarketPlace.Services.RetryPolicy;
+import com.SpringBootStarters.MarketPlace.Utils.PageCursor;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.persistence.EntityNotFoundException;
 
 @SpringBootTest
@@ -41,8 +58,29 @@ public class MarketPlaceOrderServiceTests {
 	private CustomerRepository customerRepository;
 
 	@Mock
-	private ProductRepository productRepository;
+	private ProductCatalog productCatalog;
+
+	@Mock
+	private OrderLineRepository orderLineRepository;
+
+	@Mock
+	private CustomerOrderStatsRepository customerOrderStatsRepository;
+
+	@Mock
+	private BestSellerTracker bestSellerTracker;
 	
+	@Mock
+	private EntityVersionRepository entityVersionRepository;
+
+	@Mock
+	private PlatformTransactionManager transactionManager;
+
+	@Mock
+	private InventoryService inventoryService;
+
+	@Spy
+	private RetryPolicy retryPolicy = new RetryPolicy(3, Duration.ZERO, Duration.ZERO, new SimpleMeterRegistry());
+
 	@InjectMocks
 	private OrderService orderService;
 
@@ -57,12 +95,27 @@ public class MarketPlaceOrderServiceTests {
 
 		// Testing the retrieval of a list of orders
 		List<Orders> orders = Arrays.asList(new Orders(1L));
-		Mockito.when(orderRepository.findAll()).thenReturn(orders);
-		List<Orders> result = orderService.getOrders();
-		assertEquals(orders, result);
+		Mockito.when(orderRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.ofSize(1))).thenReturn(new SliceImpl<>(orders, PageRequest.ofSize(1), true));
+		CursorPage<Orders> result = orderService.getOrders(null, 1, "id", true);
+		assertEquals(orders, result.getContent());
+		assertEquals(PageCursor.encodeId(1L), result.getNextCursor());
+
+		// Testing the retrieval of a page of orders sorted by date
+		Orders datedOrder = new Orders();
+		datedOrder.setId(2L);
+		Mockito.when(orderRepository.findAllByOrderByDateAscIdAsc(PageRequest.ofSize(1))).thenReturn(new SliceImpl<>(Arrays.asList(datedOrder), PageRequest.ofSize(1), true));
+		CursorPage<Orders> byDate = orderService.getOrders(null, 1, "date", true);
+		Mockito.when(orderRepository.findAfterDate(datedOrder.getDate(), 2L, PageRequest.ofSize(1))).thenReturn(new SliceImpl<>(Arrays.asList(), PageRequest.ofSize(1), false));
+		CursorPage<Orders> afterDate = orderService.getOrders(byDate.getNextCursor(), 1, "date", true);
+		assertTrue(afterDate.getContent().isEmpty());
+
+		// Testing the retrieval of orders with an unsupported sort key
+		IllegalArgumentException thrown = assertThrowsExactly(IllegalArgumentException.class, () -> orderService.getOrders(null, 1, "total", true));
+		assertTrue(thrown.getMessage().contains("Unsupported sort key : total"));
 
 		// Verify
-		Mockito.verify(orderRepository, Mockito.times(1)).findAll();
+		Mockito.verify(orderRepository, Mockito.times(1)).findByIdGreaterThanOrderByIdAsc(0L, PageRequest.ofSize(1));
+		Mockito.verify(orderRepository, Mockito.times(1)).findAfterDate(datedOrder.getDate(), 2L, PageRequest.ofSize(1));
 	}
 
 	@Test
@@ -71,17 +124,17 @@ public class MarketPlaceOrderServiceTests {
 
 		// Testing the retrieval of an order by its ID
 		Orders order = new Orders(1L);
-		Mockito.when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+		Mockito.when(orderRepository.findWithCustomerAndProductsById(1L)).thenReturn(Optional.of(order));
 		Orders result = orderService.getOrder(1L);
 		assertEquals(order, result);
 
 		// Testing the retrieval of an order that does not exist
-		Mockito.when(orderRepository.findById(2L)).thenReturn(Optional.empty());
+		Mockito.when(orderRepository.findWithCustomerAndProductsById(2L)).thenReturn(Optional.empty());
 		EntityNotFoundException thrown = assertThrowsExactly(EntityNotFoundException.class, () -> orderService.getOrder(2L));
 		assertTrue(thrown.getMessage().contains("Order not found with Id : 2"));
 
 		// Verify
-		Mockito.verify(orderRepository, Mockito.times(1)).findById(1L);
+		Mockito.verify(orderRepository, Mockito.times(1)).findWithCustomerAndProductsById(1L);
 	}
 
 	@Test
@@ -90,17 +143,17 @@ public class MarketPlaceOrderServiceTests {
 
 		// Testing the retrieval of a list of orders for a product
 		List<Orders> orders = Arrays.asList(new Orders(1L));
-		Mockito.when(orderRepository.findByProductsId(1L)).thenReturn(orders);
-		List<Orders> result = orderService.getOrdersByProductId(1L);
-		assertEquals(orders, result);
+		Mockito.when(orderRepository.findByProductsIdAndIdGreaterThanOrderByIdAsc(1L, 0L, PageRequest.ofSize(20))).thenReturn(new SliceImpl<>(orders, PageRequest.ofSize(20), false));
+		CursorPage<Orders> result = orderService.getOrdersByProductId(1L, null, 20, true);
+		assertEquals(orders, result.getContent());
 
 		// Testing the retrieval of a list of orders for a product that does not exist
-		Mockito.when(orderRepository.findByProductsId(2L)).thenReturn(Arrays.asList());
-		EntityNotFoundException thrown = assertThrowsExactly(EntityNotFoundException.class, () -> orderService.getOrdersByProductId(2L));
+		Mockito.when(orderRepository.findByProductsIdAndIdGreaterThanOrderByIdAsc(2L, 0L, PageRequest.ofSize(20))).thenReturn(new SliceImpl<>(Arrays.asList(), PageRequest.ofSize(20), false));
+		EntityNotFoundException thrown = assertThrowsExactly(EntityNotFoundException.class, () -> orderService.getOrdersByProductId(2L, null, 20, true));
 		assertTrue(thrown.getMessage().contains("No orders found for product with id 2"));
 
 		// Verify
-		Mockito.verify(orderRepository, Mockito.times(1)).findByProductsId(1L);
+		Mockito.verify(orderRepository, Mockito.times(1)).findByProductsIdAndIdGreaterThanOrderByIdAsc(1L, 0L, PageRequest.ofSize(20));
 	}
 
 	@Test
@@ -109,17 +162,17 @@ public class MarketPlaceOrderServiceTests {
 
 		// Testing the retrieval of a list of orders for a customer
 		List<Orders> orders = Arrays.asList(new Orders(1L));
-		Mockito.when(orderRepository.findByCustomerId(1L)).thenReturn(orders);
-		List<Orders> result = orderService.getOrdersByCustomerId(1L);
-		assertEquals(orders, result);
+		Mockito.when(orderRepository.findByCustomerIdAndIdGreaterThanOrderByIdAsc(1L, 0L, PageRequest.ofSize(20))).thenReturn(new SliceImpl<>(orders, PageRequest.ofSize(20), false));
+		CursorPage<Orders> result = orderService.getOrdersByCustomerId(1L, null, 20, true);
+		assertEquals(orders, result.getContent());
 
 		// Testing the retrieval of a list of orders for a customer that does not exist
-		Mockito.when(orderRepository.findByCustomerId(2L)).thenReturn(Arrays.asList());
-		EntityNotFoundException thrown = assertThrowsExactly(EntityNotFoundException.class, () -> orderService.getOrdersByCustomerId(2L));
+		Mockito.when(orderRepository.findByCustomerIdAndIdGreaterThanOrderByIdAsc(2L, 0L, PageRequest.ofSize(20))).thenReturn(new SliceImpl<>(Arrays.asList(), PageRequest.ofSize(20), false));
+		EntityNotFoundException thrown = assertThrowsExactly(EntityNotFoundException.class, () -> orderService.getOrdersByCustomerId(2L, null, 20, true));
 		assertTrue(thrown.getMessage().contains("No orders found for customer with id 2"));
 
 		// Verify
-		Mockito.verify(orderRepository, Mockito.times(1)).findByCustomerId(1L);
+		Mockito.verify(orderRepository, Mockito.times(1)).findByCustomerIdAndIdGreaterThanOrderByIdAsc(1L, 0L, PageRequest.ofSize(20));
 	}
 
 	@Test
@@ -132,8 +185,10 @@ public class MarketPlaceOrderServiceTests {
 		List<Product> products = Arrays.asList(new Product(1L, "Nike Air Jordan 1 Low", BigDecimal.valueOf(1500)), new Product(2L, "Nike Air Jordan 2 High", BigDecimal.valueOf(1700)));
 		
 		// Testing the creation of a new order
+		InventoryService.Reservation reservation = Mockito.mock(InventoryService.Reservation.class);
+		Mockito.when(inventoryService.reserve(Mockito.anyCollection())).thenReturn(reservation);
 		Mockito.when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
-		Mockito.when(productRepository.findAllById(orderDto.getProductIds())).thenReturn(products);
+		Mockito.when(productCatalog.findAllById(orderDto.getProductIds())).thenReturn(products);
 		Mockito.when(orderRepository.save(Mockito.any(Orders.class))).thenReturn(order);
 		Orders result = orderService.createOrder(1L, orderDto);
 		assertEquals(order, result);
@@ -149,8 +204,13 @@ public class MarketPlaceOrderServiceTests {
 
 		// Verify
 		Mockito.verify(customerRepository, Mockito.times(2)).findById(Mockito.anyLong());
-		Mockito.verify(productRepository, Mockito.times(1)).findAllById(Mockito.anyList());
-		Mockito.verify(orderRepository, Mockito.times(1)).save(Mockito.any(Orders.class));
+		Mockito.verify(productCatalog, Mockito.times(2)).findAllById(Mockito.anyList());
+		Mockito.verify(orderRepository, Mockito.times(1)).save(Mockito.argThat(saved -> saved.getLines().size() == 2 && new BigDecimal("3200.00").equals(saved.getTotalAmount())));
+		Mockito.verify(customerOrderStatsRepository, Mockito.times(1)).apply(Mockito.argThat(deltas -> deltas.size() == 1 && deltas.get(0).orderCount() == 1 && new BigDecimal("3200.00").equals(deltas.get(0).amount())));
+		Mockito.verify(bestSellerTracker, Mockito.times(1)).record(Mockito.argThat(lines -> lines.size() == 2));
+		Mockito.verify(inventoryService, Mockito.times(2)).reserve(Mockito.argThat(lines -> lines.size() == 2));
+		Mockito.verify(reservation, Mockito.times(1)).commit();
+		Mockito.verify(reservation, Mockito.times(1)).release();
 	}
 
 	@Test
@@ -161,15 +221,17 @@ public class MarketPlaceOrderServiceTests {
 		OrderDto orderDto = new OrderDto(Arrays.asList(1L, 2L));
 		List<Product> products = Arrays.asList(new Product(1L, "Nike Air Jordan 1 Low", BigDecimal.valueOf(1500)), new Product(2L, "Nike Air Jordan 2 High", BigDecimal.valueOf(1700)));
 
-		// Testing the update of an order
-		Mockito.when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
-		Mockito.when(productRepository.findAllById(orderDto.getProductIds())).thenReturn(products);
+		// Testing the update of an order, the units of the added products are sold
+		InventoryService.Reservation reservation = Mockito.mock(InventoryService.Reservation.class);
+		Mockito.when(inventoryService.reserve(Mockito.anyCollection())).thenReturn(reservation);
+		Mockito.when(orderRepository.findWithCustomerAndProductsById(1L)).thenReturn(Optional.of(order));
+		Mockito.when(productCatalog.findAllById(orderDto.getProductIds())).thenReturn(products);
 		Mockito.when(orderRepository.save(Mockito.any(Orders.class))).thenReturn(order);
 		Orders result = orderService.updateOrder(1L, orderDto);
 		assertEquals(order, result);
 
 		// Testing the update of an order that does not exist
-		Mockito.when(orderRepository.findById(2L)).thenReturn(Optional.empty());
+		Mockito.when(orderRepository.findWithCustomerAndProductsById(2L)).thenReturn(Optional.empty());
 		EntityNotFoundException thrown1 = assertThrowsExactly(EntityNotFoundException.class, () -> orderService.updateOrder(2L, orderDto));
 		assertTrue(thrown1.getMessage().contains("Order not found with Id : 2"));
 
@@ -178,27 +240,156 @@ public class MarketPlaceOrderServiceTests {
 		assertTrue(thrown2.getMessage().contains("Order can't be null"));
 
 		// Verify
-		Mockito.verify(orderRepository, Mockito.times(2)).findById(Mockito.anyLong());
-		Mockito.verify(productRepository, Mockito.times(1)).findAllById(Mockito.anyList());
+		Mockito.verify(orderRepository, Mockito.times(2)).findWithCustomerAndProductsById(Mockito.anyLong());
+		Mockito.verify(productCatalog, Mockito.times(2)).findAllById(Mockito.anyList());
 		Mockito.verify(orderRepository, Mockito.times(1)).save(Mockito.any(Orders.class));
+		Mockito.verify(inventoryService, Mockito.times(2)).reserve(Mockito.argThat(lines -> lines.size() == 2));
+		Mockito.verify(reservation, Mockito.times(1)).commit(Mockito.argThat(lines -> lines.size() == 2));
+		Mockito.verify(reservation, Mockito.times(1)).release();
+	}
+
+	@Test
+	public void testUpdateOrderKeepsStoredTotal() {
+		logger.info("Testing that updateOrder adds the new lines to the stored total");
+
+		// An order placed at 20.00 whose line was backfilled at today's price, plus a product without a price and so without a line
+		Customer customer = new Customer(1L, "John", "Doe", "doe@example.com", 25);
+		Orders order = new Orders(1L);
+		order.setCustomer(customer);
+		order.setTotalAmount(new BigDecimal("20.00"));
+		order.getProducts().add(new Product(1L, "Nike Air Jordan 1 Low", new BigDecimal("35.00")));
+		order.getProducts().add(new Product(3L, "Nike Air Jordan 3 Mid", null));
+		order.getLines().add(new OrderLine(1L, 3500, 1));
+		OrderDto orderDto = new OrderDto(Arrays.asList(1L, 2L, 3L));
+		List<Product> products = Arrays.asList(new Product(1L, "Nike Air Jordan 1 Low", new BigDecimal("35.00")), new Product(2L, "Nike Air Jordan 2 High", new BigDecimal("17.00")),
+				new Product(3L, "Nike Air Jordan 3 Mid", null));
+
+		// Testing that only the new product is added to the stored total and sold
+		InventoryService.Reservation reservation = Mockito.mock(InventoryService.Reservation.class);
+		Mockito.when(inventoryService.reserve(Mockito.anyCollection())).thenReturn(reservation);
+		Mockito.when(orderRepository.findWithCustomerAndProductsById(1L)).thenReturn(Optional.of(order));
+		Mockito.when(productCatalog.findAllById(orderDto.getProductIds())).thenReturn(products);
+		Mockito.when(orderRepository.save(Mockito.any(Orders.class))).thenReturn(order);
+		orderService.updateOrder(1L, orderDto);
+		assertEquals(new BigDecimal("37.00"), order.getTotalAmount());
+		assertEquals(2, order.getLines().size());
+
+		// Verify that the customer aggregates only see the added amount
+		Mockito.verify(customerOrderStatsRepository, Mockito.times(1)).apply(Mockito.argThat(deltas -> deltas.size() == 1 && deltas.get(0).orderCount() == 0 && new BigDecimal("17.00").equals(deltas.get(0).amount())));
+		Mockito.verify(bestSellerTracker, Mockito.times(1)).record(Mockito.argThat(lines -> lines.size() == 1 && lines.iterator().next().getProductId() == 2L));
+		Mockito.verify(inventoryService, Mockito.times(1)).reserve(Mockito.argThat(lines -> lines.size() == 2));
+		Mockito.verify(reservation, Mockito.times(1)).commit(Mockito.argThat(lines -> lines.size() == 1 && lines.iterator().next().getProductId() == 2L));
+	}
+
+	@Test
+	public void testUpdateOrderRetriesConflicts() {
+		logger.info("Testing that updateOrder retries concurrency conflicts");
+
+		Orders order = new Orders(1L);
+		OrderDto orderDto = new OrderDto(Arrays.asList(1L));
+		List<Product> products = Arrays.asList(new Product(1L, "Nike Air Jordan 1 Low", BigDecimal.valueOf(1500)));
+		InventoryService.Reservation reservation = Mockito.mock(InventoryService.Reservation.class);
+		Mockito.when(inventoryService.reserve(Mockito.anyCollection())).thenReturn(reservation);
+		Mockito.when(orderRepository.findWithCustomerAndProductsById(1L)).thenAnswer(invocation -> Optional.of(new Orders(1L)));
+		Mockito.when(productCatalog.findAllById(orderDto.getProductIds())).thenReturn(products);
+
+		// Testing that a stale order is read again and updated
+		Mockito.when(orderRepository.save(Mockito.any(Orders.class)))
+			.thenThrow(new ObjectOptimisticLockingFailureException(Orders.class, 1L))
+			.thenReturn(order);
+		assertEquals(order, orderService.updateOrder(1L, orderDto));
+		Mockito.verify(orderRepository, Mockito.times(2)).findWithCustomerAndProductsById(1L);
+		Mockito.verify(transactionManager, Mockito.times(1)).rollback(Mockito.any());
+		Mockito.verify(transactionManager, Mockito.times(1)).commit(Mockito.any());
+
+		// Testing that the conflict of the last attempt is thrown
+		Mockito.when(orderRepository.save(Mockito.any(Orders.class))).thenThrow(new ObjectOptimisticLockingFailureException(Orders.class, 1L));
+		assertThrowsExactly(ObjectOptimisticLockingFailureException.class, () -> orderService.updateOrder(1L, orderDto));
+
+		// Verify
+		Mockito.verify(orderRepository, Mockito.times(5)).findWithCustomerAndProductsById(1L);
+		Mockito.verify(bestSellerTracker, Mockito.times(1)).record(Mockito.anyList());
+		Mockito.verify(reservation, Mockito.times(1)).commit(Mockito.anyCollection());
+		Mockito.verify(reservation, Mockito.times(1)).release();
+	}
+
+	@Test
+	public void testAddProducts() {
+		logger.info("Testing addProducts method");
+
+		Orders order = new Orders(1L);
+		OrderDto orderDto = new OrderDto(Arrays.asList(1L, 2L));
+		List<Product> products = Arrays.asList(new Product(1L, "Nike Air Jordan 1 Low", BigDecimal.valueOf(1500)), new Product(2L, "Nike Air Jordan 2 High", BigDecimal.valueOf(1700)));
+
+		// Testing that only the new lines are handed to the repository and sold
+		InventoryService.Reservation reservation = Mockito.mock(InventoryService.Reservation.class);
+		Mockito.when(inventoryService.reserve(Mockito.anyCollection())).thenReturn(reservation);
+		Mockito.when(orderRepository.existsById(1L)).thenReturn(true);
+		Mockito.when(orderRepository.findWithCustomerAndProductsById(1L)).thenReturn(Optional.of(order));
+		Mockito.when(productCatalog.findAllById(orderDto.getProductIds())).thenReturn(products);
+		Mockito.when(orderLineRepository.addLines(Mockito.eq(1L), Mockito.anyList())).thenAnswer(invocation -> List.of(invocation.<List<OrderLine>>getArgument(1).get(1)));
+		Orders result = orderService.addProducts(1L, orderDto);
+		assertEquals(order, result);
+
+		// Testing the addition of products to an order that does not exist
+		Mockito.when(orderRepository.existsById(2L)).thenReturn(false);
+		EntityNotFoundException thrown = assertThrowsExactly(EntityNotFoundException.class, () -> orderService.addProducts(2L, orderDto));
+		assertTrue(thrown.getMessage().contains("Order not found with Id : 2"));
+
+		// Verify that the order is never saved as a whole
+		Mockito.verify(orderLineRepository, Mockito.times(1)).addLines(Mockito.eq(1L), Mockito.argThat(lines -> lines.size() == 2 && lines.get(1).getUnitPriceMinor() == 170000));
+		Mockito.verify(customerOrderStatsRepository, Mockito.times(1)).addToOrderTotal(1L, new BigDecimal("1700.00"));
+		Mockito.verify(bestSellerTracker, Mockito.times(1)).record(Mockito.argThat(lines -> lines.size() == 1));
+		Mockito.verify(orderRepository, Mockito.never()).save(Mockito.any(Orders.class));
+		Mockito.verify(inventoryService, Mockito.times(2)).reserve(Mockito.argThat(lines -> lines.size() == 2));
+		Mockito.verify(reservation, Mockito.times(1)).commit(Mockito.argThat(lines -> lines.size() == 1 && lines.iterator().next().getProductId() == 2L));
+		Mockito.verify(reservation, Mockito.times(1)).release();
+	}
+
+	@Test
+	public void testRemoveProducts() {
+		logger.info("Testing removeProducts method");
+
+		Orders order = new Orders(1L);
+
+		// Testing the removal of products, duplicated ids are removed once and their units given back
+		List<OrderLine> removed = List.of(new OrderLine(2L, 170000, 1));
+		Mockito.when(orderLineRepository.removeLines(Mockito.eq(1L), Mockito.anyCollection())).thenReturn(removed);
+		Mockito.when(orderRepository.existsById(1L)).thenReturn(true);
+		Mockito.when(orderRepository.findWithCustomerAndProductsById(1L)).thenReturn(Optional.of(order));
+		Orders result = orderService.removeProducts(1L, new OrderDto(Arrays.asList(2L, 1L, 2L)));
+		assertEquals(order, result);
+
+		// Testing the removal of a null product id
+		IllegalArgumentException thrown = assertThrowsExactly(IllegalArgumentException.class, () -> orderService.removeProducts(1L, new OrderDto(Arrays.asList(1L, null))));
+		assertTrue(thrown.getMessage().contains("Product ids can't be null"));
+
+		// Verify
+		Mockito.verify(orderLineRepository, Mockito.times(1)).removeLines(1L, new LinkedHashSet<>(Arrays.asList(2L, 1L)));
+		Mockito.verify(orderRepository, Mockito.never()).save(Mockito.any(Orders.class));
+		Mockito.verify(inventoryService, Mockito.times(1)).giveBack(removed);
 	}
 
 	@Test
 	public void testDeleteOrder() {
 		logger.info("Testing deleteOrder method");
 
-		// Testing the deletion of an order
-		Mockito.when(orderRepository.existsById(1L)).thenReturn(true);
+		// Testing the deletion of an order, the units of its lines are given back
+		Orders order = new Orders(1L);
+		order.getLines().add(new OrderLine(1L, 150000, 1));
+		Mockito.when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
 		orderService.deleteOrder(1L);
 
 		// Testing the exception when the order does not exist
-		Mockito.when(orderRepository.existsById(2L)).thenReturn(false);
+		Mockito.when(orderRepository.findById(2L)).thenReturn(Optional.empty());
 		EntityNotFoundException thrown = assertThrowsExactly(EntityNotFoundException.class, () -> orderService.deleteOrder(2L));
 		assertTrue(thrown.getMessage().contains("Order not found with Id : 2"));
 
 		// Verify
+		Mockito.verify(customerOrderStatsRepository, Mockito.times(1)).removeOrder(1L);
 		Mockito.verify(orderRepository, Mockito.times(1)).deleteById(1L);
-		Mockito.verify(orderRepository, Mockito.times(1)).existsById(2L);
+		Mockito.verify(orderRepository, Mockito.times(1)).findById(2L);
+		Mockito.verify(inventoryService, Mockito.times(1)).giveBack(order.getLines());
 	}
 
 	@AfterAll
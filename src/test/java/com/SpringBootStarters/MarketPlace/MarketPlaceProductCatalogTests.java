@@ -0,0 +1,127 @@
+package com.SpringBootStarters.MarketPlace;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.SpringBootStarters.MarketPlace.DTOs.ProductDto;
+import com.SpringBootStarters.MarketPlace.Entities.Product;
+import com.SpringBootStarters.MarketPlace.Repositories.ProductRepository;
+import com.SpringBootStarters.MarketPlace.Services.ProductCatalog;
+import com.SpringBootStarters.MarketPlace.Services.ProductService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityNotFoundException;
+
+/**
+ * Checks that product reads are served from the catalog cache and that
+ * updates and deletes invalidate it.
+ */
+@SpringBootTest(properties = { "spring.jpa.properties.hibernate.generate_statistics=true", "marketplace.inventory.node={host}:statistics" })
+public class MarketPlaceProductCatalogTests {
+	private static final Logger logger = LoggerFactory.getLogger(MarketPlaceProductCatalogTests.class);
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private ProductCatalog productCatalog;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+	private String suffix;
+	private List<Product> products;
+
+	@BeforeEach
+	public void setUp() {
+		logger.info("Seeding products for the catalog tests");
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		suffix = UUID.randomUUID().toString().substring(0, 8);
+		products = productRepository.saveAll(List.of(
+			new Product(0L, "Catalog shoe " + suffix, BigDecimal.valueOf(100)),
+			new Product(0L, "Catalog shirt " + suffix, BigDecimal.valueOf(50))
+		));
+		entityManagerFactory.getCache().evictAll();
+	}
+
+	@Test
+	public void testGetProductIsCached() {
+		long id = products.get(0).getId();
+
+		// Testing that the second read doesn't reach the database
+		statistics.clear();
+		productService.getProduct(id);
+		Product cached = productService.getProduct(id);
+		assertEquals(1, statistics.getPrepareStatementCount());
+		assertEquals("Catalog shoe " + suffix, cached.getProductName());
+
+		// Testing that the cache metrics are published
+		assertNotNull(meterRegistry.find("cache.gets").tag("cache", ProductCatalog.PRODUCTS_CACHE).tag("result", "hit").functionCounter());
+	}
+
+	@Test
+	public void testFindAllByIdLoadsMissesOnce() {
+		long first = products.get(0).getId();
+		long second = products.get(1).getId();
+		productService.getProduct(first);
+
+		// Testing that only the missing product is loaded, in the requested order
+		statistics.clear();
+		List<Product> result = productCatalog.findAllById(Arrays.asList(second, first, second, -1L));
+		assertEquals(Arrays.asList(second, first), result.stream().map(Product::getId).toList());
+		assertEquals(1, statistics.getPrepareStatementCount());
+
+		// Testing that both products are now served from the cache
+		statistics.clear();
+		productCatalog.findAllById(Arrays.asList(first, second));
+		assertEquals(0, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	public void testUpdateAndDeleteEvict() {
+		long id = products.get(0).getId();
+		productService.getProduct(id);
+
+		// Testing that an update is visible on the next read
+		productService.updateProduct(id, new ProductDto("Catalog boot " + suffix, BigDecimal.valueOf(120)));
+		Product updated = productService.getProduct(id);
+		assertEquals("Catalog boot " + suffix, updated.getProductName());
+		assertEquals(0, BigDecimal.valueOf(120).compareTo(updated.getPrice()));
+
+		// Testing that a deleted product is no longer returned
+		productService.deleteProduct(id);
+		assertThrowsExactly(EntityNotFoundException.class, () -> productService.getProduct(id));
+	}
+
+	@AfterEach
+	public void tearDown() {
+		for (Product product : products) {
+			if (productRepository.existsById(product.getId()))
+				productService.deleteProduct(product.getId());
+		}
+	}
+}
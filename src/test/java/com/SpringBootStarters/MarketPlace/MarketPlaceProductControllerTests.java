@@ -2,10 +2,19 @@ package com.SpringBootStarters.MarketPlace;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.ByteArrayOutputStream;
+import java.io.Reader;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Arrays;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
@@ -16,13 +25,32 @@ import org.mockito.Mockito;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import com.SpringBootStarters.MarketPlace.Controllers.ProductController;
+import com.SpringBootStarters.MarketPlace.DTOs.CursorPage;
+import com.SpringBootStarters.MarketPlace.DTOs.InventoryDto;
 import com.SpringBootStarters.MarketPlace.DTOs.ProductDto;
+import com.SpringBootStarters.MarketPlace.DTOs.ProductImportResultDto;
+import com.SpringBootStarters.MarketPlace.DTOs.ProductSalesDto;
+import com.SpringBootStarters.MarketPlace.DTOs.ProductSearchHitDto;
+import com.SpringBootStarters.MarketPlace.DTOs.ProductViewDto;
+import com.SpringBootStarters.MarketPlace.DTOs.RepricingDto;
+import com.SpringBootStarters.MarketPlace.DTOs.RepricingResultDto;
+import com.SpringBootStarters.MarketPlace.DTOs.RestockDto;
 import com.SpringBootStarters.MarketPlace.Entities.Product;
+import com.SpringBootStarters.MarketPlace.Repositories.EntityVersion;
+import com.SpringBootStarters.MarketPlace.Services.BestSellerTracker;
+import com.SpringBootStarters.MarketPlace.Services.InventoryService;
+import com.SpringBootStarters.MarketPlace.Services.ProductImportService;
+import com.SpringBootStarters.MarketPlace.Services.ProductRepricingService;
 import com.SpringBootStarters.MarketPlace.Services.ProductService;
+import com.SpringBootStarters.MarketPlace.Utils.ResponseFields;
 
 @SpringBootTest
 public class MarketPlaceProductControllerTests {
@@ -31,6 +59,18 @@ public class MarketPlaceProductControllerTests {
 	@Mock
 	private ProductService productService;
 
+	@Mock
+	private BestSellerTracker bestSellerTracker;
+
+	@Mock
+	private InventoryService inventoryService;
+
+	@Mock
+	private ProductImportService productImportService;
+
+	@Mock
+	private ProductRepricingService productRepricingService;
+
 	@InjectMocks
 	private ProductController productController;
 
@@ -49,29 +89,81 @@ public class MarketPlaceProductControllerTests {
 		);
 
 		// Testing the retrieval of a list of products
-		Mockito.when(productService.getProducts()).thenReturn(products);
-		ResponseEntity<List<Product>> responseEntity = productController.getProducts();
-		assertFalse(products.isEmpty());
+		CursorPage<Product> page = new CursorPage<>(products, 2, false, null);
+		Mockito.when(productService.getProducts(null, 20)).thenReturn(page);
+		ResponseEntity<CursorPage<ProductViewDto>> responseEntity = productController.getProducts(null, 20, null, null);
+		assertFalse(responseEntity.getBody().getContent().isEmpty());
 		assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
-		assertEquals(products, responseEntity.getBody());
+		assertEquals(2L, responseEntity.getBody().getContent().get(1).getId());
+		assertEquals(BigDecimal.valueOf(1700), responseEntity.getBody().getContent().get(1).getPrice());
 
 		// Verify
-		Mockito.verify(productService, Mockito.times(1)).getProducts();
+		Mockito.verify(productService, Mockito.times(1)).getProducts(null, 20);
 	}
 	
+	@Test
+	public void testGetTopProducts() {
+		logger.info("Testing getTopProducts method");
+
+		List<ProductSalesDto> top = Arrays.asList(new ProductSalesDto(2L, 40, 0), new ProductSalesDto(1L, 12, 0));
+
+		// Testing the retrieval of the best-selling products of a window
+		Mockito.when(bestSellerTracker.top(Duration.ofDays(1), 50)).thenReturn(top);
+		ResponseEntity<List<ProductSalesDto>> responseEntity = productController.getTopProducts("1d", 50);
+		assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+		assertEquals(top, responseEntity.getBody());
+
+		// Testing an invalid window
+		IllegalArgumentException thrown = assertThrowsExactly(IllegalArgumentException.class, () -> productController.getTopProducts("an hour", 50));
+		assertTrue(thrown.getMessage().contains("Invalid window : an hour"));
+
+		// Verify
+		Mockito.verify(bestSellerTracker, Mockito.times(1)).top(Duration.ofDays(1), 50);
+	}
+
+	@Test
+	public void testSearchProducts() {
+		logger.info("Testing searchProducts method");
+
+		List<ProductSearchHitDto> hits = Arrays.asList(new ProductSearchHitDto(1L, "Nike air jordan 1 low"), new ProductSearchHitDto(2L, "Nike air jordan 2 high"));
+
+		// Testing a product search
+		Mockito.when(productService.searchProducts("jordan", 20, false)).thenReturn(hits);
+		ResponseEntity<List<ProductSearchHitDto>> responseEntity = productController.searchProducts("jordan", 20, false);
+		assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+		assertEquals(hits, responseEntity.getBody());
+
+		// Verify
+		Mockito.verify(productService, Mockito.times(1)).searchProducts("jordan", 20, false);
+	}
+
 	@Test
 	public void testGetProduct() {
 		logger.info("Testing getProduct method");
 
 		Product product = new Product(1L, "Nike air jordan low", BigDecimal.valueOf(1500));
 
+		product.setVersion(3);
+		product.setLastModified(Instant.parse("2026-01-01T10:00:00Z"));
+
 		// Testing the retrieval of a product
+		Mockito.when(productService.getProductVersion(1L)).thenReturn(EntityVersion.of(product));
 		Mockito.when(productService.getProduct(1L)).thenReturn(product);
-		ResponseEntity<Product> responseEntity = productController.getProduct(1L);
+		ResponseEntity<ProductViewDto> responseEntity = productController.getProduct(1L, ResponseFields.SUMMARY, null, new ServletWebRequest(new MockHttpServletRequest("GET", "/api/v1/products/1")));
 		assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
-		assertEquals(product, responseEntity.getBody());
+		assertEquals(product.getProductName(), responseEntity.getBody().getProductName());
+		assertEquals("\"3.0\"", responseEntity.getHeaders().getETag());
+		assertEquals(product.getLastModified().toEpochMilli(), responseEntity.getHeaders().getLastModified());
+
+		// Testing a conditional retrieval of an unchanged product
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/products/1");
+		request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"3.0\"");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		assertNull(productController.getProduct(1L, null, null, new ServletWebRequest(request, response)));
+		assertEquals(HttpStatus.NOT_MODIFIED.value(), response.getStatus());
 
 		// Verify
+		Mockito.verify(productService, Mockito.times(2)).getProductVersion(1L);
 		Mockito.verify(productService, Mockito.times(1)).getProduct(1L);
 	}
 
@@ -86,9 +178,10 @@ public class MarketPlaceProductControllerTests {
 
 		// Testing the retrieval of a list of products for an order
 		Mockito.when(productService.getProductsForOrder(1L)).thenReturn(products);
-		ResponseEntity<List<Product>> responseEntity = productController.getProductsForOrder(1L);
+		ResponseEntity<List<ProductViewDto>> responseEntity = productController.getProductsForOrder(1L, null, "id,price");
 		assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
-		assertEquals(products, responseEntity.getBody());
+		assertEquals(2, responseEntity.getBody().size());
+		assertEquals(1L, responseEntity.getBody().get(0).getId());
 
 		// Verify
 		Mockito.verify(productService, Mockito.times(1)).getProductsForOrder(1L);
@@ -103,9 +196,9 @@ public class MarketPlaceProductControllerTests {
 
 		// Testing the creation of a new product
 		Mockito.when(productService.createProduct(productDto)).thenReturn(product);
-		ResponseEntity<Product> responseEntity = productController.createProduct(productDto);
+		ResponseEntity<ProductViewDto> responseEntity = productController.createProduct(productDto);
 		assertEquals(HttpStatus.CREATED, responseEntity.getStatusCode());
-		assertEquals(product, responseEntity.getBody());
+		assertEquals(product.getId(), responseEntity.getBody().getId());
 
 		// Verify
 		Mockito.verify(productService, Mockito.times(1)).createProduct(productDto);
@@ -120,14 +213,65 @@ public class MarketPlaceProductControllerTests {
 
 		// Testing the update of a product
 		Mockito.when(productService.updateProduct(1L, productDto)).thenReturn(product);
-		ResponseEntity<Product> responseEntity = productController.updateProduct(1L, productDto);
+		ResponseEntity<ProductViewDto> responseEntity = productController.updateProduct(1L, productDto);
 		assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
-		assertEquals(product, responseEntity.getBody());
+		assertEquals(product.getId(), responseEntity.getBody().getId());
 
 		// Verify
 		Mockito.verify(productService, Mockito.times(1)).updateProduct(1L, productDto);
 	}
 
+	@Test
+	public void testImportProducts() throws Exception {
+		logger.info("Testing importProducts method");
+
+		ProductImportResultDto result = new ProductImportResultDto(1, 1, 0, 0, 0, 1, 1000.0, List.of());
+
+		// Testing the import of a CSV upload
+		Mockito.when(productImportService.importProducts(Mockito.any(Reader.class), Mockito.eq(ProductImportService.Format.CSV))).thenReturn(result);
+		MockHttpServletRequest csv = new MockHttpServletRequest("POST", "/api/v1/products/import");
+		csv.setContentType(ProductImportService.CSV_TYPE);
+		csv.setContent("productName,price\nNike air jordan low,1500\n".getBytes(StandardCharsets.UTF_8));
+		ResponseEntity<ProductImportResultDto> responseEntity = productController.importProducts(csv);
+		assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+		assertEquals(result, responseEntity.getBody());
+
+		// Testing the import of a gzip compressed NDJSON upload
+		Mockito.when(productImportService.importProducts(Mockito.any(Reader.class), Mockito.eq(ProductImportService.Format.NDJSON))).thenAnswer(invocation -> {
+			assertEquals('{', invocation.getArgument(0, Reader.class).read());
+			return result;
+		});
+		ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+		try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+			gzip.write("{\"productName\":\"Nike air jordan low\",\"price\":1500}\n".getBytes(StandardCharsets.UTF_8));
+		}
+		MockHttpServletRequest ndjson = new MockHttpServletRequest("POST", "/api/v1/products/import");
+		ndjson.setContentType(ProductImportService.NDJSON_TYPE);
+		ndjson.addHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+		ndjson.setContent(compressed.toByteArray());
+		assertEquals(result, productController.importProducts(ndjson).getBody());
+
+		// Verify
+		Mockito.verify(productImportService, Mockito.times(2)).importProducts(Mockito.any(Reader.class), Mockito.any());
+	}
+
+	@Test
+	public void testRepriceProducts() {
+		logger.info("Testing repriceProducts method");
+
+		RepricingDto repricingDto = new RepricingDto(null, BigDecimal.TEN, 1L, 100L, "nike%");
+		RepricingResultDto result = new RepricingResultDto(2, 2, 0, 0, 0, 1, 1);
+
+		// Testing a percentage repricing
+		Mockito.when(productRepricingService.reprice(repricingDto)).thenReturn(result);
+		ResponseEntity<RepricingResultDto> responseEntity = productController.repriceProducts(repricingDto);
+		assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+		assertEquals(2, responseEntity.getBody().getUpdated());
+
+		// Verify
+		Mockito.verify(productRepricingService, Mockito.times(1)).reprice(repricingDto);
+	}
+
 	@Test
 	public void testDeleteProduct() {
 		logger.info("Testing deleteProduct method");
@@ -142,6 +286,28 @@ public class MarketPlaceProductControllerTests {
 		Mockito.verify(productService, Mockito.times(1)).deleteProduct(1L);;
 	}
 	
+	@Test
+	public void testRestockProduct() {
+		logger.info("Testing restockProduct and getInventory methods");
+
+		InventoryDto inventory = new InventoryDto(1L, 250L);
+
+		// Testing the restock of a product
+		Mockito.when(productService.getProduct(1L)).thenReturn(new Product(1L, "Nike air jordan low", BigDecimal.valueOf(1500)));
+		Mockito.when(inventoryService.restock(1L, 250L)).thenReturn(inventory);
+		ResponseEntity<InventoryDto> responseEntity = productController.restockProduct(1L, new RestockDto(250L));
+		assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+		assertEquals(250L, responseEntity.getBody().getAvailable());
+
+		// Testing the retrieval of the inventory of a product
+		Mockito.when(inventoryService.getInventory(1L)).thenReturn(inventory);
+		assertEquals(inventory, productController.getInventory(1L).getBody());
+
+		// Verify
+		Mockito.verify(productService, Mockito.times(1)).getProduct(1L);
+		Mockito.verify(inventoryService, Mockito.times(1)).restock(1L, 250L);
+	}
+
 	@AfterAll
 	public static void tearDown() {
 		logger.info("Finishing product controller tests");
@@ -0,0 +1,220 @@
+package com.SpringBootStarters.MarketPlace;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.Reader;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.SpringBootStarters.MarketPlace.DTOs.ProductImportResultDto;
+import com.SpringBootStarters.MarketPlace.Entities.Product;
+import com.SpringBootStarters.MarketPlace.Repositories.ProductBulkRepository;
+import com.SpringBootStarters.MarketPlace.Repositories.ProductRepository;
+import com.SpringBootStarters.MarketPlace.Services.ProductCatalog;
+import com.SpringBootStarters.MarketPlace.Services.ProductImportService;
+import com.SpringBootStarters.MarketPlace.Services.ProductImportService.Format;
+import com.SpringBootStarters.MarketPlace.Services.ProductSearchIndex;
+import com.SpringBootStarters.MarketPlace.Services.ProductService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.validation.Validator;
+
+/**
+ * Imports CSV and NDJSON catalogs into the database, with batches of three
+ * rows to cross batch boundaries, and checks the counts, the reported rows
+ * and that the caches and the search index see the imported products.
+ */
+@SpringBootTest
+public class MarketPlaceProductImportTests {
+	private static final Logger logger = LoggerFactory.getLogger(MarketPlaceProductImportTests.class);
+	private static final int BULK_ROWS = 20_000;
+
+	@Autowired
+	private ProductImportService productImportService;
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private ProductBulkRepository productBulkRepository;
+
+	@Autowired
+	private ProductCatalog productCatalog;
+
+	@Autowired
+	private ProductSearchIndex productSearchIndex;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private Validator validator;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private String suffix;
+	private ProductImportService smallBatches;
+	private Product existing;
+
+	@BeforeEach
+	public void setUp() {
+		logger.info("Seeding a product for the import tests");
+		suffix = UUID.randomUUID().toString().substring(0, 8);
+		smallBatches = new ProductImportService(productBulkRepository, productCatalog, productSearchIndex, entityManagerFactory, transactionTemplate, validator, objectMapper, 3, 3, 200);
+		existing = productRepository.save(new Product(0L, "Import existing " + suffix, BigDecimal.TEN));
+	}
+
+	@Test
+	public void testCsvImport() throws Exception {
+		// Warm the catalog, the second-level cache and the cached absence of a new name
+		assertEquals(0, BigDecimal.TEN.compareTo(productService.getProduct(existing.getId()).getPrice()));
+		productRepository.findById(existing.getId());
+		assertTrue(productRepository.findByProductName("Import new, one " + suffix).isEmpty());
+
+		String csv = "sku,productName,price\n"
+				+ "a1,Import existing " + suffix + ",12.50\n"
+				+ "a2,\"Import new, one " + suffix + "\",5\n"
+				+ "a3,Import new two " + suffix + ",-1\n"
+				+ "a4,,3\n"
+				+ "a5,Import new three " + suffix + ",abc\n"
+				+ "\n"
+				+ "a6,\"Import \"\"multi\"\"\n"
+				+ "line " + suffix + "\",4\r\n"
+				+ "a7,Import new two " + suffix + ",6\n"
+				+ "a8,Import new two " + suffix + ",6.5\n"
+				+ "a9,Import existing " + suffix + ",12.5\n"
+				+ "a10,Import too precise " + suffix + ",1.234\n";
+
+		// Testing the counts, a repeated name is inserted then updated and an equal price leaves its product unchanged
+		ProductImportResultDto result = smallBatches.importProducts(new StringReader(csv), Format.CSV);
+		assertEquals(10, result.getRows());
+		assertEquals(3, result.getInserted());
+		assertEquals(2, result.getUpdated());
+		assertEquals(1, result.getUnchanged());
+		assertEquals(4, result.getFailed());
+
+		// Testing that the first failed rows are reported with their line
+		assertEquals(3, result.getErrors().size());
+		assertEquals(4, result.getErrors().get(0).getLine());
+		assertEquals("Price must be a positive number", result.getErrors().get(0).getError());
+		assertEquals(5, result.getErrors().get(1).getLine());
+		assertTrue(result.getErrors().get(1).getError().contains("Product name must not be blank"));
+		assertEquals("Invalid price : abc", result.getErrors().get(2).getError());
+
+		// Testing the imported rows, quoted fields included
+		Product updated = productRepository.findByProductName("Import existing " + suffix).orElseThrow();
+		assertEquals(0, new BigDecimal("12.50").compareTo(updated.getPrice()));
+		assertEquals(existing.getVersion() + 1, updated.getVersion());
+		assertEquals(0, new BigDecimal("6.5").compareTo(productRepository.findByProductName("Import new two " + suffix).orElseThrow().getPrice()));
+		assertTrue(productRepository.findByProductName("Import \"multi\"\nline " + suffix).isPresent());
+
+		// Testing that the caches and the search index see the import
+		assertEquals(0, new BigDecimal("12.50").compareTo(productService.getProduct(existing.getId()).getPrice()));
+		assertEquals(0, new BigDecimal("12.50").compareTo(productRepository.findById(existing.getId()).orElseThrow().getPrice()));
+		Product inserted = productRepository.findByProductName("Import new, one " + suffix).orElseThrow();
+		assertEquals(inserted.getId(), productService.searchProducts("new one " + suffix, 5, false).get(0).getProductId());
+
+		// Testing a header without a price column
+		IllegalArgumentException thrown = assertThrowsExactly(IllegalArgumentException.class, () -> smallBatches.importProducts(new StringReader("productName,cost\n"), Format.CSV));
+		assertTrue(thrown.getMessage().contains("must name the productName and price columns"));
+	}
+
+	@Test
+	public void testNdjsonImport() throws Exception {
+		String ndjson = "{\"productName\":\"Import json " + suffix + "\",\"price\":9.99}\n"
+				+ "{\"productName\":\"Import json " + suffix + "\"\n"
+				+ "{\"productName\":\"" + "x".repeat(300) + "\"}\n"
+				+ "null\n"
+				+ "{\"productName\":\"Import json two " + suffix + "\"}\n";
+
+		// Testing the counts and the reported rows
+		ProductImportResultDto result = smallBatches.importProducts(new StringReader(ndjson), Format.NDJSON);
+		assertEquals(5, result.getRows());
+		assertEquals(2, result.getInserted());
+		assertEquals(3, result.getFailed());
+		assertTrue(result.getErrors().get(0).getError().startsWith("Invalid JSON"));
+		assertEquals("Row longer than 200 characters", result.getErrors().get(1).getError());
+		assertEquals("Product can't be null", result.getErrors().get(2).getError());
+		assertNull(productRepository.findByProductName("Import json two " + suffix).orElseThrow().getPrice());
+
+		// Testing the formats of the content types
+		assertEquals(Format.NDJSON, Format.of("application/x-ndjson;charset=UTF-8"));
+		assertThrowsExactly(IllegalArgumentException.class, () -> Format.of("text/plain"));
+	}
+
+	@Test
+	public void testBulkImport() throws Exception {
+		// Testing the import of a generated catalog that is never held in memory
+		ProductImportResultDto inserted = productImportService.importProducts(generated(BULK_ROWS), Format.CSV);
+		assertEquals(BULK_ROWS, inserted.getInserted());
+		logger.info("Inserted " + BULK_ROWS + " products in " + inserted.getElapsedMillis() + " ms, " + Math.round(inserted.getRowsPerSecond()) + " rows/s");
+
+		// Testing that importing it again changes nothing
+		ProductImportResultDto unchanged = productImportService.importProducts(generated(BULK_ROWS), Format.CSV);
+		assertEquals(BULK_ROWS, unchanged.getUnchanged());
+		logger.info("Checked " + BULK_ROWS + " unchanged products in " + unchanged.getElapsedMillis() + " ms, " + Math.round(unchanged.getRowsPerSecond()) + " rows/s");
+	}
+
+	/**
+	 * A CSV catalog generated as it is read.
+	 */
+	private Reader generated(int rows) {
+		return new Reader() {
+			private int row = -1;
+			private String current = "";
+			private int position;
+
+			@Override
+			public int read(char[] buffer, int offset, int length) {
+				if (position == current.length()) {
+					if (++row > rows)
+						return -1;
+					current = row == 0 ? "productName,price\n" : "Import bulk " + row + " " + suffix + "," + (row % 1000 + 1) + ".99\n";
+					position = 0;
+				}
+				int count = Math.min(length, current.length() - position);
+				current.getChars(position, position + count, buffer, offset);
+				position += count;
+				return count;
+			}
+
+			@Override
+			public void close() {
+			}
+		};
+	}
+
+	@AfterEach
+	public void tearDown() {
+		List<Long> ids = jdbcTemplate.queryForList("DELETE FROM product WHERE product_name LIKE ? RETURNING id", Long.class, "Import %" + suffix + "%");
+		for (Long id : ids)
+			productSearchIndex.productDeleted(id);
+		productCatalog.evict(ids, entityManagerFactory.getCache());
+	}
+}
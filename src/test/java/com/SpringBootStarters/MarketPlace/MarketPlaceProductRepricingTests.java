@@ -0,0 +1,163 @@
+package com.SpringBootStarters.MarketPlace;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.SpringBootStarters.MarketPlace.DTOs.ProductPriceDto;
+import com.SpringBootStarters.MarketPlace.DTOs.RepricingDto;
+import com.SpringBootStarters.MarketPlace.DTOs.RepricingResultDto;
+import com.SpringBootStarters.MarketPlace.Entities.Product;
+import com.SpringBootStarters.MarketPlace.Repositories.ProductBulkRepository;
+import com.SpringBootStarters.MarketPlace.Repositories.ProductRepository;
+import com.SpringBootStarters.MarketPlace.Services.ProductCatalog;
+import com.SpringBootStarters.MarketPlace.Services.ProductRepricingService;
+import com.SpringBootStarters.MarketPlace.Services.ProductService;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Reprices products by rule and by list, in chunks of three products to
+ * cross chunk boundaries, and checks the counts, the new prices and
+ * versions, that no product is loaded and that the caches see the change.
+ */
+@SpringBootTest
+public class MarketPlaceProductRepricingTests {
+	private static final Logger logger = LoggerFactory.getLogger(MarketPlaceProductRepricingTests.class);
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private ProductBulkRepository productBulkRepository;
+
+	@Autowired
+	private ProductCatalog productCatalog;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	private Statistics statistics;
+	private String suffix;
+	private ProductRepricingService smallChunks;
+	private List<Product> products;
+
+	@BeforeEach
+	public void setUp() {
+		logger.info("Seeding products for the repricing tests");
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		suffix = UUID.randomUUID().toString().substring(0, 8);
+		smallChunks = new ProductRepricingService(productBulkRepository, productCatalog, entityManagerFactory, transactionTemplate, 3);
+		products = new ArrayList<>();
+		for (String price : new String[] { "10.00", "20.00", "0.05", "0.01", "99999999.00", null })
+			products.add(productRepository.save(new Product(0L, "Reprice " + products.size() + " " + suffix, price == null ? null : new BigDecimal(price))));
+		products.add(productRepository.save(new Product(0L, "Other " + suffix, BigDecimal.TEN)));
+	}
+
+	@Test
+	public void testRepriceByRule() {
+		// Warm the catalog and the second-level cache
+		assertEquals(0, new BigDecimal("10.00").compareTo(productService.getProduct(id(0)).getPrice()));
+		productRepository.findById(id(1));
+
+		// Testing a 10% increase of the products whose name matches, without loading them
+		statistics.clear();
+		RepricingResultDto result = smallChunks.reprice(new RepricingDto(null, BigDecimal.TEN, id(0), id(6), "reprice %" + suffix));
+		assertEquals(0, statistics.getEntityLoadCount());
+		assertEquals(5, result.getMatched());
+		assertEquals(3, result.getUpdated());
+		assertEquals(1, result.getUnchanged());
+		assertEquals(1, result.getSkipped());
+		assertEquals(2, result.getChunks());
+
+		// Testing the new prices, rounded to cents, and versions
+		assertPrice("11.00", 0);
+		assertPrice("22.00", 1);
+		assertPrice("0.06", 2);
+		assertPrice("0.01", 3);
+		assertPrice("99999999.00", 4);
+		assertNull(productRepository.findById(id(5)).orElseThrow().getPrice());
+		assertPrice("10.00", 6);
+		assertEquals(products.get(0).getVersion() + 1, productRepository.findById(id(0)).orElseThrow().getVersion());
+		assertEquals(products.get(3).getVersion(), productRepository.findById(id(3)).orElseThrow().getVersion());
+
+		// Testing that the catalog sees the new price
+		assertEquals(0, new BigDecimal("11.00").compareTo(productService.getProduct(id(0)).getPrice()));
+
+		// Testing an id range and a decrease, prices stay at least a cent
+		result = smallChunks.reprice(new RepricingDto(null, BigDecimal.valueOf(-99.9), id(1), id(3), null));
+		assertEquals(3, result.getMatched());
+		assertEquals(2, result.getUpdated());
+		assertPrice("11.00", 0);
+		assertPrice("0.02", 1);
+		assertPrice("0.01", 2);
+
+		// Testing invalid rules
+		assertThrowsExactly(IllegalArgumentException.class, () -> smallChunks.reprice(new RepricingDto(null, BigDecimal.valueOf(-100), null, null, null)));
+		assertThrowsExactly(IllegalArgumentException.class, () -> smallChunks.reprice(new RepricingDto(null, null, null, null, null)));
+		assertThrowsExactly(IllegalArgumentException.class, () -> smallChunks.reprice(new RepricingDto(List.of(), BigDecimal.TEN, null, null, null)));
+	}
+
+	@Test
+	public void testRepriceByList() {
+		List<ProductPriceDto> prices = List.of(
+			new ProductPriceDto(id(0), new BigDecimal("12.50")),
+			new ProductPriceDto(id(1), new BigDecimal("20")),
+			new ProductPriceDto(Long.MAX_VALUE, new BigDecimal("1.00")),
+			new ProductPriceDto(id(5), new BigDecimal("7.25"))
+		);
+
+		// Testing a list of prices, without loading the products
+		statistics.clear();
+		RepricingResultDto result = smallChunks.reprice(new RepricingDto(prices, null, null, null, null));
+		assertEquals(0, statistics.getEntityLoadCount());
+		assertEquals(3, result.getMatched());
+		assertEquals(2, result.getUpdated());
+		assertEquals(1, result.getUnchanged());
+		assertEquals(1, result.getMissing());
+		assertEquals(2, result.getChunks());
+		assertPrice("12.50", 0);
+		assertPrice("20.00", 1);
+		assertPrice("7.25", 5);
+		assertEquals(products.get(1).getVersion(), productRepository.findById(id(1)).orElseThrow().getVersion());
+
+		// Testing a repeated id
+		List<ProductPriceDto> repeated = List.of(new ProductPriceDto(id(0), BigDecimal.ONE), new ProductPriceDto(id(0), BigDecimal.TEN));
+		assertThrowsExactly(IllegalArgumentException.class, () -> smallChunks.reprice(new RepricingDto(repeated, null, null, null, null)));
+	}
+
+	private long id(int index) {
+		return products.get(index).getId();
+	}
+
+	private void assertPrice(String expected, int index) {
+		assertEquals(0, new BigDecimal(expected).compareTo(productRepository.findById(id(index)).orElseThrow().getPrice()), "Price of product " + index);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		productRepository.deleteAllById(products.stream().map(Product::getId).toList());
+	}
+}
@@ -0,0 +1,182 @@
+package com.SpringBootStarters.MarketPlace;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.SpringBootStarters.MarketPlace.DTOs.ProductDto;
+import com.SpringBootStarters.MarketPlace.DTOs.ProductSearchHitDto;
+import com.SpringBootStarters.MarketPlace.Entities.Product;
+import com.SpringBootStarters.MarketPlace.Services.ProductSearchIndex;
+import com.SpringBootStarters.MarketPlace.Services.ProductService;
+import com.SpringBootStarters.MarketPlace.Utils.TrigramIndex;
+
+/**
+ * Checks the ranking and matching of the trigram index, that product
+ * changes reach the search index, and that it finds what a LIKE query finds.
+ */
+@SpringBootTest
+public class MarketPlaceProductSearchTests {
+	private static final Logger logger = LoggerFactory.getLogger(MarketPlaceProductSearchTests.class);
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private ProductSearchIndex productSearchIndex;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeAll
+	public static void setUp() {
+		logger.info("Starting product search tests");
+	}
+
+	@Test
+	public void testTrigramIndexRanking() {
+		logger.info("Testing the ranking of the trigram index");
+
+		TrigramIndex index = new TrigramIndex();
+		index.put(1, "Nike Air Jordan 1 Low");
+		index.put(2, "Air Max");
+		index.put(3, "Nike Air Max 90");
+		index.put(4, "Chair cushion");
+		index.put(5, "AIR");
+		index.put(6, "Crème brûlée torch");
+
+		// Testing that exact, starting, word-prefix and inner matches are ranked in this order
+		assertEquals(List.of(5L, 2L, 3L, 1L, 4L), ids(index.search("air", 10, false)));
+
+		// Testing that prefix mode only keeps the words starting with the query
+		assertEquals(List.of(5L, 2L, 3L, 1L), ids(index.search("air", 10, true)));
+
+		// Testing the limit
+		assertEquals(List.of(5L, 2L), ids(index.search("air", 2, false)));
+
+		// Testing that short queries complete words
+		assertEquals(List.of(2L, 3L), ids(index.search("m", 10, false)));
+		assertEquals(List.of(1L), ids(index.search("jo", 10, false)));
+
+		// Testing that case, accents and punctuation are ignored
+		assertEquals(List.of(6L), ids(index.search("CREME-brulee", 10, false)));
+		assertEquals(List.of(3L), ids(index.search("max 90", 10, false)));
+
+		// Testing that updated and removed entries are no longer found
+		index.put(2, "Air Force");
+		index.remove(4);
+		assertEquals(List.of(3L), ids(index.search("max", 10, false)));
+		assertEquals(List.of(5L, 2L, 3L, 1L), ids(index.search("air", 10, false)));
+		assertEquals(5, index.size());
+	}
+
+	@Test
+	public void testTrigramIndexCompaction() {
+		logger.info("Testing the trigram index after removing most entries");
+
+		TrigramIndex index = new TrigramIndex();
+		for (int i = 0; i < 10_000; i++)
+			index.put(i, "Product " + i);
+		for (int i = 0; i < 10_000; i++) {
+			if (i % 10 != 7)
+				index.remove(i);
+		}
+
+		// Testing that the remaining entries are still found after compactions
+		assertEquals(1_000, index.size());
+		assertEquals(List.of(7L, 77L, 707L), ids(index.search("product 7", 3, true)));
+		assertEquals(List.of(9997L), ids(index.search("9997", 10, false)));
+		assertEquals(List.of(), index.search("9998", 10, false));
+	}
+
+	@Test
+	public void testSearchProducts() {
+		logger.info("Testing searchProducts method");
+
+		String token = UUID.randomUUID().toString().substring(0, 8);
+		Product product = productService.createProduct(new ProductDto("Search " + token + " Lamp", BigDecimal.valueOf(25)));
+
+		// Testing that a created product is searchable
+		List<ProductSearchHitDto> hits = productService.searchProducts(token, 10, false);
+		assertEquals(1, hits.size());
+		assertEquals(product.getId(), hits.get(0).getProductId());
+
+		// Testing that a renamed product is searchable by its new name only
+		productService.updateProduct(product.getId(), new ProductDto("Search " + token + " Desk", BigDecimal.valueOf(25)));
+		assertEquals(1, productService.searchProducts(token + " desk", 10, true).size());
+		assertEquals(0, productService.searchProducts(token + " lamp", 10, true).size());
+
+		// Testing that a deleted product is no longer searchable
+		productService.deleteProduct(product.getId());
+		assertEquals(0, productService.searchProducts(token, 10, false).size());
+
+		// Testing invalid queries and limits
+		IllegalArgumentException thrown = assertThrowsExactly(IllegalArgumentException.class, () -> productService.searchProducts(" - ", 10, false));
+		assertTrue(thrown.getMessage().contains("Query must contain a letter or a digit"));
+		IllegalArgumentException thrown2 = assertThrowsExactly(IllegalArgumentException.class, () -> productService.searchProducts("lamp", 101, false));
+		assertTrue(thrown2.getMessage().contains("Limit must be between 1 and 100"));
+	}
+
+	@Test
+	public void testSearchMatchesLike() {
+		logger.info("Testing the search index against a LIKE query");
+
+		// Testing a synthetic catalog of 50 000 names
+		String prefix = "srch" + UUID.randomUUID().toString().substring(0, 6);
+		String[] words = { "red", "blue", "wool", "cotton", "shirt", "scarf", "lamp", "desk", "chair", "oak" };
+		Random random = new Random(7);
+		// Ids far past the sequence, the rows are deleted at the end
+		long firstId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) + 1000000 FROM product", Long.class);
+		List<Object[]> rows = new ArrayList<>();
+		for (int i = 0; i < 50_000; i++)
+			rows.add(new Object[] { firstId + i, prefix + " " + words[random.nextInt(10)] + " " + words[random.nextInt(10)] + " " + i, BigDecimal.ONE });
+		TrigramIndex index = new TrigramIndex();
+		try {
+			jdbcTemplate.batchUpdate("INSERT INTO product (id, product_name, price) VALUES (?, ?, ?)", rows);
+			jdbcTemplate.query("SELECT id, product_name FROM product WHERE product_name LIKE ?", rs -> {
+				index.put(rs.getLong(1), rs.getString(2));
+			}, prefix + "%");
+
+			for (String query : new String[] { "oak chair 4", "cotton scarf 123", "wool", "lamp 4999" }) {
+				long start = System.nanoTime();
+				List<Long> like = jdbcTemplate.queryForList("SELECT id FROM product WHERE product_name LIKE ? AND lower(product_name) LIKE ?",
+						Long.class, prefix + "%", "%" + query.toLowerCase(Locale.ROOT) + "%");
+				long likeMicros = (System.nanoTime() - start) / 1_000;
+				start = System.nanoTime();
+				List<TrigramIndex.Match> matches = index.search(query, 100_000, false);
+				long indexMicros = (System.nanoTime() - start) / 1_000;
+				logger.info("Searched \"" + query + "\": " + like.size() + " matches, LIKE " + likeMicros + " us, index " + indexMicros + " us");
+
+				// Testing that the index finds exactly the rows LIKE finds
+				assertEquals(like.stream().sorted().toList(), ids(matches).stream().sorted().toList());
+			}
+		} finally {
+			jdbcTemplate.update("DELETE FROM product WHERE product_name LIKE ?", prefix + "%");
+		}
+	}
+
+	private static List<Long> ids(List<TrigramIndex.Match> matches) {
+		return matches.stream().map(TrigramIndex.Match::id).toList();
+	}
+
+	@AfterAll
+	public static void tearDown() {
+		logger.info("Finishing product search tests");
+	}
+}
@@ -1,10 +1,12 @@
 package com.SpringBootStarters.MarketPlace;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -15,14 +17,24 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 
+import com.SpringBootStarters.MarketPlace.DTOs.CursorPage;
 import com.SpringBootStarters.MarketPlace.DTOs.ProductDto;
 import com.SpringBootStarters.MarketPlace.Entities.Product;
+import com.SpringBootStarters.MarketPlace.Mappers.ProductMapper;
+import com.SpringBootStarters.MarketPlace.Repositories.EntityVersion;
+import com.SpringBootStarters.MarketPlace.Repositories.EntityVersionRepository;
 import com.SpringBootStarters.MarketPlace.Repositories.ProductRepository;
+import com.SpringBootStarters.MarketPlace.Services.ProductCatalog;
+import com.SpringBootStarters.MarketPlace.Services.ProductSearchIndex;
 import com.SpringBootStarters.MarketPlace.Services.ProductService;
+import com.SpringBootStarters.MarketPlace.Utils.PageCursor;
 
 import jakarta.persistence.EntityNotFoundException;
 
@@ -33,6 +45,18 @@ public class MarketPlaceProductServiceTests {
 	@Mock
 	private ProductRepository productRepository;
 
+	@Mock
+	private ProductCatalog productCatalog;
+
+	@Mock
+	private ProductSearchIndex productSearchIndex;
+
+	@Mock
+	private EntityVersionRepository entityVersionRepository;
+
+	@Spy
+	private ProductMapper productMapper = new ProductMapper();
+
 	@InjectMocks
 	private ProductService productService;
 
@@ -51,12 +75,18 @@ public class MarketPlaceProductServiceTests {
 		);
 
 		// Testing the retrieval of a list of products
-		Mockito.when(productRepository.findAll()).thenReturn(products);
-		List<Product> result = productService.getProducts();
-		assertEquals(products, result);
+		Mockito.when(productRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.ofSize(20))).thenReturn(new SliceImpl<>(products, PageRequest.ofSize(20), false));
+		CursorPage<Product> result = productService.getProducts(null, 20);
+		assertEquals(products, result.getContent());
+		assertFalse(result.isHasNext());
+
+		// Testing that the page size is capped
+		Mockito.when(productRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.ofSize(PageCursor.MAX_PAGE_SIZE))).thenReturn(new SliceImpl<>(products, PageRequest.ofSize(PageCursor.MAX_PAGE_SIZE), false));
+		CursorPage<Product> capped = productService.getProducts(null, 10_000);
+		assertEquals(products, capped.getContent());
 
 		// Verify
-		Mockito.verify(productRepository, Mockito.times(1)).findAll();
+		Mockito.verify(productRepository, Mockito.times(2)).findByIdGreaterThanOrderByIdAsc(Mockito.anyLong(), Mockito.any());
 	}
 
 	@Test
@@ -66,19 +96,49 @@ public class MarketPlaceProductServiceTests {
 		Product product = new Product(1L, "Nike Air Jordan 2 High", BigDecimal.valueOf(1700));
 
 		// Testing the retrieval of a product
-		Mockito.when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+		Mockito.when(productCatalog.find(1L)).thenReturn(Optional.of(product));
 		Product result = productService.getProduct(1L);
 		assertEquals(product, result);
 
 		// Testing the retrieval of a non-existing product
-		Mockito.when(productRepository.findById(2L)).thenReturn(Optional.empty());
+		Mockito.when(productCatalog.find(2L)).thenReturn(Optional.empty());
 		EntityNotFoundException thrown = assertThrowsExactly(EntityNotFoundException.class, () -> {
 			productService.getProduct(2L);
 		});
 		assertTrue(thrown.getMessage().contains("Product with id 2 doesn't exist"));
 
 		// Verify
-		Mockito.verify(productRepository, Mockito.times(1)).findById(1L);
+		Mockito.verify(productCatalog, Mockito.times(1)).find(1L);
+	}
+
+	@Test
+	public void testGetProductVersion() {
+		logger.info("Testing getProductVersion method");
+
+		Product product = new Product(1L, "Nike Air Jordan 2 High", BigDecimal.valueOf(1700));
+		product.setVersion(5);
+		product.setLastModified(Instant.parse("2026-01-01T10:00:00Z"));
+
+		// Testing that a cached product is answered without a query
+		Mockito.when(productCatalog.findCached(1L)).thenReturn(Optional.of(product));
+		assertEquals(new EntityVersion(5, 0, product.getLastModified()), productService.getProductVersion(1L));
+
+		// Testing that an uncached product is answered by the version query
+		EntityVersion version = new EntityVersion(2, 0, Instant.parse("2026-01-02T10:00:00Z"));
+		Mockito.when(productCatalog.findCached(2L)).thenReturn(Optional.empty());
+		Mockito.when(entityVersionRepository.findProductVersion(2L)).thenReturn(Optional.of(version));
+		assertEquals(version, productService.getProductVersion(2L));
+
+		// Testing the version of a non-existing product
+		Mockito.when(productCatalog.findCached(3L)).thenReturn(Optional.empty());
+		Mockito.when(entityVersionRepository.findProductVersion(3L)).thenReturn(Optional.empty());
+		EntityNotFoundException thrown = assertThrowsExactly(EntityNotFoundException.class, () -> {
+			productService.getProductVersion(3L);
+		});
+		assertTrue(thrown.getMessage().contains("Product with id 3 doesn't exist"));
+
+		// Verify
+		Mockito.verify(entityVersionRepository, Mockito.never()).findProductVersion(1L);
 	}
 
 	@Test
@@ -128,6 +188,7 @@ public class MarketPlaceProductServiceTests {
 
 		Mockito.verify(productRepository, Mockito.times(2)).findByProductName(Mockito.anyString());
 		Mockito.verify(productRepository, Mockito.times(1)).save(Mockito.any(Product.class));
+		Mockito.verify(productSearchIndex, Mockito.times(1)).productSaved(1L, "Nike Air Jordan 1 Low");
 	}
 
 	@Test
@@ -155,6 +216,7 @@ public class MarketPlaceProductServiceTests {
 		// Verify
 		Mockito.verify(productRepository, Mockito.times(2)).findById(Mockito.anyLong());
 		Mockito.verify(productRepository, Mockito.times(1)).save(Mockito.any(Product.class));
+		Mockito.verify(productSearchIndex, Mockito.times(1)).productSaved(1L, "Nike Air Jordan 1 Low");
 	}
 
 	@Test
@@ -163,7 +225,7 @@ public class MarketPlaceProductServiceTests {
 
 		// Testing the deletion of a product
 		Mockito.when(productRepository.existsById(1L)).thenReturn(true);
-		productRepository.deleteById(1L);
+		productService.deleteProduct(1L);
 
 		// Testing the deletion of a non-existing product
 		Mockito.when(productRepository.existsById(2L)).thenReturn(false);
@@ -172,6 +234,7 @@ public class MarketPlaceProductServiceTests {
 
 		// Verify
 		Mockito.verify(productRepository, Mockito.times(1)).deleteById(Mockito.anyLong());
+		Mockito.verify(productSearchIndex, Mockito.times(1)).productDeleted(1L);
 	}
 
 	@AfterAll
@@ -0,0 +1,151 @@
+package com.SpringBootStarters.MarketPlace;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.SpringBootStarters.MarketPlace.Config.ReplicaRoutingDataSource;
+import com.SpringBootStarters.MarketPlace.Entities.Product;
+import com.SpringBootStarters.MarketPlace.Repositories.ProductRepository;
+import com.SpringBootStarters.MarketPlace.Services.ProductCatalog;
+import com.SpringBootStarters.MarketPlace.Services.ProductService;
+import com.SpringBootStarters.MarketPlace.Utils.PageCursor;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Runs repository calls through the application context, with the JPA
+ * transaction manager and Hibernate, over a replica that is the primary
+ * database reached through a pool of its own, and checks which pool
+ * served each one from the connections the pools handed out. The loads
+ * that fill the product caches must not be served by the replica.
+ */
+@SpringBootTest(properties = {
+	"marketplace.datasource.replica-urls=jdbc:postgresql://localhost:5432/marketplace?ApplicationName=marketplace-replica",
+	"marketplace.inventory.node={host}:replica"
+})
+public class MarketPlaceReplicaRoutingJpaTests {
+	private static final Logger logger = LoggerFactory.getLogger(MarketPlaceReplicaRoutingJpaTests.class);
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private ProductCatalog productCatalog;
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	private Product product;
+
+	@BeforeEach
+	public void setUp() {
+		logger.info("Seeding a product for the JPA replica routing tests");
+		product = productRepository.save(new Product(0L, "Replica " + UUID.randomUUID().toString().substring(0, 8), BigDecimal.TEN));
+	}
+
+	@Test
+	public void testReadOnlyRepositoryCallsGoToReplica() throws Exception {
+		// Testing that the context routes the JPA transactions
+		assertInstanceOf(JpaTransactionManager.class, transactionManager);
+		assertTrue(dataSource.isWrapperFor(ReplicaRoutingDataSource.class));
+
+		// Testing that a read-only repository call is served by the replica pool
+		double replica = acquired("replica-1");
+		assertTrue(productRepository.count() > 0);
+		assertEquals(replica + 1, acquired("replica-1"));
+
+		// Testing that a read-only transaction sees the replica's session
+		TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+		readOnly.setReadOnly(true);
+		assertEquals("marketplace-replica", readOnly.execute(status -> entityManager.createNativeQuery("SELECT current_setting('application_name')").getSingleResult()));
+
+		// Testing that a write is not served by the replica pool, the primary's
+		// pool also serves the inventory reconciler so its count is not exact
+		replica = acquired("replica-1");
+		product.setPrice(BigDecimal.ONE);
+		product = productRepository.save(product);
+		assertEquals(replica, acquired("replica-1"));
+		assertEquals(0, BigDecimal.ONE.compareTo(productRepository.findById(product.getId()).orElseThrow().getPrice()));
+	}
+
+	@Test
+	public void testCacheFillsReadFromPrimary() {
+		// Testing that a cache miss of the catalog is loaded from the primary, while a plain read-only load is not
+		evict();
+		double replica = acquired("replica-1");
+		assertEquals(0, BigDecimal.TEN.compareTo(productCatalog.find(product.getId()).orElseThrow().getPrice()));
+		assertEquals(replica, acquired("replica-1"));
+		evict();
+		productRepository.findById(product.getId()).orElseThrow();
+		assertEquals(replica + 1, acquired("replica-1"));
+
+		// Testing that the misses of a batch and the cached pages are loaded from the primary
+		evict();
+		replica = acquired("replica-1");
+		assertEquals(1, productCatalog.findAllById(List.of(product.getId())).size());
+		assertEquals(product.getId(), productService.getProducts(PageCursor.encodeId(product.getId() - 1), 1).getContent().get(0).getId());
+		assertEquals(replica, acquired("replica-1"));
+
+		// Testing that a thread pinned by its client stays pinned after a cache fill
+		evict();
+		ReplicaRoutingDataSource.pin();
+		try {
+			productCatalog.find(product.getId());
+			productRepository.count();
+			assertEquals(replica, acquired("replica-1"));
+		} finally {
+			ReplicaRoutingDataSource.unpin();
+		}
+		productRepository.count();
+		assertEquals(replica + 1, acquired("replica-1"));
+	}
+
+	private void evict() {
+		productCatalog.evict(List.of(product.getId()), entityManagerFactory.getCache());
+	}
+
+	private double acquired(String pool) {
+		return meterRegistry.get("hikaricp.connections.acquire").tag("pool", pool).timer().count();
+	}
+
+	@AfterEach
+	public void tearDown() {
+		productRepository.deleteById(product.getId());
+	}
+}
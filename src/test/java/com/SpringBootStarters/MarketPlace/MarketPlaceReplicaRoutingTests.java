@@ -0,0 +1,156 @@
+package com.SpringBootStarters.MarketPlace;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.SpringBootStarters.MarketPlace.Config.ReadYourWritesFilter;
+import com.SpringBootStarters.MarketPlace.Config.ReplicaRoutingDataSource;
+import com.SpringBootStarters.MarketPlace.Config.ReplicaRoutingDataSourcePostProcessor;
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.Cookie;
+
+/**
+ * Routes transactions over an embedded primary and two embedded replicas,
+ * plus a replica that is down, and checks where each one is served. No
+ * application context is needed; MarketPlaceReplicaRoutingJpaTests covers
+ * the routing of the context's JPA transactions.
+ */
+public class MarketPlaceReplicaRoutingTests {
+	private static final Logger logger = LoggerFactory.getLogger(MarketPlaceReplicaRoutingTests.class);
+
+	private MeterRegistry meterRegistry;
+	private ReplicaRoutingDataSource routing;
+	private JdbcTemplate jdbcTemplate;
+	private TransactionTemplate readOnly;
+	private TransactionTemplate readWrite;
+
+	@BeforeEach
+	public void setUp() {
+		logger.info("Starting embedded databases for the replica routing tests");
+		String suffix = UUID.randomUUID().toString().substring(0, 8);
+		HikariDataSource primary = new HikariDataSource();
+		primary.setJdbcUrl(embedded("primary", suffix));
+		primary.setUsername("sa");
+		String replica1 = embedded("replica-1", suffix);
+		String replica2 = embedded("replica-2", suffix);
+		String down = "jdbc:h2:tcp://localhost:1/down";
+		meterRegistry = new SimpleMeterRegistry();
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+		beanFactory.registerSingleton("meterRegistry", meterRegistry);
+		ReplicaRoutingDataSourcePostProcessor postProcessor = new ReplicaRoutingDataSourcePostProcessor(List.of(replica1, replica2, down), "sa", "", 2,
+				Duration.ofMillis(250), Duration.ofMillis(500), beanFactory.getBeanProvider(MeterRegistry.class));
+		routing = (ReplicaRoutingDataSource) postProcessor.postProcessAfterInitialization(primary, "dataSource");
+		jdbcTemplate = new JdbcTemplate(routing);
+		DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(routing);
+		readWrite = new TransactionTemplate(transactionManager);
+		readOnly = new TransactionTemplate(transactionManager);
+		readOnly.setReadOnly(true);
+	}
+
+	@Test
+	public void testReadsGoToReplicas() throws Exception {
+		// Testing that writes and reads outside a transaction go to the primary
+		assertEquals("primary", readWrite.execute(status -> node()));
+		assertEquals("primary", node());
+
+		// Testing that read-only transactions take turns on the replicas and skip the one that is down
+		Set<String> nodes = new HashSet<>();
+		for (int i = 0; i < 6; i++)
+			nodes.add(readOnly.execute(status -> node()));
+		assertEquals(Set.of("replica-1", "replica-2"), nodes);
+		assertEquals(1.0, meterRegistry.get("marketplace.datasource.replica.ejections").counter().count());
+		assertEquals(2.0, meterRegistry.get("marketplace.datasource.replicas.available").gauge().value());
+
+		// Testing that an ejected replica is tried again after the ejection period
+		Thread.sleep(600);
+		assertEquals(3.0, meterRegistry.get("marketplace.datasource.replicas.available").gauge().value());
+		for (int i = 0; i < 3; i++)
+			assertTrue(readOnly.execute(status -> node()).startsWith("replica-"));
+		assertEquals(2.0, meterRegistry.get("marketplace.datasource.replica.ejections").counter().count());
+
+		// Testing that every replica pool publishes its metrics
+		assertNotNull(meterRegistry.find("hikaricp.connections").tag("pool", "replica-1").gauge());
+		assertNotNull(meterRegistry.find("hikaricp.connections").tag("pool", "replica-2").gauge());
+
+		// Testing that a pinned thread reads from the primary
+		ReplicaRoutingDataSource.pin();
+		try {
+			assertEquals("primary", readOnly.execute(status -> node()));
+		} finally {
+			ReplicaRoutingDataSource.unpin();
+		}
+	}
+
+	@Test
+	public void testClientsReadTheirWrites() throws Exception {
+		ReadYourWritesFilter filter = new ReadYourWritesFilter(List.of("jdbc:h2:mem:replica"), Duration.ofSeconds(5));
+		AtomicReference<String> served = new AtomicReference<>();
+
+		// Testing that a write request is pinned to the primary and pins its client
+		MockHttpServletRequest write = new MockHttpServletRequest("POST", "/api/v1/orders/create/1");
+		MockHttpServletResponse writeResponse = new MockHttpServletResponse();
+		filter.doFilter(write, writeResponse, (request, response) -> served.set(readOnly.execute(status -> node())));
+		assertEquals("primary", served.get());
+		String setCookie = writeResponse.getHeader(HttpHeaders.SET_COOKIE);
+		assertTrue(setCookie.startsWith(ReadYourWritesFilter.COOKIE + "="));
+
+		// Testing that the next read of the client is served by the primary
+		MockHttpServletRequest read = new MockHttpServletRequest("GET", "/api/v1/orders/1");
+		read.setCookies(new Cookie(ReadYourWritesFilter.COOKIE, setCookie.substring(ReadYourWritesFilter.COOKIE.length() + 1, setCookie.indexOf(';'))));
+		filter.doFilter(read, new MockHttpServletResponse(), (request, response) -> served.set(readOnly.execute(status -> node())));
+		assertEquals("primary", served.get());
+
+		// Testing that reads of other clients, or after the window, go to a replica
+		filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/orders/1"), new MockHttpServletResponse(), (request, response) -> served.set(readOnly.execute(status -> node())));
+		assertTrue(served.get().startsWith("replica-"));
+		MockHttpServletRequest expired = new MockHttpServletRequest("GET", "/api/v1/orders/1");
+		expired.setCookies(new Cookie(ReadYourWritesFilter.COOKIE, Long.toString(System.currentTimeMillis() - 1)));
+		filter.doFilter(expired, new MockHttpServletResponse(), (request, response) -> served.set(readOnly.execute(status -> node())));
+		assertTrue(served.get().startsWith("replica-"));
+	}
+
+	private String node() {
+		return jdbcTemplate.queryForObject("SELECT name FROM node", String.class);
+	}
+
+	private static String embedded(String name, String suffix) {
+		String url = "jdbc:h2:mem:" + name + "-" + suffix + ";DB_CLOSE_DELAY=-1";
+		DataSource dataSource = new DriverManagerDataSource(url, "sa", "");
+		JdbcTemplate template = new JdbcTemplate(dataSource);
+		template.execute("CREATE TABLE node (name VARCHAR(20))");
+		template.update("INSERT INTO node (name) VALUES (?)", name);
+		return url;
+	}
+
+	@AfterEach
+	public void tearDown() {
+		routing.close();
+	}
+}
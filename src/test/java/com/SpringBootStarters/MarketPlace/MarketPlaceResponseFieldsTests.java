@@ -0,0 +1,125 @@
+package com.SpringBootStarters.MarketPlace;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.SpringBootStarters.MarketPlace.DTOs.CustomerViewDto;
+import com.SpringBootStarters.MarketPlace.DTOs.OrderViewDto;
+import com.SpringBootStarters.MarketPlace.DTOs.ProductViewDto;
+import com.SpringBootStarters.MarketPlace.Entities.Customer;
+import com.SpringBootStarters.MarketPlace.Entities.Orders;
+import com.SpringBootStarters.MarketPlace.Entities.Product;
+import com.SpringBootStarters.MarketPlace.Utils.Money;
+import com.SpringBootStarters.MarketPlace.Utils.ResponseFields;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Writes an order with many products through the application ObjectMapper,
+ * as the entity and as its full and summary views, and compares their sizes
+ * and serialization times.
+ */
+@SpringBootTest
+public class MarketPlaceResponseFieldsTests {
+	private static final Logger logger = LoggerFactory.getLogger(MarketPlaceResponseFieldsTests.class);
+	private static final int PRODUCT_COUNT = 200;
+	private static final int ITERATIONS = 2000;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	private Orders order;
+
+	@BeforeEach
+	public void setUp() {
+		order = new Orders();
+		order.setId(1L);
+		order.setTotalAmount(BigDecimal.valueOf(150));
+		order.setCustomer(new Customer(1L, "John", "Doe", "doe@example.com", 25));
+		for (int i = 0; i < PRODUCT_COUNT; i++)
+			order.getProducts().add(new Product(i + 1, "Product " + i, BigDecimal.valueOf(1000 + i * 37L, Money.SCALE)));
+	}
+
+	@Test
+	public void testSummaryIsSmallerThanTheFullOrder() throws Exception {
+		OrderViewDto full = OrderViewDto.of(order, OrderViewDto.FULL);
+		OrderViewDto summary = OrderViewDto.of(order, fields(ResponseFields.SUMMARY, null));
+
+		// Testing that the full view writes the entity and the summary a fraction of it
+		JsonNode entityJson = objectMapper.readTree(objectMapper.writeValueAsBytes(order));
+		JsonNode fullJson = objectMapper.readTree(objectMapper.writeValueAsBytes(full));
+		assertEquals(entityJson.get("products").size(), fullJson.get("products").size());
+		assertEquals(entityJson.get("customer").get("email"), fullJson.get("customer").get("email"));
+		int entityBytes = measure("entity", order);
+		measure("full view", full);
+		int summaryBytes = measure("summary view", summary);
+		assertTrue(summaryBytes * 50 < entityBytes);
+
+		// Testing that the summary leaves out the associations and never reads them
+		assertEquals(Set.of("id", "date", "totalAmount", "customerId"), names(objectMapper.readTree(objectMapper.writeValueAsBytes(summary))));
+		Orders unloaded = new Orders(2L) {
+			@Override
+			public Set<Product> getProducts() {
+				throw new IllegalStateException("Products read by a summary");
+			}
+		};
+		assertEquals(2L, objectMapper.readTree(objectMapper.writeValueAsBytes(OrderViewDto.of(unloaded, fields(ResponseFields.SUMMARY, null)))).get("id").asLong());
+	}
+
+	@Test
+	public void testSparseFieldsets() throws Exception {
+		// Testing that fields= writes the listed properties only, nested views included
+		JsonNode order = objectMapper.readTree(objectMapper.writeValueAsBytes(OrderViewDto.of(this.order, fields(null, "id, customer"))));
+		assertEquals(Set.of("id", "customer"), names(order));
+		assertEquals(CustomerViewDto.ALL, names(order.get("customer")));
+		JsonNode product = objectMapper.readTree(objectMapper.writeValueAsBytes(ProductViewDto.of(new Product(1L, "Shoe", BigDecimal.TEN),
+				ResponseFields.of(null, "price", ProductViewDto.SUMMARY, ProductViewDto.ALL))));
+		assertEquals(Set.of("price"), names(product));
+
+		// Testing that fields= takes precedence over view=
+		assertFalse(fields(ResponseFields.SUMMARY, "products").includes("id"));
+
+		// Testing unknown fields and views
+		IllegalArgumentException field = assertThrowsExactly(IllegalArgumentException.class, () -> fields(null, "id,password"));
+		assertTrue(field.getMessage().contains("Unknown field : password"));
+		IllegalArgumentException view = assertThrowsExactly(IllegalArgumentException.class, () -> fields("compact", null));
+		assertTrue(view.getMessage().contains("Unsupported view : compact"));
+	}
+
+	private int measure(String name, Object value) throws Exception {
+		int bytes = objectMapper.writeValueAsBytes(value).length;
+		for (int i = 0; i < ITERATIONS; i++)
+			objectMapper.writeValueAsBytes(value);
+		long start = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++)
+			objectMapper.writeValueAsBytes(value);
+		logger.info("Order with {} products as the {}: {} bytes, {} us per serialization", PRODUCT_COUNT, name, bytes, (System.nanoTime() - start) / ITERATIONS / 1000.0);
+		return bytes;
+	}
+
+	private static ResponseFields fields(String view, String fields) {
+		return ResponseFields.of(view, fields, OrderViewDto.SUMMARY, OrderViewDto.ALL);
+	}
+
+	private static Set<String> names(JsonNode node) {
+		List<String> names = new ArrayList<>();
+		for (Iterator<String> it = node.fieldNames(); it.hasNext();)
+			names.add(it.next());
+		return Set.copyOf(names);
+	}
+}
@@ -0,0 +1,68 @@
+package com.SpringBootStarters.MarketPlace;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Checks that the migrations own the schema and that the query of each
+ * repository access path can be answered from its index. Sequential scans
+ * are disabled while planning, the test tables being too small for the
+ * planner to prefer an index on its own.
+ */
+@SpringBootTest
+public class MarketPlaceSchemaMigrationTests {
+	private static final Logger logger = LoggerFactory.getLogger(MarketPlaceSchemaMigrationTests.class);
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@BeforeAll
+	public static void setUp() {
+		logger.info("Starting schema migration tests");
+	}
+
+	@Test
+	public void testMigrationsAreApplied() {
+		// Testing that every migration ran and succeeded
+		List<String> versions = jdbcTemplate.queryForList("SELECT version FROM flyway_schema_history WHERE type = 'SQL' AND success ORDER BY installed_rank", String.class);
+		assertEquals(List.of("1", "2"), versions);
+	}
+
+	@Test
+	public void testAccessPathsUseIndexes() {
+		// Testing the customer and product finders
+		assertIndex("customer_email_key", "SELECT id FROM customer WHERE email = 'doe@example.com'");
+		assertIndex("product_product_name_key", "SELECT id FROM product WHERE product_name = 'Shoe'");
+
+		// Testing the pages of orders, by customer, by date and by product
+		assertIndex("orders_customer_id_id_idx", "SELECT id FROM orders WHERE customer_id = 1 AND id > 0 ORDER BY id LIMIT 20");
+		assertIndex("orders_date_id_idx", "SELECT id FROM orders WHERE date > '2024-01-01' OR (date = '2024-01-01' AND id > 0) ORDER BY date, id LIMIT 20");
+		assertIndex("order_product_product_id_order_id_idx", "SELECT o.id FROM orders o JOIN order_product op ON op.order_id = o.id WHERE op.product_id = 1 AND o.id > 0 ORDER BY o.id LIMIT 20");
+
+		// Testing the products of an order and the leases of a product
+		assertIndex("order_product_pkey", "SELECT product_id FROM order_product WHERE order_id = 1");
+		assertIndex("inventory_lease_product_id_idx", "SELECT sum(units) FROM inventory_lease WHERE product_id = 1");
+	}
+
+	private void assertIndex(String index, String query) {
+		String plan = transactionTemplate.execute(status -> {
+			jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+			return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + query, String.class));
+		});
+		assertTrue(plan.contains(index), "Expected " + index + " in the plan of " + query + ":\n" + plan);
+	}
+}
@@ -0,0 +1,118 @@
+package com.SpringBootStarters.MarketPlace;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.SpringBootStarters.MarketPlace.Entities.Customer;
+import com.SpringBootStarters.MarketPlace.Entities.Product;
+import com.SpringBootStarters.MarketPlace.Repositories.CustomerRepository;
+import com.SpringBootStarters.MarketPlace.Repositories.ProductRepository;
+import com.SpringBootStarters.MarketPlace.Utils.SqlStatistics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Counts the JDBC statements of repeated customer and product lookups to
+ * check they are served by the second-level and query caches.
+ */
+@SpringBootTest
+public class MarketPlaceSecondLevelCacheTests {
+	private static final Logger logger = LoggerFactory.getLogger(MarketPlaceSecondLevelCacheTests.class);
+
+	@Autowired
+	private CustomerRepository customerRepository;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	private String suffix;
+	private List<Customer> customers;
+	private Product product;
+
+	@BeforeEach
+	public void setUp() {
+		logger.info("Seeding a customer and a product for the second-level cache tests");
+		suffix = UUID.randomUUID().toString().substring(0, 8);
+		customers = new ArrayList<>();
+		customers.add(customerRepository.save(new Customer("John", "Doe", "cache-" + suffix + "@example.com", 25)));
+		product = productRepository.save(new Product(0L, "Cached product " + suffix, BigDecimal.TEN));
+		entityManagerFactory.getCache().evictAll();
+	}
+
+	@Test
+	public void testEntitiesAreReadFromTheCache() {
+		long customerId = customers.get(0).getId();
+
+		// Testing that the first lookup loads the entity and the next ones issue no SQL
+		assertEquals(1, statements(() -> customerRepository.findById(customerId)));
+		assertEquals(0, statements(() -> customerRepository.findById(customerId)));
+		assertEquals(1, statements(() -> productRepository.findById(product.getId())));
+		assertEquals(0, statements(() -> productRepository.findById(product.getId())));
+
+		// Testing that an update is seen by the cached reads
+		Customer customer = customerRepository.findById(customerId).orElseThrow();
+		customer.setAge(26);
+		customers.set(0, customerRepository.save(customer));
+		assertEquals(0, statements(() -> assertEquals(26, customerRepository.findById(customerId).orElseThrow().getAge())));
+
+		// Testing that the hit ratio of the regions is published
+		assertTrue(meterRegistry.get("marketplace.cache.region.hit.ratio").tag("region", Customer.CACHE_REGION).gauge().value() > 0);
+		assertTrue(meterRegistry.get("cache.gets").tags("cache", Product.CACHE_REGION, "cache.manager", "hibernate", "result", "hit").functionCounter().count() >= 1);
+	}
+
+	@Test
+	public void testNaturalKeyFindersUseTheQueryCache() {
+		String email = customers.get(0).getEmail();
+		String missing = "missing-" + suffix + "@example.com";
+
+		// Testing that a repeated finder is answered by the query cache, absent results included
+		assertEquals(1, statements(() -> customerRepository.findByEmail(email)));
+		assertEquals(0, statements(() -> assertEquals(customers.get(0).getId(), customerRepository.findByEmail(email).orElseThrow().getId())));
+		assertEquals(1, statements(() -> customerRepository.findByEmail(missing)));
+		assertEquals(0, statements(() -> assertTrue(customerRepository.findByEmail(missing).isEmpty())));
+		assertEquals(1, statements(() -> productRepository.findByProductName(product.getProductName())));
+		assertEquals(0, statements(() -> productRepository.findByProductName(product.getProductName())));
+
+		// Testing that a write to the table invalidates its cached queries only
+		customers.add(customerRepository.save(new Customer("Jane", "Doe", missing, 30)));
+		assertEquals(1, statements(() -> assertEquals(customers.get(1).getId(), customerRepository.findByEmail(missing).orElseThrow().getId())));
+		assertEquals(0, statements(() -> customerRepository.findByEmail(missing)));
+		assertEquals(0, statements(() -> productRepository.findByProductName(product.getProductName())));
+	}
+
+	private static int statements(Runnable lookup) {
+		SqlStatistics statistics = SqlStatistics.begin();
+		try {
+			lookup.run();
+		} finally {
+			SqlStatistics.end();
+		}
+		return statistics.getStatements();
+	}
+
+	@AfterEach
+	public void tearDown() {
+		customerRepository.deleteAll(customers);
+		productRepository.delete(product);
+	}
+}
@@ -0,0 +1,128 @@
+package com.SpringBootStarters.MarketPlace;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.SpringBootStarters.MarketPlace.Config.SqlStatisticsFilter;
+import com.SpringBootStarters.MarketPlace.Config.SqlStatisticsFilter.EndpointSqlStatistics;
+import com.SpringBootStarters.MarketPlace.Controllers.ProductController;
+import com.SpringBootStarters.MarketPlace.Entities.Product;
+import com.SpringBootStarters.MarketPlace.Repositories.ProductRepository;
+import com.SpringBootStarters.MarketPlace.Utils.SqlStatistics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.servlet.FilterChain;
+
+/**
+ * Runs requests through the SQL statistics filter against the proxied data
+ * source and checks the statements, rows, budget and repeated statements
+ * recorded for the controller method.
+ */
+@SpringBootTest
+public class MarketPlaceSqlStatisticsTests {
+	private static final Logger logger = LoggerFactory.getLogger(MarketPlaceSqlStatisticsTests.class);
+	private static final String HANDLER = "ProductController.getProduct";
+
+	@Autowired
+	private ProductController productController;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private MeterRegistry meterRegistry;
+	private SqlStatisticsFilter filter;
+	private List<Product> products;
+
+	@BeforeEach
+	public void setUp() {
+		logger.info("Seeding products for the SQL statistics tests");
+		String suffix = UUID.randomUUID().toString().substring(0, 8);
+		List<Product> seeded = new ArrayList<>();
+		for (int i = 0; i < 3; i++)
+			seeded.add(new Product(0L, "Statistics product " + i + " " + suffix, BigDecimal.TEN));
+		products = productRepository.saveAll(seeded);
+		entityManagerFactory.getCache().evictAll();
+		meterRegistry = new SimpleMeterRegistry();
+		filter = new SqlStatisticsFilter(5, 3, meterRegistry);
+	}
+
+	@Test
+	public void testStatementsAreCountedPerHandler() throws Exception {
+		// Testing that statements outside a request are not counted
+		assertNull(SqlStatistics.current());
+
+		// Testing the statements and rows of a request that loads each product by id
+		run("/api/v1/products/1", (request, response) -> {
+			jdbcTemplate.queryForList("SELECT id FROM product WHERE id IN (?, ?, ?)", Long.class, products.get(0).getId(), products.get(1).getId(), products.get(2).getId());
+			for (Product product : products)
+				jdbcTemplate.queryForObject("SELECT product_name FROM product WHERE id = ?", String.class, product.getId());
+		});
+		EndpointSqlStatistics statistics = filter.getStatistics().get(HANDLER);
+		assertEquals(1, statistics.requests());
+		assertEquals(4, statistics.statements());
+		assertEquals(6, statistics.rows());
+		assertTrue(statistics.databaseMillis() > 0);
+		assertEquals(0, statistics.overBudget());
+		assertTrue(statistics.repeatedStatement().contains("SELECT product_name FROM product WHERE id = ?"));
+
+		// Testing that Hibernate statements are counted and the budget is enforced
+		run("/api/v1/products/1", (request, response) -> {
+			for (Product product : products) {
+				productRepository.findById(product.getId());
+				jdbcTemplate.queryForObject("SELECT price FROM product WHERE id = ?", BigDecimal.class, product.getId());
+			}
+		});
+		statistics = filter.getStatistics().get(HANDLER);
+		assertEquals(2, statistics.requests());
+		assertEquals(10, statistics.statements());
+		assertEquals(6, statistics.maxStatements());
+		assertEquals(1, statistics.overBudget());
+		assertEquals(1.0, meterRegistry.get("marketplace.sql.budget.exceeded").tag("handler", HANDLER).counter().count());
+		assertEquals(2, meterRegistry.get("marketplace.sql.statements").tag("handler", HANDLER).summary().count());
+		assertEquals(10.0, meterRegistry.get("marketplace.sql.statements").tag("handler", HANDLER).summary().totalAmount());
+
+		// Testing that requests outside the API are not counted
+		run("/admin/sql", (request, response) -> jdbcTemplate.queryForObject("SELECT 1", Integer.class));
+		assertEquals(2, filter.getStatistics().get(HANDLER).requests());
+		assertNull(SqlStatistics.current());
+	}
+
+	private void run(String uri, FilterChain chain) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+		request.setAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE, new HandlerMethod(productController, ProductController.class.getMethod("getProduct", long.class, String.class, String.class, WebRequest.class)));
+		filter.doFilter(request, new MockHttpServletResponse(), chain);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		productRepository.deleteAll(products);
+	}
+}